@@ -1,22 +1,50 @@
 package com.bank;
 
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
 import com.bank.dao.BankDAO;
+import com.bank.dao.IdempotencyStore;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
 import com.bank.exception.AccountException;
+import com.bank.interest.InterestAccrualJob;
 import com.bank.model.Account;
-import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
 import com.bank.model.User;
+import com.bank.reconcile.ReconciliationJob;
+import com.bank.reconcile.ReconciliationReport;
+import com.bank.server.BankServer;
+import com.bank.summary.DailySummaryJob;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Scanner;
 
 public class App {
     private static final Scanner scanner = new Scanner(System.in);
-    private static final BankDAO bankDAO = new BankDAO();
+    private static final IdempotencyStore idempotencyKeys = new IdempotencyStore(null);
+    private static final BankDAO bankDAO = new JdbcBankDAO((ConnectionPool) null, new JdbcBankDAOConfig().setIdempotencyStore(idempotencyKeys));
     private static User currentUser = null;
+    private static final int HISTORY_PAGE_SIZE = 20;
+    private static final long SUMMARY_INTERVAL_SECONDS = 60;
+    private static final long IDEMPOTENCY_PURGE_INTERVAL_MINUTES = 60;
 
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : 8080);
+            return;
+        }
+        if (args.length > 1 && args[0].equals("--accrue-interest")) {
+            accrueInterest(Integer.parseInt(args[1]), args.length > 2 ? LocalDate.parse(args[2]) : LocalDate.now());
+            return;
+        }
+        if (args.length > 0 && args[0].equals("--reconcile")) {
+            reconcile();
+            return;
+        }
         System.out.println("Welcome to the Online Banking System! 🏦");
         while (true) {
             if (currentUser == null) {
@@ -27,6 +55,62 @@ public class App {
         }
     }
 
+    // Network mode: serves many customers over HTTP instead of one console session, keeps the
+    // daily summaries current so statements do not fall back to reading the whole log, and purges
+    // idempotency keys past their retention so the table does not grow forever.
+    private static void serve(int port) {
+        // Unless given with -D, keep thousands of client connections open; read when the first server is created.
+        if (System.getProperty(BankServer.MAX_IDLE_CONNECTIONS_PROPERTY) == null) {
+            System.setProperty(BankServer.MAX_IDLE_CONNECTIONS_PROPERTY, String.valueOf(BankServer.DEFAULT_MAX_IDLE_CONNECTIONS));
+        }
+        try {
+            int maxInFlight = Database.getPool().getConfig().getMaxSize();
+            BankServer server = new BankServer(bankDAO, port, maxInFlight, 5_000);
+            DailySummaryJob summaries = new DailySummaryJob(null);
+            server.start();
+            summaries.start(SUMMARY_INTERVAL_SECONDS);
+            idempotencyKeys.start(IDEMPOTENCY_PURGE_INTERVAL_MINUTES);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.close();
+                summaries.close();
+                idempotencyKeys.close();
+                Database.shutdown();
+            }));
+            System.out.printf("Online Banking System listening on port %d.%n", server.getPort());
+        } catch (IOException e) {
+            System.err.println("Could not start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    // Batch mode: end-of-day interest for every savings account, resumable if interrupted.
+    private static void accrueInterest(int annualRateBasisPoints, LocalDate accrualDate) {
+        try {
+            System.out.println(new InterestAccrualJob(null, annualRateBasisPoints).run(accrualDate));
+        } catch (SQLException e) {
+            System.err.println("Interest accrual failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            Database.shutdown();
+        }
+    }
+
+    // Batch mode: checks balances against the transactions written since the last run; exits 2 on a mismatch.
+    private static void reconcile() {
+        int status = 0;
+        try {
+            ReconciliationReport report = new ReconciliationJob(null).run();
+            System.out.println(report);
+            status = report.isClean() ? 0 : 2;
+        } catch (SQLException e) {
+            System.err.println("Reconciliation failed: " + e.getMessage());
+            status = 1;
+        } finally {
+            Database.shutdown();
+        }
+        System.exit(status);
+    }
+
     private static void showAuthMenu() {
         System.out.println("\n1. Login");
         System.out.println("2. Register");
@@ -38,7 +122,7 @@ public class App {
         switch (choice) {
             case 1: login(); break;
             case 2: register(); break;
-            case 3: System.exit(0);
+            case 3: Database.shutdown(); System.exit(0);
             default: System.out.println("Invalid option. Please try again.");
         }
     }
@@ -126,8 +210,8 @@ public class App {
         scanner.nextLine();
         
         String accountType = (typeChoice == 1) ? "Savings" : "Current";
-        bankDAO.createAccount(currentUser.getUserId(), accountType);
-        System.out.println(accountType + " account created successfully!");
+        Account account = bankDAO.createAccount(currentUser.getUserId(), accountType);
+        System.out.println(accountType + " account " + account.getAccountNumber() + " created successfully!");
     }
     
     // --- Transactions ---
@@ -193,13 +277,19 @@ public class App {
         Account acc = selectAccount();
         if (acc == null) return;
         
-        List<Transaction> transactions = bankDAO.getTransactionHistory(acc.getAccountId());
-        if (transactions.isEmpty()) {
+        TransactionPage page = bankDAO.getTransactionHistory(acc.getAccountId(), null, HISTORY_PAGE_SIZE);
+        if (page.getTransactions().isEmpty()) {
             System.out.println("No transaction history for this account.");
             return;
         }
         
         System.out.println("\n--- Transaction History for " + acc.getAccountNumber() + " ---");
-        transactions.forEach(System.out::println);
+        while (true) {
+            page.getTransactions().forEach(System.out::println);
+            if (!page.hasMore()) break;
+            System.out.print("Show more? (y/n): ");
+            if (!scanner.nextLine().trim().equalsIgnoreCase("y")) break;
+            page = bankDAO.getTransactionHistory(acc.getAccountId(), page.getNextCursor(), HISTORY_PAGE_SIZE);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,365 @@
+package com.bank.archive;
+
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Cold tier for the {@code transactions} table: one immutable file per calendar month in a local
+ * directory.
+ * <p>
+ * A file holds one compressed block per account, and within a block each column (id, type,
+ * amount, balance after, related account, date) is stored contiguously, newest row first, with
+ * ids and dates as differences from the previous row so that deflate sees small repeating values. A
+ * footer indexes the blocks by account id, so reading one account's month costs one positioned
+ * read and one inflate, independent of how many other accounts the month contains. Files are
+ * written once under a temporary name and then renamed into place; published files are never
+ * modified.
+ */
+public class TransactionArchive {
+    private static final int MAGIC = 0x42545841; // "BTXA"
+    private static final int VERSION = 1;
+    private static final String SUFFIX = ".txa";
+    private static final String PENDING_SUFFIX = ".txa.tmp";
+    private static final String[] TYPES = {"Deposit", "Withdrawal", "Transfer", "Interest"};
+
+    private final Path directory;
+    private final Map<YearMonth, BlockIndex> indexes = new ConcurrentHashMap<>();
+    private volatile List<YearMonth> months;
+
+    public TransactionArchive(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.months = scan(SUFFIX);
+    }
+
+    /** Published months, newest first. */
+    public List<YearMonth> months() {
+        return months;
+    }
+
+    /** One account's archived rows for a month, newest first; empty if it had none. */
+    public List<Transaction> read(YearMonth month, int accountId) throws IOException {
+        BlockIndex index = index(month);
+        int slot = Arrays.binarySearch(index.accountIds, accountId);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+        int rows = index.rowCounts[slot];
+        byte[] compressed = new byte[index.lengths[slot]];
+        try (FileChannel channel = FileChannel.open(file(month, SUFFIX), StandardOpenOption.READ)) {
+            readFully(channel, ByteBuffer.wrap(compressed), index.offsets[slot]);
+        }
+        ByteBuffer block = ByteBuffer.wrap(inflate(compressed, rows * ROW_BYTES));
+
+        int[] ids = new int[rows];
+        byte[] types = new byte[rows];
+        long[] amounts = new long[rows];
+        long[] balances = new long[rows];
+        for (int i = 0; i < rows; i++) ids[i] = block.getInt() + (i > 0 ? ids[i - 1] : 0);
+        block.get(types);
+        for (int i = 0; i < rows; i++) amounts[i] = block.getLong();
+        for (int i = 0; i < rows; i++) balances[i] = block.getLong();
+        block.position(block.position() + rows * Integer.BYTES); // related account ids are not part of Transaction
+        List<Transaction> transactions = new ArrayList<>(rows);
+        long date = 0;
+        for (int i = 0; i < rows; i++) {
+            date += block.getLong();
+            transactions.add(new Transaction(ids[i], TYPES[types[i]], Money.ofCents(amounts[i]),
+                    Money.ofCents(balances[i]), fromMicros(date)));
+        }
+        return transactions;
+    }
+
+    // --- Writing ---
+    /**
+     * Starts a pending file for {@code month}. Rows must arrive grouped by account id (ascending)
+     * and, within an account, newest first.
+     */
+    Writer openWriter(YearMonth month) throws IOException {
+        return new Writer(month);
+    }
+
+    /** Months with a fully written file that has not been published yet. */
+    List<YearMonth> pendingMonths() throws IOException {
+        return scan(PENDING_SUFFIX);
+    }
+
+    /** Makes a pending month visible to readers. */
+    synchronized void publish(YearMonth month) throws IOException {
+        Files.move(file(month, PENDING_SUFFIX), file(month, SUFFIX), StandardCopyOption.ATOMIC_MOVE);
+        indexes.remove(month);
+        months = scan(SUFFIX);
+    }
+
+    void discard(YearMonth month) throws IOException {
+        Files.deleteIfExists(file(month, PENDING_SUFFIX));
+    }
+
+    private static final int ROW_BYTES = Integer.BYTES + 1 + Long.BYTES * 2 + Integer.BYTES + Long.BYTES;
+
+    /** Writes one month file: account blocks, then the block index and footer. */
+    final class Writer implements AutoCloseable {
+        private final YearMonth month;
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        private final ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        private final DataOutputStream index = new DataOutputStream(indexBytes);
+        private long position;
+        private int accounts;
+        private int rowCount;
+        private boolean finished;
+
+        // Columns of the account currently being collected.
+        private int currentAccount = Integer.MIN_VALUE;
+        private int[] ids = new int[64];
+        private byte[] types = new byte[64];
+        private long[] amounts = new long[64];
+        private long[] balances = new long[64];
+        private int[] related = new int[64];
+        private long[] dates = new long[64];
+        private int rows;
+
+        private Writer(YearMonth month) throws IOException {
+            this.month = month;
+            this.out = Files.newOutputStream(file(month, PENDING_SUFFIX));
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(MAGIC);
+            header.writeInt(VERSION);
+            header.writeInt(month.getYear() * 100 + month.getMonthValue());
+            position = 3 * Integer.BYTES;
+        }
+
+        /** Appends one row; {@code relatedAccountId} is 0 for none. */
+        void append(int accountId, int transactionId, String type, Money amount, int relatedAccountId,
+                    Money balanceAfter, Timestamp date) throws IOException {
+            if (accountId != currentAccount) {
+                if (accountId < currentAccount) {
+                    throw new IllegalStateException("Rows must be grouped by ascending account id.");
+                }
+                flushBlock();
+                currentAccount = accountId;
+            }
+            if (rows == ids.length) {
+                grow();
+            }
+            ids[rows] = transactionId;
+            types[rows] = typeCode(type);
+            amounts[rows] = amount.getCents();
+            balances[rows] = balanceAfter.getCents();
+            related[rows] = relatedAccountId;
+            dates[rows] = toMicros(date);
+            rows++;
+            rowCount++;
+        }
+
+        int getRowCount() {
+            return rowCount;
+        }
+
+        /** Writes the index and footer and forces the file to disk. */
+        void finish() throws IOException {
+            flushBlock();
+            index.flush();
+            DataOutputStream footer = new DataOutputStream(out);
+            indexBytes.writeTo(footer);
+            footer.writeLong(position);
+            footer.writeInt(accounts);
+            footer.writeInt(MAGIC);
+            footer.flush();
+            out.close();
+            try (FileChannel channel = FileChannel.open(file(month, PENDING_SUFFIX), StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            finished = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            deflater.end();
+            if (!finished) {
+                out.close();
+                discard(month);
+            }
+        }
+
+        private void flushBlock() throws IOException {
+            if (rows == 0) {
+                return;
+            }
+            ByteBuffer block = ByteBuffer.allocate(rows * ROW_BYTES);
+            for (int i = 0; i < rows; i++) block.putInt(i > 0 ? ids[i] - ids[i - 1] : ids[i]);
+            block.put(types, 0, rows);
+            for (int i = 0; i < rows; i++) block.putLong(amounts[i]);
+            for (int i = 0; i < rows; i++) block.putLong(balances[i]);
+            for (int i = 0; i < rows; i++) block.putInt(related[i]);
+            for (int i = 0; i < rows; i++) block.putLong(i > 0 ? dates[i] - dates[i - 1] : dates[i]);
+            byte[] compressed = deflate(block.array());
+            out.write(compressed);
+
+            index.writeInt(currentAccount);
+            index.writeLong(position);
+            index.writeInt(compressed.length);
+            index.writeInt(rows);
+            position += compressed.length;
+            accounts++;
+            rows = 0;
+        }
+
+        private byte[] deflate(byte[] input) {
+            deflater.reset();
+            deflater.setInput(input);
+            deflater.finish();
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(input.length / 4 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                buffer.write(chunk, 0, n);
+            }
+            return buffer.toByteArray();
+        }
+
+        private void grow() {
+            int size = ids.length * 2;
+            ids = Arrays.copyOf(ids, size);
+            types = Arrays.copyOf(types, size);
+            amounts = Arrays.copyOf(amounts, size);
+            balances = Arrays.copyOf(balances, size);
+            related = Arrays.copyOf(related, size);
+            dates = Arrays.copyOf(dates, size);
+        }
+    }
+
+    // --- Internals ---
+    private static final class BlockIndex {
+        final int[] accountIds;
+        final long[] offsets;
+        final int[] lengths;
+        final int[] rowCounts;
+
+        BlockIndex(int accounts) {
+            accountIds = new int[accounts];
+            offsets = new long[accounts];
+            lengths = new int[accounts];
+            rowCounts = new int[accounts];
+        }
+    }
+
+    private BlockIndex index(YearMonth month) throws IOException {
+        BlockIndex index = indexes.get(month);
+        if (index == null) {
+            index = loadIndex(month);
+            indexes.put(month, index);
+        }
+        return index;
+    }
+
+    private BlockIndex loadIndex(YearMonth month) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(month, SUFFIX), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer footer = ByteBuffer.allocate(Long.BYTES + 2 * Integer.BYTES);
+            readFully(channel, footer, size - footer.capacity());
+            footer.flip();
+            long indexOffset = footer.getLong();
+            int accounts = footer.getInt();
+            if (footer.getInt() != MAGIC) {
+                throw new IOException("Not a transaction archive: " + file(month, SUFFIX));
+            }
+            ByteBuffer entries = ByteBuffer.allocate(accounts * (Integer.BYTES * 3 + Long.BYTES));
+            readFully(channel, entries, indexOffset);
+            entries.flip();
+            BlockIndex index = new BlockIndex(accounts);
+            for (int i = 0; i < accounts; i++) {
+                index.accountIds[i] = entries.getInt();
+                index.offsets[i] = entries.getLong();
+                index.lengths[i] = entries.getInt();
+                index.rowCounts[i] = entries.getInt();
+            }
+            return index;
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated transaction archive.");
+            }
+        }
+    }
+
+    private static byte[] inflate(byte[] compressed, int size) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(compressed);
+            byte[] out = new byte[size];
+            int n = 0;
+            while (n < size && !inflater.finished()) {
+                n += inflater.inflate(out, n, size - n);
+            }
+            if (n != size) {
+                throw new IOException("Corrupt transaction archive block.");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt transaction archive block.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private List<YearMonth> scan(String suffix) throws IOException {
+        List<YearMonth> found = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "transactions-*" + suffix)) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                found.add(YearMonth.parse(name.substring("transactions-".length(), name.length() - suffix.length())));
+            }
+        }
+        found.sort(Comparator.reverseOrder());
+        return Collections.unmodifiableList(found);
+    }
+
+    private Path file(YearMonth month, String suffix) {
+        return directory.resolve("transactions-" + month + suffix);
+    }
+
+    private static byte typeCode(String type) {
+        for (byte i = 0; i < TYPES.length; i++) {
+            if (TYPES[i].equals(type)) return i;
+        }
+        throw new IllegalArgumentException("Unknown transaction type " + type);
+    }
+
+    private static long toMicros(Timestamp t) {
+        return Math.floorDiv(t.getTime(), 1000L) * 1_000_000L + t.getNanos() / 1_000;
+    }
+
+    private static Timestamp fromMicros(long micros) {
+        Timestamp t = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000L);
+        t.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1_000);
+        return t;
+    }
+}
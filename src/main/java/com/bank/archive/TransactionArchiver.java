@@ -0,0 +1,264 @@
+package com.bank.archive;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.model.Money;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves whole months of {@code transactions} out of the database into a {@link TransactionArchive},
+ * keeping only the most recent {@code hotMonths} months in the table.
+ * <p>
+ * A month is archived in four steps: its rows are streamed into a pending archive file, a
+ * {@code balance_snapshots} row is recorded for every account it touched (its last running
+ * balance in that month, so {@code getBalanceAsOf} still answers for archived instants), the rows
+ * are removed from the table and the file is published. When the table is partitioned by month
+ * (see {@link TransactionPartitions}) removal is a {@code DROP PARTITION}, which costs the same
+ * however many rows the month holds; otherwise it is a {@code DELETE} committed together with the
+ * snapshots. A pending file left behind by a crash is published if its month is already gone from
+ * the table and discarded otherwise, so a month is never lost or archived twice.
+ */
+public class TransactionArchiver implements AutoCloseable {
+    private static final int FETCH_SIZE = 1_000;
+    /** Month partitions kept ready ahead of the current month on a partitioned table. */
+    private static final int MONTHS_AHEAD = 2;
+
+    private final ConnectionPool pool;
+    private final TransactionArchive archive;
+    private final int hotMonths;
+    private final boolean partitioned;
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param pool        {@code null} to use the shared pool managed by {@link Database}
+     * @param hotMonths   months kept in the table, counting the current one
+     * @param partitioned whether the table has been partitioned with {@link TransactionPartitions}
+     */
+    public TransactionArchiver(ConnectionPool pool, TransactionArchive archive, int hotMonths, boolean partitioned) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("At least the current month must stay in the table.");
+        }
+        this.pool = pool;
+        this.archive = archive;
+        this.hotMonths = hotMonths;
+        this.partitioned = partitioned;
+    }
+
+    /** Runs {@link #runMaintenance} every {@code intervalMinutes} on a background thread. */
+    public synchronized void start(long intervalMinutes) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "transaction-archiver");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                runMaintenance(YearMonth.now());
+            } catch (SQLException | IOException e) {
+                System.err.println("Transaction archiving failed: " + e.getMessage());
+            }
+        }, 0, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Creates the partitions for the coming months (on a partitioned table) and archives every
+     * month that has fallen out of the hot window. Returns the months archived.
+     */
+    public synchronized List<YearMonth> runMaintenance(YearMonth current) throws SQLException, IOException {
+        if (partitioned) {
+            ensurePartitions(current.plusMonths(MONTHS_AHEAD));
+        }
+        return archiveBefore(current.minusMonths(hotMonths - 1));
+    }
+
+    /** Archives every month strictly before {@code cutoff}. Returns the months archived, oldest first. */
+    public synchronized List<YearMonth> archiveBefore(YearMonth cutoff) throws SQLException, IOException {
+        recover();
+        List<YearMonth> archived = new ArrayList<>();
+        YearMonth oldest = oldestHotMonth();
+        for (YearMonth month = oldest; month != null && month.isBefore(cutoff); month = month.plusMonths(1)) {
+            if (archiveMonth(month)) {
+                archived.add(month);
+            }
+        }
+        return archived;
+    }
+
+    /** Adds month partitions up to and including {@code through}. */
+    public synchronized void ensurePartitions(YearMonth through) throws SQLException {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement()) {
+            YearMonth last = null;
+            try (ResultSet rs = stmt.executeQuery(TransactionPartitions.listPartitions())) {
+                while (rs.next()) {
+                    last = TransactionPartitions.monthOf(rs.getString(1));
+                }
+            }
+            if (last == null) {
+                throw new SQLException("transactions is not partitioned by month; apply TransactionPartitions first.");
+            }
+            for (YearMonth m = last.plusMonths(1); !m.isAfter(through); m = m.plusMonths(1)) {
+                stmt.execute(TransactionPartitions.addMonth(m));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // --- Archiving ---
+    private static final class Snapshot {
+        final int accountId;
+        final Timestamp date;
+        final Money balance;
+
+        Snapshot(int accountId, Timestamp date, Money balance) {
+            this.accountId = accountId;
+            this.date = date;
+            this.balance = balance;
+        }
+    }
+
+    private boolean archiveMonth(YearMonth month) throws SQLException, IOException {
+        List<Snapshot> snapshots = new ArrayList<>();
+        try (TransactionArchive.Writer writer = archive.openWriter(month)) {
+            if (!export(month, writer, snapshots)) {
+                return false;
+            }
+            writer.finish();
+        }
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                recordSnapshots(conn, snapshots);
+                if (partitioned) {
+                    conn.commit();
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(TransactionPartitions.dropMonth(month));
+                    }
+                } else {
+                    try (PreparedStatement pstmt = conn.prepareStatement(
+                            "DELETE FROM transactions WHERE transaction_date >= ? AND transaction_date < ?")) {
+                        pstmt.setTimestamp(1, start(month));
+                        pstmt.setTimestamp(2, start(month.plusMonths(1)));
+                        pstmt.executeUpdate();
+                    }
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        archive.publish(month);
+        return true;
+    }
+
+    /** Streams the month into {@code writer}, grouped by account and newest first. Returns false if it is empty. */
+    private boolean export(YearMonth month, TransactionArchive.Writer writer, List<Snapshot> snapshots) throws SQLException, IOException {
+        String sql = "SELECT account_id, transaction_id, transaction_type, amount, related_account_id, balance_after, transaction_date "
+                + "FROM transactions WHERE transaction_date >= ? AND transaction_date < ? "
+                + "ORDER BY account_id, transaction_date DESC, transaction_id DESC";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(FETCH_SIZE);
+            pstmt.setTimestamp(1, start(month));
+            pstmt.setTimestamp(2, start(month.plusMonths(1)));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                int previousAccount = 0;
+                while (rs.next()) {
+                    int accountId = rs.getInt("account_id");
+                    Money balanceAfter = Money.of(rs.getBigDecimal("balance_after"));
+                    Timestamp date = rs.getTimestamp("transaction_date");
+                    if (snapshots.isEmpty() || accountId != previousAccount) {
+                        // The first row of each account is its newest in the month.
+                        snapshots.add(new Snapshot(accountId, date, balanceAfter));
+                        previousAccount = accountId;
+                    }
+                    writer.append(accountId, rs.getInt("transaction_id"), rs.getString("transaction_type"),
+                            Money.of(rs.getBigDecimal("amount")), rs.getInt("related_account_id"), balanceAfter, date);
+                }
+            }
+        }
+        return writer.getRowCount() > 0;
+    }
+
+    /** Replaces any snapshot already stored under the same key, so a retried month does not fail on duplicates. */
+    private static void recordSnapshots(Connection conn, List<Snapshot> snapshots) throws SQLException {
+        try (PreparedStatement delete = conn.prepareStatement(
+                     "DELETE FROM balance_snapshots WHERE account_id = ? AND snapshot_date = ?");
+             PreparedStatement insert = conn.prepareStatement(
+                     "INSERT INTO balance_snapshots (account_id, snapshot_date, balance) VALUES (?, ?, ?)")) {
+            for (Snapshot s : snapshots) {
+                delete.setInt(1, s.accountId);
+                delete.setTimestamp(2, s.date);
+                delete.addBatch();
+                insert.setInt(1, s.accountId);
+                insert.setTimestamp(2, s.date);
+                insert.setBigDecimal(3, s.balance.toBigDecimal());
+                insert.addBatch();
+            }
+            delete.executeBatch();
+            insert.executeBatch();
+        }
+    }
+
+    /** Settles pending files left by an interrupted run. */
+    private void recover() throws SQLException, IOException {
+        for (YearMonth month : archive.pendingMonths()) {
+            if (hasHotRows(month)) {
+                archive.discard(month);
+            } else {
+                archive.publish(month);
+            }
+        }
+    }
+
+    private YearMonth oldestHotMonth() throws SQLException {
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(transaction_date) FROM transactions")) {
+            Timestamp oldest = rs.next() ? rs.getTimestamp(1) : null;
+            return oldest == null ? null : YearMonth.from(oldest.toLocalDateTime());
+        }
+    }
+
+    private boolean hasHotRows(YearMonth month) throws SQLException {
+        String sql = "SELECT 1 FROM transactions WHERE transaction_date >= ? AND transaction_date < ? LIMIT 1";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, start(month));
+            pstmt.setTimestamp(2, start(month.plusMonths(1)));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    private static Timestamp start(YearMonth month) {
+        return Timestamp.valueOf(month.atDay(1).atStartOfDay());
+    }
+
+    private Connection getConnection() throws SQLException {
+        return pool != null ? pool.getConnection() : Database.getConnection();
+    }
+}
@@ -0,0 +1,73 @@
+package com.bank.archive;
+
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL DDL for monthly range partitioning of {@code transactions} on {@code transaction_date}.
+ * <p>
+ * MySQL requires every unique key of a partitioned table to include the partitioning column and
+ * does not allow foreign keys on it, so {@link #prepareTable()} widens the primary key to
+ * (transaction_id, transaction_date) and drops the foreign key on account_id before
+ * {@link #partitionBy} is applied. The embedded test database has no partitioning, so these
+ * statements are only issued against MySQL.
+ */
+public final class TransactionPartitions {
+    static final String OVERFLOW = "pmax";
+
+    private TransactionPartitions() {
+    }
+
+    /** {@code p202401} for January 2024. */
+    public static String partitionName(YearMonth month) {
+        return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+    }
+
+    /** One-off statements that make the table partitionable. */
+    public static List<String> prepareTable() {
+        List<String> ddl = new ArrayList<>();
+        ddl.add("ALTER TABLE transactions DROP FOREIGN KEY transactions_ibfk_1");
+        ddl.add("ALTER TABLE transactions DROP PRIMARY KEY, ADD PRIMARY KEY (transaction_id, transaction_date)");
+        return ddl;
+    }
+
+    /** Partitions the table into one partition per month from {@code first} to {@code last}, plus an overflow partition. */
+    public static String partitionBy(YearMonth first, YearMonth last) {
+        StringBuilder sql = new StringBuilder("ALTER TABLE transactions PARTITION BY RANGE (UNIX_TIMESTAMP(transaction_date)) (");
+        for (YearMonth m = first; !m.isAfter(last); m = m.plusMonths(1)) {
+            sql.append(definition(m)).append(", ");
+        }
+        return sql.append(overflow()).append(')').toString();
+    }
+
+    /** Splits {@code month} off the front of the overflow partition; months must be added in order. */
+    public static String addMonth(YearMonth month) {
+        return "ALTER TABLE transactions REORGANIZE PARTITION " + OVERFLOW + " INTO ("
+                + definition(month) + ", " + overflow() + ")";
+    }
+
+    public static String dropMonth(YearMonth month) {
+        return "ALTER TABLE transactions DROP PARTITION " + partitionName(month);
+    }
+
+    /** Lists the month partitions that currently exist, oldest first. */
+    static String listPartitions() {
+        return "SELECT partition_name FROM information_schema.partitions "
+                + "WHERE table_schema = DATABASE() AND table_name = 'transactions' AND partition_name <> '" + OVERFLOW + "' "
+                + "ORDER BY partition_ordinal_position";
+    }
+
+    static YearMonth monthOf(String partitionName) {
+        return YearMonth.of(Integer.parseInt(partitionName.substring(1, 5)), Integer.parseInt(partitionName.substring(5, 7)));
+    }
+
+    private static String definition(YearMonth month) {
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                + month.plusMonths(1).atDay(1) + " 00:00:00'))";
+    }
+
+    private static String overflow() {
+        return "PARTITION " + OVERFLOW + " VALUES LESS THAN MAXVALUE";
+    }
+}
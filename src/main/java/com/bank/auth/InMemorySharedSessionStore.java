@@ -0,0 +1,31 @@
+package com.bank.auth;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link SharedSessionStore} held in this JVM: a stand-in for an external store (a cache server
+ * or a database table) that lets several {@link SessionStore}s in one process behave like the
+ * nodes of a multi-node deployment, e.g. in tests.
+ */
+public class InMemorySharedSessionStore implements SharedSessionStore {
+    private final ConcurrentHashMap<String, SessionRecord> records = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(String token, SessionRecord record) {
+        records.put(token, record);
+    }
+
+    @Override
+    public SessionRecord load(String token) {
+        return records.get(token);
+    }
+
+    @Override
+    public void delete(String token) {
+        records.remove(token);
+    }
+
+    public int size() {
+        return records.size();
+    }
+}
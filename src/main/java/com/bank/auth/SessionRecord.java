@@ -0,0 +1,20 @@
+package com.bank.auth;
+
+import com.bank.model.User;
+
+/** The state of one session as held in a {@link SharedSessionStore}. Times are epoch milliseconds. */
+public final class SessionRecord {
+    private final User user;
+    private final long createdAtMillis;
+    private final long lastSeenMillis;
+
+    public SessionRecord(User user, long createdAtMillis, long lastSeenMillis) {
+        this.user = user;
+        this.createdAtMillis = createdAtMillis;
+        this.lastSeenMillis = lastSeenMillis;
+    }
+
+    public User getUser() { return user; }
+    public long getCreatedAtMillis() { return createdAtMillis; }
+    public long getLastSeenMillis() { return lastSeenMillis; }
+}
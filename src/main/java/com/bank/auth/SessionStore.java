@@ -0,0 +1,221 @@
+package com.bank.auth;
+
+import com.bank.model.User;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Logged-in users keyed by an unguessable bearer token, so authenticated requests are checked
+ * with one map lookup instead of a query on {@code users}.
+ * <p>
+ * A session ends {@code idleTtlMillis} after its last use or {@code absoluteTtlMillis} after it
+ * was opened, whichever comes first; {@link #get} checks both on every lookup. Expired sessions
+ * are dropped by {@link #expireDue}, which the owner calls every {@link #getTickMillis()}: each
+ * session sits in one bucket of a timing wheel, the bucket of its deadline when last scheduled,
+ * and a tick only visits the buckets that have come due. A session used since it was scheduled is
+ * moved to the bucket of its new deadline at that point, so {@link #get} itself never touches the
+ * wheel.
+ * <p>
+ * With a {@link SharedSessionStore}, tokens opened on other nodes are adopted on first use, and a
+ * logout on any node takes effect everywhere within a quarter of the idle timeout.
+ */
+public class SessionStore {
+    private static final int WHEEL_SIZE = 64;
+    private static final int TOKEN_BYTES = 24;
+
+    private static final class Session {
+        final User user;
+        final long createdAt;
+        volatile long lastSeen;
+        volatile long lastShared;
+
+        Session(User user, long createdAt, long lastSeen) {
+            this.user = user;
+            this.createdAt = createdAt;
+            this.lastSeen = lastSeen;
+            this.lastShared = lastSeen;
+        }
+    }
+
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final List<Set<String>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final long idleTtlMillis;
+    private final long absoluteTtlMillis;
+    private final long tickMillis;
+    private final SharedSessionStore shared;
+    private final LongSupplier clock;
+    /** Last tick whose bucket has been visited. */
+    private long lastTick;
+
+    public SessionStore(long idleTtlMillis, long absoluteTtlMillis) {
+        this(idleTtlMillis, absoluteTtlMillis, null);
+    }
+
+    /** Pass a {@link SharedSessionStore} to share sessions between nodes; {@code null} keeps them local. */
+    public SessionStore(long idleTtlMillis, long absoluteTtlMillis, SharedSessionStore shared) {
+        this(idleTtlMillis, absoluteTtlMillis, shared, System::currentTimeMillis);
+    }
+
+    SessionStore(long idleTtlMillis, long absoluteTtlMillis, SharedSessionStore shared, LongSupplier clock) {
+        if (idleTtlMillis <= 0 || absoluteTtlMillis <= 0) {
+            throw new IllegalArgumentException("Session timeouts must be positive.");
+        }
+        this.idleTtlMillis = idleTtlMillis;
+        this.absoluteTtlMillis = absoluteTtlMillis;
+        this.tickMillis = Math.max(TimeUnit.SECONDS.toMillis(1), Math.min(idleTtlMillis, absoluteTtlMillis) / 8);
+        this.shared = shared;
+        this.clock = clock;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(ConcurrentHashMap.newKeySet());
+        }
+        this.lastTick = clock.getAsLong() / tickMillis;
+    }
+
+    public String open(User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        long now = clock.getAsLong();
+        Session session = new Session(user, now, now);
+        sessions.put(token, session);
+        schedule(token, session);
+        if (shared != null) {
+            shared.save(token, new SessionRecord(user, now, now));
+        }
+        return token;
+    }
+
+    /** Returns the session's user and marks it as used, or null if the token is unknown or expired. */
+    public User get(String token) {
+        if (token == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        Session session = sessions.get(token);
+        if (session == null) {
+            return shared != null ? adopt(token, now) : null;
+        }
+        if (isExpired(session, now)) {
+            sessions.remove(token, session);
+            return null;
+        }
+        session.lastSeen = now;
+        if (shared != null && now - session.lastShared > idleTtlMillis / 4 && !refreshShared(token, session, now)) {
+            return null;
+        }
+        return session.user;
+    }
+
+    public void close(String token) {
+        if (token == null) {
+            return;
+        }
+        sessions.remove(token);
+        if (shared != null) {
+            shared.delete(token);
+        }
+    }
+
+    /**
+     * Visits the wheel buckets that have come due since the last call, dropping the sessions in
+     * them that have expired and rescheduling the rest. Returns the number dropped.
+     */
+    public synchronized int expireDue() {
+        long now = clock.getAsLong();
+        long nowTick = now / tickMillis;
+        int expired = 0;
+        // A bucket is only complete once its tick has passed; after a long pause one lap covers everything.
+        for (long tick = Math.max(lastTick + 1, nowTick - WHEEL_SIZE); tick < nowTick; tick++) {
+            Set<String> bucket = wheel.get((int) (tick % WHEEL_SIZE));
+            List<String> tokens = new ArrayList<>(bucket);
+            bucket.removeAll(tokens);
+            for (String token : tokens) {
+                Session session = sessions.get(token);
+                if (session == null) {
+                    continue;
+                }
+                if (isExpired(session, now)) {
+                    if (sessions.remove(token, session)) {
+                        expired++;
+                        forgetShared(token, now);
+                    }
+                } else {
+                    schedule(token, session);
+                }
+            }
+            lastTick = tick;
+        }
+        return expired;
+    }
+
+    /** How often {@link #expireDue} should run. */
+    public long getTickMillis() {
+        return tickMillis;
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    // --- Internals ---
+    private long deadline(long createdAt, long lastSeen) {
+        return Math.min(lastSeen + idleTtlMillis, createdAt + absoluteTtlMillis);
+    }
+
+    private boolean isExpired(Session session, long now) {
+        return now >= deadline(session.createdAt, session.lastSeen);
+    }
+
+    private void schedule(String token, Session session) {
+        long tick = deadline(session.createdAt, session.lastSeen) / tickMillis;
+        wheel.get((int) (tick % WHEEL_SIZE)).add(token);
+    }
+
+    /** Takes over a session opened on another node. */
+    private User adopt(String token, long now) {
+        SessionRecord record = shared.load(token);
+        if (record == null || now >= deadline(record.getCreatedAtMillis(), record.getLastSeenMillis())) {
+            return null;
+        }
+        Session session = new Session(record.getUser(), record.getCreatedAtMillis(), now);
+        Session existing = sessions.putIfAbsent(token, session);
+        if (existing != null) {
+            return get(token);
+        }
+        schedule(token, session);
+        shared.save(token, new SessionRecord(record.getUser(), record.getCreatedAtMillis(), now));
+        return session.user;
+    }
+
+    /** Publishes the last use to the shared store; returns false if the session was logged out elsewhere. */
+    private boolean refreshShared(String token, Session session, long now) {
+        SessionRecord record = shared.load(token);
+        if (record == null) {
+            sessions.remove(token, session);
+            return false;
+        }
+        long lastSeen = Math.max(now, record.getLastSeenMillis());
+        shared.save(token, new SessionRecord(session.user, session.createdAt, lastSeen));
+        session.lastShared = now;
+        return true;
+    }
+
+    /** Deletes the shared record too, unless another node has kept the session alive. */
+    private void forgetShared(String token, long now) {
+        if (shared == null) {
+            return;
+        }
+        SessionRecord record = shared.load(token);
+        if (record != null && now >= deadline(record.getCreatedAtMillis(), record.getLastSeenMillis())) {
+            shared.delete(token);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.bank.auth;
+
+/**
+ * Session records shared by every node of a deployment, so a token issued by one node is
+ * accepted by the others. {@link SessionStore} keeps its own copy of each session it serves and
+ * only talks to the shared store when it adopts a token it has not seen, when it logs one out,
+ * and to refresh the shared record's last-seen time every quarter of the idle timeout.
+ * Implementations must be thread-safe.
+ */
+public interface SharedSessionStore {
+
+    void save(String token, SessionRecord record);
+
+    /** The record for {@code token}, or {@code null} if there is none. */
+    SessionRecord load(String token);
+
+    void delete(String token);
+}
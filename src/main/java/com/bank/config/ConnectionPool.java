@@ -0,0 +1,281 @@
+package com.bank.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongConsumer;
+
+/**
+ * A small bounded JDBC connection pool.
+ * <p>
+ * At most {@code maxSize} physical connections exist at any time; callers that find the pool
+ * exhausted wait up to {@code acquireTimeoutMillis} and then fail with a
+ * {@link SQLTransientConnectionException}. Borrowed connections are handed out as proxies whose
+ * {@code close()} returns the physical connection to the pool, rolling back any open transaction
+ * and restoring auto-commit first.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /** Opens a new physical connection, e.g. {@code () -> DriverManager.getConnection(url, user, pass)}. */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final PoolConfig config;
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Connection> idle = new LinkedBlockingDeque<>();
+    private final Set<Lease> leased = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService maintenance;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    // --- Statistics ---
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final LongAdder acquireCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder leakCount = new LongAdder();
+    private volatile LongConsumer acquireListener;
+
+    public ConnectionPool(ConnectionFactory factory, PoolConfig config) {
+        config.validate();
+        this.factory = factory;
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxSize(), true);
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-pool-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        fillToMinimum();
+        long interval = config.getMaintenanceIntervalMillis();
+        maintenance.scheduleWithFixedDelay(this::runMaintenance, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the configured acquire timeout if the pool is exhausted.
+     * The caller must close the returned connection to give it back.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed.get()) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        waiters.incrementAndGet();
+        try {
+            acquired = permits.tryAcquire(config.getAcquireTimeoutMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+        long waited = System.nanoTime() - start;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTransientConnectionException(String.format(
+                    "Timed out after %dms waiting for a connection (active=%d, max=%d).",
+                    config.getAcquireTimeoutMillis(), leased.size(), config.getMaxSize()));
+        }
+
+        try {
+            Connection raw = takeValidConnection();
+            Lease lease = new Lease(raw, config.getLeakDetectionThresholdMillis() > 0);
+            leased.add(lease);
+            acquireCount.increment();
+            LongConsumer listener = acquireListener;
+            if (listener != null) {
+                listener.accept(System.nanoTime() - start);
+            }
+            return lease.proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(leased.size(), idle.size(), waiters.get(), acquireCount.sum(), timeoutCount.sum(),
+                totalWaitNanos.sum(), maxWaitNanos.get(), leakCount.sum());
+    }
+
+    /**
+     * Receives the full time, in nanoseconds, of every successful {@link #getConnection()}:
+     * waiting, validation and, if needed, opening a new physical connection.
+     */
+    public void setAcquireListener(LongConsumer acquireListener) {
+        this.acquireListener = acquireListener;
+    }
+
+    public PoolConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public void close() {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        maintenance.shutdownNow();
+        Connection conn;
+        while ((conn = idle.pollFirst()) != null) {
+            closeQuietly(conn);
+        }
+    }
+
+    // --- Internals ---
+    private Connection takeValidConnection() throws SQLException {
+        Connection raw;
+        // Most recently returned first, so a small working set of connections stays warm.
+        while ((raw = idle.pollFirst()) != null) {
+            if (!config.isValidateOnBorrow() || isUsable(raw)) {
+                return raw;
+            }
+            closeQuietly(raw);
+        }
+        return factory.create();
+    }
+
+    private boolean isUsable(Connection raw) {
+        try {
+            return !raw.isClosed() && raw.isValid(config.getValidationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Lease lease) {
+        leased.remove(lease);
+        Connection raw = lease.raw;
+        try {
+            if (closed.get() || raw.isClosed()) {
+                closeQuietly(raw);
+                return;
+            }
+            if (!raw.getAutoCommit()) {
+                raw.rollback();
+                raw.setAutoCommit(true);
+            }
+            idle.offerFirst(raw);
+        } catch (SQLException e) {
+            closeQuietly(raw);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void runMaintenance() {
+        try {
+            detectLeaks();
+            fillToMinimum();
+        } catch (RuntimeException e) {
+            System.err.println("Connection pool maintenance failed: " + e.getMessage());
+        }
+    }
+
+    private void detectLeaks() {
+        long threshold = config.getLeakDetectionThresholdMillis();
+        if (threshold <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Lease lease : leased) {
+            if (!lease.leakReported && now - lease.borrowedAt > TimeUnit.MILLISECONDS.toNanos(threshold)) {
+                lease.leakReported = true;
+                leakCount.increment();
+                System.err.printf("Possible connection leak: connection held for more than %dms.%n", threshold);
+                if (lease.origin != null) {
+                    lease.origin.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed.get() && idle.size() + leased.size() < config.getMinSize() && permits.tryAcquire()) {
+            try {
+                idle.offerLast(factory.create());
+            } catch (SQLException e) {
+                System.err.println("Could not open pooled connection: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection conn) {
+        try {
+            conn.close();
+        } catch (SQLException ignored) {
+            // Connection is being discarded anyway.
+        }
+    }
+
+    /** One checkout of a physical connection; also the invocation handler behind the proxy. */
+    private final class Lease implements InvocationHandler {
+        private final Connection raw;
+        private final Connection proxy;
+        private final long borrowedAt = System.nanoTime();
+        private final Throwable origin;
+        private final AtomicBoolean returned = new AtomicBoolean(false);
+        private volatile boolean leakReported;
+
+        Lease(Connection raw, boolean trackOrigin) {
+            this.raw = raw;
+            this.origin = trackOrigin ? new Throwable("Connection acquired here") : null;
+            this.proxy = (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object p, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        release(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || raw.isClosed();
+                case "equals":
+                    return p == args[0];
+                case "hashCode":
+                    return System.identityHashCode(p);
+                case "toString":
+                    return "Pooled[" + raw + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                return method.invoke(raw, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
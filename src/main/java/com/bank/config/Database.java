@@ -3,13 +3,102 @@ package com.bank.config;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class Database {
-    private static final String URL = "jdbc:mysql://localhost:3306/online_bank";
+    private static final String URL = "jdbc:mysql://localhost:3306/online_bank?useCursorFetch=true&rewriteBatchedStatements=true";
     private static final String USER = "bankuser";
     private static final String PASSWORD = "samved";
+    /** Comma-separated JDBC URLs of read replicas; unset means every read goes to the primary. */
+    private static final String REPLICAS_PROPERTY = "bank.db.replicas";
 
+    private static volatile ConnectionPool pool;
+    private static volatile ReplicaSet replicaSet;
+
+    /**
+     * Borrows a connection from the shared pool. Closing the connection returns it to the pool.
+     */
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASSWORD);
+        return getPool().getConnection();
+    }
+
+    /**
+     * Borrows a connection for a read-only query: from a replica when one is configured and the
+     * calling session has not just written, otherwise from the primary. See {@link ReplicaSet}.
+     */
+    public static Connection getReadConnection() throws SQLException {
+        return getReplicaSet().getReadConnection();
+    }
+
+    /**
+     * Returns the shared pool, creating one against the MySQL server on first use.
+     */
+    public static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (Database.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(() -> DriverManager.getConnection(URL, USER, PASSWORD), new PoolConfig());
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Returns the shared pool together with its read replicas, creating a pool per URL listed in
+     * the {@code bank.db.replicas} system property on first use.
+     */
+    public static ReplicaSet getReplicaSet() {
+        ReplicaSet current = replicaSet;
+        if (current == null) {
+            synchronized (Database.class) {
+                current = replicaSet;
+                if (current == null) {
+                    List<ConnectionPool> replicas = new ArrayList<>();
+                    for (String url : System.getProperty(REPLICAS_PROPERTY, "").split(",")) {
+                        if (!url.isBlank()) {
+                            replicas.add(new ConnectionPool(() -> DriverManager.getConnection(url.trim(), USER, PASSWORD),
+                                    new PoolConfig()));
+                        }
+                    }
+                    current = new ReplicaSet(getPool(), replicas);
+                    replicaSet = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Replaces the shared pool, e.g. with one backed by an embedded database in tests.
+     * The previous pool, if any, is closed, and so are the replicas that went with it.
+     */
+    public static synchronized void setPool(ConnectionPool newPool) {
+        ConnectionPool previous = pool;
+        pool = newPool;
+        setReplicaSet(null);
+        if (previous != null && previous != newPool) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Replaces the replicas behind {@link #getReadConnection()}; the set's primary should be the
+     * shared pool. The previous set, if any, is closed.
+     */
+    public static synchronized void setReplicaSet(ReplicaSet newReplicaSet) {
+        ReplicaSet previous = replicaSet;
+        replicaSet = newReplicaSet;
+        if (previous != null && previous != newReplicaSet) {
+            previous.close();
+        }
+    }
+
+    public static synchronized void shutdown() {
+        setPool(null);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.bank.config;
+
+/**
+ * Sizing and timing settings for a {@link ConnectionPool}.
+ * Setters return {@code this} so a config can be built up in one expression.
+ */
+public class PoolConfig {
+    private int minSize = 2;
+    private int maxSize = 10;
+    private long acquireTimeoutMillis = 5_000;
+    private boolean validateOnBorrow = true;
+    private int validationTimeoutSeconds = 2;
+    private long leakDetectionThresholdMillis = 0; // 0 disables leak detection
+    private long maintenanceIntervalMillis = 1_000;
+
+    public int getMinSize() { return minSize; }
+    public int getMaxSize() { return maxSize; }
+    public long getAcquireTimeoutMillis() { return acquireTimeoutMillis; }
+    public boolean isValidateOnBorrow() { return validateOnBorrow; }
+    public int getValidationTimeoutSeconds() { return validationTimeoutSeconds; }
+    public long getLeakDetectionThresholdMillis() { return leakDetectionThresholdMillis; }
+    public long getMaintenanceIntervalMillis() { return maintenanceIntervalMillis; }
+
+    public PoolConfig setMinSize(int minSize) {
+        this.minSize = minSize;
+        return this;
+    }
+
+    public PoolConfig setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    public PoolConfig setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        return this;
+    }
+
+    public PoolConfig setValidateOnBorrow(boolean validateOnBorrow) {
+        this.validateOnBorrow = validateOnBorrow;
+        return this;
+    }
+
+    public PoolConfig setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        return this;
+    }
+
+    public PoolConfig setLeakDetectionThresholdMillis(long leakDetectionThresholdMillis) {
+        this.leakDetectionThresholdMillis = leakDetectionThresholdMillis;
+        return this;
+    }
+
+    public PoolConfig setMaintenanceIntervalMillis(long maintenanceIntervalMillis) {
+        this.maintenanceIntervalMillis = maintenanceIntervalMillis;
+        return this;
+    }
+
+    void validate() {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive.");
+        }
+        if (minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("minSize must be between 0 and maxSize.");
+        }
+        if (acquireTimeoutMillis < 0 || leakDetectionThresholdMillis < 0) {
+            throw new IllegalArgumentException("Timeouts cannot be negative.");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.config;
+
+/**
+ * Point-in-time snapshot of a {@link ConnectionPool}'s counters.
+ */
+public class PoolStats {
+    private final int active;
+    private final int idle;
+    private final int waiters;
+    private final long acquireCount;
+    private final long timeoutCount;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+    private final long leakCount;
+
+    public PoolStats(int active, int idle, int waiters, long acquireCount, long timeoutCount,
+                     long totalWaitNanos, long maxWaitNanos, long leakCount) {
+        this.active = active;
+        this.idle = idle;
+        this.waiters = waiters;
+        this.acquireCount = acquireCount;
+        this.timeoutCount = timeoutCount;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+        this.leakCount = leakCount;
+    }
+
+    public int getActive() { return active; }
+    public int getIdle() { return idle; }
+    public int getTotal() { return active + idle; }
+    public int getWaiters() { return waiters; }
+    public long getAcquireCount() { return acquireCount; }
+    public long getTimeoutCount() { return timeoutCount; }
+    public long getTotalWaitNanos() { return totalWaitNanos; }
+    public long getMaxWaitNanos() { return maxWaitNanos; }
+    public long getLeakCount() { return leakCount; }
+
+    public double getAverageWaitMillis() {
+        return acquireCount == 0 ? 0.0 : totalWaitNanos / 1_000_000.0 / acquireCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PoolStats{active=%d, idle=%d, waiters=%d, acquired=%d, timeouts=%d, avgWait=%.3fms, maxWait=%.3fms, leaks=%d}",
+                active, idle, waiters, acquireCount, timeoutCount, getAverageWaitMillis(), maxWaitNanos / 1_000_000.0, leakCount);
+    }
+}
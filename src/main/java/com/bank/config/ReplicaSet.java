@@ -0,0 +1,200 @@
+package com.bank.config;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A primary pool plus read replicas, with read-your-writes for the session that wrote.
+ * <p>
+ * {@link #getWriteConnection()} always borrows from the primary and pins the current session to
+ * it for {@code stickyMillis}, long enough for the replicas to catch up. {@link #getReadConnection()}
+ * borrows from the primary while the session is pinned, and otherwise from the next healthy
+ * replica in round-robin order. A replica whose pool cannot open a connection is marked down and
+ * skipped until a health check (every {@code healthCheckIntervalMillis}) finds it usable again;
+ * with no replica up, reads fall back to the primary.
+ * <p>
+ * The session is whatever key the caller has bound to the current thread with
+ * {@link #bindSession} (the server binds the authenticated user), or else the thread itself.
+ * Closing the set stops the health checks and closes the replica pools; the primary belongs to
+ * whoever created it.
+ */
+public class ReplicaSet implements AutoCloseable {
+    public static final long DEFAULT_STICKY_MILLIS = 5_000;
+    public static final long DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS = 5_000;
+
+    private static final class Replica {
+        final ConnectionPool pool;
+        final LongAdder reads = new LongAdder();
+        volatile boolean healthy = true;
+
+        Replica(ConnectionPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    private final ConnectionPool primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long stickyMillis;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final ThreadLocal<Object> session = new ThreadLocal<>();
+    private final ConcurrentHashMap<Object, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService healthCheck;
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaSet(ConnectionPool primary, List<ConnectionPool> replicaPools) {
+        this(primary, replicaPools, DEFAULT_STICKY_MILLIS, DEFAULT_HEALTH_CHECK_INTERVAL_MILLIS);
+    }
+
+    public ReplicaSet(ConnectionPool primary, List<ConnectionPool> replicaPools, long stickyMillis,
+                      long healthCheckIntervalMillis) {
+        if (stickyMillis < 0 || healthCheckIntervalMillis <= 0) {
+            throw new IllegalArgumentException("stickyMillis must not be negative and healthCheckIntervalMillis must be positive.");
+        }
+        this.primary = primary;
+        this.stickyMillis = stickyMillis;
+        for (ConnectionPool pool : replicaPools) {
+            replicas.add(new Replica(pool));
+        }
+        if (replicas.isEmpty()) {
+            healthCheck = null;
+            return;
+        }
+        healthCheck = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "replica-health-check");
+            t.setDaemon(true);
+            return t;
+        });
+        healthCheck.scheduleWithFixedDelay(this::checkHealth, healthCheckIntervalMillis, healthCheckIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    // --- Routing ---
+    /** Borrows a primary connection and pins the current session to the primary. */
+    public Connection getWriteConnection() throws SQLException {
+        if (!replicas.isEmpty()) {
+            pinnedUntil.put(sessionKey(), System.currentTimeMillis() + stickyMillis);
+        }
+        return primary.getConnection();
+    }
+
+    /** Borrows from a healthy replica, or from the primary if the session is pinned or no replica is up. */
+    public Connection getReadConnection() throws SQLException {
+        if (!isPinned()) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), Math.max(1, replicas.size()));
+            for (int i = 0; i < replicas.size(); i++) {
+                Replica replica = replicas.get((start + i) % replicas.size());
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    Connection conn = replica.pool.getConnection();
+                    replica.reads.increment();
+                    return conn;
+                } catch (SQLTransientConnectionException e) {
+                    // Busy, not broken: let the next replica take this read.
+                } catch (SQLException e) {
+                    markDown(replica, e);
+                }
+            }
+        }
+        primaryReads.increment();
+        return primary.getConnection();
+    }
+
+    /** True while the current session must read from the primary to see its own writes. */
+    public boolean isPinned() {
+        Long until = pinnedUntil.get(sessionKey());
+        return until != null && System.currentTimeMillis() < until;
+    }
+
+    /** Makes {@code key} the current thread's session until {@link #unbindSession()}. */
+    public void bindSession(Object key) {
+        session.set(key);
+    }
+
+    public void unbindSession() {
+        session.remove();
+    }
+
+    // --- Health ---
+    /** Probes every replica, marking it up or down; also forgets pins that have run out. */
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean usable;
+            try (Connection conn = replica.pool.getConnection()) {
+                usable = conn.isValid(replica.pool.getConfig().getValidationTimeoutSeconds());
+            } catch (SQLTransientConnectionException e) {
+                continue; // all connections busy: it is answering queries
+            } catch (SQLException e) {
+                usable = false;
+            }
+            if (usable && !replica.healthy) {
+                System.err.println("Replica " + replicas.indexOf(replica) + " is back up.");
+            }
+            if (!usable) {
+                markDown(replica, null);
+            }
+            replica.healthy = usable;
+        }
+        long now = System.currentTimeMillis();
+        pinnedUntil.values().removeIf(until -> until <= now);
+    }
+
+    public ConnectionPool getPrimary() {
+        return primary;
+    }
+
+    public int getReplicaCount() {
+        return replicas.size();
+    }
+
+    public int getHealthyReplicaCount() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) healthy++;
+        }
+        return healthy;
+    }
+
+    /** Reads served by replica {@code index}. */
+    public long getReplicaReadCount(int index) {
+        return replicas.get(index).reads.sum();
+    }
+
+    /** Reads that went to the primary, pinned or for want of a replica. */
+    public long getPrimaryReadCount() {
+        return primaryReads.sum();
+    }
+
+    @Override
+    public void close() {
+        if (healthCheck != null) {
+            healthCheck.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.pool.close();
+        }
+    }
+
+    private Object sessionKey() {
+        Object key = session.get();
+        return key != null ? key : Thread.currentThread();
+    }
+
+    private void markDown(Replica replica, SQLException cause) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            System.err.println("Replica " + replicas.indexOf(replica) + " is down"
+                    + (cause != null ? ": " + cause.getMessage() : "."));
+        }
+    }
+}
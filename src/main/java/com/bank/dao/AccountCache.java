@@ -0,0 +1,229 @@
+package com.bank.dao;
+
+import com.bank.model.Account;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded per-user cache of the account list behind {@link BankDAO#getAccountsByUserId(int)}.
+ * <p>
+ * Account metadata (id, number, type) is kept for up to {@code ttlMillis} and evicted least
+ * recently used first once {@code maxUsers} is reached. Balances carried in the cached
+ * {@link Account} objects are served for at most {@code balanceMaxStalenessMillis}; after that
+ * only the balances are re-read. Writes made through the owning {@code JdbcBankDAO} invalidate the
+ * affected entries as soon as they commit, so the staleness bound only matters for writes that
+ * bypass this process (another node or direct SQL).
+ * <p>
+ * A load that raced with a write to the same user or one of its accounts is not cached. Writes to
+ * other users do not affect it, so steady write traffic does not keep the cache empty.
+ * <p>
+ * All methods are synchronized; entries are small and every critical section is a map lookup.
+ */
+public class AccountCache {
+    /** Writes remembered at least, so only a load outlasting this many others is dropped for safety. */
+    private static final int MIN_RECENT_WRITES = 4096;
+
+    private static final class Entry {
+        final List<Account> accounts;
+        final long loadedAt;
+        boolean balancesValid = true;
+
+        Entry(List<Account> accounts, long now) {
+            this.accounts = accounts;
+            this.loadedAt = now;
+        }
+    }
+
+    private final int maxUsers;
+    private final long ttlNanos;
+    private final long balanceMaxStalenessNanos;
+    private final LinkedHashMap<Integer, Entry> entries;
+    private final Map<Integer, Integer> ownerByAccount = new HashMap<>();
+    /** Bumped by every invalidation; a load remembers the value it started at. */
+    private long generation;
+    /** Generation of the latest invalidation of each recently written account and user. */
+    private final LinkedHashMap<Integer, Long> accountWrites;
+    private final LinkedHashMap<Integer, Long> userWrites;
+    /** Invalidations up to here may have been forgotten, so a load started before it is not cached. */
+    private long forgottenGeneration;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder balanceRefreshes = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public AccountCache() {
+        this(10_000, TimeUnit.MINUTES.toMillis(5), 1_000);
+    }
+
+    public AccountCache(int maxUsers, long ttlMillis, long balanceMaxStalenessMillis) {
+        if (maxUsers <= 0) {
+            throw new IllegalArgumentException("maxUsers must be positive.");
+        }
+        this.maxUsers = maxUsers;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.balanceMaxStalenessNanos = TimeUnit.MILLISECONDS.toNanos(balanceMaxStalenessMillis);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > AccountCache.this.maxUsers) {
+                    forgetOwners(eldest.getValue());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        int recentWrites = Math.max(MIN_RECENT_WRITES, maxUsers);
+        this.accountWrites = recentWrites(recentWrites);
+        this.userWrites = recentWrites(recentWrites);
+    }
+
+    /** Returns the user's accounts if both metadata and balances are fresh enough, else null. */
+    synchronized List<Account> getIfFresh(int userId) {
+        Entry entry = liveEntry(userId);
+        if (entry != null && entry.balancesValid && System.nanoTime() - entry.loadedAt <= balanceMaxStalenessNanos) {
+            hits.increment();
+            return entry.accounts;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cached accounts, whose balances may be stale, if the metadata is still live.
+     * Called after {@link #getIfFresh} missed, so this records either a balance refresh or a miss.
+     */
+    synchronized List<Account> getMetadata(int userId) {
+        Entry entry = liveEntry(userId);
+        if (entry != null) {
+            balanceRefreshes.increment();
+            return entry.accounts;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /** Call before reading from the database; pass the result to {@link #put}. */
+    synchronized long beginLoad() {
+        return generation;
+    }
+
+    /**
+     * Caches a freshly loaded list unless the user or one of its accounts was invalidated since
+     * {@code loadGeneration}.
+     */
+    synchronized void put(int userId, List<Account> accounts, long loadGeneration) {
+        if (loadGeneration < forgottenGeneration || writtenSince(userWrites, userId, loadGeneration)) {
+            return;
+        }
+        for (Account account : accounts) {
+            if (writtenSince(accountWrites, account.getAccountId(), loadGeneration)) {
+                return;
+            }
+        }
+        Entry previous = entries.remove(userId);
+        if (previous != null) {
+            forgetOwners(previous);
+        }
+        Entry entry = new Entry(List.copyOf(accounts), System.nanoTime());
+        entries.put(userId, entry);
+        for (Account account : entry.accounts) {
+            ownerByAccount.put(account.getAccountId(), userId);
+        }
+    }
+
+    /** Drops everything cached for a user, e.g. after a new account was opened. */
+    public synchronized void invalidateUser(int userId) {
+        recordWrite(userWrites, userId);
+        Entry entry = entries.remove(userId);
+        if (entry != null) {
+            forgetOwners(entry);
+        }
+    }
+
+    /** Marks the balances of the account's owner stale, e.g. after money moved. */
+    public synchronized void invalidateBalance(int accountId) {
+        recordWrite(accountWrites, accountId);
+        Integer userId = ownerByAccount.get(accountId);
+        if (userId != null) {
+            Entry entry = entries.get(userId);
+            if (entry != null) {
+                entry.balancesValid = false;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        forgottenGeneration = generation;
+        accountWrites.clear();
+        userWrites.clear();
+        entries.clear();
+        ownerByAccount.clear();
+    }
+
+    // --- Statistics ---
+    /** Lookups answered entirely from the cache. */
+    public long getHitCount() { return hits.sum(); }
+
+    /** Lookups where only the balances had to be re-read. */
+    public long getBalanceRefreshCount() { return balanceRefreshes.sum(); }
+
+    /** Lookups that had to load the account list from the database. */
+    public long getMissCount() { return misses.sum(); }
+
+    /** Entries dropped because of the size bound or TTL. */
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    // --- Internals ---
+    private Entry liveEntry(int userId) {
+        Entry entry = entries.get(userId);
+        if (entry != null && System.nanoTime() - entry.loadedAt > ttlNanos) {
+            entries.remove(userId);
+            forgetOwners(entry);
+            evictions.increment();
+            return null;
+        }
+        return entry;
+    }
+
+    private void recordWrite(LinkedHashMap<Integer, Long> writes, int id) {
+        generation++;
+        writes.remove(id); // re-inserted so the map stays ordered by generation
+        writes.put(id, generation);
+    }
+
+    private static boolean writtenSince(Map<Integer, Long> writes, int id, long loadGeneration) {
+        Long written = writes.get(id);
+        return written != null && written > loadGeneration;
+    }
+
+    /** Keeps the latest {@code capacity} writes; older ones only advance {@link #forgottenGeneration}. */
+    private LinkedHashMap<Integer, Long> recentWrites(int capacity) {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Long> eldest) {
+                if (size() > capacity) {
+                    forgottenGeneration = Math.max(forgottenGeneration, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    private void forgetOwners(Entry entry) {
+        for (Account account : entry.accounts) {
+            ownerByAccount.remove(account.getAccountId());
+        }
+    }
+}
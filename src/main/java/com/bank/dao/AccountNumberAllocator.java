@@ -0,0 +1,127 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hands out account numbers from a database sequence, a block at a time (hi/lo).
+ * <p>
+ * Reserving a block is one short transaction that advances {@code account_number_sequence} by
+ * {@code blockSize}; the numbers in between are then handed out from memory. Since the table
+ * stores the next free value rather than a block index, the block size can change between runs.
+ * Every process reserves its own blocks, so numbers never collide, though numbers of a block that
+ * was not used up before a restart are skipped. A number is the 11-digit sequence value followed
+ * by a Luhn check digit, which catches any single mistyped digit and most swapped pairs.
+ */
+public class AccountNumberAllocator {
+    public static final int DEFAULT_BLOCK_SIZE = 1_000;
+    private static final int SEQUENCE_DIGITS = 11;
+    private static final long MAX_SEQUENCE = 99_999_999_999L;
+    private static final String SEQUENCE_NAME = "accounts";
+
+    private final ConnectionPool.ConnectionFactory connections;
+    private final int blockSize;
+    private long next;
+    private long blockEnd;
+
+    public AccountNumberAllocator(ConnectionPool.ConnectionFactory connections, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("blockSize must be positive.");
+        }
+        this.connections = connections;
+        this.blockSize = blockSize;
+    }
+
+    /** The next account number; only touches the database when the current block is used up. */
+    public synchronized String next() throws SQLException {
+        if (next == blockEnd) {
+            reserveBlock();
+        }
+        return format(next++);
+    }
+
+    /** {@code count} account numbers, reserving as many blocks as needed. */
+    public synchronized List<String> next(int count) throws SQLException {
+        List<String> numbers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            numbers.add(next());
+        }
+        return numbers;
+    }
+
+    /** True if {@code number} has the expected length and a correct check digit. */
+    public static boolean isValid(String number) {
+        if (number == null || number.length() != SEQUENCE_DIGITS + 1) {
+            return false;
+        }
+        for (int i = 0; i < number.length(); i++) {
+            if (number.charAt(i) < '0' || number.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return checkDigit(number.substring(0, SEQUENCE_DIGITS)) == number.charAt(SEQUENCE_DIGITS);
+    }
+
+    static String format(long value) {
+        if (value > MAX_SEQUENCE) {
+            throw new IllegalStateException("Account number sequence exhausted.");
+        }
+        String digits = String.format("%0" + SEQUENCE_DIGITS + "d", value);
+        return digits + checkDigit(digits);
+    }
+
+    /** Luhn (mod 10) check digit for {@code digits}. */
+    static char checkDigit(String digits) {
+        int sum = 0;
+        boolean doubled = true; // the rightmost payload digit is doubled once the check digit is appended
+        for (int i = digits.length() - 1; i >= 0; i--) {
+            int d = digits.charAt(i) - '0';
+            if (doubled) {
+                d *= 2;
+                if (d > 9) d -= 9;
+            }
+            sum += d;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private void reserveBlock() throws SQLException {
+        try (Connection conn = connections.create()) {
+            conn.setAutoCommit(false);
+            try {
+                long start;
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "SELECT next_value FROM account_number_sequence WHERE sequence_name = ? FOR UPDATE")) {
+                    pstmt.setString(1, SEQUENCE_NAME);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new SQLException("Account number sequence is missing.");
+                        }
+                        start = rs.getLong(1);
+                    }
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(
+                        "UPDATE account_number_sequence SET next_value = next_value + ? WHERE sequence_name = ?")) {
+                    pstmt.setLong(1, blockSize);
+                    pstmt.setString(2, SEQUENCE_NAME);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+                next = start;
+                blockEnd = start + blockSize;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
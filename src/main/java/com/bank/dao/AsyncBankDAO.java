@@ -0,0 +1,175 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.model.Account;
+import com.bank.model.ActivitySummary;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.OpenAccountInstruction;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.TransferInstruction;
+import com.bank.model.User;
+
+import java.sql.SQLTransientException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Non-blocking facade over a {@link BankDAO}: every call returns a {@link CompletableFuture}, so
+ * independent work (say, a user's accounts and the history of each) can be started together and
+ * combined when it completes.
+ * <p>
+ * Calls run on a dedicated pool of {@code threads} workers, normally the connection pool's
+ * maximum size, since a worker holds a connection for the whole call. Up to {@code queueCapacity}
+ * further calls wait for a worker. Beyond that the executor is saturated and the returned future
+ * fails at once with a {@link SQLTransientException}, so an overloaded caller gets pushed back
+ * instead of queueing without bound. Futures fail with the exception the blocking method threw
+ * ({@code SQLException} or {@code AccountException}), wrapped as usual by {@code join()} and
+ * {@code get()}.
+ */
+public class AsyncBankDAO implements AutoCloseable {
+
+    /** A blocking {@link BankDAO} call. */
+    @FunctionalInterface
+    public interface Call<T> {
+        T run(BankDAO dao) throws Exception;
+    }
+
+    private final BankDAO dao;
+    private final ThreadPoolExecutor executor;
+
+    /** Sizes the workers to the pool's maximum and lets four times as many calls wait. */
+    public AsyncBankDAO(BankDAO dao, ConnectionPool pool) {
+        this(dao, maxSize(pool), 4 * maxSize(pool));
+    }
+
+    public AsyncBankDAO(BankDAO dao, int threads, int queueCapacity) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("threads and queueCapacity must be positive.");
+        }
+        this.dao = dao;
+        AtomicInteger ids = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+                    Thread t = new Thread(r, "bank-async-" + ids.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    // --- Reads ---
+    public CompletableFuture<User> login(String username, String password) {
+        return submit(d -> d.login(username, password));
+    }
+
+    public CompletableFuture<List<Account>> getAccountsByUserId(int userId) {
+        return submit(d -> d.getAccountsByUserId(userId));
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionHistory(int accountId) {
+        return submit(d -> d.getTransactionHistory(accountId));
+    }
+
+    public CompletableFuture<TransactionPage> getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) {
+        return submit(d -> d.getTransactionHistory(accountId, cursor, pageSize));
+    }
+
+    public CompletableFuture<Money> getBalanceAsOf(int accountId, Timestamp asOf) {
+        return submit(d -> d.getBalanceAsOf(accountId, asOf));
+    }
+
+    public CompletableFuture<List<ActivitySummary>> getDailySummaries(int accountId, LocalDate from, LocalDate to) {
+        return submit(d -> d.getDailySummaries(accountId, from, to));
+    }
+
+    public CompletableFuture<ActivitySummary> getActivitySummary(int accountId, LocalDate from, LocalDate to) {
+        return submit(d -> d.getActivitySummary(accountId, from, to));
+    }
+
+    // --- Writes ---
+    public CompletableFuture<Integer> createUser(String username, String password, String firstName, String lastName) {
+        return submit(d -> d.createUser(username, password, firstName, lastName));
+    }
+
+    public CompletableFuture<Account> createAccount(int userId, String accountType) {
+        return submit(d -> d.createAccount(userId, accountType));
+    }
+
+    public CompletableFuture<List<Account>> createAccounts(List<OpenAccountInstruction> instructions) {
+        return submit(d -> d.createAccounts(instructions));
+    }
+
+    public CompletableFuture<Void> deposit(int accountId, Money amount, String idempotencyKey) {
+        return submit(d -> {
+            d.deposit(accountId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> withdraw(int accountId, Money amount, String idempotencyKey) {
+        return submit(d -> {
+            d.withdraw(accountId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    public CompletableFuture<Void> transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey) {
+        return submit(d -> {
+            d.transfer(fromAccountId, toAccountId, amount, idempotencyKey);
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<BatchItemResult>> transferBatch(List<TransferInstruction> instructions) {
+        return submit(d -> d.transferBatch(instructions));
+    }
+
+    public CompletableFuture<List<BatchItemResult>> depositBatch(List<DepositInstruction> instructions) {
+        return submit(d -> d.depositBatch(instructions));
+    }
+
+    /** Runs any other blocking call on the same bounded executor. */
+    public <T> CompletableFuture<T> submit(Call<T> call) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(call.run(dao));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new SQLTransientException(
+                    executor.isShutdown() ? "Async DAO is closed." : "Too many pending database calls, please retry.", e));
+        }
+        return future;
+    }
+
+    /** Calls submitted but not yet picked up by a worker. */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /** Stops accepting calls; those already accepted still run. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static int maxSize(ConnectionPool pool) {
+        return (pool != null ? pool : Database.getPool()).getConfig().getMaxSize();
+    }
+}
@@ -1,250 +1,176 @@
 package com.bank.dao;
 
-import com.bank.config.Database;
+import com.bank.auth.PasswordHasher;
+import com.bank.config.ReplicaSet;
 import com.bank.exception.AccountException;
-import com.bank.model.*;
+import com.bank.exception.AccountNotFoundException;
+import com.bank.model.Account;
+import com.bank.model.ActivitySummary;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.OpenAccountInstruction;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.TransferInstruction;
+import com.bank.model.User;
+import com.bank.model.UserCredentials;
 
 import java.math.BigDecimal;
-import java.sql.*;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 
-public class BankDAO {
+/**
+ * The bank's operations, independent of where balances live. {@link JdbcBankDAO} runs each one
+ * as a database transaction; {@link com.bank.ledger.LedgerBankDAO} applies money movements to an
+ * in-memory ledger and writes them to the database afterwards.
+ */
+public interface BankDAO {
 
     // --- User and Account Creation ---
-    public int createUser(String username, String password, String firstName, String lastName) throws SQLException {
-        String sql = "INSERT INTO users (username, password, first_name, last_name) VALUES (?, ?, ?, ?)";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, password);
-            pstmt.setString(3, firstName);
-            pstmt.setString(4, lastName);
-            pstmt.executeUpdate();
-
-            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                if (generatedKeys.next()) {
-                    return generatedKeys.getInt(1);
-                } else {
-                    throw new SQLException("Creating user failed, no ID obtained.");
-                }
-            }
-        }
-    }
+    int createUser(String username, String password, String firstName, String lastName) throws SQLException;
 
-    public void createAccount(int userId, String accountType) throws SQLException {
-        String accountNumber = UUID.randomUUID().toString().substring(0, 12).replace("-", "");
-        String sql = "INSERT INTO accounts (user_id, account_number, account_type) VALUES (?, ?, ?)";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            pstmt.setString(2, accountNumber);
-            pstmt.setString(3, accountType);
-            pstmt.executeUpdate();
+    /** Opens an account with a zero balance and returns it, with its generated id and number. */
+    Account createAccount(int userId, String accountType) throws SQLException;
+
+    /** Opens many accounts, returned in instruction order. */
+    default List<Account> createAccounts(List<OpenAccountInstruction> instructions) throws SQLException {
+        List<Account> accounts = new ArrayList<>(instructions.size());
+        for (OpenAccountInstruction instruction : instructions) {
+            accounts.add(createAccount(instruction.getUserId(), instruction.getAccountType()));
         }
+        return accounts;
     }
 
     // --- Core Banking Operations ---
-    public void deposit(int accountId, BigDecimal amount) throws SQLException, AccountException {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new AccountException("Deposit amount must be positive.");
-        }
-        Connection conn = null;
-        try {
-            conn = Database.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-
-            // Update balance
-            String updateSql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
-                pstmt.setBigDecimal(1, amount);
-                pstmt.setInt(2, accountId);
-                pstmt.executeUpdate();
-            }
+    default void deposit(int accountId, Money amount) throws SQLException, AccountException {
+        deposit(accountId, amount, null);
+    }
 
-            // Log transaction
-            logTransaction(conn, accountId, "Deposit", amount, null);
+    default void withdraw(int accountId, Money amount) throws SQLException, AccountException {
+        withdraw(accountId, amount, null);
+    }
 
-            conn.commit(); // Commit transaction
-        } catch (SQLException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) conn.close();
-        }
+    default void transfer(int fromAccountId, int toAccountId, Money amount) throws SQLException, AccountException {
+        transfer(fromAccountId, toAccountId, amount, null);
     }
 
-    public void withdraw(int accountId, BigDecimal amount) throws SQLException, AccountException {
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new AccountException("Withdrawal amount must be positive.");
-        }
-        Connection conn = null;
-        try {
-            conn = Database.getConnection();
-            conn.setAutoCommit(false);
+    // --- Idempotent Operations ---
+    // A non-null idempotency key makes a retry of the same request a no-op: a request whose key
+    // has already been applied returns without moving money again. Reusing a key for a different
+    // request is an AccountException.
+    void deposit(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException;
 
-            // Check for sufficient funds
-            BigDecimal currentBalance = getAccountBalance(conn, accountId);
-            if (currentBalance.compareTo(amount) < 0) {
-                throw new AccountException("Insufficient funds for withdrawal.");
-            }
+    void withdraw(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException;
 
-            // Update balance
-            String updateSql = "UPDATE accounts SET balance = balance - ? WHERE account_id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
-                pstmt.setBigDecimal(1, amount);
-                pstmt.setInt(2, accountId);
-                pstmt.executeUpdate();
-            }
+    void transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey) throws SQLException, AccountException;
 
-            // Log transaction
-            logTransaction(conn, accountId, "Withdrawal", amount, null);
+    // --- BigDecimal Bridge ---
+    // Amounts with fractions of a cent are rejected rather than rounded.
+    default void deposit(int accountId, BigDecimal amount) throws SQLException, AccountException {
+        deposit(accountId, toMoney(amount));
+    }
 
-            conn.commit();
-        } catch (SQLException | AccountException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) conn.close();
-        }
+    default void withdraw(int accountId, BigDecimal amount) throws SQLException, AccountException {
+        withdraw(accountId, toMoney(amount));
     }
-    
-    public void transfer(int fromAccountId, int toAccountId, BigDecimal amount) throws SQLException, AccountException {
-        if (fromAccountId == toAccountId) {
-            throw new AccountException("Cannot transfer to the same account.");
-        }
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new AccountException("Transfer amount must be positive.");
-        }
-        
-        Connection conn = null;
-        try {
-            conn = Database.getConnection();
-            conn.setAutoCommit(false);
 
-            // Check sender's balance
-            BigDecimal fromBalance = getAccountBalance(conn, fromAccountId);
-            if (fromBalance.compareTo(amount) < 0) {
-                throw new AccountException("Insufficient funds for transfer.");
-            }
-            
-            // Withdraw from sender
-            String withdrawSql = "UPDATE accounts SET balance = balance - ? WHERE account_id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(withdrawSql)) {
-                pstmt.setBigDecimal(1, amount);
-                pstmt.setInt(2, fromAccountId);
-                pstmt.executeUpdate();
-            }
+    default void transfer(int fromAccountId, int toAccountId, BigDecimal amount) throws SQLException, AccountException {
+        transfer(fromAccountId, toAccountId, toMoney(amount));
+    }
 
-            // Deposit to receiver
-            String depositSql = "UPDATE accounts SET balance = balance + ? WHERE account_id = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(depositSql)) {
-                pstmt.setBigDecimal(1, amount);
-                pstmt.setInt(2, toAccountId);
-                pstmt.executeUpdate();
-            }
-            
-            // Log transactions for both accounts
-            logTransaction(conn, fromAccountId, "Transfer", amount, toAccountId);
-            logTransaction(conn, toAccountId, "Transfer", amount, fromAccountId);
-            
-            conn.commit();
-
-        } catch (SQLException | AccountException e) {
-            if (conn != null) conn.rollback();
-            throw e;
-        } finally {
-            if (conn != null) conn.close();
+    private static Money toMoney(BigDecimal amount) throws AccountException {
+        try {
+            return Money.of(amount);
+        } catch (IllegalArgumentException e) {
+            throw new AccountException("Amount must be a whole number of cents.");
         }
     }
 
-    // --- Data Retrieval ---
-    public User login(String username, String password) throws SQLException {
-        String sql = "SELECT * FROM users WHERE username = ? AND password = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setString(1, username);
-            pstmt.setString(2, password);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return new User(rs.getInt("user_id"), rs.getString("username"), rs.getString("first_name"), rs.getString("last_name"));
-                }
+    // --- Batch Operations ---
+    /**
+     * Applies many transfers in list order, each applied or rejected on its own; a rejected item,
+     * including one naming an unknown account, does not affect the others. This default runs them
+     * one by one.
+     */
+    default List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) throws SQLException {
+        List<BatchItemResult> results = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            TransferInstruction t = instructions.get(i);
+            try {
+                transfer(t.getFromAccountId(), t.getToAccountId(), t.getAmount());
+                results.add(BatchItemResult.applied(i));
+            } catch (AccountException | AccountNotFoundException e) {
+                results.add(BatchItemResult.rejected(i, e.getMessage()));
             }
         }
-        return null; // Login failed
+        return results;
     }
 
-    public List<Account> getAccountsByUserId(int userId) throws SQLException {
-        List<Account> accounts = new ArrayList<>();
-        String sql = "SELECT * FROM accounts WHERE user_id = ?";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, userId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    int accountId = rs.getInt("account_id");
-                    String accountNumber = rs.getString("account_number");
-                    BigDecimal balance = rs.getBigDecimal("balance");
-                    String accountType = rs.getString("account_type");
-
-                    if ("Savings".equalsIgnoreCase(accountType)) {
-                        accounts.add(new SavingsAccount(accountId, accountNumber, balance));
-                    } else {
-                        accounts.add(new CurrentAccount(accountId, accountNumber, balance));
-                    }
-                }
+    default List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) throws SQLException {
+        List<BatchItemResult> results = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            DepositInstruction d = instructions.get(i);
+            try {
+                deposit(d.getAccountId(), d.getAmount());
+                results.add(BatchItemResult.applied(i));
+            } catch (AccountException | AccountNotFoundException e) {
+                results.add(BatchItemResult.rejected(i, e.getMessage()));
             }
         }
-        return accounts;
+        return results;
     }
 
-    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions WHERE account_id = ? ORDER BY transaction_date DESC";
-        try (Connection conn = Database.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, accountId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                while (rs.next()) {
-                    transactions.add(new Transaction(
-                        rs.getInt("transaction_id"),
-                        rs.getString("transaction_type"),
-                        rs.getBigDecimal("amount"),
-                        rs.getTimestamp("transaction_date")
-                    ));
-                }
-            }
-        }
-        return transactions;
+    // --- Data Retrieval ---
+    /** Returns the user if the password matches, otherwise null. */
+    default User login(String username, String password) throws SQLException {
+        UserCredentials credentials = findCredentials(username);
+        // Hashing happens after the connection is back in the pool; an unknown user costs the same time.
+        boolean valid = PasswordHasher.verify(password, credentials != null ? credentials.getPasswordHash() : null);
+        return valid ? credentials.getUser() : null; // null: login failed
     }
-    
-    // --- Helper Methods ---
-    private BigDecimal getAccountBalance(Connection conn, int accountId) throws SQLException {
-        String sql = "SELECT balance FROM accounts WHERE account_id = ? FOR UPDATE"; // Lock row for transaction
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, accountId);
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getBigDecimal("balance");
-                }
-                throw new SQLException("Account not found.");
-            }
+
+    /**
+     * The user called {@code username} with their stored password hash, or null if there is none.
+     * Lets a caller verify the deliberately slow hash without holding a database slot.
+     */
+    UserCredentials findCredentials(String username) throws SQLException;
+
+    List<Account> getAccountsByUserId(int userId) throws SQLException;
+
+    /** The account's full history, newest first. */
+    List<Transaction> getTransactionHistory(int accountId) throws SQLException;
+
+    /** One page of history, newest first, starting after {@code cursor} ({@code null} for the first page). */
+    TransactionPage getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) throws SQLException;
+
+    /** The balance the account had at {@code asOf}. */
+    Money getBalanceAsOf(int accountId, Timestamp asOf) throws SQLException;
+
+    // --- Statements ---
+    /** The account's activity on each day from {@code from} to {@code to} that had any, oldest first. */
+    List<ActivitySummary> getDailySummaries(int accountId, LocalDate from, LocalDate to) throws SQLException;
+
+    /** The account's activity from {@code from} to {@code to} as a whole, e.g. for a monthly statement. */
+    default ActivitySummary getActivitySummary(int accountId, LocalDate from, LocalDate to) throws SQLException {
+        List<ActivitySummary> days = getDailySummaries(accountId, from, to);
+        if (days.isEmpty()) {
+            return ActivitySummary.quiet(accountId, from, to, getBalanceAsOf(accountId, Timestamp.valueOf(to.atTime(LocalTime.MAX))));
+        }
+        ActivitySummary period = days.get(0);
+        for (int i = 1; i < days.size(); i++) {
+            period = period.followedBy(days.get(i));
         }
+        return period.over(from, to);
     }
 
-    private void logTransaction(Connection conn, int accountId, String type, BigDecimal amount, Integer relatedAccountId) throws SQLException {
-        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, related_account_id) VALUES (?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, accountId);
-            pstmt.setString(2, type);
-            pstmt.setBigDecimal(3, amount);
-            if (relatedAccountId != null) {
-                pstmt.setInt(4, relatedAccountId);
-            } else {
-                pstmt.setNull(4, Types.INTEGER);
-            }
-            pstmt.executeUpdate();
-        }
+    /** The replicas reads are routed to, or {@code null} if every read goes to one database. */
+    default ReplicaSet getReplicaSet() {
+        return null;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,269 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.exception.AccountNotFoundException;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Group commit for money movements.
+ * <p>
+ * Callers hand in units of work; a single writer thread collects up to {@code maxBatchSize}
+ * of them (waiting at most {@code maxDelayMicros} after the first arrives), runs them all in one
+ * database transaction, writes every transaction-log row they produced with multi-row INSERTs and
+ * commits once. Each unit runs under its own savepoint, so a unit that fails (for example with
+ * insufficient funds) is rolled back alone and the rest of the group still commits.
+ * {@link #execute} returns only after the group containing the unit has committed, so an
+ * acknowledged operation is exactly as durable as with a per-operation commit.
+ * <p>
+ * If the group fails as a whole (including a deadlock), every unit in it fails with that error
+ * and nothing is committed; the caller's {@link TransactionRetrier} re-submits it.
+ */
+public class GroupCommitJournal implements AutoCloseable {
+
+    /** One money movement: apply balance changes on {@code conn} and append its log rows. */
+    @FunctionalInterface
+    interface Unit {
+        void apply(Connection conn, List<TransactionLogRow> log) throws SQLException, AccountException;
+    }
+
+    private static final class Pending {
+        final Unit unit;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        Exception failure;
+
+        Pending(Unit unit) {
+            this.unit = unit;
+        }
+    }
+
+    /** Rows per multi-row INSERT; keeps the statement and its parameter count bounded. */
+    private static final int ROWS_PER_INSERT = 250;
+
+    private final ConnectionPool.ConnectionFactory connections;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final BlockingQueue<Pending> queue = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder groups = new LongAdder();
+    private final LongAdder units = new LongAdder();
+
+    public GroupCommitJournal(ConnectionPool pool, int maxBatchSize, long maxDelayMicros) {
+        this(pool::getConnection, maxBatchSize, maxDelayMicros);
+    }
+
+    public GroupCommitJournal(ConnectionPool.ConnectionFactory connections, int maxBatchSize, long maxDelayMicros) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive.");
+        }
+        this.connections = connections;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = TimeUnit.MICROSECONDS.toNanos(maxDelayMicros);
+        this.writer = new Thread(this::runWriter, "group-commit-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Runs {@code unit} as part of the next commit group and waits for that group to commit. */
+    void execute(Unit unit) throws SQLException, AccountException {
+        if (closed) {
+            throw new SQLException("Journal is closed.");
+        }
+        Pending pending = new Pending(unit);
+        queue.add(pending);
+        if (closed && queue.remove(pending)) {
+            // close() ran in between and the writer may already have stopped looking.
+            throw new SQLException("Journal is closed.");
+        }
+        try {
+            pending.done.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof SQLException) throw (SQLException) cause;
+            if (cause instanceof AccountException) throw (AccountException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new SQLException("Group commit failed.", cause);
+        }
+    }
+
+    /** Number of commit groups flushed so far. */
+    public long getGroupCount() { return groups.sum(); }
+
+    /** Number of units processed so far, committed or rejected. */
+    public long getUnitCount() { return units.sum(); }
+
+    public double getAverageGroupSize() {
+        long g = groups.sum();
+        return g == 0 ? 0.0 : (double) units.sum() / g;
+    }
+
+    /** Stops accepting work, flushes what is already queued and stops the writer thread. */
+    @Override
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer ---
+    private void runWriter() {
+        List<Pending> group = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                group.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (group.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    group.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts to wake us; drain whatever is left without waiting.
+                queue.drainTo(group, maxBatchSize - group.size());
+            }
+            if (!group.isEmpty()) {
+                flush(group);
+                group.clear();
+            }
+        }
+        // Nothing should be left, but a caller must never be left waiting on a stopped writer.
+        for (Pending p; (p = queue.poll()) != null; ) {
+            p.done.completeExceptionally(new SQLException("Journal is closed."));
+        }
+    }
+
+    private void flush(List<Pending> group) {
+        try {
+            commitGroup(group);
+            for (Pending p : group) {
+                if (p.failure != null) {
+                    p.done.completeExceptionally(p.failure);
+                } else {
+                    p.done.complete(null);
+                }
+            }
+        } catch (SQLException | RuntimeException e) {
+            for (Pending p : group) {
+                p.done.completeExceptionally(e);
+            }
+        } finally {
+            groups.increment();
+            units.add(group.size());
+        }
+    }
+
+    private void commitGroup(List<Pending> group) throws SQLException {
+        try (Connection conn = connections.create()) {
+            conn.setAutoCommit(false);
+            try {
+                List<TransactionLogRow> rows = new ArrayList<>();
+                for (Pending p : group) {
+                    p.failure = null;
+                    int mark = rows.size();
+                    Savepoint savepoint = conn.setSavepoint();
+                    try {
+                        p.unit.apply(conn, rows);
+                        stampBalances(conn, rows, mark);
+                    } catch (AccountException e) {
+                        undo(conn, savepoint, rows, mark);
+                        p.failure = e;
+                    } catch (SQLException e) {
+                        if (TransactionRetrier.isRetryable(e)) {
+                            throw e; // lock conflict: the whole group has to go
+                        }
+                        undo(conn, savepoint, rows, mark);
+                        p.failure = e;
+                    }
+                }
+                insertRows(conn, rows);
+                conn.commit();
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Fills in the running balance of the rows a unit just added. Later units in the group may
+     * move the same accounts again before the rows are inserted, so this cannot wait until then.
+     */
+    private static void stampBalances(Connection conn, List<TransactionLogRow> rows, int mark) throws SQLException {
+        Set<Integer> accountIds = new HashSet<>();
+        for (int i = mark; i < rows.size(); i++) {
+            if (rows.get(i).balanceAfter == null) accountIds.add(rows.get(i).accountId);
+        }
+        if (accountIds.isEmpty()) {
+            return;
+        }
+        Map<Integer, Money> balances = JdbcBankDAO.readBalances(conn, accountIds, false);
+        for (int i = mark; i < rows.size(); i++) {
+            TransactionLogRow row = rows.get(i);
+            if (row.balanceAfter == null) {
+                Money balance = balances.get(row.accountId);
+                if (balance == null) {
+                    throw new AccountNotFoundException();
+                }
+                rows.set(i, row.withBalanceAfter(balance));
+            }
+        }
+    }
+
+    private static void undo(Connection conn, Savepoint savepoint, List<TransactionLogRow> rows, int mark) throws SQLException {
+        conn.rollback(savepoint);
+        rows.subList(mark, rows.size()).clear();
+    }
+
+    private static void insertRows(Connection conn, List<TransactionLogRow> rows) throws SQLException {
+        for (int start = 0; start < rows.size(); start += ROWS_PER_INSERT) {
+            List<TransactionLogRow> chunk = rows.subList(start, Math.min(start + ROWS_PER_INSERT, rows.size()));
+            StringBuilder sql = new StringBuilder(
+                    "INSERT INTO transactions (account_id, transaction_type, amount, related_account_id, direction, balance_after) VALUES ");
+            for (int i = 0; i < chunk.size(); i++) {
+                sql.append(i == 0 ? "(?, ?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?, ?)");
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+                int i = 1;
+                for (TransactionLogRow row : chunk) {
+                    pstmt.setInt(i++, row.accountId);
+                    pstmt.setString(i++, row.type);
+                    JdbcBankDAO.setMoney(pstmt, i++, row.amount);
+                    if (row.relatedAccountId != null) {
+                        pstmt.setInt(i++, row.relatedAccountId);
+                    } else {
+                        pstmt.setNull(i++, Types.INTEGER);
+                    }
+                    pstmt.setString(i++, row.direction);
+                    JdbcBankDAO.setMoney(pstmt, i++, row.balanceAfter);
+                }
+                pstmt.executeUpdate();
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Front for the {@code idempotency_keys} table that lets {@link JdbcBankDAO} answer a retried money
+ * movement without touching the database.
+ * <p>
+ * {@code JdbcBankDAO} claims a key by inserting it in the same transaction as the movement, so the
+ * table's primary key is what guarantees a request is applied at most once. Once that transaction
+ * has committed the key is remembered here, up to {@code maxEntries} keys, oldest evicted first;
+ * a retry whose key is still cached returns straight away, and one whose key was evicted falls
+ * back to the table. Keys are kept for {@code retentionMillis}; {@link #purgeExpired} drops every
+ * older one with a single ranged DELETE, and {@link #start} runs it on a schedule.
+ * <p>
+ * The cache is a {@link ConcurrentHashMap}, so request threads never wait on each other to look a
+ * key up. Eviction follows the order keys were remembered rather than last use: a client retries
+ * within seconds or minutes, so the oldest key is also the one least likely to be asked for again.
+ */
+public class IdempotencyStore implements AutoCloseable {
+
+    private static final class Entry {
+        final String request;
+        final long storedAt;
+
+        Entry(String request, long storedAt) {
+            this.request = request;
+            this.storedAt = storedAt;
+        }
+    }
+
+    private final ConnectionPool pool;
+    private final int maxEntries;
+    private final long retentionMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    /** Keys in the order they were remembered, oldest first; may still hold keys already dropped. */
+    private final ConcurrentLinkedQueue<String> order = new ConcurrentLinkedQueue<>();
+    private ScheduledExecutorService scheduler;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+
+    /** Uses the pool for purging; {@code null} means the shared pool managed by {@link Database}. */
+    public IdempotencyStore(ConnectionPool pool) {
+        this(pool, 100_000, TimeUnit.HOURS.toMillis(24));
+    }
+
+    public IdempotencyStore(ConnectionPool pool, int maxEntries, long retentionMillis) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive.");
+        }
+        this.pool = pool;
+        this.maxEntries = maxEntries;
+        this.retentionMillis = retentionMillis;
+    }
+
+    /** The request a key was committed for, or {@code null} if it is not cached (or has expired). */
+    String lookup(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.storedAt > retentionMillis) {
+            entries.remove(key, entry);
+            return null;
+        }
+        hits.increment();
+        return entry.request;
+    }
+
+    /** Call once the transaction that claimed {@code key} has committed. */
+    void remember(String key, String request) {
+        if (entries.put(key, new Entry(request, System.currentTimeMillis())) == null) {
+            order.add(key);
+        }
+        while (entries.size() > maxEntries) {
+            String eldest = order.poll();
+            if (eldest == null) {
+                break;
+            }
+            entries.remove(eldest);
+        }
+    }
+
+    /** Runs {@link #purgeExpired} every {@code intervalMinutes} on a background thread. */
+    public synchronized void start(long intervalMinutes) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "idempotency-key-purge");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                purgeExpired();
+            } catch (SQLException e) {
+                System.err.println("Purging idempotency keys failed: " + e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Deletes every key older than the retention period, from the table in one statement (a range
+     * on the {@code created_at} index) and from the cache. Returns the number of rows deleted.
+     */
+    public int purgeExpired() throws SQLException {
+        long cutoff = System.currentTimeMillis() - retentionMillis;
+        int deleted;
+        try (Connection conn = pool != null ? pool.getConnection() : Database.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM idempotency_keys WHERE created_at < ?")) {
+            pstmt.setTimestamp(1, new Timestamp(cutoff));
+            deleted = pstmt.executeUpdate();
+        }
+        entries.values().removeIf(entry -> entry.storedAt < cutoff);
+        for (String key; (key = order.peek()) != null && !entries.containsKey(key); ) {
+            order.remove(key);
+        }
+        purged.add(deleted);
+        return deleted;
+    }
+
+    public int size() { return entries.size(); }
+    /** Retries answered from the cache. */
+    public long getHitCount() { return hits.sum(); }
+    public long getPurgedCount() { return purged.sum(); }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
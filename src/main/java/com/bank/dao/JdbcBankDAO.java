@@ -0,0 +1,1192 @@
+package com.bank.dao;
+
+import com.bank.archive.TransactionArchive;
+import com.bank.auth.PasswordHasher;
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.config.ReplicaSet;
+import com.bank.exception.AccountException;
+import com.bank.exception.AccountNotFoundException;
+import com.bank.model.*;
+import com.bank.summary.DailySummaries;
+
+import java.io.IOException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+
+/**
+ * {@link BankDAO} over a relational database: every operation is one or more short transactions
+ * on the pool's connections, with row locks serializing writes to the same account.
+ */
+public class JdbcBankDAO implements BankDAO {
+    private final ConnectionPool pool;
+    private final ReplicaSet replicas;
+    private final TransactionRetrier retrier;
+    private final WriteStrategy writeStrategy;
+    private final AccountCache accountCache;
+    private final GroupCommitJournal journal;
+    private final TransactionArchive archive;
+    private final IdempotencyStore idempotencyStore;
+    private final AccountNumberAllocator accountNumbers;
+
+    /** Uses the shared pool managed by {@link Database}. */
+    public JdbcBankDAO() {
+        this((ConnectionPool) null);
+    }
+
+    /** Uses the given pool instead of the shared one. */
+    public JdbcBankDAO(ConnectionPool pool) {
+        this(pool, new JdbcBankDAOConfig());
+    }
+
+    /** Uses the given pool ({@code null} for the shared one) with the collaborators set in {@code config}. */
+    public JdbcBankDAO(ConnectionPool pool, JdbcBankDAOConfig config) {
+        this(pool, null, config);
+    }
+
+    /**
+     * Sends read-only queries to the set's replicas and everything else to its primary; a caller
+     * that has just written reads from the primary for a while, so it always sees its own writes.
+     */
+    public JdbcBankDAO(ReplicaSet replicas, JdbcBankDAOConfig config) {
+        this(replicas.getPrimary(), replicas, config);
+    }
+
+    private JdbcBankDAO(ConnectionPool pool, ReplicaSet replicas, JdbcBankDAOConfig config) {
+        this.pool = pool;
+        this.replicas = replicas;
+        this.retrier = config.getRetrier();
+        this.writeStrategy = config.getWriteStrategy();
+        this.accountCache = config.getAccountCache();
+        this.journal = config.getJournal();
+        this.archive = config.getArchive();
+        this.idempotencyStore = config.getIdempotencyStore();
+        this.accountNumbers = new AccountNumberAllocator(this::getConnection, AccountNumberAllocator.DEFAULT_BLOCK_SIZE);
+    }
+
+    // --- User and Account Creation ---
+    /** Stores a salted hash of the password, never the password itself. */
+    @Override
+    public int createUser(String username, String password, String firstName, String lastName) throws SQLException {
+        String sql = "INSERT INTO users (username, password_hash, first_name, last_name) VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, PasswordHasher.hash(password));
+            pstmt.setString(3, firstName);
+            pstmt.setString(4, lastName);
+            pstmt.executeUpdate();
+
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (generatedKeys.next()) {
+                    return generatedKeys.getInt(1);
+                } else {
+                    throw new SQLException("Creating user failed, no ID obtained.");
+                }
+            }
+        }
+    }
+
+    /** Opens an account with a zero balance and returns it, with its generated id and number. */
+    @Override
+    public Account createAccount(int userId, String accountType) throws SQLException {
+        String accountNumber = accountNumbers.next();
+        String sql = "INSERT INTO accounts (user_id, account_number, account_type) VALUES (?, ?, ?)";
+        int accountId;
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setString(2, accountNumber);
+            pstmt.setString(3, accountType);
+            pstmt.executeUpdate();
+            try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                if (!generatedKeys.next()) {
+                    throw new SQLException("Creating account failed, no ID obtained.");
+                }
+                accountId = generatedKeys.getInt(1);
+            }
+        }
+        if (accountCache != null) accountCache.invalidateUser(userId);
+        return newAccount(accountId, accountNumber, accountType, Money.ZERO);
+    }
+
+    /**
+     * Opens many accounts with batched INSERTs, committing every {@link #DEFAULT_BATCH_CHUNK_SIZE}
+     * accounts, and returns them in instruction order. If a chunk fails (e.g. an unknown user) the
+     * exception propagates and the chunks before it stay committed.
+     */
+    @Override
+    public List<Account> createAccounts(List<OpenAccountInstruction> instructions) throws SQLException {
+        List<Account> accounts = new ArrayList<>(instructions.size());
+        List<String> numbers = accountNumbers.next(instructions.size());
+        String sql = "INSERT INTO accounts (user_id, account_number, account_type) VALUES (?, ?, ?)";
+        for (int start = 0; start < instructions.size(); start += DEFAULT_BATCH_CHUNK_SIZE) {
+            int end = Math.min(start + DEFAULT_BATCH_CHUNK_SIZE, instructions.size());
+            try (Connection conn = getConnection()) {
+                conn.setAutoCommit(false);
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+                    for (int i = start; i < end; i++) {
+                        pstmt.setInt(1, instructions.get(i).getUserId());
+                        pstmt.setString(2, numbers.get(i));
+                        pstmt.setString(3, instructions.get(i).getAccountType());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        for (int i = start; i < end; i++) {
+                            if (!generatedKeys.next()) {
+                                throw new SQLException("Creating accounts failed, not every ID was obtained.");
+                            }
+                            accounts.add(newAccount(generatedKeys.getInt(1), numbers.get(i),
+                                    instructions.get(i).getAccountType(), Money.ZERO));
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            if (accountCache != null) {
+                for (int i = start; i < end; i++) accountCache.invalidateUser(instructions.get(i).getUserId());
+            }
+        }
+        return accounts;
+    }
+
+    // --- Core Banking Operations ---
+    // Each operation runs through the retrier, so a transaction the database aborts because of a
+    // deadlock or lock-wait timeout is rolled back and run again instead of failing the payment.
+    // An idempotency key is recorded in the movement's own transaction.
+    @Override
+    public void deposit(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (!amount.isPositive()) {
+            throw new AccountException("Deposit amount must be positive.");
+        }
+        String request = "Deposit:" + accountId + ":" + amount;
+        if (isRepeat(idempotencyKey, request)) {
+            return;
+        }
+        retrier.execute(() -> doDeposit(accountId, amount, idempotencyKey, request));
+        invalidateBalance(accountId);
+    }
+
+    @Override
+    public void withdraw(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (!amount.isPositive()) {
+            throw new AccountException("Withdrawal amount must be positive.");
+        }
+        String request = "Withdrawal:" + accountId + ":" + amount;
+        if (isRepeat(idempotencyKey, request)) {
+            return;
+        }
+        retrier.execute(() -> doWithdraw(accountId, amount, idempotencyKey, request));
+        invalidateBalance(accountId);
+    }
+
+    @Override
+    public void transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (fromAccountId == toAccountId) {
+            throw new AccountException("Cannot transfer to the same account.");
+        }
+        if (!amount.isPositive()) {
+            throw new AccountException("Transfer amount must be positive.");
+        }
+        String request = "Transfer:" + fromAccountId + ":" + toAccountId + ":" + amount;
+        if (isRepeat(idempotencyKey, request)) {
+            return;
+        }
+        retrier.execute(() -> doTransfer(fromAccountId, toAccountId, amount, idempotencyKey, request));
+        invalidateBalance(fromAccountId);
+        invalidateBalance(toAccountId);
+    }
+
+    public TransactionRetrier getRetrier() {
+        return retrier;
+    }
+
+    /** The account list cache, or {@code null} if caching is disabled. */
+    public AccountCache getAccountCache() {
+        return accountCache;
+    }
+
+    /**
+     * The replicas reads are routed to: the set this DAO was built with, the one managed by
+     * {@link Database} when it uses the shared pool, or {@code null} for a plain pool.
+     */
+    @Override
+    public ReplicaSet getReplicaSet() {
+        return replicas != null ? replicas : pool == null ? Database.getReplicaSet() : null;
+    }
+
+    public WriteStrategy getWriteStrategy() {
+        return writeStrategy;
+    }
+
+    private boolean doDeposit(int accountId, Money amount, String key, String request) throws SQLException, AccountException {
+        return runMovement(key, request, (conn, log) -> {
+            credit(conn, accountId, amount);
+            log.add(new TransactionLogRow(accountId, "Deposit", amount, null));
+        });
+    }
+
+    private boolean doWithdraw(int accountId, Money amount, String key, String request) throws SQLException, AccountException {
+        return runMovement(key, request, (conn, log) -> {
+            // Check for sufficient funds and update balance
+            debit(conn, accountId, amount, "Insufficient funds for withdrawal.");
+            log.add(new TransactionLogRow(accountId, "Withdrawal", amount, null));
+        });
+    }
+
+    private boolean doTransfer(int fromAccountId, int toAccountId, Money amount, String key, String request)
+            throws SQLException, AccountException {
+        return runMovement(key, request, (conn, log) -> {
+            if (writeStrategy == WriteStrategy.PESSIMISTIC) {
+                // Lock both rows in one statement, in ascending account_id order. Every transfer takes
+                // its locks in the same order, so A->B and B->A can no longer deadlock each other.
+                Map<Integer, Money> balances = lockAccounts(conn, new TreeSet<>(List.of(fromAccountId, toAccountId)));
+                if (!balances.containsKey(fromAccountId) || !balances.containsKey(toAccountId)) {
+                    throw new AccountNotFoundException();
+                }
+                if (balances.get(fromAccountId).isLessThan(amount)) {
+                    throw new AccountException("Insufficient funds for transfer.");
+                }
+                updateBalance(conn, fromAccountId, amount.negate());
+                updateBalance(conn, toAccountId, amount);
+            } else if (fromAccountId < toAccountId) {
+                // The UPDATEs take the row locks here, so they too run in ascending account_id order.
+                debit(conn, fromAccountId, amount, "Insufficient funds for transfer.");
+                credit(conn, toAccountId, amount);
+            } else {
+                credit(conn, toAccountId, amount);
+                debit(conn, fromAccountId, amount, "Insufficient funds for transfer.");
+            }
+            // Log transactions for both accounts
+            log.add(TransactionLogRow.transferOut(fromAccountId, amount, toAccountId));
+            log.add(TransactionLogRow.transferIn(toAccountId, amount, fromAccountId));
+        });
+    }
+
+    /**
+     * Runs a movement that may carry an idempotency key: the key is claimed first, in the same
+     * transaction. Returns false if the key had already been committed for this request.
+     */
+    private boolean runMovement(String key, String request, GroupCommitJournal.Unit unit) throws SQLException, AccountException {
+        if (key == null) {
+            runMovement(unit);
+            return true;
+        }
+        boolean applied = true;
+        try {
+            runMovement((conn, log) -> {
+                claimIdempotencyKey(conn, key, request);
+                unit.apply(conn, log);
+            });
+        } catch (RequestAlreadyApplied e) {
+            applied = false;
+        }
+        // Either way the key is now committed for this request.
+        if (idempotencyStore != null) idempotencyStore.remember(key, request);
+        return applied;
+    }
+
+    /**
+     * Runs one money movement atomically: through the group-commit journal when one is
+     * configured, otherwise in its own transaction with one INSERT per log row.
+     */
+    private void runMovement(GroupCommitJournal.Unit unit) throws SQLException, AccountException {
+        if (journal != null) {
+            journal.execute(unit);
+            return;
+        }
+        Connection conn = null;
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false); // Start transaction
+
+            List<TransactionLogRow> log = new ArrayList<>(2);
+            unit.apply(conn, log);
+            for (TransactionLogRow row : log) {
+                logTransaction(conn, row);
+            }
+
+            conn.commit(); // Commit transaction
+        } catch (SQLException | AccountException e) {
+            if (conn != null) conn.rollback();
+            throw e;
+        } finally {
+            if (conn != null) conn.close();
+        }
+    }
+
+    // --- Write Strategies ---
+    /** Adds {@code amount} to the balance; fails if the account does not exist. */
+    private void credit(Connection conn, int accountId, Money amount) throws SQLException {
+        if (updateBalance(conn, accountId, amount) == 0) {
+            throw new AccountNotFoundException();
+        }
+    }
+
+    /** Takes {@code amount} off the balance if the funds are there, using the configured strategy. */
+    private void debit(Connection conn, int accountId, Money amount, String insufficientMessage) throws SQLException, AccountException {
+        switch (writeStrategy) {
+            case PESSIMISTIC: {
+                Money currentBalance = getAccountBalance(conn, accountId);
+                if (currentBalance.isLessThan(amount)) {
+                    throw new AccountException(insufficientMessage);
+                }
+                updateBalance(conn, accountId, amount.negate());
+                break;
+            }
+            case CONDITIONAL_UPDATE: {
+                String sql = "UPDATE accounts SET balance = balance - ?, version = version + 1 WHERE account_id = ? AND balance >= ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    setMoney(pstmt, 1, amount);
+                    pstmt.setInt(2, accountId);
+                    setMoney(pstmt, 3, amount);
+                    if (pstmt.executeUpdate() == 0) {
+                        requireAccountExists(conn, accountId);
+                        throw new AccountException(insufficientMessage);
+                    }
+                }
+                break;
+            }
+            case OPTIMISTIC: {
+                Money currentBalance;
+                long version;
+                try (PreparedStatement pstmt = conn.prepareStatement("SELECT balance, version FROM accounts WHERE account_id = ?")) {
+                    pstmt.setInt(1, accountId);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        if (!rs.next()) {
+                            throw new AccountNotFoundException();
+                        }
+                        currentBalance = getMoney(rs, "balance");
+                        version = rs.getLong("version");
+                    }
+                }
+                if (currentBalance.isLessThan(amount)) {
+                    throw new AccountException(insufficientMessage);
+                }
+                String sql = "UPDATE accounts SET balance = ?, version = version + 1 WHERE account_id = ? AND version = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    setMoney(pstmt, 1, currentBalance.minus(amount));
+                    pstmt.setInt(2, accountId);
+                    pstmt.setLong(3, version);
+                    if (pstmt.executeUpdate() == 0) {
+                        throw new SQLTransactionRollbackException(
+                                "Account " + accountId + " was modified concurrently.", "40001");
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown write strategy " + writeStrategy);
+        }
+    }
+
+    private int updateBalance(Connection conn, int accountId, Money delta) throws SQLException {
+        String sql = "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE account_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            setMoney(pstmt, 1, delta);
+            pstmt.setInt(2, accountId);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    private void requireAccountExists(Connection conn, int accountId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM accounts WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    throw new AccountNotFoundException();
+                }
+            }
+        }
+    }
+
+    // --- Batch Operations ---
+    public static final int DEFAULT_BATCH_CHUNK_SIZE = 500;
+
+    @Override
+    public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) throws SQLException {
+        return transferBatch(instructions, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Applies many transfers using batched statements, committing every {@code chunkSize} items.
+     * Each item is applied or rejected on its own (e.g. for insufficient funds); a rejected item
+     * does not affect the others. Items are evaluated in list order, so a transfer can spend money
+     * credited by an earlier item in the same batch.
+     */
+    public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions, int chunkSize) throws SQLException {
+        List<Movement> movements = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            TransferInstruction t = instructions.get(i);
+            movements.add(new Movement(i, t.getFromAccountId(), t.getToAccountId(), t.getAmount()));
+        }
+        return applyBatch(movements, chunkSize);
+    }
+
+    @Override
+    public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) throws SQLException {
+        return depositBatch(instructions, DEFAULT_BATCH_CHUNK_SIZE);
+    }
+
+    /**
+     * Applies many deposits using batched statements, committing every {@code chunkSize} items.
+     */
+    public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions, int chunkSize) throws SQLException {
+        List<Movement> movements = new ArrayList<>(instructions.size());
+        for (int i = 0; i < instructions.size(); i++) {
+            DepositInstruction d = instructions.get(i);
+            movements.add(new Movement(i, 0, d.getAccountId(), d.getAmount()));
+        }
+        return applyBatch(movements, chunkSize);
+    }
+
+    // --- Data Retrieval ---
+    /**
+     * Looks the user up by name for {@link #login}, which checks the password against the stored
+     * salted hash. That check is deliberately slow; callers serving many requests should open a
+     * session once per login rather than call it per request.
+     */
+    @Override
+    public UserCredentials findCredentials(String username) throws SQLException {
+        String sql = "SELECT user_id, username, password_hash, first_name, last_name FROM users WHERE username = ?";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, username);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                User user = new User(rs.getInt("user_id"), rs.getString("username"), rs.getString("first_name"), rs.getString("last_name"));
+                return new UserCredentials(user, rs.getString("password_hash"));
+            }
+        }
+    }
+
+    /**
+     * Returns the user's accounts, served from the {@link AccountCache} when one is configured.
+     * The returned list is read-only. A caller pinned to the primary by a recent write skips the
+     * cache, which another caller may have filled from a replica that had not caught up yet.
+     */
+    @Override
+    public List<Account> getAccountsByUserId(int userId) throws SQLException {
+        if (accountCache == null) {
+            return loadAccounts(userId);
+        }
+        ReplicaSet set = getReplicaSet();
+        List<Account> accounts = set != null && set.isPinned() ? null : accountCache.getIfFresh(userId);
+        if (accounts != null) {
+            return accounts;
+        }
+        long generation = accountCache.beginLoad();
+        List<Account> cached = accountCache.getMetadata(userId);
+        accounts = cached != null ? refreshBalances(userId, cached) : null;
+        if (accounts == null) {
+            accounts = loadAccounts(userId);
+        }
+        accountCache.put(userId, accounts, generation);
+        return Collections.unmodifiableList(accounts);
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
+        List<Transaction> transactions = new ArrayList<>();
+        String sql = "SELECT " + HISTORY_COLUMNS + " FROM transactions WHERE account_id = ? "
+                + "ORDER BY transaction_date DESC, transaction_id DESC";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+        }
+        if (archive != null) {
+            for (YearMonth month : archive.months()) {
+                transactions.addAll(readArchive(month, accountId));
+            }
+        }
+        return transactions;
+    }
+
+    /**
+     * Returns one page of history, newest first. Pass {@code null} as the cursor for the first page
+     * and {@link TransactionPage#getNextCursor()} for each following page. Pages are located by
+     * keyset on (transaction_date, transaction_id), so the cost per page does not depend on how
+     * deep into the history it is.
+     */
+    @Override
+    public TransactionPage getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) throws SQLException {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Page size must be positive.");
+        }
+        String sql = cursor == null
+                ? "SELECT " + HISTORY_COLUMNS + " FROM transactions WHERE account_id = ? "
+                        + "ORDER BY transaction_date DESC, transaction_id DESC LIMIT ?"
+                : "SELECT " + HISTORY_COLUMNS + " FROM transactions WHERE account_id = ? "
+                        + "AND (transaction_date < ? OR (transaction_date = ? AND transaction_id < ?)) "
+                        + "ORDER BY transaction_date DESC, transaction_id DESC LIMIT ?";
+        List<Transaction> transactions = new ArrayList<>(pageSize);
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            int i = 1;
+            pstmt.setInt(i++, accountId);
+            if (cursor != null) {
+                pstmt.setTimestamp(i++, cursor.getTransactionDate());
+                pstmt.setTimestamp(i++, cursor.getTransactionDate());
+                pstmt.setInt(i++, cursor.getTransactionId());
+            }
+            pstmt.setInt(i, pageSize + 1); // one extra row tells us whether another page exists
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    transactions.add(mapTransaction(rs));
+                }
+            }
+        }
+        if (archive != null && transactions.size() <= pageSize) {
+            HistoryCursor from = transactions.isEmpty() ? cursor : cursorOf(transactions.get(transactions.size() - 1));
+            appendArchived(accountId, from, pageSize + 1 - transactions.size(), transactions);
+        }
+        HistoryCursor next = null;
+        if (transactions.size() > pageSize) {
+            transactions.remove(pageSize);
+            Transaction last = transactions.get(pageSize - 1);
+            next = cursorOf(last);
+        }
+        return new TransactionPage(transactions, next);
+    }
+
+    /**
+     * Streams an account's full history, newest first, to {@code sink} without materialising it.
+     * Rows are fetched from the server {@code fetchSize} at a time.
+     */
+    public void streamTransactionHistory(int accountId, int fetchSize, Consumer<Transaction> sink) throws SQLException {
+        String sql = "SELECT " + HISTORY_COLUMNS + " FROM transactions WHERE account_id = ? "
+                + "ORDER BY transaction_date DESC, transaction_id DESC";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize);
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(mapTransaction(rs));
+                }
+            }
+        }
+        if (archive != null) {
+            for (YearMonth month : archive.months()) {
+                readArchive(month, accountId).forEach(sink);
+            }
+        }
+    }
+    
+    // --- Point-in-Time Balances ---
+    /**
+     * Returns the balance the account had at {@code asOf}: the running balance stored on its last
+     * transaction at or before that instant, which is a single index probe however old the
+     * account is. If no such transaction is left in the table (none yet, or moved out by
+     * archiving), falls back to the latest balance snapshot at or before {@code asOf}, and to zero
+     * when there is none.
+     */
+    @Override
+    public Money getBalanceAsOf(int accountId, Timestamp asOf) throws SQLException {
+        String sql = "SELECT balance_after FROM transactions WHERE account_id = ? AND transaction_date <= ? "
+                + "ORDER BY transaction_date DESC, transaction_id DESC LIMIT 1";
+        String snapshotSql = "SELECT balance FROM balance_snapshots WHERE account_id = ? AND snapshot_date <= ? "
+                + "ORDER BY snapshot_date DESC LIMIT 1";
+        try (Connection conn = getReadConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, accountId);
+                pstmt.setTimestamp(2, asOf);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return getMoney(rs, "balance_after");
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(snapshotSql)) {
+                pstmt.setInt(1, accountId);
+                pstmt.setTimestamp(2, asOf);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? getMoney(rs, "balance") : Money.ZERO;
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the current balance of every account under {@code snapshotDate}, in one statement.
+     * Meant to run periodically (e.g. nightly) so {@link #getBalanceAsOf} keeps working for
+     * instants whose transactions have been archived. Returns the number of accounts snapshotted.
+     */
+    public int snapshotBalances(Timestamp snapshotDate) throws SQLException {
+        String sql = "INSERT INTO balance_snapshots (account_id, snapshot_date, balance) SELECT account_id, ?, balance FROM accounts";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, snapshotDate);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    // --- Daily Summaries ---
+    /**
+     * Reads one {@code daily_summaries} row per day with activity, plus the account's transactions
+     * the {@link com.bank.summary.DailySummaryJob} has not summarized yet, so a year's statement costs about 365 rows
+     * rather than the account's whole log. That only holds while the job runs: {@code App --serve}
+     * starts it, and anything else embedding this DAO has to start one itself.
+     */
+    @Override
+    public List<ActivitySummary> getDailySummaries(int accountId, LocalDate from, LocalDate to) throws SQLException {
+        try (Connection conn = getReadConnection()) {
+            return DailySummaries.read(conn, accountId, from, to);
+        }
+    }
+
+    // --- Cross-Shard Transfer Legs ---
+    // Used by ShardedBankDAO when the two accounts of a transfer live on different shards. Each
+    // leg is a local transaction on its own shard; the outbox row committed with the debit is
+    // what guarantees the transfer is eventually either credited or refunded.
+
+    /** A transfer debited on this shard whose credit has not been confirmed yet. */
+    static final class OutboxEntry {
+        final String transferId;
+        final int fromAccountId;
+        final int toAccountId;
+        final Money amount;
+
+        OutboxEntry(String transferId, int fromAccountId, int toAccountId, Money amount) {
+            this.transferId = transferId;
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+        }
+    }
+
+    /**
+     * First leg: debits the source and records the transfer in the outbox, in one transaction.
+     * Returns false if the idempotency key had already been applied, in which case nothing moved.
+     */
+    boolean transferOut(String transferId, int fromAccountId, int toAccountId, Money amount, String idempotencyKey)
+            throws SQLException, AccountException {
+        String request = "Transfer:" + fromAccountId + ":" + toAccountId + ":" + amount;
+        if (isRepeat(idempotencyKey, request)) {
+            return false;
+        }
+        boolean applied = retrier.execute(() -> runMovement(idempotencyKey, request, (conn, log) -> {
+            debit(conn, fromAccountId, amount, "Insufficient funds for transfer.");
+            log.add(TransactionLogRow.transferOut(fromAccountId, amount, toAccountId));
+            String sql = "INSERT INTO transfer_outbox (transfer_id, from_account_id, to_account_id, amount) VALUES (?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, transferId);
+                pstmt.setInt(2, fromAccountId);
+                pstmt.setInt(3, toAccountId);
+                setMoney(pstmt, 4, amount);
+                pstmt.executeUpdate();
+            }
+        }));
+        invalidateBalance(fromAccountId);
+        return applied;
+    }
+
+    /**
+     * Second leg: credits the destination, at most once per transfer id however often it is
+     * retried. Returns false, crediting nothing, if the account does not exist on this shard.
+     */
+    boolean transferIn(String transferId, int fromAccountId, int toAccountId, Money amount) throws SQLException, AccountException {
+        if (!accountExists(toAccountId)) {
+            return false;
+        }
+        String request = "TransferIn:" + fromAccountId + ":" + toAccountId + ":" + amount;
+        retrier.execute(() -> runMovement("transfer-in:" + transferId, request, (conn, log) -> {
+            credit(conn, toAccountId, amount);
+            log.add(TransactionLogRow.transferIn(toAccountId, amount, fromAccountId));
+        }));
+        invalidateBalance(toAccountId);
+        return true;
+    }
+
+    /** Checked on the primary, so an account created a moment ago is found. */
+    boolean accountExists(int accountId) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM accounts WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    /** Last leg once the credit is in: the transfer leaves the outbox. */
+    void completeTransferOut(String transferId) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("DELETE FROM transfer_outbox WHERE transfer_id = ?")) {
+            pstmt.setString(1, transferId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Compensation when the credit cannot be made: gives the money back to the source, logged as
+     * a deposit from the intended destination, and removes the transfer from the outbox. Does
+     * nothing if the transfer has already left the outbox.
+     */
+    void refundTransferOut(OutboxEntry entry) throws SQLException, AccountException {
+        retrier.execute(() -> {
+            runMovement((conn, log) -> {
+                try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM transfer_outbox WHERE transfer_id = ?")) {
+                    pstmt.setString(1, entry.transferId);
+                    if (pstmt.executeUpdate() == 0) {
+                        return;
+                    }
+                }
+                credit(conn, entry.fromAccountId, entry.amount);
+                log.add(new TransactionLogRow(entry.fromAccountId, "Deposit", entry.amount, entry.toAccountId));
+            });
+            return null;
+        });
+        invalidateBalance(entry.fromAccountId);
+    }
+
+    /** Outbox rows older than {@code minAgeMillis}, oldest first. */
+    List<OutboxEntry> pendingTransfersOut(long minAgeMillis) throws SQLException {
+        String sql = "SELECT transfer_id, from_account_id, to_account_id, amount FROM transfer_outbox "
+                + "WHERE created_at <= ? ORDER BY created_at";
+        List<OutboxEntry> entries = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - minAgeMillis));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    entries.add(new OutboxEntry(rs.getString("transfer_id"), rs.getInt("from_account_id"),
+                            rs.getInt("to_account_id"), getMoney(rs, "amount")));
+                }
+            }
+        }
+        return entries;
+    }
+
+    // --- Helper Methods ---
+    private static final String HISTORY_COLUMNS = "transaction_id, transaction_type, amount, balance_after, transaction_date";
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final String KEY_REUSED = "Idempotency key was already used for a different request.";
+
+    /** Thrown inside a movement's transaction when its key turns out to be committed already. */
+    private static final class RequestAlreadyApplied extends AccountException {
+        RequestAlreadyApplied() {
+            super("Request was already applied.");
+        }
+    }
+
+    /** True if the key's request is known to have committed; checks only the in-memory store. */
+    private boolean isRepeat(String key, String request) throws AccountException {
+        if (key == null) {
+            return false;
+        }
+        if (key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new AccountException("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        String previous = idempotencyStore != null ? idempotencyStore.lookup(key) : null;
+        if (previous == null) {
+            return false;
+        }
+        if (!previous.equals(request)) {
+            throw new AccountException(KEY_REUSED);
+        }
+        return true;
+    }
+
+    /**
+     * Inserts the key. If it already exists (committed by an earlier attempt, or by a concurrent
+     * one we waited for on the primary key), fails with {@link RequestAlreadyApplied} when it was
+     * for the same request and with an {@link AccountException} otherwise.
+     */
+    private static void claimIdempotencyKey(Connection conn, String key, String request) throws SQLException, AccountException {
+        try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO idempotency_keys (idempotency_key, request) VALUES (?, ?)")) {
+            pstmt.setString(1, key);
+            pstmt.setString(2, request);
+            pstmt.executeUpdate();
+            return;
+        } catch (SQLException e) {
+            if (!(e instanceof SQLIntegrityConstraintViolationException) && (e.getSQLState() == null || !e.getSQLState().startsWith("23"))) {
+                throw e;
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT request FROM idempotency_keys WHERE idempotency_key = ?")) {
+            pstmt.setString(1, key);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getString(1).equals(request)) {
+                    throw new RequestAlreadyApplied();
+                }
+            }
+        }
+        throw new AccountException(KEY_REUSED);
+    }
+
+    private static HistoryCursor cursorOf(Transaction t) {
+        return new HistoryCursor(t.getTransactionDate(), t.getTransactionId());
+    }
+
+    /**
+     * Appends up to {@code limit} archived rows older than {@code from} (all of them if it is
+     * {@code null}). Archived months are all older than anything left in the table, so they simply
+     * continue a newest-first listing.
+     */
+    private void appendArchived(int accountId, HistoryCursor from, int limit, List<Transaction> out) throws SQLException {
+        for (YearMonth month : archive.months()) {
+            if (from != null && month.atDay(1).atStartOfDay().isAfter(from.getTransactionDate().toLocalDateTime())) {
+                continue;
+            }
+            for (Transaction t : readArchive(month, accountId)) {
+                if (from != null && !isBefore(t, from)) {
+                    continue;
+                }
+                out.add(t);
+                if (--limit == 0) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static boolean isBefore(Transaction t, HistoryCursor cursor) {
+        int c = t.getTransactionDate().compareTo(cursor.getTransactionDate());
+        return c < 0 || (c == 0 && t.getTransactionId() < cursor.getTransactionId());
+    }
+
+    private List<Transaction> readArchive(YearMonth month, int accountId) throws SQLException {
+        try {
+            return archive.read(month, accountId);
+        } catch (IOException e) {
+            throw new SQLException("Could not read archived transactions for " + month + ".", e);
+        }
+    }
+
+    /** Borrows a primary connection; used for every write and for reads that must be current. */
+    private Connection getConnection() throws SQLException {
+        ReplicaSet set = getReplicaSet();
+        return set != null ? set.getWriteConnection() : pool.getConnection();
+    }
+
+    /** Borrows a connection for a read-only query, from a replica when there is one. */
+    private Connection getReadConnection() throws SQLException {
+        ReplicaSet set = getReplicaSet();
+        return set != null ? set.getReadConnection() : pool.getConnection();
+    }
+
+    private List<Account> loadAccounts(int userId) throws SQLException {
+        List<Account> accounts = new ArrayList<>();
+        String sql = "SELECT account_id, account_number, account_type, balance FROM accounts WHERE user_id = ? ORDER BY account_id";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int accountId = rs.getInt("account_id");
+                    String accountNumber = rs.getString("account_number");
+                    Money balance = getMoney(rs, "balance");
+                    String accountType = rs.getString("account_type");
+                    accounts.add(newAccount(accountId, accountNumber, accountType, balance));
+                }
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Re-reads only the balances for a cached account list. Returns {@code null} if the set of
+     * accounts no longer matches, in which case the caller reloads everything.
+     */
+    private List<Account> refreshBalances(int userId, List<Account> cached) throws SQLException {
+        Map<Integer, Money> balances = new HashMap<>();
+        String sql = "SELECT account_id, balance FROM accounts WHERE user_id = ?";
+        try (Connection conn = getReadConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, userId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getInt("account_id"), getMoney(rs, "balance"));
+                }
+            }
+        }
+        if (balances.size() != cached.size()) {
+            return null;
+        }
+        List<Account> accounts = new ArrayList<>(cached.size());
+        for (Account account : cached) {
+            Money balance = balances.get(account.getAccountId());
+            if (balance == null) {
+                return null;
+            }
+            accounts.add(newAccount(account.getAccountId(), account.getAccountNumber(), account.getAccountType(), balance));
+        }
+        return accounts;
+    }
+
+    private Account newAccount(int accountId, String accountNumber, String accountType, Money balance) {
+        if ("Savings".equalsIgnoreCase(accountType)) {
+            return new SavingsAccount(accountId, accountNumber, balance);
+        }
+        return new CurrentAccount(accountId, accountNumber, balance);
+    }
+
+    private void invalidateBalance(int accountId) {
+        if (accountCache != null) accountCache.invalidateBalance(accountId);
+    }
+
+    private Transaction mapTransaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+            rs.getInt("transaction_id"),
+            rs.getString("transaction_type"),
+            getMoney(rs, "amount"),
+            getMoney(rs, "balance_after"),
+            rs.getTimestamp("transaction_date")
+        );
+    }
+
+    private Money getAccountBalance(Connection conn, int accountId) throws SQLException {
+        String sql = "SELECT balance FROM accounts WHERE account_id = ? FOR UPDATE"; // Lock row for transaction
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return getMoney(rs, "balance");
+                }
+                throw new AccountNotFoundException();
+            }
+        }
+    }
+
+    // DECIMAL(15,2) columns cross the JDBC boundary as BigDecimal; everything else works on Money.
+    static Money getMoney(ResultSet rs, String column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column));
+    }
+
+    static void setMoney(PreparedStatement pstmt, int index, Money amount) throws SQLException {
+        pstmt.setBigDecimal(index, amount.toBigDecimal());
+    }
+
+    /**
+     * Writes one log row. Runs after the movement's balance updates in the same transaction, so
+     * the balance it copies from the (still locked) account row is the balance after this movement.
+     */
+    private void logTransaction(Connection conn, TransactionLogRow row) throws SQLException {
+        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, related_account_id, direction, balance_after) "
+                + "SELECT ?, ?, ?, ?, ?, balance FROM accounts WHERE account_id = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, row.accountId);
+            pstmt.setString(2, row.type);
+            setMoney(pstmt, 3, row.amount);
+            if (row.relatedAccountId != null) {
+                pstmt.setInt(4, row.relatedAccountId);
+            } else {
+                pstmt.setNull(4, Types.INTEGER);
+            }
+            pstmt.setString(5, row.direction);
+            pstmt.setInt(6, row.accountId);
+            pstmt.executeUpdate();
+        }
+    }
+
+    // --- Batch Internals ---
+    /** A deposit ({@code fromAccountId == 0}) or transfer line item. */
+    private static final class Movement {
+        final int index;
+        final int fromAccountId;
+        final int toAccountId;
+        final Money amount;
+        // Running balances once this item is applied, for the log rows.
+        Money fromBalanceAfter;
+        Money toBalanceAfter;
+
+        Movement(int index, int fromAccountId, int toAccountId, Money amount) {
+            this.index = index;
+            this.fromAccountId = fromAccountId;
+            this.toAccountId = toAccountId;
+            this.amount = amount;
+        }
+
+        boolean isDeposit() { return fromAccountId == 0; }
+    }
+
+    private List<BatchItemResult> applyBatch(List<Movement> movements, int chunkSize) throws SQLException {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive.");
+        }
+        BatchItemResult[] results = new BatchItemResult[movements.size()];
+        for (int start = 0; start < movements.size(); start += chunkSize) {
+            List<Movement> chunk = movements.subList(start, Math.min(start + chunkSize, movements.size()));
+            try {
+                applyChunkWithRetry(chunk, results);
+            } catch (SQLException e) {
+                // The chunk failed as a whole; apply its items one at a time so a single bad item
+                // cannot sink the rest.
+                for (Movement m : chunk) {
+                    try {
+                        applyChunkWithRetry(Collections.singletonList(m), results);
+                    } catch (SQLException itemError) {
+                        results[m.index] = BatchItemResult.rejected(m.index, itemError.getMessage());
+                    }
+                }
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Applies one chunk in a single transaction: lock every account involved (in account_id order),
+     * decide each item against the running in-memory balances, then write the net balance changes
+     * and the transaction log rows as two JDBC batches. Batches always lock up front whatever the
+     * write strategy, since one ordered lock statement per chunk is already a single round trip.
+     */
+    private void applyChunk(List<Movement> chunk, BatchItemResult[] results) throws SQLException {
+        List<Movement> candidates = new ArrayList<>(chunk.size());
+        Set<Integer> accountIds = new TreeSet<>();
+        for (Movement m : chunk) {
+            if (m.amount == null || !m.amount.isPositive()) {
+                results[m.index] = BatchItemResult.rejected(m.index, "Amount must be positive.");
+            } else if (m.fromAccountId == m.toAccountId) {
+                results[m.index] = BatchItemResult.rejected(m.index, "Cannot transfer to the same account.");
+            } else {
+                candidates.add(m);
+                accountIds.add(m.toAccountId);
+                if (!m.isDeposit()) accountIds.add(m.fromAccountId);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return;
+        }
+
+        Connection conn = getConnection();
+        try {
+            conn.setAutoCommit(false);
+            Map<Integer, Money> balances = lockAccounts(conn, accountIds);
+            Map<Integer, Money> deltas = new TreeMap<>();
+            List<Movement> applied = new ArrayList<>(candidates.size());
+            for (Movement m : candidates) {
+                if (!balances.containsKey(m.toAccountId) || (!m.isDeposit() && !balances.containsKey(m.fromAccountId))) {
+                    results[m.index] = BatchItemResult.rejected(m.index, "Account not found.");
+                    continue;
+                }
+                if (!m.isDeposit()) {
+                    Money fromBalance = balances.get(m.fromAccountId);
+                    if (fromBalance.isLessThan(m.amount)) {
+                        results[m.index] = BatchItemResult.rejected(m.index, "Insufficient funds for transfer.");
+                        continue;
+                    }
+                    m.fromBalanceAfter = fromBalance.minus(m.amount);
+                    balances.put(m.fromAccountId, m.fromBalanceAfter);
+                    deltas.merge(m.fromAccountId, m.amount.negate(), Money::plus);
+                }
+                m.toBalanceAfter = balances.merge(m.toAccountId, m.amount, Money::plus);
+                deltas.merge(m.toAccountId, m.amount, Money::plus);
+                applied.add(m);
+            }
+
+            String updateSql = "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE account_id = ?";
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                for (Map.Entry<Integer, Money> delta : deltas.entrySet()) {
+                    if (delta.getValue().isZero()) continue;
+                    setMoney(pstmt, 1, delta.getValue());
+                    pstmt.setInt(2, delta.getKey());
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+
+            String logSql = "INSERT INTO transactions (account_id, transaction_type, amount, related_account_id, direction, balance_after) "
+                    + "VALUES (?, ?, ?, ?, ?, ?)";
+            try (PreparedStatement pstmt = conn.prepareStatement(logSql)) {
+                for (Movement m : applied) {
+                    if (m.isDeposit()) {
+                        addLogBatch(pstmt, m.toAccountId, "Deposit", m.amount, null, null, m.toBalanceAfter);
+                    } else {
+                        addLogBatch(pstmt, m.fromAccountId, "Transfer", m.amount, m.toAccountId, "Out", m.fromBalanceAfter);
+                        addLogBatch(pstmt, m.toAccountId, "Transfer", m.amount, m.fromAccountId, "In", m.toBalanceAfter);
+                    }
+                }
+                pstmt.executeBatch();
+            }
+
+            conn.commit();
+            for (Movement m : applied) {
+                results[m.index] = BatchItemResult.applied(m.index);
+            }
+            for (int accountId : deltas.keySet()) {
+                invalidateBalance(accountId);
+            }
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.close();
+        }
+    }
+
+    private void applyChunkWithRetry(List<Movement> chunk, BatchItemResult[] results) throws SQLException {
+        retrier.execute(() -> {
+            applyChunk(chunk, results);
+            return null;
+        });
+    }
+
+    /** Locks the given accounts in ascending account_id order and returns their balances. */
+    private Map<Integer, Money> lockAccounts(Connection conn, Set<Integer> accountIds) throws SQLException {
+        return readBalances(conn, accountIds, true);
+    }
+
+    /** Current balances of the given accounts, optionally locking the rows in account_id order. */
+    static Map<Integer, Money> readBalances(Connection conn, Collection<Integer> accountIds, boolean forUpdate) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT account_id, balance FROM accounts WHERE account_id IN (");
+        for (int i = 0; i < accountIds.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(forUpdate ? ") ORDER BY account_id FOR UPDATE" : ")");
+        Map<Integer, Money> balances = new HashMap<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int i = 1;
+            for (int accountId : accountIds) {
+                pstmt.setInt(i++, accountId);
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    balances.put(rs.getInt("account_id"), getMoney(rs, "balance"));
+                }
+            }
+        }
+        return balances;
+    }
+
+    private void addLogBatch(PreparedStatement pstmt, int accountId, String type, Money amount, Integer relatedAccountId,
+                             String direction, Money balanceAfter) throws SQLException {
+        pstmt.setInt(1, accountId);
+        pstmt.setString(2, type);
+        setMoney(pstmt, 3, amount);
+        if (relatedAccountId != null) {
+            pstmt.setInt(4, relatedAccountId);
+        } else {
+            pstmt.setNull(4, Types.INTEGER);
+        }
+        pstmt.setString(5, direction);
+        setMoney(pstmt, 6, balanceAfter);
+        pstmt.addBatch();
+    }
+}
\ No newline at end of file
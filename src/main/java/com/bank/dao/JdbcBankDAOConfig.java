@@ -0,0 +1,73 @@
+package com.bank.dao;
+
+import com.bank.archive.TransactionArchive;
+
+/**
+ * Optional collaborators and settings for a {@link JdbcBankDAO}; anything not set keeps its default.
+ * Setters return {@code this} so a config can be built up in one expression. The default account
+ * cache is created with the config, so use one config per DAO.
+ */
+public class JdbcBankDAOConfig {
+    private TransactionRetrier retrier = new TransactionRetrier();
+    private WriteStrategy writeStrategy = WriteStrategy.PESSIMISTIC;
+    private AccountCache accountCache = new AccountCache();
+    private GroupCommitJournal journal;
+    private TransactionArchive archive;
+    private IdempotencyStore idempotencyStore;
+
+    public TransactionRetrier getRetrier() { return retrier; }
+    public WriteStrategy getWriteStrategy() { return writeStrategy; }
+    public AccountCache getAccountCache() { return accountCache; }
+    public GroupCommitJournal getJournal() { return journal; }
+    public TransactionArchive getArchive() { return archive; }
+    public IdempotencyStore getIdempotencyStore() { return idempotencyStore; }
+
+    public JdbcBankDAOConfig setRetrier(TransactionRetrier retrier) {
+        if (retrier == null) {
+            throw new IllegalArgumentException("retrier cannot be null.");
+        }
+        this.retrier = retrier;
+        return this;
+    }
+
+    public JdbcBankDAOConfig setWriteStrategy(WriteStrategy writeStrategy) {
+        if (writeStrategy == null) {
+            throw new IllegalArgumentException("writeStrategy cannot be null.");
+        }
+        this.writeStrategy = writeStrategy;
+        return this;
+    }
+
+    /** {@code null} always reads account lists from the database. */
+    public JdbcBankDAOConfig setAccountCache(AccountCache accountCache) {
+        this.accountCache = accountCache;
+        return this;
+    }
+
+    /**
+     * Coalesces deposits, withdrawals and transfers from concurrent callers into shared commits;
+     * {@code null} (the default) commits each operation on its own.
+     */
+    public JdbcBankDAOConfig setJournal(GroupCommitJournal journal) {
+        this.journal = journal;
+        return this;
+    }
+
+    /**
+     * Lets history reads continue into archived months once the rows left in the
+     * {@code transactions} table run out; {@code null} (the default) reads the table only.
+     */
+    public JdbcBankDAOConfig setArchive(TransactionArchive archive) {
+        this.archive = archive;
+        return this;
+    }
+
+    /**
+     * Answers retried requests that carry an idempotency key from memory; {@code null} (the
+     * default) still honours keys, but checks them in the database.
+     */
+    public JdbcBankDAOConfig setIdempotencyStore(IdempotencyStore idempotencyStore) {
+        this.idempotencyStore = idempotencyStore;
+        return this;
+    }
+}
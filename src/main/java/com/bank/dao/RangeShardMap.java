@@ -0,0 +1,86 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Shard map that reads the shard straight from the id: shard {@code s} generates user and account
+ * ids in its own range starting at {@code s * ID_RANGE + 1}, so routing needs no lookup table.
+ * Usernames are spread by hash. {@link #prepare} sets a new shard's counters up accordingly;
+ * with up to {@link #MAX_SHARDS} shards every shard has room for 134 million users and accounts.
+ * <p>
+ * Adding shards later changes where usernames hash to, so the shard count is fixed once users
+ * exist; growing beyond it takes a map that remembers placements.
+ */
+public class RangeShardMap implements ShardMap {
+    public static final int MAX_SHARDS = 16;
+    static final int ID_RANGE = 1 << 27;
+    /** Account number sequence values per shard, so numbers stay unique across shards. */
+    static final long NUMBERS_PER_SHARD = 6_000_000_000L;
+
+    private final int shardCount;
+
+    public RangeShardMap(int shardCount) {
+        if (shardCount <= 0 || shardCount > MAX_SHARDS) {
+            throw new IllegalArgumentException("shardCount must be between 1 and " + MAX_SHARDS + ".");
+        }
+        this.shardCount = shardCount;
+    }
+
+    @Override
+    public int shardCount() {
+        return shardCount;
+    }
+
+    @Override
+    public int shardOfUsername(String username) {
+        return Math.floorMod(username.hashCode(), shardCount);
+    }
+
+    @Override
+    public int shardOfUser(int userId) {
+        return shardOfId(userId);
+    }
+
+    @Override
+    public int shardOfAccount(int accountId) {
+        return shardOfId(accountId);
+    }
+
+    /**
+     * Starts the id counters and account number sequence of an empty shard at the shard's range.
+     * Run once per shard after loading the schema.
+     */
+    public static void prepare(ConnectionPool pool, int shard) throws SQLException {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("shard must be between 0 and " + (MAX_SHARDS - 1) + ".");
+        }
+        long firstId = (long) shard * ID_RANGE + 1;
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement()) {
+            boolean mysql = conn.getMetaData().getDatabaseProductName().equalsIgnoreCase("MySQL");
+            for (String[] column : new String[][]{{"users", "user_id"}, {"accounts", "account_id"}}) {
+                stmt.execute(mysql
+                        ? "ALTER TABLE " + column[0] + " AUTO_INCREMENT = " + firstId
+                        : "ALTER TABLE " + column[0] + " ALTER COLUMN " + column[1] + " RESTART WITH " + firstId);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "UPDATE account_number_sequence SET next_value = ? WHERE sequence_name = 'accounts'")) {
+                pstmt.setLong(1, shard * NUMBERS_PER_SHARD + 1);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    private int shardOfId(int id) {
+        int shard = (id - 1) / ID_RANGE;
+        if (id <= 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("Id " + id + " does not belong to any of the " + shardCount + " shards.");
+        }
+        return shard;
+    }
+}
@@ -0,0 +1,20 @@
+package com.bank.dao;
+
+/**
+ * Decides which shard holds a user and their accounts, for {@link ShardedBankDAO}.
+ * <p>
+ * A user's accounts always live on the user's shard, so listing them, depositing, withdrawing
+ * and transferring between them stay local to one shard. New users are placed by username, which
+ * is also how {@code login} finds them.
+ */
+public interface ShardMap {
+
+    int shardCount();
+
+    /** Shard a new user with this username is created on, and where login looks them up. */
+    int shardOfUsername(String username);
+
+    int shardOfUser(int userId);
+
+    int shardOfAccount(int accountId);
+}
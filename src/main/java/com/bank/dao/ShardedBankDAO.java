@@ -0,0 +1,240 @@
+package com.bank.dao;
+
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.exception.AccountNotFoundException;
+import com.bank.model.Account;
+import com.bank.model.ActivitySummary;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.UserCredentials;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Spreads users, accounts and their transactions over several databases, one {@link JdbcBankDAO}
+ * per shard, placed by a {@link ShardMap}.
+ * <p>
+ * Everything that touches one user's accounts runs on that user's shard exactly as it would on a
+ * single database, so shards share no locks and throughput grows with their number. A transfer
+ * between accounts on different shards is a saga of local transactions: the source shard debits
+ * the account and writes the transfer to its {@code transfer_outbox} in one commit, the
+ * destination shard credits the account under an idempotency key derived from the transfer id,
+ * and the outbox row is then deleted. Should the destination account not exist, the source is
+ * refunded instead. If the process stops between the legs, or the destination shard is
+ * unreachable, the outbox row stays behind and {@link #recoverTransfers} (run on a schedule by
+ * {@link #start}) finishes the transfer. The credit is applied once however often it is retried,
+ * provided recovery runs within the retention period of the destination's idempotency keys.
+ * Until then the money is in flight: debited from one account and not yet credited to the other.
+ */
+public class ShardedBankDAO implements BankDAO, AutoCloseable {
+    /** Outbox rows younger than this belong to transfers that are probably still running. */
+    public static final long DEFAULT_RECOVERY_MIN_AGE_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private final List<JdbcBankDAO> shards;
+    private final ShardMap shardMap;
+    private final LongAdder crossShardTransfers = new LongAdder();
+    private final LongAdder recoveredTransfers = new LongAdder();
+    private final LongAdder refundedTransfers = new LongAdder();
+    private ScheduledExecutorService scheduler;
+
+    /** One default {@link JdbcBankDAO} per pool, placed by a {@link RangeShardMap}. */
+    public ShardedBankDAO(List<ConnectionPool> pools) {
+        this(daosFor(pools), new RangeShardMap(pools.size()));
+    }
+
+    public ShardedBankDAO(List<JdbcBankDAO> shards, ShardMap shardMap) {
+        if (shards.size() != shardMap.shardCount()) {
+            throw new IllegalArgumentException("Expected " + shardMap.shardCount() + " shards, got " + shards.size() + ".");
+        }
+        this.shards = List.copyOf(shards);
+        this.shardMap = shardMap;
+    }
+
+    // --- Users and Accounts ---
+    @Override
+    public int createUser(String username, String password, String firstName, String lastName) throws SQLException {
+        return shards.get(shardMap.shardOfUsername(username)).createUser(username, password, firstName, lastName);
+    }
+
+    @Override
+    public UserCredentials findCredentials(String username) throws SQLException {
+        return shards.get(shardMap.shardOfUsername(username)).findCredentials(username);
+    }
+
+    @Override
+    public Account createAccount(int userId, String accountType) throws SQLException {
+        return userShard(userId).createAccount(userId, accountType);
+    }
+
+    @Override
+    public List<Account> getAccountsByUserId(int userId) throws SQLException {
+        return userShard(userId).getAccountsByUserId(userId);
+    }
+
+    // --- Money Movements ---
+    @Override
+    public void deposit(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        accountShard(accountId).deposit(accountId, amount, idempotencyKey);
+    }
+
+    @Override
+    public void withdraw(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        accountShard(accountId).withdraw(accountId, amount, idempotencyKey);
+    }
+
+    /**
+     * Moves money between two accounts: in one local transaction when they share a shard, otherwise
+     * as the saga described above. Returns once the source is debited and, unless the destination
+     * shard failed, credited; a failed credit is left to {@link #recoverTransfers}.
+     */
+    @Override
+    public void transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey)
+            throws SQLException, AccountException {
+        JdbcBankDAO source = accountShard(fromAccountId);
+        JdbcBankDAO destination = accountShard(toAccountId);
+        if (source == destination) {
+            source.transfer(fromAccountId, toAccountId, amount, idempotencyKey);
+            return;
+        }
+        if (!amount.isPositive()) {
+            throw new AccountException("Transfer amount must be positive.");
+        }
+        if (!destination.accountExists(toAccountId)) {
+            throw new AccountNotFoundException();
+        }
+        String transferId = UUID.randomUUID().toString();
+        if (!source.transferOut(transferId, fromAccountId, toAccountId, amount, idempotencyKey)) {
+            return; // a retry of a transfer that was already accepted
+        }
+        crossShardTransfers.increment();
+        JdbcBankDAO.OutboxEntry entry = new JdbcBankDAO.OutboxEntry(transferId, fromAccountId, toAccountId, amount);
+        try {
+            finish(source, destination, entry);
+        } catch (SQLException e) {
+            System.err.println("Transfer " + transferId + " is pending, the credit failed: " + e.getMessage());
+        }
+    }
+
+    // --- Reads ---
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
+        return accountShard(accountId).getTransactionHistory(accountId);
+    }
+
+    @Override
+    public TransactionPage getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) throws SQLException {
+        return accountShard(accountId).getTransactionHistory(accountId, cursor, pageSize);
+    }
+
+    @Override
+    public Money getBalanceAsOf(int accountId, Timestamp asOf) throws SQLException {
+        return accountShard(accountId).getBalanceAsOf(accountId, asOf);
+    }
+
+    @Override
+    public List<ActivitySummary> getDailySummaries(int accountId, LocalDate from, LocalDate to) throws SQLException {
+        return accountShard(accountId).getDailySummaries(accountId, from, to);
+    }
+
+    // --- Recovery ---
+    /** Runs {@link #recoverTransfers} every {@code intervalSeconds} on a background thread. */
+    public synchronized void start(long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cross-shard-transfer-recovery");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                recoverTransfers(DEFAULT_RECOVERY_MIN_AGE_MILLIS);
+            } catch (SQLException e) {
+                System.err.println("Cross-shard transfer recovery failed: " + e.getMessage());
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Completes (or refunds) every cross-shard transfer left in an outbox for at least
+     * {@code minAgeMillis}. Returns the number of transfers settled; one whose destination is still
+     * unreachable stays pending for the next run.
+     */
+    public int recoverTransfers(long minAgeMillis) throws SQLException {
+        int settled = 0;
+        for (JdbcBankDAO source : shards) {
+            for (JdbcBankDAO.OutboxEntry entry : source.pendingTransfersOut(minAgeMillis)) {
+                try {
+                    finish(source, accountShard(entry.toAccountId), entry);
+                    recoveredTransfers.increment();
+                    settled++;
+                } catch (SQLException e) {
+                    System.err.println("Transfer " + entry.transferId + " is still pending: " + e.getMessage());
+                } catch (AccountException e) {
+                    System.err.println("Transfer " + entry.transferId + " could not be settled: " + e.getMessage());
+                }
+            }
+        }
+        return settled;
+    }
+
+    public int getShardCount() { return shards.size(); }
+    public JdbcBankDAO getShard(int index) { return shards.get(index); }
+    public ShardMap getShardMap() { return shardMap; }
+    public long getCrossShardTransferCount() { return crossShardTransfers.sum(); }
+    /** Transfers settled by {@link #recoverTransfers} rather than by the call that started them. */
+    public long getRecoveredTransferCount() { return recoveredTransfers.sum(); }
+    public long getRefundedTransferCount() { return refundedTransfers.sum(); }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // --- Internals ---
+    /** Credits the destination, or refunds the source if the account is not there, then clears the outbox. */
+    private void finish(JdbcBankDAO source, JdbcBankDAO destination, JdbcBankDAO.OutboxEntry entry) throws SQLException, AccountException {
+        if (destination.transferIn(entry.transferId, entry.fromAccountId, entry.toAccountId, entry.amount)) {
+            source.completeTransferOut(entry.transferId);
+        } else {
+            source.refundTransferOut(entry);
+            refundedTransfers.increment();
+        }
+    }
+
+    private JdbcBankDAO userShard(int userId) throws SQLException {
+        try {
+            return shards.get(shardMap.shardOfUser(userId));
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("User not found.");
+        }
+    }
+
+    private JdbcBankDAO accountShard(int accountId) throws SQLException {
+        try {
+            return shards.get(shardMap.shardOfAccount(accountId));
+        } catch (IllegalArgumentException e) {
+            throw new AccountNotFoundException();
+        }
+    }
+
+    private static List<JdbcBankDAO> daosFor(List<ConnectionPool> pools) {
+        List<JdbcBankDAO> daos = new ArrayList<>(pools.size());
+        for (ConnectionPool pool : pools) {
+            daos.add(new JdbcBankDAO(pool));
+        }
+        return daos;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bank.dao;
+
+import com.bank.model.Money;
+
+/**
+ * A pending row for the {@code transactions} table, collected while a money movement runs and
+ * written when its transaction (or commit group) is flushed.
+ */
+final class TransactionLogRow {
+    final int accountId;
+    final String type;
+    final Money amount;
+    final Integer relatedAccountId;
+    /** {@code "In"} or {@code "Out"} for a transfer, null otherwise. */
+    final String direction;
+    /** Null until known; a row written without one takes the account's balance at insert time. */
+    final Money balanceAfter;
+
+    TransactionLogRow(int accountId, String type, Money amount, Integer relatedAccountId) {
+        this(accountId, type, amount, relatedAccountId, null, null);
+    }
+
+    TransactionLogRow(int accountId, String type, Money amount, Integer relatedAccountId, String direction, Money balanceAfter) {
+        this.accountId = accountId;
+        this.type = type;
+        this.amount = amount;
+        this.relatedAccountId = relatedAccountId;
+        this.direction = direction;
+        this.balanceAfter = balanceAfter;
+    }
+
+    /** The source account's side of a transfer. */
+    static TransactionLogRow transferOut(int fromAccountId, Money amount, int toAccountId) {
+        return new TransactionLogRow(fromAccountId, "Transfer", amount, toAccountId, "Out", null);
+    }
+
+    /** The destination account's side of a transfer. */
+    static TransactionLogRow transferIn(int toAccountId, Money amount, int fromAccountId) {
+        return new TransactionLogRow(toAccountId, "Transfer", amount, fromAccountId, "In", null);
+    }
+
+    TransactionLogRow withBalanceAfter(Money balance) {
+        return new TransactionLogRow(accountId, type, amount, relatedAccountId, direction, balance);
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.dao;
+
+import java.sql.SQLException;
+import java.sql.SQLTransactionRollbackException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Re-runs a database transaction that the server aborted because of a deadlock, lock-wait
+ * timeout or serialization failure. Between attempts it sleeps for a random time in
+ * {@code [0, min(maxDelay, baseDelay * 2^attempt))} so that colliding transactions spread out
+ * instead of colliding again in lockstep.
+ */
+public class TransactionRetrier {
+
+    /** A unit of transactional work. It must open and commit its own transaction. */
+    @FunctionalInterface
+    public interface TransactionWork<T, E extends Exception> {
+        T run() throws SQLException, E;
+    }
+
+    // MySQL error codes: ER_LOCK_WAIT_TIMEOUT and ER_LOCK_DEADLOCK.
+    private static final int MYSQL_LOCK_WAIT_TIMEOUT = 1205;
+    private static final int MYSQL_DEADLOCK = 1213;
+
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public TransactionRetrier() {
+        this(5, 10, 200);
+    }
+
+    public TransactionRetrier(int maxAttempts, long baseDelayMillis, long maxDelayMillis) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be at least 1.");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+    }
+
+    public <T, E extends Exception> T execute(TransactionWork<T, E> work) throws SQLException, E {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = work.run();
+                if (attempt > 1) {
+                    recovered.increment();
+                }
+                return result;
+            } catch (SQLException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                backOff(attempt, e);
+            }
+        }
+    }
+
+    /** True for failures where simply running the same transaction again may succeed. */
+    public static boolean isRetryable(SQLException e) {
+        for (SQLException cur = e; cur != null; cur = cur.getNextException()) {
+            String state = cur.getSQLState();
+            if (cur instanceof SQLTransactionRollbackException
+                    || cur.getErrorCode() == MYSQL_DEADLOCK
+                    || cur.getErrorCode() == MYSQL_LOCK_WAIT_TIMEOUT
+                    || (state != null && state.startsWith("40"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void backOff(int attempt, SQLException cause) throws SQLException {
+        long ceiling = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt, 20));
+        long delay = ThreadLocalRandom.current().nextLong(ceiling + 1);
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            cause.addSuppressed(ie);
+            throw cause;
+        }
+    }
+
+    // --- Metrics ---
+    /** Number of attempts that failed with a retryable error and were run again. */
+    public long getRetryCount() { return retries.sum(); }
+
+    /** Number of operations that succeeded after at least one retry. */
+    public long getRecoveredCount() { return recovered.sum(); }
+
+    /** Number of operations that gave up after {@code maxAttempts} retryable failures. */
+    public long getExhaustedCount() { return exhausted.sum(); }
+}
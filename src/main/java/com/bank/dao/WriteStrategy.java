@@ -0,0 +1,27 @@
+package com.bank.dao;
+
+/**
+ * How {@link JdbcBankDAO} guards balance-reducing writes ({@code withdraw} and {@code transfer})
+ * against concurrent updates. All strategies produce the same ledger; they differ in how long
+ * row locks are held and how many round trips each operation takes.
+ */
+public enum WriteStrategy {
+    /**
+     * {@code SELECT ... FOR UPDATE} to lock and read the balance, then a separate {@code UPDATE}.
+     * Row locks are held across both round trips.
+     */
+    PESSIMISTIC,
+
+    /**
+     * A single {@code UPDATE ... WHERE balance >= ?}; an affected-row count of zero means
+     * insufficient funds. The row lock is taken and checked in one statement.
+     */
+    CONDITIONAL_UPDATE,
+
+    /**
+     * Unlocked read of balance and version, then {@code UPDATE ... WHERE version = ?}. A lost race
+     * aborts with a retryable error and the operation is re-run by the {@link TransactionRetrier},
+     * so this strategy wants a generous retry budget on hot accounts.
+     */
+    OPTIMISTIC
+}
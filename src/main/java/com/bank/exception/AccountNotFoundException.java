@@ -0,0 +1,13 @@
+package com.bank.exception;
+
+import java.sql.SQLException;
+
+/**
+ * The account an operation names does not exist. It is an {@link SQLException}, as an unknown
+ * account always was, so existing callers are unaffected; batch operations reject just the item.
+ */
+public class AccountNotFoundException extends SQLException {
+    public AccountNotFoundException() {
+        super("Account not found.");
+    }
+}
@@ -0,0 +1,44 @@
+package com.bank.interest;
+
+import com.bank.model.Money;
+
+import java.time.LocalDate;
+
+/** What one {@link InterestAccrualJob#run} did, and how fast. */
+public class AccrualReport {
+    private final LocalDate accrualDate;
+    private final int ranges;
+    private final long accountsScanned;
+    private final long accountsCredited;
+    private final Money totalInterest;
+    private final long elapsedNanos;
+
+    public AccrualReport(LocalDate accrualDate, int ranges, long accountsScanned, long accountsCredited,
+                         Money totalInterest, long elapsedNanos) {
+        this.accrualDate = accrualDate;
+        this.ranges = ranges;
+        this.accountsScanned = accountsScanned;
+        this.accountsCredited = accountsCredited;
+        this.totalInterest = totalInterest;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public LocalDate getAccrualDate() { return accrualDate; }
+    /** Ranges this run worked on; fewer than planned when it resumed an interrupted run. */
+    public int getRanges() { return ranges; }
+    public long getAccountsScanned() { return accountsScanned; }
+    /** Accounts that earned at least one cent. */
+    public long getAccountsCredited() { return accountsCredited; }
+    public Money getTotalInterest() { return totalInterest; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public double getAccountsPerSecond() {
+        return elapsedNanos == 0 ? 0 : accountsScanned / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Interest for %s: %d accounts scanned, %d credited, $%s total in %.2fs (%.0f accounts/s)",
+                accrualDate, accountsScanned, accountsCredited, totalInterest, elapsedNanos / 1e9, getAccountsPerSecond());
+    }
+}
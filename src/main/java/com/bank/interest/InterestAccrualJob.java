@@ -0,0 +1,336 @@
+package com.bank.interest;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.dao.TransactionRetrier;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-of-day interest accrual for savings accounts.
+ * <p>
+ * A run for an accrual date splits the savings accounts into account_id ranges of
+ * {@code rangeSize} ids and hands them to a fixed pool of {@code parallelism} workers. Each worker
+ * reads its range through a streaming cursor (a plain, non-locking read), computes one day of
+ * interest per account, and applies it every {@code chunkSize} accounts in one short transaction:
+ * a batch of {@code balance = balance + ?} updates, a batch of {@code Interest} log rows and an
+ * advance of the range's checkpoint in {@code interest_accrual_progress}. Only the rows of one
+ * chunk are locked, and only until its commit, so online deposits and transfers wait at most one
+ * chunk. A run for a date that was interrupted resumes every range after its last checkpoint, and
+ * running a finished date again credits nothing.
+ * <p>
+ * Each worker holds two connections (the cursor and the writer), so {@code parallelism} should be
+ * at most half the pool size. Interest is computed on the balance the cursor saw, and accounts
+ * opened after a run planned its ranges are left for the next date.
+ */
+public class InterestAccrualJob {
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_RANGE_SIZE = 10_000;
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final long DAYS_PER_YEAR = 365;
+
+    private final ConnectionPool pool;
+    private final int annualRateBasisPoints;
+    private final int parallelism;
+    private final int rangeSize;
+    private final int chunkSize;
+    private final TransactionRetrier retrier = new TransactionRetrier();
+
+    public InterestAccrualJob(ConnectionPool pool, int annualRateBasisPoints) {
+        this(pool, annualRateBasisPoints, DEFAULT_PARALLELISM, DEFAULT_RANGE_SIZE, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pool                  {@code null} to use the shared pool managed by {@link Database}
+     * @param annualRateBasisPoints yearly rate, e.g. {@code 150} for 1.50%
+     */
+    public InterestAccrualJob(ConnectionPool pool, int annualRateBasisPoints, int parallelism, int rangeSize, int chunkSize) {
+        if (annualRateBasisPoints < 0) {
+            throw new IllegalArgumentException("Interest rate cannot be negative.");
+        }
+        if (parallelism <= 0 || rangeSize <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("Parallelism, range size and chunk size must be positive.");
+        }
+        this.pool = pool;
+        this.annualRateBasisPoints = annualRateBasisPoints;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Accrues one day of interest for {@code accrualDate}, resuming an interrupted run for the same
+     * date. If a range fails, the others still finish and the first failure is rethrown; running
+     * the date again picks up the failed range from its checkpoint.
+     */
+    public AccrualReport run(LocalDate accrualDate) throws SQLException {
+        long start = System.nanoTime();
+        List<Range> ranges = planRanges(accrualDate);
+        Totals totals = new Totals();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, ranges.size())), r -> {
+            Thread t = new Thread(r, "interest-accrual-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        SQLException failure = null;
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Range range : ranges) {
+                futures.add(workers.submit(() -> {
+                    accrueRange(accrualDate, range, totals);
+                    return null;
+                }));
+            }
+            for (Future<Void> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    SQLException cause = e.getCause() instanceof SQLException
+                            ? (SQLException) e.getCause()
+                            : new SQLException("Interest accrual failed.", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while accruing interest.", e);
+        } finally {
+            workers.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return new AccrualReport(accrualDate, ranges.size(), totals.scanned.sum(), totals.credited.sum(),
+                Money.ofCents(totals.interestCents.sum()), System.nanoTime() - start);
+    }
+
+    /** One day of interest on {@code balance}, rounded half-even to the cent; zero for balances that are not positive. */
+    static Money dailyInterest(Money balance, int annualRateBasisPoints) {
+        if (!balance.isPositive()) {
+            return Money.ZERO;
+        }
+        long numerator = Math.multiplyExact(balance.getCents(), (long) annualRateBasisPoints);
+        long denominator = 10_000L * DAYS_PER_YEAR;
+        long cents = numerator / denominator;
+        long twiceRemainder = 2 * (numerator % denominator);
+        if (twiceRemainder > denominator || (twiceRemainder == denominator && (cents & 1) == 1)) {
+            cents++;
+        }
+        return Money.ofCents(cents);
+    }
+
+    // --- Planning ---
+    private static final class Range {
+        final int start;
+        final int end;
+        final int lastAccountId;
+
+        Range(int start, int end, int lastAccountId) {
+            this.start = start;
+            this.end = end;
+            this.lastAccountId = lastAccountId;
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder scanned = new LongAdder();
+        final LongAdder credited = new LongAdder();
+        final LongAdder interestCents = new LongAdder();
+    }
+
+    /** Returns the unfinished ranges for the date, creating them on its first run. */
+    private synchronized List<Range> planRanges(LocalDate accrualDate) throws SQLException {
+        List<Range> ranges = loadRanges(accrualDate);
+        if (!ranges.isEmpty() || isPlanned(accrualDate)) {
+            return ranges;
+        }
+        String boundsSql = "SELECT MIN(account_id), MAX(account_id) FROM accounts WHERE account_type = 'Savings'";
+        String insertSql = "INSERT INTO interest_accrual_progress (accrual_date, range_start, range_end, last_account_id, completed) "
+                + "VALUES (?, ?, ?, ?, ?)";
+        try (Connection conn = getConnection()) {
+            int min;
+            int max;
+            boolean empty;
+            try (PreparedStatement pstmt = conn.prepareStatement(boundsSql);
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                min = rs.getInt(1);
+                empty = rs.wasNull();
+                max = rs.getInt(2);
+            }
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                if (empty) {
+                    // Still record the date, so a finished run is not mistaken for a new one.
+                    addRange(pstmt, accrualDate, 0, 0, true);
+                } else {
+                    for (long start = min; start <= max; start += rangeSize) {
+                        addRange(pstmt, accrualDate, (int) start, (int) Math.min(max, start + rangeSize - 1), false);
+                    }
+                }
+                pstmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+        return loadRanges(accrualDate);
+    }
+
+    private static void addRange(PreparedStatement pstmt, LocalDate date, int start, int end, boolean completed) throws SQLException {
+        pstmt.setDate(1, Date.valueOf(date));
+        pstmt.setInt(2, start);
+        pstmt.setInt(3, end);
+        pstmt.setInt(4, start - 1);
+        pstmt.setBoolean(5, completed);
+        pstmt.addBatch();
+    }
+
+    private List<Range> loadRanges(LocalDate accrualDate) throws SQLException {
+        String sql = "SELECT range_start, range_end, last_account_id FROM interest_accrual_progress "
+                + "WHERE accrual_date = ? AND completed = FALSE ORDER BY range_start";
+        List<Range> ranges = new ArrayList<>();
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setDate(1, Date.valueOf(accrualDate));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    ranges.add(new Range(rs.getInt(1), rs.getInt(2), rs.getInt(3)));
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private boolean isPlanned(LocalDate accrualDate) throws SQLException {
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "SELECT 1 FROM interest_accrual_progress WHERE accrual_date = ? LIMIT 1")) {
+            pstmt.setDate(1, Date.valueOf(accrualDate));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
+            }
+        }
+    }
+
+    // --- Accrual ---
+    private void accrueRange(LocalDate accrualDate, Range range, Totals totals) throws SQLException {
+        String sql = "SELECT account_id, balance FROM accounts "
+                + "WHERE account_type = 'Savings' AND account_id > ? AND account_id <= ? ORDER BY account_id";
+        int checkpoint = range.lastAccountId;
+        int[] ids = new int[chunkSize];
+        long[] interest = new long[chunkSize];
+        int pending = 0;
+        int scannedThrough = checkpoint;
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(chunkSize);
+            pstmt.setInt(1, range.lastAccountId);
+            pstmt.setInt(2, range.end);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    scannedThrough = rs.getInt(1);
+                    totals.scanned.increment();
+                    Money amount = dailyInterest(Money.of(rs.getBigDecimal(2)), annualRateBasisPoints);
+                    if (amount.isZero()) {
+                        continue;
+                    }
+                    ids[pending] = scannedThrough;
+                    interest[pending] = amount.getCents();
+                    if (++pending == chunkSize) {
+                        applyChunk(accrualDate, range, checkpoint, scannedThrough, ids, interest, pending, false, totals);
+                        checkpoint = scannedThrough;
+                        pending = 0;
+                    }
+                }
+            }
+        }
+        applyChunk(accrualDate, range, checkpoint, scannedThrough, ids, interest, pending, true, totals);
+    }
+
+    /**
+     * Credits one chunk and moves the range's checkpoint from {@code from} to {@code through} in the
+     * same transaction. The checkpoint update only matches if nobody else moved it first, so a
+     * chunk can never be credited twice.
+     */
+    private void applyChunk(LocalDate accrualDate, Range range, int from, int through, int[] ids, long[] interest,
+                            int count, boolean completed, Totals totals) throws SQLException {
+        String updateSql = "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE account_id = ?";
+        String logSql = "INSERT INTO transactions (account_id, transaction_type, amount, balance_after) "
+                + "SELECT account_id, 'Interest', ?, balance FROM accounts WHERE account_id = ?";
+        String checkpointSql = "UPDATE interest_accrual_progress SET last_account_id = ?, completed = ? "
+                + "WHERE accrual_date = ? AND range_start = ? AND last_account_id = ?";
+        retrier.execute(() -> {
+            try (Connection conn = getConnection()) {
+                conn.setAutoCommit(false);
+                try {
+                    if (count > 0) {
+                        try (PreparedStatement update = conn.prepareStatement(updateSql);
+                             PreparedStatement log = conn.prepareStatement(logSql)) {
+                            for (int i = 0; i < count; i++) {
+                                update.setBigDecimal(1, Money.ofCents(interest[i]).toBigDecimal());
+                                update.setInt(2, ids[i]);
+                                update.addBatch();
+                                log.setBigDecimal(1, Money.ofCents(interest[i]).toBigDecimal());
+                                log.setInt(2, ids[i]);
+                                log.addBatch();
+                            }
+                            update.executeBatch();
+                            log.executeBatch();
+                        }
+                    }
+                    try (PreparedStatement pstmt = conn.prepareStatement(checkpointSql)) {
+                        pstmt.setInt(1, through);
+                        pstmt.setBoolean(2, completed);
+                        pstmt.setDate(3, Date.valueOf(accrualDate));
+                        pstmt.setInt(4, range.start);
+                        pstmt.setInt(5, from);
+                        if (pstmt.executeUpdate() != 1) {
+                            throw new SQLException("Interest accrual for accounts " + range.start + "-" + range.end
+                                    + " on " + accrualDate + " was advanced by another run.");
+                        }
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true);
+                }
+            }
+            return null;
+        });
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += interest[i];
+        }
+        totals.credited.add(count);
+        totals.interestCents.add(sum);
+    }
+
+    private Connection getConnection() throws SQLException {
+        return pool != null ? pool.getConnection() : Database.getConnection();
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.ledger;
+
+/**
+ * Balances in cents keyed by account id, in two parallel primitive arrays with open addressing
+ * (linear probing), so a lookup touches no boxed objects. Not thread-safe: only the ledger's
+ * writer thread uses it. Account ids are positive; 0 marks an empty slot.
+ */
+final class AccountTable {
+    private static final int EMPTY = 0;
+
+    private int[] ids;
+    private long[] balances;
+    private int mask;
+    private int size;
+
+    AccountTable(int expectedAccounts) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedAccounts * 2 - 1)) << 1;
+        ids = new int[capacity];
+        balances = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    boolean contains(int accountId) {
+        return ids[slotOf(accountId)] == accountId;
+    }
+
+    /** The balance of an account the table {@link #contains}. */
+    long get(int accountId) {
+        return balances[slotOf(accountId)];
+    }
+
+    /** Adds the account, or overwrites its balance if it is already present. */
+    void put(int accountId, long cents) {
+        if (accountId <= EMPTY) {
+            throw new IllegalArgumentException("Account id must be positive.");
+        }
+        int slot = slotOf(accountId);
+        if (ids[slot] != accountId) {
+            if (size + 1 > ids.length / 2) {
+                grow();
+                slot = slotOf(accountId);
+            }
+            ids[slot] = accountId;
+            size++;
+        }
+        balances[slot] = cents;
+    }
+
+    /** Adds {@code delta} to an account the table {@link #contains} and returns the new balance. */
+    long add(int accountId, long delta) {
+        int slot = slotOf(accountId);
+        return balances[slot] += delta;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** The slot holding {@code accountId}, or the empty slot where it would go. */
+    private int slotOf(int accountId) {
+        int slot = mix(accountId) & mask;
+        while (ids[slot] != EMPTY && ids[slot] != accountId) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int[] oldIds = ids;
+        long[] oldBalances = balances;
+        ids = new int[oldIds.length * 2];
+        balances = new long[oldIds.length * 2];
+        mask = ids.length - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldIds[i] != EMPTY) {
+                int slot = slotOf(oldIds[i]);
+                ids[slot] = oldIds[i];
+                balances[slot] = oldBalances[i];
+            }
+        }
+    }
+
+    // Ids are handed out consecutively; spread them so neighbours do not form long probe runs.
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,236 @@
+package com.bank.ledger;
+
+import com.bank.config.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes the ledger's events into the {@code accounts} and {@code transactions} tables on a
+ * background thread, so history, statements and every other SQL reader keep working while the
+ * balances themselves are kept by the {@link LedgerEngine}.
+ * <p>
+ * Events are applied in sequence order, up to {@code maxBatchSize} per database transaction: one
+ * transaction-log row per account touched, and one balance UPDATE per account per transaction
+ * however many events hit it, which is what lets a hot account's row keep up. The sequence
+ * reached is stored in {@code ledger_projection} in the same commit, so after a restart the
+ * engine replays exactly the events the database has not seen. A failed transaction is retried
+ * until it succeeds; until then the database lags the ledger.
+ */
+public class JdbcProjection implements LedgerEngine.EventSink, AutoCloseable {
+    public static final String DEFAULT_NAME = "ledger";
+    public static final int DEFAULT_MAX_BATCH_SIZE = 2000;
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final ConnectionPool.ConnectionFactory connections;
+    private final String name;
+    private final int maxBatchSize;
+    private final BlockingQueue<LedgerEvent> queue = new LinkedBlockingQueue<>();
+    private final Object progress = new Object();
+    private final Thread worker;
+    private volatile long projectedSequence;
+    private volatile boolean closed;
+
+    public JdbcProjection(ConnectionPool pool) throws SQLException {
+        this(pool::getConnection, DEFAULT_NAME, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    /** Reads (or creates) the checkpoint called {@code name} and starts the writer thread. */
+    public JdbcProjection(ConnectionPool.ConnectionFactory connections, String name, int maxBatchSize) throws SQLException {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive.");
+        }
+        this.connections = connections;
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.projectedSequence = loadCheckpoint();
+        this.worker = new Thread(this::runWorker, "ledger-projection");
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    @Override
+    public long lastSequence() {
+        return projectedSequence;
+    }
+
+    @Override
+    public void accept(List<LedgerEvent> events) {
+        queue.addAll(events);
+    }
+
+    /** The last sequence committed to the database. */
+    public long getProjectedSequence() {
+        return projectedSequence;
+    }
+
+    /** Events handed over but not yet committed. */
+    public int getBacklog() {
+        return queue.size();
+    }
+
+    /** Waits until every event up to {@code sequence} is in the database; false on timeout. */
+    public boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (projectedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return false;
+                progress.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /** Writes out the events already handed over, then stops the writer thread. */
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer ---
+    private void runWorker() {
+        List<LedgerEvent> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            if (batch.isEmpty()) {
+                try {
+                    LedgerEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        if (closed) return;
+                        continue;
+                    }
+                    batch.add(first);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                queue.drainTo(batch, maxBatchSize - 1);
+            }
+            try {
+                write(batch);
+            } catch (SQLException e) {
+                System.err.println("Ledger projection failed at sequence " + batch.get(0).getSequence() + ", retrying: "
+                        + e.getMessage());
+                if (closed) return;
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                continue;
+            }
+            synchronized (progress) {
+                projectedSequence = batch.get(batch.size() - 1).getSequence();
+                progress.notifyAll();
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<LedgerEvent> batch) throws SQLException {
+        String logSql = "INSERT INTO transactions (account_id, transaction_type, amount, related_account_id, direction, balance_after, transaction_date) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String balanceSql = "UPDATE accounts SET balance = ?, version = version + 1 WHERE account_id = ?";
+        String checkpointSql = "UPDATE ledger_projection SET last_sequence = ? WHERE projection_name = ?";
+        try (Connection conn = connections.create()) {
+            conn.setAutoCommit(false);
+            try {
+                // Only each account's final balance in this batch is written.
+                Map<Integer, Long> balances = new LinkedHashMap<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(logSql)) {
+                    for (LedgerEvent e : batch) {
+                        Timestamp at = new Timestamp(e.getTimeMillis());
+                        switch (e.getType()) {
+                            case LedgerEvent.DEPOSIT:
+                                addLogRow(pstmt, e.getAccountId(), "Deposit", e.getAmountCents(), null, null, e.getBalanceAfterCents(), at);
+                                break;
+                            case LedgerEvent.WITHDRAWAL:
+                                addLogRow(pstmt, e.getAccountId(), "Withdrawal", e.getAmountCents(), null, null, e.getBalanceAfterCents(), at);
+                                break;
+                            case LedgerEvent.TRANSFER:
+                                addLogRow(pstmt, e.getAccountId(), "Transfer", e.getAmountCents(), e.getOtherAccountId(), "Out",
+                                        e.getBalanceAfterCents(), at);
+                                addLogRow(pstmt, e.getOtherAccountId(), "Transfer", e.getAmountCents(), e.getAccountId(), "In",
+                                        e.getOtherBalanceAfterCents(), at);
+                                balances.put(e.getOtherAccountId(), e.getOtherBalanceAfterCents());
+                                break;
+                            default:
+                                break; // OPEN: the account row already holds its opening balance
+                        }
+                        balances.put(e.getAccountId(), e.getBalanceAfterCents());
+                    }
+                    pstmt.executeBatch();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(balanceSql)) {
+                    for (Map.Entry<Integer, Long> balance : balances.entrySet()) {
+                        pstmt.setBigDecimal(1, BigDecimal.valueOf(balance.getValue(), 2));
+                        pstmt.setInt(2, balance.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                try (PreparedStatement pstmt = conn.prepareStatement(checkpointSql)) {
+                    pstmt.setLong(1, batch.get(batch.size() - 1).getSequence());
+                    pstmt.setString(2, name);
+                    pstmt.executeUpdate();
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static void addLogRow(PreparedStatement pstmt, int accountId, String type, long amountCents,
+                                  Integer relatedAccountId, String direction, long balanceAfterCents, Timestamp at) throws SQLException {
+        pstmt.setInt(1, accountId);
+        pstmt.setString(2, type);
+        pstmt.setBigDecimal(3, BigDecimal.valueOf(amountCents, 2));
+        if (relatedAccountId != null) {
+            pstmt.setInt(4, relatedAccountId);
+        } else {
+            pstmt.setNull(4, Types.INTEGER);
+        }
+        pstmt.setString(5, direction);
+        pstmt.setBigDecimal(6, BigDecimal.valueOf(balanceAfterCents, 2));
+        pstmt.setTimestamp(7, at);
+        pstmt.addBatch();
+    }
+
+    private long loadCheckpoint() throws SQLException {
+        try (Connection conn = connections.create()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT last_sequence FROM ledger_projection WHERE projection_name = ?")) {
+                pstmt.setString(1, name);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return rs.getLong(1);
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("INSERT INTO ledger_projection (projection_name, last_sequence) VALUES (?, 0)")) {
+                pstmt.setString(1, name);
+                pstmt.executeUpdate();
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.bank.ledger;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.ReplicaSet;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.ActivitySummary;
+import com.bank.model.BatchItemResult;
+import com.bank.model.CurrentAccount;
+import com.bank.model.DepositInstruction;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.OpenAccountInstruction;
+import com.bank.model.SavingsAccount;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.TransferInstruction;
+import com.bank.model.UserCredentials;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Supplier;
+
+/**
+ * {@link BankDAO} whose balances are kept by a {@link LedgerEngine} instead of database rows.
+ * <p>
+ * Deposits, withdrawals and transfers go to the engine: they are checked and applied in memory by
+ * its single writer thread and acknowledged once journaled, without taking a row lock or making a
+ * database round trip, so many of them per second can hit the same account. The database becomes
+ * a {@link JdbcProjection} of the journal. Users, accounts and history stay with a
+ * {@link JdbcBankDAO}: account lists are returned with the ledger's balances, while history and
+ * point-in-time balances show movements once they are projected, usually within milliseconds (see
+ * {@link #awaitProjection}).
+ * <p>
+ * An account is taken into the ledger, with its balance from the database, the first time a
+ * command names it. From then on its balance must only be changed through this DAO: a write made
+ * directly to the database would be overwritten by the projection. Idempotency keys are kept for
+ * the engine's most recent keyed commands rather than for a retention period.
+ */
+public class LedgerBankDAO implements BankDAO, AutoCloseable {
+    private final JdbcBankDAO store;
+    private final ConnectionPool pool;
+    private final JdbcProjection projection;
+    private final LedgerEngine engine;
+
+    public LedgerBankDAO(ConnectionPool pool, Path journalFile) throws SQLException {
+        this(new JdbcBankDAO(pool, new JdbcBankDAOConfig().setAccountCache(null)), pool, journalFile,
+                LedgerEngine.DEFAULT_RING_SIZE, LedgerEngine.DEFAULT_MAX_BATCH_SIZE, LedgerEngine.DEFAULT_IDEMPOTENCY_KEYS);
+    }
+
+    /**
+     * Replays {@code journalFile} (creating it if needed), projects whatever the database has not
+     * seen yet and starts the engine. {@code store} must use {@code pool}; give it no account
+     * cache, the balances come from the ledger.
+     */
+    public LedgerBankDAO(JdbcBankDAO store, ConnectionPool pool, Path journalFile, int ringSize, int maxBatchSize,
+                         int idempotencyKeys) throws SQLException {
+        this.store = store;
+        this.pool = pool;
+        this.projection = new JdbcProjection(pool);
+        LedgerJournal journal = null;
+        try {
+            journal = new LedgerJournal(journalFile);
+            this.engine = new LedgerEngine(journal, projection, ringSize, maxBatchSize, idempotencyKeys);
+        } catch (IOException | RuntimeException e) {
+            projection.close();
+            if (journal != null) {
+                try {
+                    journal.close();
+                } catch (IOException ignored) {
+                }
+            }
+            throw new SQLException("Cannot open the ledger journal " + journalFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    // --- User and Account Creation ---
+    @Override
+    public int createUser(String username, String password, String firstName, String lastName) throws SQLException {
+        return store.createUser(username, password, firstName, lastName);
+    }
+
+    @Override
+    public Account createAccount(int userId, String accountType) throws SQLException {
+        Account account = store.createAccount(userId, accountType);
+        open(List.of(LedgerCommand.open(account.getAccountId(), 0)));
+        return account;
+    }
+
+    @Override
+    public List<Account> createAccounts(List<OpenAccountInstruction> instructions) throws SQLException {
+        List<Account> accounts = store.createAccounts(instructions);
+        List<LedgerCommand> opens = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            opens.add(LedgerCommand.open(account.getAccountId(), 0));
+        }
+        open(opens);
+        return accounts;
+    }
+
+    // --- Core Banking Operations ---
+    @Override
+    public void deposit(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (!amount.isPositive()) {
+            throw new AccountException("Deposit amount must be positive.");
+        }
+        run(() -> LedgerCommand.deposit(accountId, amount.getCents(), idempotencyKey)).throwIfRejected();
+    }
+
+    @Override
+    public void withdraw(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (!amount.isPositive()) {
+            throw new AccountException("Withdrawal amount must be positive.");
+        }
+        run(() -> LedgerCommand.withdraw(accountId, amount.getCents(), idempotencyKey)).throwIfRejected();
+    }
+
+    @Override
+    public void transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        if (fromAccountId == toAccountId) {
+            throw new AccountException("Cannot transfer to the same account.");
+        }
+        if (!amount.isPositive()) {
+            throw new AccountException("Transfer amount must be positive.");
+        }
+        run(() -> LedgerCommand.transfer(fromAccountId, toAccountId, amount.getCents(), idempotencyKey)).throwIfRejected();
+    }
+
+    /** The account's current balance, as held by the ledger. */
+    public Money getBalance(int accountId) throws SQLException {
+        LedgerCommand command = run(() -> LedgerCommand.balance(accountId));
+        if (command.getStatus() != LedgerCommand.Status.APPLIED) {
+            throw new SQLException(command.getRejection(), command.failure);
+        }
+        return Money.ofCents(command.getBalanceCents());
+    }
+
+    // --- Batch Operations ---
+    // All of a batch's commands are published before any is awaited, so they share journal syncs.
+    @Override
+    public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) throws SQLException {
+        BatchItemResult[] results = new BatchItemResult[instructions.size()];
+        List<Supplier<LedgerCommand>> commands = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < instructions.size(); i++) {
+            TransferInstruction t = instructions.get(i);
+            if (!t.getAmount().isPositive()) {
+                results[i] = BatchItemResult.rejected(i, "Amount must be positive.");
+            } else if (t.getFromAccountId() == t.getToAccountId()) {
+                results[i] = BatchItemResult.rejected(i, "Cannot transfer to the same account.");
+            } else {
+                commands.add(() -> LedgerCommand.transfer(t.getFromAccountId(), t.getToAccountId(), t.getAmount().getCents(), null));
+                indexes.add(i);
+            }
+        }
+        runBatch(commands, indexes, results);
+        return Arrays.asList(results);
+    }
+
+    @Override
+    public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) throws SQLException {
+        BatchItemResult[] results = new BatchItemResult[instructions.size()];
+        List<Supplier<LedgerCommand>> commands = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < instructions.size(); i++) {
+            DepositInstruction d = instructions.get(i);
+            if (!d.getAmount().isPositive()) {
+                results[i] = BatchItemResult.rejected(i, "Amount must be positive.");
+            } else {
+                commands.add(() -> LedgerCommand.deposit(d.getAccountId(), d.getAmount().getCents(), null));
+                indexes.add(i);
+            }
+        }
+        runBatch(commands, indexes, results);
+        return Arrays.asList(results);
+    }
+
+    // --- Data Retrieval ---
+    @Override
+    public UserCredentials findCredentials(String username) throws SQLException {
+        return store.findCredentials(username);
+    }
+
+    /** The user's accounts, with the balances the ledger holds for them. */
+    @Override
+    public List<Account> getAccountsByUserId(int userId) throws SQLException {
+        List<Account> accounts = store.getAccountsByUserId(userId);
+        List<LedgerCommand> reads = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            reads.add(LedgerCommand.balance(account.getAccountId()));
+        }
+        engine.executeAll(reads);
+        List<Account> result = new ArrayList<>(accounts.size());
+        for (int i = 0; i < accounts.size(); i++) {
+            Account account = accounts.get(i);
+            LedgerCommand read = reads.get(i);
+            if (read.getStatus() != LedgerCommand.Status.APPLIED) {
+                result.add(account); // not in the ledger yet, so the stored balance is current
+            } else if ("Savings".equalsIgnoreCase(account.getAccountType())) {
+                result.add(new SavingsAccount(account.getAccountId(), account.getAccountNumber(), Money.ofCents(read.getBalanceCents())));
+            } else {
+                result.add(new CurrentAccount(account.getAccountId(), account.getAccountNumber(), Money.ofCents(read.getBalanceCents())));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
+        return store.getTransactionHistory(accountId);
+    }
+
+    @Override
+    public TransactionPage getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) throws SQLException {
+        return store.getTransactionHistory(accountId, cursor, pageSize);
+    }
+
+    @Override
+    public Money getBalanceAsOf(int accountId, Timestamp asOf) throws SQLException {
+        return store.getBalanceAsOf(accountId, asOf);
+    }
+
+    @Override
+    public List<ActivitySummary> getDailySummaries(int accountId, LocalDate from, LocalDate to) throws SQLException {
+        return store.getDailySummaries(accountId, from, to);
+    }
+
+    @Override
+    public ReplicaSet getReplicaSet() {
+        return store.getReplicaSet();
+    }
+
+    /**
+     * Waits until every movement acknowledged so far is in the database, so history and
+     * point-in-time balances include it. Returns false on timeout.
+     */
+    public boolean awaitProjection(long timeoutMillis) throws InterruptedException {
+        return projection.awaitSequence(engine.getLastSequence(), timeoutMillis);
+    }
+
+    public LedgerEngine getEngine() { return engine; }
+    public JdbcProjection getProjection() { return projection; }
+    public JdbcBankDAO getStore() { return store; }
+
+    /** Finishes the commands already accepted, writes their events to the database and closes the journal. */
+    @Override
+    public void close() {
+        try {
+            engine.close();
+        } catch (IOException e) {
+            System.err.println("Closing the ledger journal failed: " + e.getMessage());
+        }
+        projection.close();
+    }
+
+    // --- Internals ---
+    /**
+     * Executes the command; if it names an account the ledger does not have yet, loads that
+     * account from the database and executes the command again.
+     */
+    private LedgerCommand run(Supplier<LedgerCommand> factory) throws SQLException {
+        LedgerCommand command = factory.get();
+        engine.execute(command);
+        if (command.getStatus() == LedgerCommand.Status.NOT_FOUND && openFromStore(accountsOf(command))) {
+            command = factory.get();
+            engine.execute(command);
+        }
+        return command;
+    }
+
+    /** As {@link #run}, for many commands; those retried after loading an account run after the rest. */
+    private void runBatch(List<Supplier<LedgerCommand>> factories, List<Integer> indexes, BatchItemResult[] results)
+            throws SQLException {
+        List<LedgerCommand> commands = new ArrayList<>(factories.size());
+        for (Supplier<LedgerCommand> factory : factories) {
+            commands.add(factory.get());
+        }
+        engine.executeAll(commands);
+        Set<Integer> missing = new TreeSet<>();
+        for (LedgerCommand command : commands) {
+            if (command.getStatus() == LedgerCommand.Status.NOT_FOUND) missing.addAll(accountsOf(command));
+        }
+        if (!missing.isEmpty() && openFromStore(missing)) {
+            List<LedgerCommand> retries = new ArrayList<>();
+            for (int j = 0; j < commands.size(); j++) {
+                if (commands.get(j).getStatus() == LedgerCommand.Status.NOT_FOUND) {
+                    commands.set(j, factories.get(j).get());
+                    retries.add(commands.get(j));
+                }
+            }
+            engine.executeAll(retries);
+        }
+        for (int j = 0; j < commands.size(); j++) {
+            LedgerCommand command = commands.get(j);
+            int index = indexes.get(j);
+            if (command.getStatus() == LedgerCommand.Status.FAILED) {
+                throw new SQLException(command.getRejection(), command.failure);
+            }
+            String rejection = command.getRejection();
+            results[index] = rejection == null ? BatchItemResult.applied(index) : BatchItemResult.rejected(index, rejection);
+        }
+    }
+
+    private void open(List<LedgerCommand> opens) throws SQLException {
+        engine.executeAll(opens);
+        for (LedgerCommand command : opens) {
+            if (command.getStatus() != LedgerCommand.Status.APPLIED) {
+                throw new SQLException(command.getRejection(), command.failure);
+            }
+        }
+    }
+
+    /** Opens in the ledger those of the accounts that exist in the database; false if none do. */
+    private boolean openFromStore(Collection<Integer> accountIds) throws SQLException {
+        List<LedgerCommand> opens = new ArrayList<>();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT balance FROM accounts WHERE account_id = ?")) {
+            for (int accountId : accountIds) {
+                pstmt.setInt(1, accountId);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        opens.add(LedgerCommand.open(accountId, Money.of(rs.getBigDecimal(1)).getCents()));
+                    }
+                }
+            }
+        }
+        if (opens.isEmpty()) {
+            return false;
+        }
+        open(opens);
+        return true;
+    }
+
+    private static List<Integer> accountsOf(LedgerCommand command) {
+        return command.type == LedgerEvent.TRANSFER
+                ? List.of(command.accountId, command.otherAccountId)
+                : List.of(command.accountId);
+    }
+}
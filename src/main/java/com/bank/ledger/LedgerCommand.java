@@ -0,0 +1,141 @@
+package com.bank.ledger;
+
+import com.bank.exception.AccountException;
+import com.bank.exception.AccountNotFoundException;
+
+import java.sql.SQLException;
+
+/**
+ * A request to the {@link LedgerEngine}, filled in with its outcome by the writer thread. Built
+ * with the static factories; a command is executed once.
+ */
+public final class LedgerCommand {
+
+    public enum Status {
+        PENDING,
+        APPLIED,
+        /** The idempotency key had already been applied for the same request; nothing changed. */
+        REPEATED,
+        NOT_FOUND,
+        INSUFFICIENT_FUNDS,
+        /** The new balance would not fit the {@code accounts.balance} column. */
+        LIMIT_EXCEEDED,
+        KEY_REUSED,
+        /** The journal could not be written; the ledger accepts no further commands. */
+        FAILED
+    }
+
+    /** Reads a balance; never journaled. */
+    static final int BALANCE = 0;
+
+    final int type;
+    final int accountId;
+    final int otherAccountId;
+    final long amountCents;
+    final long keyHash;
+
+    // Written by the writer thread before it sets done.
+    Status status = Status.PENDING;
+    long balanceCents;
+    Exception failure;
+    Thread waiter;
+    volatile boolean done;
+
+    private LedgerCommand(int type, int accountId, int otherAccountId, long amountCents, String idempotencyKey) {
+        this.type = type;
+        this.accountId = accountId;
+        this.otherAccountId = otherAccountId;
+        this.amountCents = amountCents;
+        this.keyHash = hashKey(idempotencyKey);
+    }
+
+    /** Adds an account with an opening balance; does nothing if the ledger already has it. */
+    public static LedgerCommand open(int accountId, long openingCents) {
+        return new LedgerCommand(LedgerEvent.OPEN, accountId, 0, openingCents, null);
+    }
+
+    public static LedgerCommand deposit(int accountId, long cents, String idempotencyKey) {
+        return new LedgerCommand(LedgerEvent.DEPOSIT, accountId, 0, cents, idempotencyKey);
+    }
+
+    public static LedgerCommand withdraw(int accountId, long cents, String idempotencyKey) {
+        return new LedgerCommand(LedgerEvent.WITHDRAWAL, accountId, 0, cents, idempotencyKey);
+    }
+
+    public static LedgerCommand transfer(int fromAccountId, int toAccountId, long cents, String idempotencyKey) {
+        return new LedgerCommand(LedgerEvent.TRANSFER, fromAccountId, toAccountId, cents, idempotencyKey);
+    }
+
+    public static LedgerCommand balance(int accountId) {
+        return new LedgerCommand(BALANCE, accountId, 0, 0, null);
+    }
+
+    public Status getStatus() { return status; }
+
+    /** For a balance read, the account's balance once the command ran. */
+    public long getBalanceCents() { return balanceCents; }
+
+    /**
+     * Why the command was rejected, worded like {@link com.bank.dao.JdbcBankDAO}'s errors, or
+     * {@code null} if it was applied (or repeated).
+     */
+    public String getRejection() {
+        switch (status) {
+            case NOT_FOUND: return "Account not found.";
+            case INSUFFICIENT_FUNDS:
+                return type == LedgerEvent.TRANSFER ? "Insufficient funds for transfer." : "Insufficient funds for withdrawal.";
+            case LIMIT_EXCEEDED: return "Balance limit exceeded.";
+            case KEY_REUSED: return "Idempotency key was already used for a different request.";
+            case FAILED: return "Ledger is unavailable.";
+            case PENDING: return "Command was not executed.";
+            default: return null;
+        }
+    }
+
+    /**
+     * Throws the exception {@code JdbcBankDAO} would have thrown for the same outcome: an
+     * {@link SQLException} for a missing account or an unavailable ledger, an
+     * {@link AccountException} for a rejected request.
+     */
+    public void throwIfRejected() throws SQLException, AccountException {
+        switch (status) {
+            case APPLIED:
+            case REPEATED:
+                return;
+            case NOT_FOUND:
+                throw new AccountNotFoundException();
+            case PENDING:
+                throw new SQLException(getRejection());
+            case FAILED:
+                throw new SQLException(getRejection(), failure);
+            default:
+                throw new AccountException(getRejection());
+        }
+    }
+
+    /** Identifies the request an idempotency key was used for. */
+    long requestHash() {
+        return requestHash(type, accountId, otherAccountId, amountCents);
+    }
+
+    static long requestHash(int type, int accountId, int otherAccountId, long amountCents) {
+        long h = type;
+        h = h * 0x9E3779B97F4A7C15L + accountId;
+        h = h * 0x9E3779B97F4A7C15L + otherAccountId;
+        h = h * 0x9E3779B97F4A7C15L + amountCents;
+        return h ^ (h >>> 29);
+    }
+
+    /** 64-bit FNV-1a of the key; 0 means no key. */
+    static long hashKey(String key) {
+        if (key == null) {
+            return 0;
+        }
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h == 0 ? 1 : h;
+    }
+}
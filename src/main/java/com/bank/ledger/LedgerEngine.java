@@ -0,0 +1,343 @@
+package com.bank.ledger;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Single-writer ledger: every balance lives in an in-memory {@link AccountTable} owned by one
+ * thread, so applying a command takes no locks and touches no database.
+ * <p>
+ * Callers publish commands into a ring buffer: each claims the next sequence, waits only if the
+ * ring is full, stores its command in the slot and parks until the command is done. The writer
+ * thread takes commands in sequence order, as many as have been published (up to
+ * {@code maxBatchSize}), applies them one after another, appends a record per applied command to
+ * the {@link LedgerJournal}, forces the journal once for the whole batch and only then wakes the
+ * callers and hands the batch's events to the {@link EventSink}. Commands arriving while a batch
+ * is being forced form the next batch, so the cost of a sync is shared by however many commands
+ * are waiting. On start-up the journal is replayed into the table before any command is taken.
+ * <p>
+ * Idempotency keys are remembered (as 64-bit hashes) for the most recent
+ * {@code idempotencyKeys} keyed commands, including those replayed from the journal.
+ */
+public class LedgerEngine implements AutoCloseable {
+    public static final int DEFAULT_RING_SIZE = 1 << 14;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 4096;
+    public static final int DEFAULT_IDEMPOTENCY_KEYS = 1 << 20;
+    /** Largest balance the {@code DECIMAL(15, 2)} balance column holds, in cents. */
+    public static final long MAX_BALANCE_CENTS = 999_999_999_999_999L;
+
+    /** Receives the events of each batch once they are durable, in sequence order, on the writer thread. */
+    public interface EventSink {
+        /** The last sequence the sink has already processed; later events are replayed to it on start-up. */
+        long lastSequence();
+
+        void accept(List<LedgerEvent> events);
+    }
+
+    private static final long FULL_RING_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long CLOSED_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final LedgerJournal journal;
+    private final EventSink sink;
+    private final int maxBatchSize;
+    private final AccountTable accounts = new AccountTable(1024);
+    private final Map<Long, Long> recentKeys;
+
+    // --- Ring ---
+    private final AtomicReferenceArray<LedgerCommand> slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long taken;
+    private volatile boolean writerParked;
+    private volatile boolean closed;
+    private final Thread writer;
+
+    // --- Writer state ---
+    private volatile long lastSequence;
+    private volatile long batches;
+    private volatile long commands;
+    private Exception failure;
+
+    public LedgerEngine(LedgerJournal journal, EventSink sink) throws IOException {
+        this(journal, sink, DEFAULT_RING_SIZE, DEFAULT_MAX_BATCH_SIZE, DEFAULT_IDEMPOTENCY_KEYS);
+    }
+
+    /**
+     * Replays {@code journal} and starts the writer thread. Events after the sink's
+     * {@link EventSink#lastSequence()} are passed to it during replay.
+     */
+    public LedgerEngine(LedgerJournal journal, EventSink sink, int ringSize, int maxBatchSize, int idempotencyKeys)
+            throws IOException {
+        if (ringSize <= 0 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("ringSize must be a power of two.");
+        }
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize must be positive.");
+        }
+        this.journal = journal;
+        this.sink = sink;
+        this.maxBatchSize = maxBatchSize;
+        this.slots = new AtomicReferenceArray<>(ringSize);
+        this.mask = ringSize - 1;
+        this.recentKeys = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > idempotencyKeys;
+            }
+        };
+        replay();
+        this.writer = new Thread(this::runWriter, "ledger-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /** Runs the command and waits for it. A rejection is reported by its status, not thrown. */
+    public void execute(LedgerCommand command) throws SQLException {
+        publish(command);
+        await(command);
+    }
+
+    /** Publishes all commands before waiting for any, so they share batches; they run in list order. */
+    public void executeAll(List<LedgerCommand> commands) throws SQLException {
+        for (LedgerCommand command : commands) {
+            publish(command);
+        }
+        for (LedgerCommand command : commands) {
+            await(command);
+        }
+    }
+
+    /** Sequence of the last applied command. */
+    public long getLastSequence() { return lastSequence; }
+    /** Number of journal syncs so far. */
+    public long getBatchCount() { return batches; }
+    /** Number of commands taken from the ring so far, applied or not. */
+    public long getCommandCount() { return commands; }
+
+    public double getAverageBatchSize() {
+        long b = batches;
+        return b == 0 ? 0.0 : (double) commands / b;
+    }
+
+    /** Stops accepting commands, finishes those already published and closes the journal. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        journal.close();
+    }
+
+    // --- Callers ---
+    private void publish(LedgerCommand command) throws SQLException {
+        if (closed) {
+            throw new SQLException("Ledger is closed.");
+        }
+        command.waiter = Thread.currentThread();
+        long sequence = claimed.getAndIncrement();
+        while (sequence - taken >= slots.length()) {
+            LockSupport.parkNanos(this, FULL_RING_BACKOFF_NANOS);
+        }
+        slots.set((int) sequence & mask, command);
+        if (writerParked) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    private void await(LedgerCommand command) throws SQLException {
+        boolean interrupted = false;
+        while (!command.done) {
+            LockSupport.parkNanos(this, CLOSED_CHECK_NANOS);
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+            if (!command.done && closed && !writer.isAlive()) {
+                throw new SQLException("Ledger is closed.");
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Writer ---
+    private void runWriter() {
+        List<LedgerCommand> batch = new ArrayList<>(maxBatchSize);
+        long next = taken;
+        while (true) {
+            int slot = (int) next & mask;
+            LedgerCommand command = slots.get(slot);
+            if (command != null) {
+                slots.set(slot, null);
+                taken = ++next;
+                batch.add(command);
+                if (batch.size() < maxBatchSize) continue;
+            }
+            if (!batch.isEmpty()) {
+                flush(batch);
+                batch.clear();
+                continue;
+            }
+            if (closed && next == claimed.get()) {
+                return;
+            }
+            // Publishers check writerParked after storing their command, so one of the two sees the other.
+            writerParked = true;
+            if (slots.get(slot) == null) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            writerParked = false;
+        }
+    }
+
+    private void flush(List<LedgerCommand> batch) {
+        List<LedgerEvent> events = new ArrayList<>();
+        if (failure == null) {
+            long now = System.currentTimeMillis();
+            try {
+                for (LedgerCommand command : batch) {
+                    apply(command, now, events);
+                }
+                if (!events.isEmpty()) {
+                    journal.force();
+                }
+            } catch (IOException | UncheckedIOException e) {
+                failure = e;
+                System.err.println("Ledger journal write failed, rejecting all further commands: " + e.getMessage());
+            }
+        }
+        if (failure != null) {
+            for (LedgerCommand command : batch) {
+                command.status = LedgerCommand.Status.FAILED;
+                command.failure = failure;
+            }
+        } else if (!events.isEmpty()) {
+            sink.accept(events);
+        }
+        batches++;
+        commands += batch.size();
+        for (LedgerCommand command : batch) {
+            command.done = true;
+            LockSupport.unpark(command.waiter);
+        }
+    }
+
+    /** Checks the command against the current balances and, if it is valid, journals and applies it. */
+    private void apply(LedgerCommand c, long now, List<LedgerEvent> events) throws IOException {
+        if (c.keyHash != 0) {
+            Long request = recentKeys.get(c.keyHash);
+            if (request != null) {
+                c.status = request == c.requestHash() ? LedgerCommand.Status.REPEATED : LedgerCommand.Status.KEY_REUSED;
+                return;
+            }
+        }
+        if (c.type == LedgerEvent.OPEN) {
+            if (accounts.contains(c.accountId)) {
+                c.status = LedgerCommand.Status.APPLIED;
+                return;
+            }
+        } else if (!accounts.contains(c.accountId)
+                || (c.type == LedgerEvent.TRANSFER && !accounts.contains(c.otherAccountId))) {
+            c.status = LedgerCommand.Status.NOT_FOUND;
+            return;
+        }
+        switch (c.type) {
+            case LedgerCommand.BALANCE:
+                c.balanceCents = accounts.get(c.accountId);
+                c.status = LedgerCommand.Status.APPLIED;
+                return;
+            case LedgerEvent.DEPOSIT:
+                if (accounts.get(c.accountId) > MAX_BALANCE_CENTS - c.amountCents) {
+                    c.status = LedgerCommand.Status.LIMIT_EXCEEDED;
+                    return;
+                }
+                break;
+            case LedgerEvent.WITHDRAWAL:
+                if (accounts.get(c.accountId) < c.amountCents) {
+                    c.status = LedgerCommand.Status.INSUFFICIENT_FUNDS;
+                    return;
+                }
+                break;
+            case LedgerEvent.TRANSFER:
+                if (accounts.get(c.accountId) < c.amountCents) {
+                    c.status = LedgerCommand.Status.INSUFFICIENT_FUNDS;
+                    return;
+                }
+                if (accounts.get(c.otherAccountId) > MAX_BALANCE_CENTS - c.amountCents) {
+                    c.status = LedgerCommand.Status.LIMIT_EXCEEDED;
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        long sequence = lastSequence + 1;
+        journal.append(sequence, now, c.type, c.accountId, c.otherAccountId, c.amountCents, c.keyHash);
+        events.add(applyRecord(sequence, now, c.type, c.accountId, c.otherAccountId, c.amountCents, c.keyHash));
+        c.status = LedgerCommand.Status.APPLIED;
+    }
+
+    /** Applies a journaled command to the table, unconditionally; shared by live commands and replay. */
+    private LedgerEvent applyRecord(long sequence, long timeMillis, int type, int accountId, int otherAccountId,
+                                    long amountCents, long keyHash) {
+        long balanceAfter;
+        long otherBalanceAfter = 0;
+        switch (type) {
+            case LedgerEvent.OPEN:
+                accounts.put(accountId, amountCents);
+                balanceAfter = amountCents;
+                break;
+            case LedgerEvent.DEPOSIT:
+                balanceAfter = accounts.add(accountId, amountCents);
+                break;
+            case LedgerEvent.WITHDRAWAL:
+                balanceAfter = accounts.add(accountId, -amountCents);
+                break;
+            case LedgerEvent.TRANSFER:
+                balanceAfter = accounts.add(accountId, -amountCents);
+                otherBalanceAfter = accounts.add(otherAccountId, amountCents);
+                break;
+            default:
+                throw new IllegalStateException("Unknown ledger record type " + type + " at sequence " + sequence + ".");
+        }
+        if (keyHash != 0) {
+            recentKeys.put(keyHash, LedgerCommand.requestHash(type, accountId, otherAccountId, amountCents));
+        }
+        lastSequence = sequence;
+        return new LedgerEvent(sequence, timeMillis, type, accountId, otherAccountId, amountCents, balanceAfter,
+                otherBalanceAfter);
+    }
+
+    private void replay() throws IOException {
+        long projected = sink.lastSequence();
+        List<LedgerEvent> events = new ArrayList<>();
+        journal.replay((sequence, timeMillis, type, accountId, otherAccountId, amountCents, keyHash) -> {
+            LedgerEvent event = applyRecord(sequence, timeMillis, type, accountId, otherAccountId, amountCents, keyHash);
+            if (sequence > projected) {
+                events.add(event);
+            }
+        });
+        lastSequence = journal.getLastSequence();
+        if (lastSequence < projected) {
+            throw new IOException("Journal ends at sequence " + lastSequence + " but the sink has seen " + projected
+                    + "; is this the right journal file?");
+        }
+        if (!events.isEmpty()) {
+            sink.accept(events);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bank.ledger;
+
+/**
+ * One applied ledger command, as journaled and handed to the {@link LedgerEngine.EventSink}, with
+ * the balances it left behind. For a transfer {@code accountId} is the source and
+ * {@code otherAccountId} the destination.
+ */
+public final class LedgerEvent {
+    public static final int OPEN = 1;
+    public static final int DEPOSIT = 2;
+    public static final int WITHDRAWAL = 3;
+    public static final int TRANSFER = 4;
+
+    private final long sequence;
+    private final long timeMillis;
+    private final int type;
+    private final int accountId;
+    private final int otherAccountId;
+    private final long amountCents;
+    private final long balanceAfterCents;
+    private final long otherBalanceAfterCents;
+
+    LedgerEvent(long sequence, long timeMillis, int type, int accountId, int otherAccountId, long amountCents,
+                long balanceAfterCents, long otherBalanceAfterCents) {
+        this.sequence = sequence;
+        this.timeMillis = timeMillis;
+        this.type = type;
+        this.accountId = accountId;
+        this.otherAccountId = otherAccountId;
+        this.amountCents = amountCents;
+        this.balanceAfterCents = balanceAfterCents;
+        this.otherBalanceAfterCents = otherBalanceAfterCents;
+    }
+
+    public long getSequence() { return sequence; }
+    public long getTimeMillis() { return timeMillis; }
+    /** One of {@link #OPEN}, {@link #DEPOSIT}, {@link #WITHDRAWAL} or {@link #TRANSFER}. */
+    public int getType() { return type; }
+    public int getAccountId() { return accountId; }
+    /** The transfer's destination, 0 for other types. */
+    public int getOtherAccountId() { return otherAccountId; }
+    /** The amount moved, or the opening balance of an {@link #OPEN}. */
+    public long getAmountCents() { return amountCents; }
+    public long getBalanceAfterCents() { return balanceAfterCents; }
+    public long getOtherBalanceAfterCents() { return otherBalanceAfterCents; }
+
+    @Override
+    public String toString() {
+        return "LedgerEvent{" + sequence + ", type=" + type + ", account=" + accountId + ", other=" + otherAccountId
+                + ", amountCents=" + amountCents + "}";
+    }
+}
@@ -0,0 +1,153 @@
+package com.bank.ledger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the ledger's applied commands in a memory-mapped file.
+ * <p>
+ * Records have a fixed size of {@value #RECORD_SIZE} bytes and carry a consecutive sequence
+ * number and a CRC32, so replay stops at the first record that is missing, torn or out of
+ * sequence: everything after it was never acknowledged. The file is mapped one region at a time
+ * and grows by a region when the current one is full. Appends only write to the mapping;
+ * {@link #force()} makes them durable and is called once per batch by the ledger's writer thread.
+ * Not thread-safe.
+ */
+public final class LedgerJournal implements AutoCloseable {
+    static final int RECORD_SIZE = 48;
+    /** Records per mapped region, 48 MiB. */
+    public static final int DEFAULT_RECORDS_PER_REGION = 1 << 20;
+
+    // Byte offsets of the record fields; the CRC covers everything before it.
+    private static final int SEQUENCE = 0;
+    private static final int TIME = 8;
+    private static final int AMOUNT = 16;
+    private static final int KEY_HASH = 24;
+    private static final int ACCOUNT = 32;
+    private static final int OTHER_ACCOUNT = 36;
+    private static final int TYPE = 40;
+    private static final int CRC = 44;
+
+    /** Receives each valid record during {@link #replay}. */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void accept(long sequence, long timeMillis, int type, int accountId, int otherAccountId, long amountCents, long keyHash);
+    }
+
+    private final FileChannel channel;
+    private final long regionSize;
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer region;
+    private long regionStart;
+    private long lastSequence;
+    private boolean replayed;
+
+    public LedgerJournal(Path file) throws IOException {
+        this(file, DEFAULT_RECORDS_PER_REGION);
+    }
+
+    public LedgerJournal(Path file, int recordsPerRegion) throws IOException {
+        if (recordsPerRegion <= 0) {
+            throw new IllegalArgumentException("recordsPerRegion must be positive.");
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionSize = (long) recordsPerRegion * RECORD_SIZE;
+        this.region = channel.map(FileChannel.MapMode.READ_WRITE, 0, regionSize);
+    }
+
+    /**
+     * Reads every valid record from the start of the file, then positions the journal after the
+     * last one and clears whatever follows it, so a later crash cannot bring stale records back
+     * into sequence. Must be called once, before the first {@link #append}. Returns the last
+     * sequence number, 0 for an empty journal.
+     */
+    public long replay(RecordHandler handler) throws IOException {
+        if (replayed) {
+            throw new IllegalStateException("Journal was already replayed.");
+        }
+        replayed = true;
+        long fileSize = channel.size();
+        while (true) {
+            if (!region.hasRemaining()) {
+                if (regionStart + regionSize >= fileSize) break;
+                nextRegion();
+            }
+            int start = region.position();
+            region.get(record.array());
+            long sequence = record.getLong(SEQUENCE);
+            if (sequence != lastSequence + 1 || record.getInt(CRC) != checksum()) {
+                region.position(start);
+                break;
+            }
+            lastSequence = sequence;
+            handler.accept(sequence, record.getLong(TIME), record.getShort(TYPE), record.getInt(ACCOUNT),
+                    record.getInt(OTHER_ACCOUNT), record.getLong(AMOUNT), record.getLong(KEY_HASH));
+        }
+        // Pages the last run had not flushed may have left a gap before records it did flush.
+        // Only non-zero words are written, so an already clean region is not dirtied.
+        for (int i = region.position(); i < region.limit(); i += Long.BYTES) {
+            if (region.getLong(i) != 0) region.putLong(i, 0);
+        }
+        region.force();
+        channel.truncate(regionStart + regionSize);
+        return lastSequence;
+    }
+
+    /** Writes the next record; {@code sequence} must follow the last one. */
+    public void append(long sequence, long timeMillis, int type, int accountId, int otherAccountId, long amountCents,
+                       long keyHash) throws IOException {
+        if (!replayed) {
+            throw new IllegalStateException("Journal must be replayed before appending.");
+        }
+        if (sequence != lastSequence + 1) {
+            throw new IllegalArgumentException("Expected sequence " + (lastSequence + 1) + ", got " + sequence + ".");
+        }
+        if (!region.hasRemaining()) {
+            region.force();
+            nextRegion();
+        }
+        record.putLong(SEQUENCE, sequence)
+                .putLong(TIME, timeMillis)
+                .putLong(AMOUNT, amountCents)
+                .putLong(KEY_HASH, keyHash)
+                .putInt(ACCOUNT, accountId)
+                .putInt(OTHER_ACCOUNT, otherAccountId)
+                .putShort(TYPE, (short) type)
+                .putShort(TYPE + 2, (short) 0)
+                .putInt(CRC, checksum());
+        region.put(record.array());
+        lastSequence = sequence;
+    }
+
+    /** Flushes appended records to the storage device. */
+    public void force() {
+        region.force();
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        region.force();
+        channel.close();
+    }
+
+    private int checksum() {
+        crc.reset();
+        crc.update(record.array(), 0, CRC);
+        return (int) crc.getValue();
+    }
+
+    private void nextRegion() throws IOException {
+        regionStart += regionSize;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionSize);
+    }
+}
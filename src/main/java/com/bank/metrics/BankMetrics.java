@@ -0,0 +1,187 @@
+package com.bank.metrics;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolStats;
+import com.bank.dao.TransactionRetrier;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics registry for the data access layer: a latency histogram per {@link Operation} and
+ * {@link Outcome}, connection-acquire latency and occupancy of a bound {@link ConnectionPool},
+ * and retry counts of a bound {@link TransactionRetrier}.
+ * <p>
+ * Everything is preallocated, so {@link #record} costs a few atomic increments and allocates
+ * nothing. Values can be read through JMX ({@link #registerMBeans()}) or as Prometheus
+ * exposition text ({@link #toPrometheusText()}).
+ */
+public class BankMetrics implements BankMetricsMXBean {
+    /** Prometheus histogram bucket bounds, in seconds. */
+    private static final double[] PROMETHEUS_BUCKETS = {
+            0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final OperationMetrics[] operations = new OperationMetrics[Operation.values().length];
+    private final LatencyHistogram connectionAcquire = new LatencyHistogram();
+    private final List<ObjectName> registered = new ArrayList<>();
+    private volatile ConnectionPool pool;
+    private volatile TransactionRetrier retrier;
+
+    public BankMetrics() {
+        for (int i = 0; i < operations.length; i++) {
+            operations[i] = new OperationMetrics();
+        }
+    }
+
+    public void record(Operation operation, Outcome outcome, long nanos) {
+        operations[operation.ordinal()].record(outcome, nanos);
+    }
+
+    public OperationMetrics get(Operation operation) {
+        return operations[operation.ordinal()];
+    }
+
+    public LatencyHistogram getConnectionAcquire() {
+        return connectionAcquire;
+    }
+
+    /** Starts timing connection acquisition on {@code pool} and exports its occupancy. */
+    public void bindPool(ConnectionPool pool) {
+        this.pool = pool;
+        pool.setAcquireListener(connectionAcquire::record);
+    }
+
+    /** Exports the retry counters of {@code retrier}. */
+    public void bindRetrier(TransactionRetrier retrier) {
+        this.retrier = retrier;
+    }
+
+    // --- JMX ---
+    /**
+     * Registers one MBean per operation under {@code com.bank:type=BankDAO,operation=<label>},
+     * one for the bound pool under {@code com.bank:type=ConnectionPool}, and this registry under
+     * {@code com.bank:type=BankMetrics}. A numeric suffix keeps names unique if several
+     * registries are registered in the same JVM.
+     */
+    public synchronized void registerMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        String suffix = "";
+        for (int n = 2; server.isRegistered(new ObjectName("com.bank:type=BankMetrics" + suffix)); n++) {
+            suffix = ",instance=" + n;
+        }
+        register(server, this, "com.bank:type=BankMetrics" + suffix);
+        for (Operation op : Operation.values()) {
+            register(server, get(op), "com.bank:type=BankDAO,operation=" + op.getLabel() + suffix);
+        }
+        register(server, new PoolView(), "com.bank:type=ConnectionPool" + suffix);
+    }
+
+    public synchronized void unregisterMBeans() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : registered) {
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+        registered.clear();
+    }
+
+    private void register(MBeanServer server, Object mbean, String name) throws JMException {
+        ObjectName objectName = new ObjectName(name);
+        server.registerMBean(mbean, objectName);
+        registered.add(objectName);
+    }
+
+    /** MXBean adapter over the bound pool and the acquire histogram. */
+    private final class PoolView implements PoolMetricsMXBean {
+        private PoolStats stats() {
+            ConnectionPool p = pool;
+            return p == null ? new PoolStats(0, 0, 0, 0, 0, 0, 0, 0) : p.getStats();
+        }
+
+        @Override public int getActive() { return stats().getActive(); }
+        @Override public int getIdle() { return stats().getIdle(); }
+        @Override public int getWaiters() { return stats().getWaiters(); }
+        @Override public long getTimeoutCount() { return stats().getTimeoutCount(); }
+        @Override public long getLeakCount() { return stats().getLeakCount(); }
+        @Override public double getAcquireMeanMicros() { return connectionAcquire.getMeanNanos() / 1_000.0; }
+        @Override public double getAcquireP99Micros() { return connectionAcquire.getPercentileNanos(99) / 1_000.0; }
+        @Override public double getAcquireMaxMicros() { return connectionAcquire.getMaxNanos() / 1_000.0; }
+    }
+
+    // --- Prometheus ---
+    @Override
+    public String getPrometheusText() {
+        return toPrometheusText();
+    }
+
+    /** Renders all metrics in the Prometheus text exposition format (version 0.0.4). */
+    public String toPrometheusText() {
+        StringBuilder out = new StringBuilder(4096);
+        out.append("# HELP bank_operation_duration_seconds Latency of BankDAO operations.\n");
+        out.append("# TYPE bank_operation_duration_seconds histogram\n");
+        for (Operation op : Operation.values()) {
+            for (Outcome outcome : Outcome.values()) {
+                LatencyHistogram h = get(op).getHistogram(outcome);
+                if (h.getCount() > 0) {
+                    String labels = "operation=\"" + op.getLabel() + "\",outcome=\"" + outcome.getLabel() + "\"";
+                    appendHistogram(out, "bank_operation_duration_seconds", labels, h);
+                }
+            }
+        }
+
+        out.append("# HELP bank_connection_acquire_seconds Time to borrow a pooled connection.\n");
+        out.append("# TYPE bank_connection_acquire_seconds histogram\n");
+        appendHistogram(out, "bank_connection_acquire_seconds", "", connectionAcquire);
+
+        ConnectionPool p = pool;
+        if (p != null) {
+            PoolStats stats = p.getStats();
+            out.append("# HELP bank_pool_connections Pooled connections by state.\n");
+            out.append("# TYPE bank_pool_connections gauge\n");
+            out.append("bank_pool_connections{state=\"active\"} ").append(stats.getActive()).append('\n');
+            out.append("bank_pool_connections{state=\"idle\"} ").append(stats.getIdle()).append('\n');
+            out.append("# HELP bank_pool_waiters Threads waiting for a pooled connection.\n");
+            out.append("# TYPE bank_pool_waiters gauge\n");
+            out.append("bank_pool_waiters ").append(stats.getWaiters()).append('\n');
+            out.append("# HELP bank_pool_timeouts_total Connection requests that timed out.\n");
+            out.append("# TYPE bank_pool_timeouts_total counter\n");
+            out.append("bank_pool_timeouts_total ").append(stats.getTimeoutCount()).append('\n');
+        }
+
+        TransactionRetrier r = retrier;
+        if (r != null) {
+            out.append("# HELP bank_transaction_retries_total Transactions re-run after a deadlock or lock timeout.\n");
+            out.append("# TYPE bank_transaction_retries_total counter\n");
+            out.append("bank_transaction_retries_total ").append(r.getRetryCount()).append('\n');
+            out.append("# HELP bank_transaction_retries_exhausted_total Transactions that failed after every retry.\n");
+            out.append("# TYPE bank_transaction_retries_exhausted_total counter\n");
+            out.append("bank_transaction_retries_exhausted_total ").append(r.getExhaustedCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void appendHistogram(StringBuilder out, String name, String labels, LatencyHistogram h) {
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (double bound : PROMETHEUS_BUCKETS) {
+            long count = h.getCountAtOrBelow((long) (bound * 1e9));
+            out.append(name).append("_bucket{").append(prefix).append("le=\"").append(formatBound(bound)).append("\"} ")
+                    .append(count).append('\n');
+        }
+        out.append(name).append("_bucket{").append(prefix).append("le=\"+Inf\"} ").append(h.getCount()).append('\n');
+        String suffix = labels.isEmpty() ? "" : "{" + labels + "}";
+        out.append(name).append("_sum").append(suffix).append(' ')
+                .append(String.format(Locale.ROOT, "%.9f", h.getTotalNanos() / 1e9)).append('\n');
+        out.append(name).append("_count").append(suffix).append(' ').append(h.getCount()).append('\n');
+    }
+
+    private static String formatBound(double bound) {
+        return bound == Math.rint(bound) ? String.format(Locale.ROOT, "%.1f", bound) : BigDecimal.valueOf(bound).stripTrailingZeros().toPlainString();
+    }
+}
@@ -0,0 +1,8 @@
+package com.bank.metrics;
+
+/**
+ * JMX access to the full metrics set as Prometheus exposition text.
+ */
+public interface BankMetricsMXBean {
+    String getPrometheusText();
+}
@@ -0,0 +1,320 @@
+package com.bank.metrics;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.config.ReplicaSet;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.ActivitySummary;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.OpenAccountInstruction;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.TransferInstruction;
+import com.bank.model.User;
+import com.bank.model.UserCredentials;
+
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * {@link BankDAO} decorator that times every operation of the DAO it wraps (a {@link JdbcBankDAO},
+ * {@code LedgerBankDAO} or {@code ShardedBankDAO}) into a {@link BankMetrics} registry, split by
+ * outcome: success, {@link AccountException}, {@link SQLException} or any other exception. The
+ * {@code BigDecimal} overloads and those without an idempotency key delegate to the keyed
+ * {@link Money} ones and are timed through them. Methods that are not part of {@link BankDAO}, such as streamed history, are
+ * reached through {@link #getDelegate()} and are not timed.
+ */
+public class InstrumentedBankDAO implements BankDAO {
+    private final BankDAO delegate;
+    private final BankMetrics metrics;
+
+    /** Instruments a {@link JdbcBankDAO} on {@code pool}, with the pool bound to the registry. */
+    public InstrumentedBankDAO(ConnectionPool pool, BankMetrics metrics) {
+        this(pool, new JdbcBankDAOConfig(), metrics);
+    }
+
+    /** Instruments a {@link JdbcBankDAO} built from {@code config}, with the pool and retrier bound to the registry. */
+    public InstrumentedBankDAO(ConnectionPool pool, JdbcBankDAOConfig config, BankMetrics metrics) {
+        this(new JdbcBankDAO(pool, config), metrics);
+        metrics.bindPool(pool != null ? pool : Database.getPool());
+        metrics.bindRetrier(config.getRetrier());
+    }
+
+    /** Instruments any DAO; bind its pools and retriers with {@link BankMetrics#bindPool} and friends as needed. */
+    public InstrumentedBankDAO(BankDAO delegate, BankMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public BankMetrics getMetrics() {
+        return metrics;
+    }
+
+    public BankDAO getDelegate() {
+        return delegate;
+    }
+
+    // --- User and Account Creation ---
+    @Override
+    public int createUser(String username, String password, String firstName, String lastName) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            int userId = delegate.createUser(username, password, firstName, lastName);
+            outcome = Outcome.SUCCESS;
+            return userId;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.CREATE_USER, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Account createAccount(int userId, String accountType) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            Account account = delegate.createAccount(userId, accountType);
+            outcome = Outcome.SUCCESS;
+            return account;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.CREATE_ACCOUNT, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Account> createAccounts(List<OpenAccountInstruction> instructions) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<Account> accounts = delegate.createAccounts(instructions);
+            outcome = Outcome.SUCCESS;
+            return accounts;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.CREATE_ACCOUNTS, outcome, System.nanoTime() - start);
+        }
+    }
+
+    // --- Core Banking Operations ---
+    @Override
+    public void deposit(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            delegate.deposit(accountId, amount, idempotencyKey);
+            outcome = Outcome.SUCCESS;
+        } catch (AccountException e) {
+            outcome = Outcome.ACCOUNT_ERROR;
+            throw e;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.DEPOSIT, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void withdraw(int accountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            delegate.withdraw(accountId, amount, idempotencyKey);
+            outcome = Outcome.SUCCESS;
+        } catch (AccountException e) {
+            outcome = Outcome.ACCOUNT_ERROR;
+            throw e;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.WITHDRAW, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public void transfer(int fromAccountId, int toAccountId, Money amount, String idempotencyKey) throws SQLException, AccountException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            delegate.transfer(fromAccountId, toAccountId, amount, idempotencyKey);
+            outcome = Outcome.SUCCESS;
+        } catch (AccountException e) {
+            outcome = Outcome.ACCOUNT_ERROR;
+            throw e;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.TRANSFER, outcome, System.nanoTime() - start);
+        }
+    }
+
+    // --- Batch Operations ---
+    @Override
+    public List<BatchItemResult> transferBatch(List<TransferInstruction> instructions) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<BatchItemResult> results = delegate.transferBatch(instructions);
+            outcome = Outcome.SUCCESS;
+            return results;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.TRANSFER_BATCH, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<BatchItemResult> depositBatch(List<DepositInstruction> instructions) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<BatchItemResult> results = delegate.depositBatch(instructions);
+            outcome = Outcome.SUCCESS;
+            return results;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.DEPOSIT_BATCH, outcome, System.nanoTime() - start);
+        }
+    }
+
+    // --- Data Retrieval ---
+    @Override
+    public User login(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            User user = delegate.login(username, password);
+            outcome = Outcome.SUCCESS;
+            return user;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.LOGIN, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public UserCredentials findCredentials(String username) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            UserCredentials credentials = delegate.findCredentials(username);
+            outcome = Outcome.SUCCESS;
+            return credentials;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.FIND_CREDENTIALS, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Account> getAccountsByUserId(int userId) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<Account> accounts = delegate.getAccountsByUserId(userId);
+            outcome = Outcome.SUCCESS;
+            return accounts;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.GET_ACCOUNTS, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<Transaction> getTransactionHistory(int accountId) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<Transaction> transactions = delegate.getTransactionHistory(accountId);
+            outcome = Outcome.SUCCESS;
+            return transactions;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.HISTORY, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public TransactionPage getTransactionHistory(int accountId, HistoryCursor cursor, int pageSize) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            TransactionPage page = delegate.getTransactionHistory(accountId, cursor, pageSize);
+            outcome = Outcome.SUCCESS;
+            return page;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.HISTORY_PAGE, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public Money getBalanceAsOf(int accountId, Timestamp asOf) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            Money balance = delegate.getBalanceAsOf(accountId, asOf);
+            outcome = Outcome.SUCCESS;
+            return balance;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.BALANCE_AS_OF, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public List<ActivitySummary> getDailySummaries(int accountId, LocalDate from, LocalDate to) throws SQLException {
+        long start = System.nanoTime();
+        Outcome outcome = Outcome.UNEXPECTED_ERROR;
+        try {
+            List<ActivitySummary> days = delegate.getDailySummaries(accountId, from, to);
+            outcome = Outcome.SUCCESS;
+            return days;
+        } catch (SQLException e) {
+            outcome = Outcome.SQL_ERROR;
+            throw e;
+        } finally {
+            metrics.record(Operation.DAILY_SUMMARIES, outcome, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public ReplicaSet getReplicaSet() {
+        return delegate.getReplicaSet();
+    }
+}
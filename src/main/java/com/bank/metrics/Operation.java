@@ -0,0 +1,32 @@
+package com.bank.metrics;
+
+/**
+ * The {@code BankDAO} operations that are timed, with the label used in exported metrics.
+ */
+public enum Operation {
+    CREATE_USER("create_user"),
+    CREATE_ACCOUNT("create_account"),
+    CREATE_ACCOUNTS("create_accounts"),
+    DEPOSIT("deposit"),
+    WITHDRAW("withdraw"),
+    TRANSFER("transfer"),
+    DEPOSIT_BATCH("deposit_batch"),
+    TRANSFER_BATCH("transfer_batch"),
+    LOGIN("login"),
+    FIND_CREDENTIALS("find_credentials"),
+    GET_ACCOUNTS("get_accounts"),
+    HISTORY("history"),
+    HISTORY_PAGE("history_page"),
+    BALANCE_AS_OF("balance_as_of"),
+    DAILY_SUMMARIES("daily_summaries");
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
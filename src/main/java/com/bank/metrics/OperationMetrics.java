@@ -0,0 +1,36 @@
+package com.bank.metrics;
+
+/**
+ * Latency histograms for one operation, one per {@link Outcome}, plus an all-outcomes histogram
+ * that the percentile getters read from.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+    private final LatencyHistogram[] byOutcome = new LatencyHistogram[Outcome.values().length];
+    private final LatencyHistogram all = new LatencyHistogram();
+
+    OperationMetrics() {
+        for (int i = 0; i < byOutcome.length; i++) {
+            byOutcome[i] = new LatencyHistogram();
+        }
+    }
+
+    void record(Outcome outcome, long nanos) {
+        byOutcome[outcome.ordinal()].record(nanos);
+        all.record(nanos);
+    }
+
+    public LatencyHistogram getHistogram(Outcome outcome) {
+        return byOutcome[outcome.ordinal()];
+    }
+
+    @Override public long getCount() { return all.getCount(); }
+    @Override public long getSuccessCount() { return getHistogram(Outcome.SUCCESS).getCount(); }
+    @Override public long getAccountErrorCount() { return getHistogram(Outcome.ACCOUNT_ERROR).getCount(); }
+    @Override public long getSqlErrorCount() { return getHistogram(Outcome.SQL_ERROR).getCount(); }
+    @Override public long getUnexpectedErrorCount() { return getHistogram(Outcome.UNEXPECTED_ERROR).getCount(); }
+    @Override public double getMeanMicros() { return all.getMeanNanos() / 1_000.0; }
+    @Override public double getP50Micros() { return all.getPercentileNanos(50) / 1_000.0; }
+    @Override public double getP99Micros() { return all.getPercentileNanos(99) / 1_000.0; }
+    @Override public double getP999Micros() { return all.getPercentileNanos(99.9) / 1_000.0; }
+    @Override public double getMaxMicros() { return all.getMaxNanos() / 1_000.0; }
+}
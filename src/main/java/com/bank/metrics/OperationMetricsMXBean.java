@@ -0,0 +1,17 @@
+package com.bank.metrics;
+
+/**
+ * JMX view of one {@link Operation}. Latencies are in microseconds and cover all outcomes.
+ */
+public interface OperationMetricsMXBean {
+    long getCount();
+    long getSuccessCount();
+    long getAccountErrorCount();
+    long getSqlErrorCount();
+    long getUnexpectedErrorCount();
+    double getMeanMicros();
+    double getP50Micros();
+    double getP99Micros();
+    double getP999Micros();
+    double getMaxMicros();
+}
@@ -0,0 +1,24 @@
+package com.bank.metrics;
+
+/**
+ * How a timed operation ended.
+ */
+public enum Outcome {
+    SUCCESS("success"),
+    /** Rejected by a business rule, i.e. an {@code AccountException}. */
+    ACCOUNT_ERROR("account_error"),
+    /** Failed in the database layer, i.e. an {@code SQLException}. */
+    SQL_ERROR("sql_error"),
+    /** Failed with anything else, such as a {@code RuntimeException} from a bug or a bad argument. */
+    UNEXPECTED_ERROR("unexpected_error");
+
+    private final String label;
+
+    Outcome(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.metrics;
+
+/**
+ * JMX view of a connection pool: occupancy plus connection-acquire latency in microseconds.
+ */
+public interface PoolMetricsMXBean {
+    int getActive();
+    int getIdle();
+    int getWaiters();
+    long getTimeoutCount();
+    long getLeakCount();
+    double getAcquireMeanMicros();
+    double getAcquireP99Micros();
+    double getAcquireMaxMicros();
+}
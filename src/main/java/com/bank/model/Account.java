@@ -5,25 +5,28 @@ import java.math.BigDecimal;
 public abstract class Account {
     private int accountId;
     private String accountNumber;
-    private BigDecimal balance;
+    private Money balance;
     private String accountType;
 
-    public Account(int accountId, String accountNumber, BigDecimal balance, String accountType) {
+    public Account(int accountId, String accountNumber, Money balance, String accountType) {
         this.accountId = accountId;
         this.accountNumber = accountNumber;
         this.balance = balance;
         this.accountType = accountType;
     }
 
+    public Account(int accountId, String accountNumber, BigDecimal balance, String accountType) {
+        this(accountId, accountNumber, Money.of(balance), accountType);
+    }
+
     // Getters and Setters
     public int getAccountId() { return accountId; }
     public String getAccountNumber() { return accountNumber; }
-    public BigDecimal getBalance() { return balance; }
+    public Money getBalance() { return balance; }
     public String getAccountType() { return accountType; }
 
     @Override
     public String toString() {
-        return String.format("Account Number: %s | Type: %s | Balance: $%.2f",
-                accountNumber, accountType, balance);
+        return "Account Number: " + accountNumber + " | Type: " + accountType + " | Balance: $" + balance;
     }
 }
\ No newline at end of file
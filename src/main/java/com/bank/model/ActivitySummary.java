@@ -0,0 +1,123 @@
+package com.bank.model;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * An account's activity over one or more days: its balance before and after, and how many
+ * movements of each {@link Flow} there were and what they added up to.
+ */
+public class ActivitySummary {
+
+    /** Direction and kind of a movement. */
+    public enum Flow {
+        DEPOSIT, WITHDRAWAL, TRANSFER_IN, TRANSFER_OUT, INTEREST;
+
+        /**
+         * Classifies a transaction row, given its {@code direction} column and the balance_after
+         * of the account's row before it in transaction_id order. A transfer row written before
+         * that column existed does not record which side of the transfer it is: it is outgoing if
+         * the balance went down by its amount, incoming otherwise. Every reader of the log
+         * (summaries, reconciliation, invariant checks) classifies rows here.
+         */
+        public static Flow of(String transactionType, String direction, long amountCents, long balanceBeforeCents,
+                              long balanceAfterCents) {
+            switch (transactionType) {
+                case "Deposit":
+                    return DEPOSIT;
+                case "Withdrawal":
+                    return WITHDRAWAL;
+                case "Interest":
+                    return INTEREST;
+                case "Transfer":
+                    if (direction != null) {
+                        return direction.equals("Out") ? TRANSFER_OUT : TRANSFER_IN;
+                    }
+                    return balanceAfterCents == balanceBeforeCents - amountCents ? TRANSFER_OUT : TRANSFER_IN;
+                default:
+                    throw new IllegalArgumentException("Unknown transaction type: " + transactionType);
+            }
+        }
+
+        /** The change this flow makes to the balance: {@code amountCents}, negative for money leaving the account. */
+        public long signed(long amountCents) {
+            return this == WITHDRAWAL || this == TRANSFER_OUT ? -amountCents : amountCents;
+        }
+    }
+
+    private final int accountId;
+    private final LocalDate firstDate;
+    private final LocalDate lastDate;
+    private final Money openingBalance;
+    private final Money closingBalance;
+    private final int[] counts;
+    private final long[] totalCents;
+
+    /**
+     * @param counts     movements per {@link Flow}, indexed by ordinal
+     * @param totalCents their total per {@link Flow}, indexed by ordinal
+     */
+    public ActivitySummary(int accountId, LocalDate firstDate, LocalDate lastDate, Money openingBalance,
+                           Money closingBalance, int[] counts, long[] totalCents) {
+        if (counts.length != Flow.values().length || totalCents.length != Flow.values().length) {
+            throw new IllegalArgumentException("Expected a count and a total for every flow.");
+        }
+        this.accountId = accountId;
+        this.firstDate = firstDate;
+        this.lastDate = lastDate;
+        this.openingBalance = openingBalance;
+        this.closingBalance = closingBalance;
+        this.counts = counts.clone();
+        this.totalCents = totalCents.clone();
+    }
+
+    /** A period without activity, during which the balance stayed at {@code balance}. */
+    public static ActivitySummary quiet(int accountId, LocalDate firstDate, LocalDate lastDate, Money balance) {
+        int flows = Flow.values().length;
+        return new ActivitySummary(accountId, firstDate, lastDate, balance, balance, new int[flows], new long[flows]);
+    }
+
+    public int getAccountId() { return accountId; }
+    public LocalDate getFirstDate() { return firstDate; }
+    public LocalDate getLastDate() { return lastDate; }
+    /** The balance at the start of {@link #getFirstDate()}. */
+    public Money getOpeningBalance() { return openingBalance; }
+    /** The balance at the end of {@link #getLastDate()}. */
+    public Money getClosingBalance() { return closingBalance; }
+    public int getCount(Flow flow) { return counts[flow.ordinal()]; }
+    public Money getTotal(Flow flow) { return Money.ofCents(totalCents[flow.ordinal()]); }
+
+    public int getTransactionCount() {
+        return Arrays.stream(counts).sum();
+    }
+
+    /** This period followed by {@code next}, which must start after it ends. */
+    public ActivitySummary followedBy(ActivitySummary next) {
+        if (next.accountId != accountId || !next.firstDate.isAfter(lastDate)) {
+            throw new IllegalArgumentException("Can only append a later period of the same account.");
+        }
+        int[] sumCounts = counts.clone();
+        long[] sumTotals = totalCents.clone();
+        for (int i = 0; i < sumCounts.length; i++) {
+            sumCounts[i] += next.counts[i];
+            sumTotals[i] += next.totalCents[i];
+        }
+        return new ActivitySummary(accountId, firstDate, next.lastDate, openingBalance, next.closingBalance, sumCounts, sumTotals);
+    }
+
+    /** The same activity, reported over {@code firstDate} to {@code lastDate}. */
+    public ActivitySummary over(LocalDate firstDate, LocalDate lastDate) {
+        return new ActivitySummary(accountId, firstDate, lastDate, openingBalance, closingBalance, counts, totalCents);
+    }
+
+    @Override
+    public String toString() {
+        String period = firstDate.equals(lastDate) ? firstDate.toString() : firstDate + " to " + lastDate;
+        return String.format("%s | Opening: $%s | In: %d deposits $%s, %d transfers $%s, %d interest $%s "
+                        + "| Out: %d withdrawals $%s, %d transfers $%s | Closing: $%s",
+                period, openingBalance, getCount(Flow.DEPOSIT), getTotal(Flow.DEPOSIT),
+                getCount(Flow.TRANSFER_IN), getTotal(Flow.TRANSFER_IN), getCount(Flow.INTEREST), getTotal(Flow.INTEREST),
+                getCount(Flow.WITHDRAWAL), getTotal(Flow.WITHDRAWAL), getCount(Flow.TRANSFER_OUT),
+                getTotal(Flow.TRANSFER_OUT), closingBalance);
+    }
+}
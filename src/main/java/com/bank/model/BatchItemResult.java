@@ -0,0 +1,34 @@
+package com.bank.model;
+
+/**
+ * Outcome of one instruction in a batch: applied, or rejected with a reason.
+ */
+public class BatchItemResult {
+    private final int index;
+    private final boolean applied;
+    private final String reason;
+
+    private BatchItemResult(int index, boolean applied, String reason) {
+        this.index = index;
+        this.applied = applied;
+        this.reason = reason;
+    }
+
+    public static BatchItemResult applied(int index) {
+        return new BatchItemResult(index, true, null);
+    }
+
+    public static BatchItemResult rejected(int index, String reason) {
+        return new BatchItemResult(index, false, reason);
+    }
+
+    /** Position of the instruction in the submitted list. */
+    public int getIndex() { return index; }
+    public boolean isApplied() { return applied; }
+    public String getReason() { return reason; }
+
+    @Override
+    public String toString() {
+        return applied ? "#" + index + " applied" : "#" + index + " rejected: " + reason;
+    }
+}
@@ -3,7 +3,11 @@ package com.bank.model;
 import java.math.BigDecimal;
 
 public class CurrentAccount extends Account {
-    public CurrentAccount(int accountId, String accountNumber, BigDecimal balance) {
+    public CurrentAccount(int accountId, String accountNumber, Money balance) {
         super(accountId, accountNumber, balance, "Current");
     }
+
+    public CurrentAccount(int accountId, String accountNumber, BigDecimal balance) {
+        this(accountId, accountNumber, Money.of(balance));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,23 @@
+package com.bank.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One line item of a batch deposit run.
+ */
+public class DepositInstruction {
+    private final int accountId;
+    private final Money amount;
+
+    public DepositInstruction(int accountId, Money amount) {
+        this.accountId = accountId;
+        this.amount = amount;
+    }
+
+    public DepositInstruction(int accountId, BigDecimal amount) {
+        this(accountId, amount == null ? null : Money.of(amount));
+    }
+
+    public int getAccountId() { return accountId; }
+    public Money getAmount() { return amount; }
+}
@@ -0,0 +1,20 @@
+package com.bank.model;
+
+import java.sql.Timestamp;
+
+/**
+ * Keyset position in an account's transaction history: the (date, id) of the last row seen.
+ * The next page starts strictly after this row in newest-first order.
+ */
+public class HistoryCursor {
+    private final Timestamp transactionDate;
+    private final int transactionId;
+
+    public HistoryCursor(Timestamp transactionDate, int transactionId) {
+        this.transactionDate = transactionDate;
+        this.transactionId = transactionId;
+    }
+
+    public Timestamp getTransactionDate() { return transactionDate; }
+    public int getTransactionId() { return transactionId; }
+}
@@ -0,0 +1,131 @@
+package com.bank.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An immutable amount of money held as a {@code long} count of cents, matching the
+ * {@code DECIMAL(15,2)} columns of the schema.
+ * <p>
+ * Comparisons, sign checks and formatting work on the primitive directly, and arithmetic is
+ * overflow-checked ({@link ArithmeticException}). {@link #of(BigDecimal)} and
+ * {@link #toBigDecimal()} bridge to code that still speaks {@code BigDecimal}, such as JDBC.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Converts an exact decimal amount. Fails with {@link IllegalArgumentException} if it has
+     * fractions of a cent or does not fit in a {@code long} number of cents.
+     */
+    public static Money of(BigDecimal amount) {
+        try {
+            return ofCents(amount.setScale(2, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Not a whole number of cents: " + amount.toPlainString(), e);
+        }
+    }
+
+    /** Parses {@code "12"}, {@code "12.3"}, {@code "-12.34"} and the like, without going through BigDecimal. */
+    public static Money parse(String text) {
+        int len = text.length();
+        int i = 0;
+        boolean negative = false;
+        if (len > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+')) {
+            negative = text.charAt(0) == '-';
+            i++;
+        }
+        long units = 0;
+        int digits = 0;
+        for (; i < len && text.charAt(i) != '.'; i++, digits++) {
+            units = Math.addExact(Math.multiplyExact(units, 10), digit(text, i));
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < len) {
+            for (i++; i < len; i++, fractionDigits++) {
+                if (fractionDigits == 2) {
+                    throw new IllegalArgumentException("Not a whole number of cents: " + text);
+                }
+                fraction = fraction * 10 + digit(text, i);
+            }
+        }
+        if (digits + fractionDigits == 0) {
+            throw new IllegalArgumentException("Not an amount: " + text);
+        }
+        if (fractionDigits == 1) {
+            fraction *= 10;
+        }
+        long cents = Math.addExact(Math.multiplyExact(units, 100), fraction);
+        return ofCents(negative ? -cents : cents);
+    }
+
+    private static int digit(String text, int i) {
+        char c = text.charAt(i);
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Not an amount: " + text);
+        }
+        return c - '0';
+    }
+
+    public long getCents() { return cents; }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // --- Arithmetic ---
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    public Money negate() {
+        return ofCents(Math.negateExact(cents));
+    }
+
+    public int signum() { return Long.signum(cents); }
+    public boolean isPositive() { return cents > 0; }
+    public boolean isNegative() { return cents < 0; }
+    public boolean isZero() { return cents == 0; }
+    public boolean isLessThan(Money other) { return cents < other.cents; }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /** Plain two-decimal form, e.g. {@code "-1234.05"}. */
+    @Override
+    public String toString() {
+        long units = Math.abs(cents / 100);
+        int fraction = (int) Math.abs(cents % 100);
+        StringBuilder out = new StringBuilder(24);
+        if (cents < 0) out.append('-');
+        return out.append(units).append('.').append((char) ('0' + fraction / 10)).append((char) ('0' + fraction % 10))
+                .toString();
+    }
+}
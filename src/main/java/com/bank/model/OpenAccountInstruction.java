@@ -0,0 +1,17 @@
+package com.bank.model;
+
+/**
+ * One account to open in a bulk account-opening run.
+ */
+public class OpenAccountInstruction {
+    private final int userId;
+    private final String accountType;
+
+    public OpenAccountInstruction(int userId, String accountType) {
+        this.userId = userId;
+        this.accountType = accountType;
+    }
+
+    public int getUserId() { return userId; }
+    public String getAccountType() { return accountType; }
+}
@@ -3,7 +3,11 @@ package com.bank.model;
 import java.math.BigDecimal;
 
 public class SavingsAccount extends Account {
-    public SavingsAccount(int accountId, String accountNumber, BigDecimal balance) {
+    public SavingsAccount(int accountId, String accountNumber, Money balance) {
         super(accountId, accountNumber, balance, "Savings");
     }
+
+    public SavingsAccount(int accountId, String accountNumber, BigDecimal balance) {
+        this(accountId, accountNumber, Money.of(balance));
+    }
 }
\ No newline at end of file
@@ -6,19 +6,38 @@ import java.sql.Timestamp;
 public class Transaction {
     private int transactionId;
     private String transactionType;
-    private BigDecimal amount;
+    private Money amount;
+    private Money balanceAfter;
     private Timestamp transactionDate;
 
-    public Transaction(int transactionId, String transactionType, BigDecimal amount, Timestamp transactionDate) {
+    public Transaction(int transactionId, String transactionType, Money amount, Money balanceAfter, Timestamp transactionDate) {
         this.transactionId = transactionId;
         this.transactionType = transactionType;
         this.amount = amount;
+        this.balanceAfter = balanceAfter;
         this.transactionDate = transactionDate;
     }
 
+    public Transaction(int transactionId, String transactionType, Money amount, Timestamp transactionDate) {
+        this(transactionId, transactionType, amount, null, transactionDate);
+    }
+
+    public Transaction(int transactionId, String transactionType, BigDecimal amount, Timestamp transactionDate) {
+        this(transactionId, transactionType, Money.of(amount), transactionDate);
+    }
+
+    public int getTransactionId() { return transactionId; }
+    public String getTransactionType() { return transactionType; }
+    public Money getAmount() { return amount; }
+
+    /** The account's running balance right after this transaction, or null if not known. */
+    public Money getBalanceAfter() { return balanceAfter; }
+
+    public Timestamp getTransactionDate() { return transactionDate; }
+
     @Override
     public String toString() {
-        return String.format("Date: %s | Type: %-10s | Amount: $%.2f",
-                transactionDate, transactionType, amount);
+        String line = String.format("Date: %s | Type: %-10s | Amount: $%s", transactionDate, transactionType, amount);
+        return balanceAfter == null ? line : line + " | Balance: $" + balanceAfter;
     }
 }
\ No newline at end of file
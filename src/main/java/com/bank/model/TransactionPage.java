@@ -0,0 +1,23 @@
+package com.bank.model;
+
+import java.util.List;
+
+/**
+ * One page of transaction history plus the cursor for the following page.
+ */
+public class TransactionPage {
+    private final List<Transaction> transactions;
+    private final HistoryCursor nextCursor;
+
+    public TransactionPage(List<Transaction> transactions, HistoryCursor nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Transaction> getTransactions() { return transactions; }
+
+    /** Cursor for the next page, or {@code null} if this is the last page. */
+    public HistoryCursor getNextCursor() { return nextCursor; }
+
+    public boolean hasMore() { return nextCursor != null; }
+}
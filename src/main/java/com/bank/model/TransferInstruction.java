@@ -0,0 +1,26 @@
+package com.bank.model;
+
+import java.math.BigDecimal;
+
+/**
+ * One line item of a batch transfer run.
+ */
+public class TransferInstruction {
+    private final int fromAccountId;
+    private final int toAccountId;
+    private final Money amount;
+
+    public TransferInstruction(int fromAccountId, int toAccountId, Money amount) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+    }
+
+    public TransferInstruction(int fromAccountId, int toAccountId, BigDecimal amount) {
+        this(fromAccountId, toAccountId, amount == null ? null : Money.of(amount));
+    }
+
+    public int getFromAccountId() { return fromAccountId; }
+    public int getToAccountId() { return toAccountId; }
+    public Money getAmount() { return amount; }
+}
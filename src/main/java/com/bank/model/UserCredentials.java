@@ -0,0 +1,18 @@
+package com.bank.model;
+
+/**
+ * A user together with their stored password hash, as looked up for a login. The hash is checked
+ * with {@code PasswordHasher.verify} once the database connection has been given back.
+ */
+public class UserCredentials {
+    private final User user;
+    private final String passwordHash;
+
+    public UserCredentials(User user, String passwordHash) {
+        this.user = user;
+        this.passwordHash = passwordHash;
+    }
+
+    public User getUser() { return user; }
+    public String getPasswordHash() { return passwordHash; }
+}
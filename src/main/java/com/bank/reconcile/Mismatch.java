@@ -0,0 +1,46 @@
+package com.bank.reconcile;
+
+import com.bank.model.Money;
+
+/** A disagreement between an account and its transaction log, found by a {@link ReconciliationJob}. */
+public class Mismatch {
+
+    public enum Kind {
+        /** {@code accounts.balance} differs from what the account's transactions add up to. */
+        BALANCE,
+        /** A transaction's {@code balance_after} does not follow from the rows before it. */
+        TRANSACTION
+    }
+
+    private final Kind kind;
+    private final int accountId;
+    private final int transactionId;
+    private final Money expected;
+    private final Money actual;
+
+    public Mismatch(Kind kind, int accountId, int transactionId, Money expected, Money actual) {
+        this.kind = kind;
+        this.accountId = accountId;
+        this.transactionId = transactionId;
+        this.expected = expected;
+        this.actual = actual;
+    }
+
+    public Kind getKind() { return kind; }
+    public int getAccountId() { return accountId; }
+    /** The offending row for {@link Kind#TRANSACTION}; the last row checked (0 if none) for {@link Kind#BALANCE}. */
+    public int getTransactionId() { return transactionId; }
+    /** What the transaction log says. */
+    public Money getExpected() { return expected; }
+    /** What was recorded instead. */
+    public Money getActual() { return actual; }
+
+    @Override
+    public String toString() {
+        if (kind == Kind.BALANCE) {
+            return String.format("Account %d: balance is $%s but its transactions add up to $%s", accountId, actual, expected);
+        }
+        return String.format("Account %d, transaction %d: balance_after is $%s but the rows before it add up to $%s",
+                accountId, transactionId, actual, expected);
+    }
+}
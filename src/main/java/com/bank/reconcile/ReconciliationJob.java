@@ -0,0 +1,444 @@
+package com.bank.reconcile;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.model.ActivitySummary.Flow;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Checks that every account's balance agrees with the rows written to {@code transactions}.
+ * <p>
+ * Each account has a checkpoint in {@code reconciliation_checkpoints}: the last row checked, the
+ * balance the rows up to it add up to, and that row's {@code balance_after}. A run only reads the
+ * rows added since the previous run (up to the highest transaction_id when it starts), so it costs
+ * what happened in between rather than the whole log. It splits the accounts into account_id
+ * ranges of {@code rangeSize} ids and hands them to {@code parallelism} workers. A worker keeps
+ * its range's checkpoints in arrays, streams the range's new rows {@code fetchSize} at a time,
+ * adds up their amounts and checks that each row's {@code balance_after} follows from the row
+ * before. It then streams the range's balances and compares each one to its recomputed value.
+ * Memory per worker is bounded by the range size, whatever the number of rows.
+ * <p>
+ * All reads are plain, non-locking reads, and the only writes go to the checkpoint table, so
+ * online deposits and transfers never wait on a run. Such reads see a moving target: a balance
+ * may be read after a row the scan missed, or a row may commit late with an id the run has
+ * already passed. So a suspect account is read again on its own before anything is reported:
+ * its rows since the checkpoint, then its balance and latest transaction_id in one statement. A
+ * balance is only reported if no row newer than those checked has been committed for it.
+ * <p>
+ * Rows are signed as {@link Flow#of} classifies them. A broken row is reported
+ * once and the next row is checked against its {@code balance_after}. A balance that disagrees
+ * with the sum of the amounts is reported by every run until it is fixed. An account first
+ * reconciled after some of its rows were archived (it has balance snapshots) starts from its
+ * oldest remaining row, or from its balance if none remains, rather than from zero. Runs of one
+ * job are serialized; do not run two jobs on the same database at once.
+ */
+public class ReconciliationJob {
+    public static final int DEFAULT_PARALLELISM = 2;
+    public static final int DEFAULT_RANGE_SIZE = 10_000;
+    public static final int DEFAULT_FETCH_SIZE = 1_000;
+    /** Mismatches kept in a report; the rest are only counted. */
+    public static final int MAX_REPORTED = 1_000;
+
+    // --- Per-account flags of a range ---
+    /** Has a row in reconciliation_checkpoints. */
+    private static final byte CHECKPOINTED = 1;
+    /** Has balance snapshots, so its oldest rows may have been archived. */
+    private static final byte SNAPSHOTTED = 2;
+    /** Its checkpoint moved and must be saved. */
+    private static final byte DIRTY = 4;
+    /** Looked wrong during the scan; read again on its own before reporting. */
+    private static final byte SUSPECT = 8;
+
+    private final ConnectionPool pool;
+    private final int parallelism;
+    private final int rangeSize;
+    private final int fetchSize;
+
+    public ReconciliationJob(ConnectionPool pool) {
+        this(pool, DEFAULT_PARALLELISM, DEFAULT_RANGE_SIZE, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * @param pool      {@code null} to use the shared pool managed by {@link Database}
+     * @param fetchSize rows fetched per round trip, and checkpoints saved per commit
+     */
+    public ReconciliationJob(ConnectionPool pool, int parallelism, int rangeSize, int fetchSize) {
+        if (parallelism <= 0 || rangeSize <= 0 || fetchSize <= 0) {
+            throw new IllegalArgumentException("Parallelism, range size and fetch size must be positive.");
+        }
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.rangeSize = rangeSize;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Reconciles every account through the latest transaction and records the run. If a range
+     * fails, the others still finish and the first failure is rethrown; their checkpoints are
+     * kept, so the next run only repeats the work of the failed range.
+     */
+    public synchronized ReconciliationReport run() throws SQLException {
+        long start = System.nanoTime();
+        int from;
+        int through;
+        List<Range> ranges = new ArrayList<>();
+        try (Connection conn = getConnection()) {
+            from = queryInt(conn, "SELECT MAX(through_transaction_id) FROM reconciliation_runs");
+            through = Math.max(from, queryInt(conn, "SELECT MAX(transaction_id) FROM transactions"));
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT MIN(account_id), MAX(account_id) FROM accounts");
+                 ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                int min = rs.getInt(1);
+                if (!rs.wasNull()) {
+                    int max = rs.getInt(2);
+                    for (long s = min; s <= max; s += rangeSize) {
+                        ranges.add(new Range((int) s, (int) Math.min(max, s + rangeSize - 1)));
+                    }
+                }
+            }
+        }
+
+        Totals totals = new Totals();
+        AtomicInteger threadIds = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, ranges.size())), r -> {
+            Thread t = new Thread(r, "reconciliation-" + threadIds.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        SQLException failure = null;
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (Range range : ranges) {
+                futures.add(workers.submit(() -> {
+                    reconcileRange(range, from, through, totals);
+                    return null;
+                }));
+            }
+            for (Future<Void> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    SQLException cause = e.getCause() instanceof SQLException
+                            ? (SQLException) e.getCause()
+                            : new SQLException("Reconciliation failed.", e.getCause());
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while reconciling.", e);
+        } finally {
+            workers.shutdownNow();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+
+        String runSql = "INSERT INTO reconciliation_runs (through_transaction_id, accounts_checked, transactions_checked, mismatches) "
+                + "VALUES (?, ?, ?, ?)";
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(runSql)) {
+            pstmt.setInt(1, through);
+            pstmt.setLong(2, totals.accounts.sum());
+            pstmt.setLong(3, totals.transactions.sum());
+            pstmt.setInt(4, totals.mismatchCount.get());
+            pstmt.executeUpdate();
+        }
+        List<Mismatch> mismatches = totals.mismatches();
+        return new ReconciliationReport(through, ranges.size(), totals.accounts.sum(), totals.transactions.sum(),
+                totals.mismatchCount.get(), mismatches, System.nanoTime() - start);
+    }
+
+    // --- Planning ---
+    private static final class Range {
+        final int start;
+        final int end;
+
+        Range(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder accounts = new LongAdder();
+        final LongAdder transactions = new LongAdder();
+        final AtomicInteger mismatchCount = new AtomicInteger();
+        private final List<Mismatch> reported = new ArrayList<>();
+
+        void report(Mismatch mismatch) {
+            if (mismatchCount.getAndIncrement() < MAX_REPORTED) {
+                synchronized (reported) {
+                    reported.add(mismatch);
+                }
+            }
+        }
+
+        List<Mismatch> mismatches() {
+            synchronized (reported) {
+                List<Mismatch> sorted = new ArrayList<>(reported);
+                sorted.sort(Comparator.comparingInt(Mismatch::getAccountId).thenComparingInt(Mismatch::getTransactionId));
+                return sorted;
+            }
+        }
+    }
+
+    /** State of one range, indexed by {@code account_id - start}. */
+    private static final class RangeState {
+        final int[] checkpointTx;
+        final long[] checkpointBalance;
+        final long[] checkpointAfter;
+        final int[] lastTx;
+        final long[] balance;
+        final long[] lastAfter;
+        final byte[] flags;
+
+        RangeState(int size) {
+            checkpointTx = new int[size];
+            checkpointBalance = new long[size];
+            checkpointAfter = new long[size];
+            lastTx = new int[size];
+            balance = new long[size];
+            lastAfter = new long[size];
+            flags = new byte[size];
+        }
+
+        /** Whether the account starts from its next row, its earlier ones having been archived unchecked. */
+        boolean startsAtNextRow(int i) {
+            return (flags[i] & (CHECKPOINTED | SNAPSHOTTED)) == SNAPSHOTTED && lastTx[i] == 0;
+        }
+
+        /**
+         * Adds a row to the account and returns the balance_after it should have had, which is
+         * its own when the account starts at it.
+         */
+        long add(int i, int transactionId, String type, String direction, long amount, long balanceAfter) {
+            long expected;
+            if (startsAtNextRow(i)) {
+                balance[i] = expected = balanceAfter;
+            } else {
+                long signed = Flow.of(type, direction, amount, lastAfter[i], balanceAfter).signed(amount);
+                expected = lastAfter[i] + signed;
+                balance[i] += signed;
+            }
+            lastTx[i] = transactionId;
+            lastAfter[i] = balanceAfter;
+            flags[i] |= DIRTY;
+            return expected;
+        }
+
+        /** Starts an account whose rows were all archived before its first reconciliation from its current balance. */
+        void adopt(int i, long currentBalance) {
+            balance[i] = lastAfter[i] = currentBalance;
+            flags[i] |= DIRTY;
+        }
+    }
+
+    // --- Reconciliation ---
+    private void reconcileRange(Range range, int from, int through, Totals totals) throws SQLException {
+        RangeState state = new RangeState(range.end - range.start + 1);
+        try (Connection conn = getConnection()) {
+            loadCheckpoints(conn, range, state);
+            scanTransactions(conn, range, from, through, state, totals);
+            scanBalances(conn, range, state, totals);
+            for (int i = 0; i < state.flags.length; i++) {
+                if ((state.flags[i] & SUSPECT) != 0) {
+                    recheck(conn, range.start + i, i, through, state, totals);
+                }
+            }
+            saveCheckpoints(conn, range, state);
+        }
+    }
+
+    private void loadCheckpoints(Connection conn, Range range, RangeState state) throws SQLException {
+        String checkpointSql = "SELECT account_id, last_transaction_id, balance, balance_after FROM reconciliation_checkpoints "
+                + "WHERE account_id >= ? AND account_id <= ?";
+        try (PreparedStatement pstmt = streaming(conn, checkpointSql, range)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int i = rs.getInt(1) - range.start;
+                    state.checkpointTx[i] = state.lastTx[i] = rs.getInt(2);
+                    state.checkpointBalance[i] = state.balance[i] = cents(rs, 3);
+                    state.checkpointAfter[i] = state.lastAfter[i] = cents(rs, 4);
+                    state.flags[i] |= CHECKPOINTED;
+                }
+            }
+        }
+        String snapshotSql = "SELECT DISTINCT account_id FROM balance_snapshots WHERE account_id >= ? AND account_id <= ?";
+        try (PreparedStatement pstmt = streaming(conn, snapshotSql, range)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    state.flags[rs.getInt(1) - range.start] |= SNAPSHOTTED;
+                }
+            }
+        }
+    }
+
+    private void scanTransactions(Connection conn, Range range, int from, int through, RangeState state, Totals totals)
+            throws SQLException {
+        String sql = "SELECT account_id, transaction_id, transaction_type, amount, balance_after, direction FROM transactions "
+                + "WHERE account_id >= ? AND account_id <= ? AND transaction_id > ? AND transaction_id <= ? "
+                + "ORDER BY account_id, transaction_id";
+        try (PreparedStatement pstmt = streaming(conn, sql, range)) {
+            pstmt.setInt(3, from);
+            pstmt.setInt(4, through);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int i = rs.getInt(1) - range.start;
+                    int transactionId = rs.getInt(2);
+                    if (transactionId <= state.lastTx[i]) {
+                        continue; // checked by an earlier, interrupted run
+                    }
+                    totals.transactions.increment();
+                    long after = cents(rs, 5);
+                    if (state.add(i, transactionId, rs.getString(3), rs.getString(6), cents(rs, 4), after) != after) {
+                        state.flags[i] |= SUSPECT;
+                    }
+                }
+            }
+        }
+    }
+
+    private void scanBalances(Connection conn, Range range, RangeState state, Totals totals) throws SQLException {
+        try (PreparedStatement pstmt = streaming(conn, "SELECT account_id, balance FROM accounts WHERE account_id >= ? AND account_id <= ?", range)) {
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int i = rs.getInt(1) - range.start;
+                    long balance = cents(rs, 2);
+                    totals.accounts.increment();
+                    if (state.startsAtNextRow(i)) {
+                        state.adopt(i, balance);
+                    } else if (balance != state.balance[i]) {
+                        state.flags[i] |= SUSPECT;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks one account again from its checkpoint, reporting what is still wrong: broken rows up
+     * to {@code through}, then its balance, unless a row newer than those checked has committed.
+     */
+    private void recheck(Connection conn, int accountId, int i, int through, RangeState state, Totals totals)
+            throws SQLException {
+        String rowsSql = "SELECT transaction_id, transaction_type, amount, balance_after, direction FROM transactions "
+                + "WHERE account_id = ? AND transaction_id > ? AND transaction_id <= ? ORDER BY transaction_id";
+        String balanceSql = "SELECT a.balance, (SELECT MAX(t.transaction_id) FROM transactions t WHERE t.account_id = a.account_id) "
+                + "FROM accounts a WHERE a.account_id = ?";
+        state.lastTx[i] = state.checkpointTx[i];
+        state.balance[i] = state.checkpointBalance[i];
+        state.lastAfter[i] = state.checkpointAfter[i];
+        try (PreparedStatement pstmt = conn.prepareStatement(rowsSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            pstmt.setFetchSize(fetchSize);
+            pstmt.setInt(1, accountId);
+            pstmt.setInt(2, state.checkpointTx[i]);
+            pstmt.setInt(3, through);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    long after = cents(rs, 4);
+                    long expected = state.add(i, rs.getInt(1), rs.getString(2), rs.getString(5), cents(rs, 3), after);
+                    if (expected != after) {
+                        totals.report(new Mismatch(Mismatch.Kind.TRANSACTION, accountId, rs.getInt(1),
+                                Money.ofCents(expected), Money.ofCents(after)));
+                    }
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(balanceSql)) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return;
+                }
+                long balance = cents(rs, 1);
+                int latest = rs.getInt(2);
+                if (state.startsAtNextRow(i)) {
+                    state.adopt(i, balance);
+                } else if (latest <= state.lastTx[i] && balance != state.balance[i]) {
+                    totals.report(new Mismatch(Mismatch.Kind.BALANCE, accountId, state.lastTx[i],
+                            Money.ofCents(state.balance[i]), Money.ofCents(balance)));
+                }
+            }
+        }
+    }
+
+    /** Saves the checkpoints that moved, {@code fetchSize} per short transaction. */
+    private void saveCheckpoints(Connection conn, Range range, RangeState state) throws SQLException {
+        String updateSql = "UPDATE reconciliation_checkpoints SET last_transaction_id = ?, balance = ?, balance_after = ? "
+                + "WHERE account_id = ?";
+        String insertSql = "INSERT INTO reconciliation_checkpoints (last_transaction_id, balance, balance_after, account_id) "
+                + "VALUES (?, ?, ?, ?)";
+        conn.setAutoCommit(false);
+        try (PreparedStatement update = conn.prepareStatement(updateSql);
+             PreparedStatement insert = conn.prepareStatement(insertSql)) {
+            int pending = 0;
+            for (int i = 0; i < state.flags.length; i++) {
+                if ((state.flags[i] & DIRTY) == 0) {
+                    continue;
+                }
+                PreparedStatement pstmt = (state.flags[i] & CHECKPOINTED) != 0 ? update : insert;
+                pstmt.setInt(1, state.lastTx[i]);
+                pstmt.setBigDecimal(2, Money.ofCents(state.balance[i]).toBigDecimal());
+                pstmt.setBigDecimal(3, Money.ofCents(state.lastAfter[i]).toBigDecimal());
+                pstmt.setInt(4, range.start + i);
+                pstmt.addBatch();
+                if (++pending == fetchSize) {
+                    update.executeBatch();
+                    insert.executeBatch();
+                    conn.commit();
+                    pending = 0;
+                }
+            }
+            update.executeBatch();
+            insert.executeBatch();
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+
+    private PreparedStatement streaming(Connection conn, String sql, Range range) throws SQLException {
+        PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        pstmt.setFetchSize(fetchSize);
+        pstmt.setInt(1, range.start);
+        pstmt.setInt(2, range.end);
+        return pstmt;
+    }
+
+    private static long cents(ResultSet rs, int column) throws SQLException {
+        return Money.of(rs.getBigDecimal(column)).getCents();
+    }
+
+    private static int queryInt(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private Connection getConnection() throws SQLException {
+        return pool != null ? pool.getConnection() : Database.getConnection();
+    }
+}
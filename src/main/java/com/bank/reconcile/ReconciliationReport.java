@@ -0,0 +1,55 @@
+package com.bank.reconcile;
+
+import java.util.List;
+
+/** What one {@link ReconciliationJob#run} checked and the mismatches it found. */
+public class ReconciliationReport {
+    private final int throughTransactionId;
+    private final int ranges;
+    private final long accountsChecked;
+    private final long transactionsChecked;
+    private final int mismatchCount;
+    private final List<Mismatch> mismatches;
+    private final long elapsedNanos;
+
+    public ReconciliationReport(int throughTransactionId, int ranges, long accountsChecked, long transactionsChecked,
+                                int mismatchCount, List<Mismatch> mismatches, long elapsedNanos) {
+        this.throughTransactionId = throughTransactionId;
+        this.ranges = ranges;
+        this.accountsChecked = accountsChecked;
+        this.transactionsChecked = transactionsChecked;
+        this.mismatchCount = mismatchCount;
+        this.mismatches = List.copyOf(mismatches);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** Every account is reconciled through this transaction_id. */
+    public int getThroughTransactionId() { return throughTransactionId; }
+    public int getRanges() { return ranges; }
+    public long getAccountsChecked() { return accountsChecked; }
+    /** Transaction rows read, i.e. those added since the previous run. */
+    public long getTransactionsChecked() { return transactionsChecked; }
+    /** All mismatches found, which can be more than {@link #getMismatches()} lists. */
+    public int getMismatchCount() { return mismatchCount; }
+    /** The first {@link ReconciliationJob#MAX_REPORTED} mismatches, ordered by account. */
+    public List<Mismatch> getMismatches() { return mismatches; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    public boolean isClean() {
+        return mismatchCount == 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format(
+                "Reconciled %d accounts and %d new transactions through transaction %d in %.2fs: %d mismatches",
+                accountsChecked, transactionsChecked, throughTransactionId, elapsedNanos / 1e9, mismatchCount));
+        for (Mismatch m : mismatches) {
+            out.append(System.lineSeparator()).append("  ").append(m);
+        }
+        if (mismatchCount > mismatches.size()) {
+            out.append(System.lineSeparator()).append("  ... and ").append(mismatchCount - mismatches.size()).append(" more");
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,449 @@
+package com.bank.server;
+
+import com.bank.auth.PasswordHasher;
+import com.bank.auth.SessionStore;
+import com.bank.config.ReplicaSet;
+import com.bank.dao.BankDAO;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.User;
+import com.bank.model.UserCredentials;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Timestamp;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP/JSON front end over {@link BankDAO}, so many customers can be served from one JVM instead
+ * of the single console session of {@code App}.
+ * <p>
+ * Requests are form-encoded (query string or POST body) and answered with JSON. After
+ * {@code POST /login} every request carries {@code Authorization: Bearer <token>}:
+ * <pre>
+ *   POST /login      username, password
+ *   POST /logout
+ *   GET  /accounts
+ *   POST /deposit    accountId, amount
+ *   POST /withdraw   accountId, amount
+ *   POST /transfer   fromAccountId, toAccountId, amount (both the caller's own)
+ *   GET  /history    accountId [, pageSize, cursorDate, cursorId]
+ * </pre>
+ * Deposits, withdrawals and transfers may carry an {@code Idempotency-Key} header of up to
+ * {@value #MAX_IDEMPOTENCY_KEY_LENGTH} characters; a retry with the same key (per user) is answered
+ * without moving the money again.
+ * Each request runs on its own virtual thread when the JVM supports them, otherwise on a
+ * bounded platform thread pool. Sessions hold no thread, so the number of logged-in customers is
+ * limited by memory only. Database work is admitted through a semaphore sized to the connection
+ * pool; a request that cannot be admitted within {@code admissionTimeoutMillis} gets 503. A
+ * login only holds a slot while the user is looked up, not while the password hash is checked.
+ * <p>
+ * The JDK server closes keep-alive connections beyond {@code sun.net.httpserver.maxIdleConnections}
+ * (200 by default), and a client may then send its next request on one that was just closed. The
+ * property is read once, when the first server is created, so a launcher serving thousands of
+ * clients sets it first, e.g. to {@link #DEFAULT_MAX_IDLE_CONNECTIONS}; {@code App --serve} does.
+ */
+public class BankServer implements AutoCloseable {
+    public static final int DEFAULT_MAX_IDLE_CONNECTIONS = 10_000;
+    public static final String MAX_IDLE_CONNECTIONS_PROPERTY = "sun.net.httpserver.maxIdleConnections";
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final int MAX_BODY_BYTES = 8 * 1024;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int PLATFORM_THREADS = 256;
+    private static final long SESSION_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    private static final long SESSION_ABSOLUTE_TIMEOUT_MILLIS = TimeUnit.HOURS.toMillis(12);
+
+    private final BankDAO dao;
+    private final Semaphore inFlight;
+    private final long admissionTimeoutMillis;
+    private final SessionStore sessions;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService sweeper;
+
+    /**
+     * @param port        TCP port to listen on, or 0 for an ephemeral port (see {@link #getPort()})
+     * @param maxInFlight requests allowed to use the database at once, normally the pool's max size
+     */
+    public BankServer(BankDAO dao, int port, int maxInFlight, long admissionTimeoutMillis) throws IOException {
+        this(dao, port, maxInFlight, admissionTimeoutMillis,
+                new SessionStore(SESSION_IDLE_TIMEOUT_MILLIS, SESSION_ABSOLUTE_TIMEOUT_MILLIS));
+    }
+
+    /** Uses the given session store, e.g. one backed by a {@code SharedSessionStore} when several nodes serve the same customers. */
+    public BankServer(BankDAO dao, int port, int maxInFlight, long admissionTimeoutMillis, SessionStore sessions) throws IOException {
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive.");
+        }
+        this.dao = dao;
+        this.sessions = sessions;
+        this.inFlight = new Semaphore(maxInFlight, true);
+        this.admissionTimeoutMillis = admissionTimeoutMillis;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = newRequestExecutor();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "bank-server-sessions");
+            t.setDaemon(true);
+            return t;
+        });
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+        sweeper.scheduleWithFixedDelay(sessions::expireDue, sessions.getTickMillis(), sessions.getTickMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        sweeper.shutdownNow();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // --- Request Handling ---
+    private void handle(HttpExchange exchange) throws IOException {
+        int status;
+        String body;
+        try {
+            Map<String, String> params = readParams(exchange);
+            body = dispatch(exchange, params);
+            status = 200;
+        } catch (RequestException e) {
+            status = e.status;
+            body = Json.error(e.getMessage());
+        } catch (AccountException e) {
+            status = 422;
+            body = Json.error(e.getMessage());
+        } catch (SQLTransientConnectionException e) {
+            status = 503;
+            body = Json.error("Service busy, please retry.");
+        } catch (SQLException e) {
+            System.err.println("Request " + exchange.getRequestURI().getPath() + " failed: " + e.getMessage());
+            status = 500;
+            body = Json.error("Database error.");
+        } catch (RuntimeException e) {
+            System.err.println("Request " + exchange.getRequestURI().getPath() + " failed: " + e);
+            status = 500;
+            body = Json.error("Internal error.");
+        } finally {
+            ReplicaSet replicas = dao.getReplicaSet();
+            if (replicas != null) replicas.unbindSession();
+        }
+        send(exchange, status, body);
+    }
+
+    private String dispatch(HttpExchange exchange, Map<String, String> params)
+            throws RequestException, SQLException, AccountException {
+        String method = exchange.getRequestMethod();
+        String path = exchange.getRequestURI().getPath();
+        switch (path) {
+            case "/login": {
+                requireMethod(method, "POST");
+                String username = requiredParam(params, "username");
+                String password = requiredParam(params, "password");
+                UserCredentials credentials = admitted(() -> dao.findCredentials(username));
+                return login(credentials, password);
+            }
+            case "/logout":
+                requireMethod(method, "POST");
+                sessions.close(bearerToken(exchange));
+                return "{}";
+            case "/accounts": {
+                requireMethod(method, "GET");
+                User user = authenticate(exchange);
+                return admitted(() -> Json.accounts(dao.getAccountsByUserId(user.getUserId())));
+            }
+            case "/deposit": {
+                requireMethod(method, "POST");
+                User user = authenticate(exchange);
+                int accountId = intParam(params, "accountId");
+                Money amount = amountParam(params);
+                String key = idempotencyKey(exchange, user);
+                return admitted(() -> {
+                    requireOwned(user, accountId);
+                    dao.deposit(accountId, amount, key);
+                    return "{}";
+                });
+            }
+            case "/withdraw": {
+                requireMethod(method, "POST");
+                User user = authenticate(exchange);
+                int accountId = intParam(params, "accountId");
+                Money amount = amountParam(params);
+                String key = idempotencyKey(exchange, user);
+                return admitted(() -> {
+                    requireOwned(user, accountId);
+                    dao.withdraw(accountId, amount, key);
+                    return "{}";
+                });
+            }
+            case "/transfer": {
+                requireMethod(method, "POST");
+                User user = authenticate(exchange);
+                int fromAccountId = intParam(params, "fromAccountId");
+                int toAccountId = intParam(params, "toAccountId");
+                Money amount = amountParam(params);
+                String key = idempotencyKey(exchange, user);
+                return admitted(() -> {
+                    requireOwned(user, fromAccountId, toAccountId);
+                    dao.transfer(fromAccountId, toAccountId, amount, key);
+                    return "{}";
+                });
+            }
+            case "/history": {
+                requireMethod(method, "GET");
+                User user = authenticate(exchange);
+                int accountId = intParam(params, "accountId");
+                int pageSize = params.containsKey("pageSize") ? intParam(params, "pageSize") : DEFAULT_PAGE_SIZE;
+                if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+                    throw new RequestException(400, "pageSize must be between 1 and " + MAX_PAGE_SIZE + ".");
+                }
+                HistoryCursor cursor = cursorParam(params);
+                return admitted(() -> {
+                    requireOwned(user, accountId);
+                    return Json.page(dao.getTransactionHistory(accountId, cursor, pageSize));
+                });
+            }
+            default:
+                throw new RequestException(404, "Unknown path " + path + ".");
+        }
+    }
+
+    /** Checks the password outside admission control: hashing is CPU-bound and needs no connection. */
+    private String login(UserCredentials credentials, String password) throws RequestException {
+        if (!PasswordHasher.verify(password, credentials != null ? credentials.getPasswordHash() : null)) {
+            throw new RequestException(401, "Invalid credentials.");
+        }
+        User user = credentials.getUser();
+        return "{\"token\":" + Json.quote(sessions.open(user)) + ",\"userId\":" + user.getUserId()
+                + ",\"firstName\":" + Json.quote(user.getFirstName()) + "}";
+    }
+
+    /** Customers may only move money between their own accounts; anything else is answered as not found. */
+    private void requireOwned(User user, int... accountIds) throws RequestException, SQLException {
+        List<Account> owned = dao.getAccountsByUserId(user.getUserId());
+        for (int accountId : accountIds) {
+            boolean found = false;
+            for (Account account : owned) {
+                if (account.getAccountId() == accountId) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                throw new RequestException(404, "Account not found.");
+            }
+        }
+    }
+
+    // --- Admission Control ---
+    @FunctionalInterface
+    private interface DatabaseWork<T> {
+        T run() throws RequestException, SQLException, AccountException;
+    }
+
+    /** Runs {@code work} once one of the {@code maxInFlight} database slots is free. */
+    private <T> T admitted(DatabaseWork<T> work) throws RequestException, SQLException, AccountException {
+        boolean acquired;
+        try {
+            acquired = inFlight.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestException(503, "Interrupted while waiting for the database.");
+        }
+        if (!acquired) {
+            throw new RequestException(503, "Service busy, please retry.");
+        }
+        try {
+            return work.run();
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    // --- Parameters ---
+    /** Also binds the user as the replica session, so their reads see their writes whichever thread serves them. */
+    private User authenticate(HttpExchange exchange) throws RequestException {
+        User user = sessions.get(bearerToken(exchange));
+        if (user == null) {
+            throw new RequestException(401, "Not logged in.");
+        }
+        ReplicaSet replicas = dao.getReplicaSet();
+        if (replicas != null) replicas.bindSession(user.getUserId());
+        return user;
+    }
+
+    /**
+     * Scopes the client's key to the user, so two customers cannot collide on the same key. The key
+     * is hashed first, so the scoped key stays within the DAO's limit however long the client's is.
+     */
+    private static String idempotencyKey(HttpExchange exchange, User user) throws RequestException {
+        String key = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+        if (key == null) {
+            return null;
+        }
+        if (key.isEmpty() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            throw new RequestException(400, "Idempotency-Key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters.");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return user.getUserId() + ":" + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    private static String bearerToken(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : null;
+    }
+
+    private static void requireMethod(String actual, String expected) throws RequestException {
+        if (!expected.equals(actual)) {
+            throw new RequestException(405, "Use " + expected + ".");
+        }
+    }
+
+    private static Map<String, String> readParams(HttpExchange exchange) throws IOException, RequestException {
+        Map<String, String> params = new HashMap<>();
+        parseForm(exchange.getRequestURI().getRawQuery(), params);
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new RequestException(413, "Request body too large.");
+            }
+            parseForm(new String(body, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void parseForm(String form, Map<String, String> params) throws RequestException {
+        if (form == null || form.isEmpty()) {
+            return;
+        }
+        try {
+            for (String pair : form.split("&")) {
+                int eq = pair.indexOf('=');
+                String key = eq < 0 ? pair : pair.substring(0, eq);
+                String value = eq < 0 ? "" : pair.substring(eq + 1);
+                params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Malformed form encoding.");
+        }
+    }
+
+    private static String requiredParam(Map<String, String> params, String name) throws RequestException {
+        String value = params.get(name);
+        if (value == null || value.isEmpty()) {
+            throw new RequestException(400, "Missing parameter " + name + ".");
+        }
+        return value;
+    }
+
+    private static int intParam(Map<String, String> params, String name) throws RequestException {
+        try {
+            return Integer.parseInt(requiredParam(params, name));
+        } catch (NumberFormatException e) {
+            throw new RequestException(400, "Parameter " + name + " must be an integer.");
+        }
+    }
+
+    private static Money amountParam(Map<String, String> params) throws RequestException {
+        try {
+            return Money.parse(requiredParam(params, "amount"));
+        } catch (IllegalArgumentException | ArithmeticException e) {
+            throw new RequestException(400, "Parameter amount must be a decimal number with at most two decimals.");
+        }
+    }
+
+    private static HistoryCursor cursorParam(Map<String, String> params) throws RequestException {
+        if (!params.containsKey("cursorDate")) {
+            return null;
+        }
+        try {
+            return new HistoryCursor(Timestamp.valueOf(params.get("cursorDate")), intParam(params, "cursorId"));
+        } catch (IllegalArgumentException e) {
+            throw new RequestException(400, "Parameter cursorDate must be a timestamp.");
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    // --- Threads ---
+    /**
+     * One virtual thread per request on JDK 21+, looked up reflectively because the build targets
+     * Java 17. Older JVMs get a bounded platform pool; requests beyond it queue rather than spawn.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger counter = new AtomicInteger();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(PLATFORM_THREADS, PLATFORM_THREADS, 60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), r -> {
+                        Thread t = new Thread(r, "bank-server-" + counter.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+            pool.allowCoreThreadTimeOut(true);
+            return pool;
+        }
+    }
+
+    /** A request the client got wrong; carries the HTTP status to answer with. */
+    private static final class RequestException extends Exception {
+        private final int status;
+
+        RequestException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.server;
+
+import com.bank.model.Account;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+
+import java.util.List;
+
+/** Minimal JSON rendering for the response bodies of {@link BankServer}. */
+final class Json {
+    private Json() {
+    }
+
+    static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    static String accounts(List<Account> accounts) {
+        StringBuilder out = new StringBuilder("{\"accounts\":[");
+        for (int i = 0; i < accounts.size(); i++) {
+            Account a = accounts.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"accountId\":").append(a.getAccountId())
+                    .append(",\"accountNumber\":").append(quote(a.getAccountNumber()))
+                    .append(",\"accountType\":").append(quote(a.getAccountType()))
+                    .append(",\"balance\":\"").append(a.getBalance()).append("\"}");
+        }
+        return out.append("]}").toString();
+    }
+
+    static String page(TransactionPage page) {
+        StringBuilder out = new StringBuilder("{\"transactions\":[");
+        List<Transaction> transactions = page.getTransactions();
+        for (int i = 0; i < transactions.size(); i++) {
+            Transaction t = transactions.get(i);
+            if (i > 0) out.append(',');
+            out.append("{\"transactionId\":").append(t.getTransactionId())
+                    .append(",\"type\":").append(quote(t.getTransactionType()))
+                    .append(",\"amount\":\"").append(t.getAmount())
+                    .append("\",\"balanceAfter\":").append(t.getBalanceAfter() == null ? "null" : "\"" + t.getBalanceAfter() + "\"")
+                    .append(",\"date\":").append(quote(t.getTransactionDate().toString())).append('}');
+        }
+        out.append("],\"nextCursor\":");
+        HistoryCursor cursor = page.getNextCursor();
+        if (cursor == null) {
+            out.append("null");
+        } else {
+            out.append("{\"date\":").append(quote(cursor.getTransactionDate().toString()))
+                    .append(",\"id\":").append(cursor.getTransactionId()).append('}');
+        }
+        return out.append('}').toString();
+    }
+
+    static String quote(String s) {
+        if (s == null) {
+            return "null";
+        }
+        StringBuilder out = new StringBuilder(s.length() + 2).append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': out.append("\\\""); break;
+                case '\\': out.append("\\\\"); break;
+                case '\n': out.append("\\n"); break;
+                case '\r': out.append("\\r"); break;
+                case '\t': out.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
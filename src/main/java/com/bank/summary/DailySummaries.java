@@ -0,0 +1,254 @@
+package com.bank.summary;
+
+import com.bank.model.ActivitySummary;
+import com.bank.model.ActivitySummary.Flow;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * SQL for the {@code daily_summaries} table, shared by {@link DailySummaryJob}, which fills it,
+ * and the DAOs, which answer date-range queries from it.
+ */
+public final class DailySummaries {
+    static final String PROGRESS_NAME = "daily";
+    static final String COLUMNS = "opening_balance, closing_balance, deposit_count, deposit_total, "
+            + "withdrawal_count, withdrawal_total, transfer_in_count, transfer_in_total, transfer_out_count, "
+            + "transfer_out_total, interest_count, interest_total, account_id, summary_date";
+    /** Column order of the counts and totals, by {@link Flow} ordinal. */
+    private static final String[] FLOW_COLUMNS = {"deposit", "withdrawal", "transfer_in", "transfer_out", "interest"};
+    private static final int MAX_ATTEMPTS = 5;
+
+    private DailySummaries() {
+    }
+
+    /**
+     * The account's summaries from {@code from} to {@code to}, oldest first, one per day with
+     * activity. Days the summary job has already covered are read from {@code daily_summaries},
+     * one row per day. Transactions it has not reached yet are read from the log and folded in,
+     * so the result is as fresh as the log itself. If the job commits in the middle, the read is
+     * retried, so no transaction is counted twice or missed. Rows dated after {@code to} are not
+     * read. The job has to run for this to stay cheap: until it does, every call reads the
+     * account's whole log up to {@code to}.
+     */
+    public static List<ActivitySummary> read(Connection conn, int accountId, LocalDate from, LocalDate to) throws SQLException {
+        String rangeSql = "SELECT " + COLUMNS + " FROM daily_summaries "
+                + "WHERE account_id = ? AND summary_date >= ? AND summary_date <= ? ORDER BY summary_date";
+        for (int attempt = 1; ; attempt++) {
+            Progress before = progress(conn);
+            List<ActivitySummary> days = new ArrayList<>();
+            try (PreparedStatement pstmt = conn.prepareStatement(rangeSql)) {
+                pstmt.setInt(1, accountId);
+                pstmt.setDate(2, Date.valueOf(from));
+                pstmt.setDate(3, Date.valueOf(to));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        days.add(map(rs));
+                    }
+                }
+            }
+            List<ActivitySummary> pending = summarizePending(conn, accountId, before, to);
+            if (progress(conn).lastTransactionId != before.lastTransactionId) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw new SQLException("Daily summaries kept changing while being read.");
+                }
+                continue;
+            }
+            if (pending.isEmpty()) {
+                return days;
+            }
+            TreeMap<LocalDate, ActivitySummary> merged = new TreeMap<>();
+            for (ActivitySummary d : days) {
+                merged.put(d.getFirstDate(), d);
+            }
+            for (ActivitySummary d : pending) {
+                if (!d.getFirstDate().isBefore(from) && !d.getFirstDate().isAfter(to)) {
+                    merged.put(d.getFirstDate(), d);
+                }
+            }
+            return new ArrayList<>(merged.values());
+        }
+    }
+
+    // --- Internals shared with DailySummaryJob ---
+    static final class Progress {
+        final int lastTransactionId;
+        final int horizonTransactionId;
+        final Timestamp horizonAt;
+
+        Progress(int lastTransactionId, int horizonTransactionId, Timestamp horizonAt) {
+            this.lastTransactionId = lastTransactionId;
+            this.horizonTransactionId = horizonTransactionId;
+            this.horizonAt = horizonAt;
+        }
+    }
+
+    /** The job's progress; nothing summarized yet if it has never run. */
+    static Progress progress(Connection conn) throws SQLException {
+        String sql = "SELECT last_transaction_id, horizon_transaction_id, horizon_at FROM daily_summary_progress WHERE summary_name = ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setString(1, PROGRESS_NAME);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? new Progress(rs.getInt(1), rs.getInt(2), rs.getTimestamp(3)) : new Progress(0, 0, null);
+            }
+        }
+    }
+
+    /** The account's most recent summary, or {@code null} if it has none. */
+    static ActivitySummary latest(Connection conn, int accountId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM daily_summaries WHERE account_id = ? ORDER BY summary_date DESC LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? map(rs) : null;
+            }
+        }
+    }
+
+    /**
+     * A summarizer for an account whose rows from {@code firstRowDate} on are about to be added:
+     * continuing {@code latest}, its latest summary, with earlier ones read on {@code conn} as
+     * needed, or if it has none ({@code null}), starting from its balance before that row. That
+     * balance is zero unless older rows were archived, in which case the latest balance snapshot
+     * before the row holds it.
+     */
+    static DaySummarizer summarizer(Connection conn, ActivitySummary latest, int accountId, Timestamp firstRowDate)
+            throws SQLException {
+        if (latest != null) {
+            return new DaySummarizer(latest, (day, before) -> stored(conn, accountId, day, before));
+        }
+        String sql = "SELECT balance FROM balance_snapshots WHERE account_id = ? AND snapshot_date <= ? "
+                + "ORDER BY snapshot_date DESC LIMIT 1";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            pstmt.setTimestamp(2, firstRowDate);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return new DaySummarizer(accountId, rs.next() ? Money.of(rs.getBigDecimal(1)) : Money.ZERO);
+            }
+        }
+    }
+
+    /** See {@link DaySummarizer.StoredDays#load}. */
+    private static List<ActivitySummary> stored(Connection conn, int accountId, LocalDate day, LocalDate before)
+            throws SQLException {
+        LocalDate first = null;
+        String floorSql = "SELECT MAX(summary_date) FROM daily_summaries WHERE account_id = ? AND summary_date <= ?";
+        try (PreparedStatement pstmt = conn.prepareStatement(floorSql)) {
+            pstmt.setInt(1, accountId);
+            pstmt.setDate(2, Date.valueOf(day));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next() && rs.getDate(1) != null) {
+                    first = rs.getDate(1).toLocalDate();
+                }
+            }
+        }
+        String sql = "SELECT " + COLUMNS + " FROM daily_summaries WHERE account_id = ? AND summary_date < ? "
+                + (first != null ? "AND summary_date >= ? " : "") + "ORDER BY summary_date";
+        List<ActivitySummary> days = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            pstmt.setDate(2, Date.valueOf(before));
+            if (first != null) {
+                pstmt.setDate(3, Date.valueOf(first));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    days.add(map(rs));
+                }
+            }
+        }
+        return days;
+    }
+
+    /** Binds a summary in {@link #COLUMNS} order, for both the INSERT and the UPDATE. */
+    static void bind(PreparedStatement pstmt, ActivitySummary s) throws SQLException {
+        int i = 1;
+        pstmt.setBigDecimal(i++, s.getOpeningBalance().toBigDecimal());
+        pstmt.setBigDecimal(i++, s.getClosingBalance().toBigDecimal());
+        for (Flow flow : Flow.values()) {
+            pstmt.setInt(i++, s.getCount(flow));
+            pstmt.setBigDecimal(i++, s.getTotal(flow).toBigDecimal());
+        }
+        pstmt.setInt(i++, s.getAccountId());
+        pstmt.setDate(i, Date.valueOf(s.getFirstDate()));
+    }
+
+    /** A transactions row as the summaries see it. */
+    static final class LogRow {
+        static final String COLUMNS = "transaction_id, account_id, transaction_type, direction, amount, balance_after, transaction_date";
+
+        final int transactionId;
+        final int accountId;
+        final String type;
+        final String direction;
+        final long amountCents;
+        final long balanceAfterCents;
+        final Timestamp date;
+
+        LogRow(ResultSet rs) throws SQLException {
+            transactionId = rs.getInt("transaction_id");
+            accountId = rs.getInt("account_id");
+            type = rs.getString("transaction_type");
+            direction = rs.getString("direction");
+            amountCents = Money.of(rs.getBigDecimal("amount")).getCents();
+            balanceAfterCents = Money.of(rs.getBigDecimal("balance_after")).getCents();
+            date = rs.getTimestamp("transaction_date");
+        }
+
+        void addTo(DaySummarizer summarizer) throws SQLException {
+            summarizer.add(date.toLocalDateTime().toLocalDate(), type, direction, amountCents, balanceAfterCents);
+        }
+    }
+
+    private static ActivitySummary map(ResultSet rs) throws SQLException {
+        int[] counts = new int[FLOW_COLUMNS.length];
+        long[] totals = new long[FLOW_COLUMNS.length];
+        for (int f = 0; f < FLOW_COLUMNS.length; f++) {
+            counts[f] = rs.getInt(FLOW_COLUMNS[f] + "_count");
+            totals[f] = Money.of(rs.getBigDecimal(FLOW_COLUMNS[f] + "_total")).getCents();
+        }
+        LocalDate date = rs.getDate("summary_date").toLocalDate();
+        return new ActivitySummary(rs.getInt("account_id"), date, date, Money.of(rs.getBigDecimal("opening_balance")),
+                Money.of(rs.getBigDecimal("closing_balance")), counts, totals);
+    }
+
+    /**
+     * Summarizes the account's transactions above the job's progress and dated no later than
+     * {@code to}, continuing its latest summary. They are found by id rather than by date: the
+     * ledger projection writes rows dated when the movement happened, which may be long before
+     * they were inserted.
+     */
+    private static List<ActivitySummary> summarizePending(Connection conn, int accountId, Progress progress, LocalDate to)
+            throws SQLException {
+        String sql = "SELECT " + LogRow.COLUMNS + " FROM transactions WHERE account_id = ? AND transaction_id > ? "
+                + "AND transaction_date < ? ORDER BY transaction_id";
+        List<LogRow> rows = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, accountId);
+            pstmt.setInt(2, progress.lastTransactionId);
+            pstmt.setTimestamp(3, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new LogRow(rs));
+                }
+            }
+        }
+        if (rows.isEmpty()) {
+            return List.of();
+        }
+        DaySummarizer summarizer = summarizer(conn, latest(conn, accountId), accountId, rows.get(0).date);
+        for (LogRow row : rows) {
+            row.addTo(summarizer);
+        }
+        return summarizer.getDays();
+    }
+}
@@ -0,0 +1,237 @@
+package com.bank.summary;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.Database;
+import com.bank.model.ActivitySummary;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@code daily_summaries} up to date with the transaction log.
+ * <p>
+ * Each run reads the transactions above the checkpoint in {@code daily_summary_progress}, in
+ * transaction_id order and {@code chunkSize} rows at a time. It folds them into the summaries of
+ * their accounts and days, and commits each chunk together with the advanced checkpoint, so no
+ * row is ever counted twice. Working from the log rather than from inside {@code deposit},
+ * {@code withdraw} and {@code transfer} means every writer is covered (group commit, batches,
+ * interest, the ledger projection, cross-shard legs), and money movements take no extra locks.
+ * Until the job catches up, the DAO queries fold the remaining rows in themselves.
+ * <p>
+ * An id is handed out before its transaction commits, so a transaction still in flight with a
+ * lower id than rows already visible would be skipped for good. Each run therefore records the
+ * highest transaction_id it sees as a horizon, and only summarizes up to a horizon recorded at
+ * least {@code settleMillis} earlier, by which time everything below it has committed. Row dates
+ * play no part: the ledger projection dates rows when the movement happened, which after a
+ * retry or a journal replay can be long before the insert. The settle time must exceed the
+ * longest transaction, e.g. the lock wait timeout.
+ */
+public class DailySummaryJob implements AutoCloseable {
+    public static final int DEFAULT_CHUNK_SIZE = 5_000;
+    public static final long DEFAULT_SETTLE_MILLIS = 60_000;
+
+    private final ConnectionPool pool;
+    private final int chunkSize;
+    private final long settleMillis;
+    private ScheduledExecutorService scheduler;
+
+    public DailySummaryJob(ConnectionPool pool) {
+        this(pool, DEFAULT_CHUNK_SIZE, DEFAULT_SETTLE_MILLIS);
+    }
+
+    /** @param pool {@code null} to use the shared pool managed by {@link Database} */
+    public DailySummaryJob(ConnectionPool pool, int chunkSize, long settleMillis) {
+        if (chunkSize <= 0 || settleMillis < 0) {
+            throw new IllegalArgumentException("Chunk size must be positive and settle time not negative.");
+        }
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.settleMillis = settleMillis;
+    }
+
+    /** Runs {@link #run} every {@code intervalSeconds} on a background thread. */
+    public synchronized void start(long intervalSeconds) {
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "daily-summaries");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                run();
+            } catch (SQLException e) {
+                System.err.println("Daily summary update failed: " + e.getMessage());
+            }
+        }, 0, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Summarizes the transactions up to the settled horizon and records a new one. With a settle
+     * time of zero the new horizon is summarized at once. Returns how many transactions there were.
+     */
+    public synchronized long run() throws SQLException {
+        createProgress();
+        long summarized = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            DailySummaries.Progress progress;
+            try (Connection conn = getConnection()) {
+                progress = DailySummaries.progress(conn);
+            }
+            if (progress.horizonAt != null && progress.horizonAt.getTime() > System.currentTimeMillis() - settleMillis) {
+                break; // transactions below the horizon may still be committing
+            }
+            int rows;
+            do {
+                rows = summarizeChunk(progress.horizonTransactionId);
+                summarized += rows;
+            } while (rows == chunkSize);
+            if (!advanceHorizon(progress.horizonTransactionId)) {
+                break;
+            }
+        }
+        return summarized;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    // --- Internals ---
+    private void createProgress() throws SQLException {
+        try (Connection conn = getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT 1 FROM daily_summary_progress WHERE summary_name = ?")) {
+                pstmt.setString(1, DailySummaries.PROGRESS_NAME);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    if (rs.next()) {
+                        return;
+                    }
+                }
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO daily_summary_progress (summary_name, last_transaction_id, horizon_transaction_id) VALUES (?, 0, 0)")) {
+                pstmt.setString(1, DailySummaries.PROGRESS_NAME);
+                pstmt.executeUpdate();
+            }
+        }
+    }
+
+    /**
+     * Records the highest transaction_id now visible as the new horizon, unless nothing was added
+     * since {@code previous}. Returns whether it moved.
+     */
+    private boolean advanceHorizon(int previous) throws SQLException {
+        String sql = "UPDATE daily_summary_progress SET horizon_transaction_id = ?, horizon_at = ? "
+                + "WHERE summary_name = ? AND horizon_transaction_id = ?";
+        try (Connection conn = getConnection()) {
+            int latest;
+            try (PreparedStatement pstmt = conn.prepareStatement("SELECT MAX(transaction_id) FROM transactions");
+                 ResultSet rs = pstmt.executeQuery()) {
+                latest = rs.next() ? rs.getInt(1) : 0;
+            }
+            if (latest <= previous) {
+                return false;
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setInt(1, latest);
+                pstmt.setTimestamp(2, new Timestamp(System.currentTimeMillis()));
+                pstmt.setString(3, DailySummaries.PROGRESS_NAME);
+                pstmt.setInt(4, previous);
+                if (pstmt.executeUpdate() != 1) {
+                    throw new SQLException("Daily summaries were advanced by another run.");
+                }
+            }
+            return true;
+        }
+    }
+
+    /** Summarizes up to {@code chunkSize} rows up to {@code horizon} in one commit. Returns the number of rows. */
+    private int summarizeChunk(int horizon) throws SQLException {
+        String rowsSql = "SELECT " + DailySummaries.LogRow.COLUMNS + " FROM transactions "
+                + "WHERE transaction_id > ? AND transaction_id <= ? ORDER BY transaction_id LIMIT ?";
+        String insertSql = "INSERT INTO daily_summaries (" + DailySummaries.COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String updateSql = "UPDATE daily_summaries SET opening_balance = ?, closing_balance = ?, deposit_count = ?, "
+                + "deposit_total = ?, withdrawal_count = ?, withdrawal_total = ?, transfer_in_count = ?, transfer_in_total = ?, "
+                + "transfer_out_count = ?, transfer_out_total = ?, interest_count = ?, interest_total = ? "
+                + "WHERE account_id = ? AND summary_date = ?";
+        String progressSql = "UPDATE daily_summary_progress SET last_transaction_id = ? "
+                + "WHERE summary_name = ? AND last_transaction_id = ?";
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int from = DailySummaries.progress(conn).lastTransactionId;
+                List<DailySummaries.LogRow> rows = new ArrayList<>();
+                try (PreparedStatement pstmt = conn.prepareStatement(rowsSql)) {
+                    pstmt.setInt(1, from);
+                    pstmt.setInt(2, horizon);
+                    pstmt.setInt(3, chunkSize);
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            rows.add(new DailySummaries.LogRow(rs));
+                        }
+                    }
+                }
+                if (rows.isEmpty()) {
+                    conn.rollback();
+                    return 0;
+                }
+
+                Map<Integer, DaySummarizer> accounts = new LinkedHashMap<>();
+                for (DailySummaries.LogRow row : rows) {
+                    DaySummarizer summarizer = accounts.get(row.accountId);
+                    if (summarizer == null) {
+                        ActivitySummary latest = DailySummaries.latest(conn, row.accountId);
+                        summarizer = DailySummaries.summarizer(conn, latest, row.accountId, row.date);
+                        accounts.put(row.accountId, summarizer);
+                    }
+                    row.addTo(summarizer);
+                }
+                try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                     PreparedStatement update = conn.prepareStatement(updateSql)) {
+                    for (DaySummarizer summarizer : accounts.values()) {
+                        for (ActivitySummary day : summarizer.getDays()) {
+                            PreparedStatement pstmt = summarizer.isStored(day.getFirstDate()) ? update : insert;
+                            DailySummaries.bind(pstmt, day);
+                            pstmt.addBatch();
+                        }
+                    }
+                    update.executeBatch();
+                    insert.executeBatch();
+                }
+
+                DailySummaries.LogRow last = rows.get(rows.size() - 1);
+                try (PreparedStatement pstmt = conn.prepareStatement(progressSql)) {
+                    pstmt.setInt(1, last.transactionId);
+                    pstmt.setString(2, DailySummaries.PROGRESS_NAME);
+                    pstmt.setInt(3, from);
+                    if (pstmt.executeUpdate() != 1) {
+                        throw new SQLException("Daily summaries were advanced by another run.");
+                    }
+                }
+                conn.commit();
+                return rows.size();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    private Connection getConnection() throws SQLException {
+        return pool != null ? pool.getConnection() : Database.getConnection();
+    }
+}
@@ -0,0 +1,145 @@
+package com.bank.summary;
+
+import com.bank.model.ActivitySummary;
+import com.bank.model.ActivitySummary.Flow;
+import com.bank.model.Money;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Folds one account's transaction rows, in transaction_id order, into daily summaries. It carries
+ * on from the account's latest summary, or from a starting balance if it has none. Each row counts
+ * on the day it is dated. A day's closing balance is the balance_after of its last row, and its
+ * opening balance the closing balance of the day with activity before it.
+ * <p>
+ * Rows are usually dated in id order, but not always: the ledger projection dates a row when the
+ * movement happened, which may be days before it is inserted. Such a row reopens its day, loading
+ * it and the summaries after it from {@link StoredDays} if needed, and moves the opening balance of
+ * the next day.
+ */
+public final class DaySummarizer {
+    private static final int FLOWS = Flow.values().length;
+
+    /** Loads an account's stored summaries. */
+    @FunctionalInterface
+    public interface StoredDays {
+        /**
+         * The stored summaries from the latest one on or before {@code day}, or from the first
+         * one if none is, up to but not including {@code before}, oldest first.
+         */
+        List<ActivitySummary> load(LocalDate day, LocalDate before) throws SQLException;
+    }
+
+    private final int accountId;
+    private final StoredDays stored;
+    private final TreeMap<LocalDate, Day> days = new TreeMap<>();
+    /** Every stored summary from this day on is in {@link #days}; {@code null} if the account has none. */
+    private LocalDate coveredFrom;
+    private final long startingCents;
+    /** balance_after of the row before, in transaction_id order. */
+    private long lastAfterCents;
+
+    /** Continues {@code latest}, the account's most recent daily summary; earlier ones come from {@code stored}. */
+    public DaySummarizer(ActivitySummary latest, StoredDays stored) {
+        this.accountId = latest.getAccountId();
+        this.stored = stored;
+        this.days.put(latest.getLastDate(), new Day(latest));
+        this.coveredFrom = latest.getLastDate();
+        this.startingCents = latest.getOpeningBalance().getCents();
+        this.lastAfterCents = latest.getClosingBalance().getCents();
+    }
+
+    /** Starts an account without summaries, whose balance before its first row is {@code startingBalance}. */
+    public DaySummarizer(int accountId, Money startingBalance) {
+        this.accountId = accountId;
+        this.stored = null;
+        this.startingCents = startingBalance.getCents();
+        this.lastAfterCents = startingCents;
+    }
+
+    public void add(LocalDate day, String transactionType, String direction, long amountCents, long balanceAfterCents)
+            throws SQLException {
+        Flow flow = Flow.of(transactionType, direction, amountCents, lastAfterCents, balanceAfterCents);
+        lastAfterCents = balanceAfterCents;
+        Day summary = dayFor(day);
+        summary.counts[flow.ordinal()]++;
+        summary.totals[flow.ordinal()] += amountCents;
+        summary.closingCents = balanceAfterCents;
+        summary.changed = true;
+        Map.Entry<LocalDate, Day> next = days.higherEntry(day);
+        if (next != null) {
+            next.getValue().openingCents = balanceAfterCents;
+            next.getValue().changed = true;
+        }
+    }
+
+    /** The summaries of the days that rows were added to, or whose opening balance moved, oldest first. */
+    public List<ActivitySummary> getDays() {
+        List<ActivitySummary> changed = new ArrayList<>();
+        for (Map.Entry<LocalDate, Day> day : days.entrySet()) {
+            if (day.getValue().changed) {
+                changed.add(day.getValue().toSummary(accountId, day.getKey()));
+            }
+        }
+        return changed;
+    }
+
+    /** Whether the summary of {@code day} was already stored, so writing it back is an update. */
+    public boolean isStored(LocalDate day) {
+        Day summary = days.get(day);
+        return summary != null && summary.stored;
+    }
+
+    private Day dayFor(LocalDate day) throws SQLException {
+        if (coveredFrom != null && day.isBefore(coveredFrom)) {
+            for (ActivitySummary summary : stored.load(day, coveredFrom)) {
+                days.put(summary.getFirstDate(), new Day(summary));
+            }
+            coveredFrom = day;
+        }
+        Day summary = days.get(day);
+        if (summary == null) {
+            Map.Entry<LocalDate, Day> previous = days.lowerEntry(day);
+            Map.Entry<LocalDate, Day> next = days.higherEntry(day);
+            long opening = previous != null ? previous.getValue().closingCents
+                    : next != null ? next.getValue().openingCents : startingCents;
+            summary = new Day(opening);
+            days.put(day, summary);
+        }
+        return summary;
+    }
+
+    private static final class Day {
+        final int[] counts = new int[FLOWS];
+        final long[] totals = new long[FLOWS];
+        final boolean stored;
+        long openingCents;
+        long closingCents;
+        boolean changed;
+
+        Day(long openingCents) {
+            this.stored = false;
+            this.openingCents = openingCents;
+            this.closingCents = openingCents;
+        }
+
+        Day(ActivitySummary summary) {
+            this.stored = true;
+            this.openingCents = summary.getOpeningBalance().getCents();
+            this.closingCents = summary.getClosingBalance().getCents();
+            for (Flow flow : Flow.values()) {
+                counts[flow.ordinal()] = summary.getCount(flow);
+                totals[flow.ordinal()] = summary.getTotal(flow).getCents();
+            }
+        }
+
+        ActivitySummary toSummary(int accountId, LocalDate date) {
+            return new ActivitySummary(accountId, date, date, Money.ofCents(openingCents), Money.ofCents(closingCents), counts, totals);
+        }
+    }
+}
@@ -3,6 +3,16 @@ CREATE DATABASE IF NOT EXISTS online_bank;
 USE online_bank;
 
 -- Drop tables if they exist to start fresh
+DROP TABLE IF EXISTS daily_summary_progress;
+DROP TABLE IF EXISTS daily_summaries;
+DROP TABLE IF EXISTS reconciliation_runs;
+DROP TABLE IF EXISTS reconciliation_checkpoints;
+DROP TABLE IF EXISTS ledger_projection;
+DROP TABLE IF EXISTS transfer_outbox;
+DROP TABLE IF EXISTS account_number_sequence;
+DROP TABLE IF EXISTS idempotency_keys;
+DROP TABLE IF EXISTS interest_accrual_progress;
+DROP TABLE IF EXISTS balance_snapshots;
 DROP TABLE IF EXISTS transactions;
 DROP TABLE IF EXISTS accounts;
 DROP TABLE IF EXISTS users;
@@ -11,7 +21,7 @@ DROP TABLE IF EXISTS users;
 CREATE TABLE users (
     user_id INT AUTO_INCREMENT PRIMARY KEY,
     username VARCHAR(50) NOT NULL UNIQUE,
-    password VARCHAR(255) NOT NULL, -- In a real app, hash this!
+    password_hash VARCHAR(255) NOT NULL, -- Salted PBKDF2 hash, see PasswordHasher
     first_name VARCHAR(50),
     last_name VARCHAR(50),
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
@@ -24,6 +34,7 @@ CREATE TABLE accounts (
     account_number VARCHAR(20) NOT NULL UNIQUE,
     account_type ENUM('Savings', 'Current') NOT NULL,
     balance DECIMAL(15, 2) NOT NULL DEFAULT 0.00,
+    version BIGINT NOT NULL DEFAULT 0, -- Bumped by every balance change, checked by optimistic writes
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
@@ -32,10 +43,128 @@ CREATE TABLE accounts (
 CREATE TABLE transactions (
     transaction_id INT AUTO_INCREMENT PRIMARY KEY,
     account_id INT NOT NULL,
-    transaction_type ENUM('Deposit', 'Withdrawal', 'Transfer') NOT NULL,
+    transaction_type ENUM('Deposit', 'Withdrawal', 'Transfer', 'Interest') NOT NULL,
     amount DECIMAL(15, 2) NOT NULL,
-    related_account_id INT NULL, -- For transfers
+    related_account_id INT NULL, -- For transfers. Not a foreign key: with sharding it may live on another shard
+    direction ENUM('In', 'Out') NULL, -- For transfers: whether the money arrived in or left this account
+    balance_after DECIMAL(15, 2) NOT NULL, -- Account balance once this row's transaction committed
     transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
-    FOREIGN KEY (account_id) REFERENCES accounts(account_id),
-    FOREIGN KEY (related_account_id) REFERENCES accounts(account_id)
-);
\ No newline at end of file
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id)
+);
+
+-- Serves paginated history (newest first) and point-in-time balances straight from the index:
+-- the keyset cursor (transaction_date, transaction_id) and every column those queries return.
+CREATE INDEX idx_transactions_account_history
+    ON transactions (account_id, transaction_date, transaction_id, transaction_type, amount, balance_after);
+
+-- Periodic copies of every balance, so a point-in-time balance can still be answered
+-- once the transactions before it are no longer in the transactions table.
+CREATE TABLE balance_snapshots (
+    account_id INT NOT NULL,
+    snapshot_date TIMESTAMP NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (account_id, snapshot_date),
+    FOREIGN KEY (account_id) REFERENCES accounts(account_id)
+);
+
+-- Checkpoints of the interest accrual job: one row per account_id range and accrual date.
+-- last_account_id advances in the same commit as the interest it covers, so a restarted
+-- run resumes each range right after the last account it credited.
+CREATE TABLE interest_accrual_progress (
+    accrual_date DATE NOT NULL,
+    range_start INT NOT NULL,
+    range_end INT NOT NULL,
+    last_account_id INT NOT NULL,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    PRIMARY KEY (accrual_date, range_start)
+);
+
+-- Keys of money movements that committed. A key is inserted in the same transaction as its
+-- movement, so the primary key guarantees a retried request is applied at most once.
+CREATE TABLE idempotency_keys (
+    idempotency_key VARCHAR(128) NOT NULL PRIMARY KEY,
+    request VARCHAR(100) NOT NULL, -- Operation and arguments, to reject a key reused for another request
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Expired keys are deleted in bulk as one range of this index.
+CREATE INDEX idx_idempotency_keys_created ON idempotency_keys (created_at);
+
+-- Source of account numbers. Each application process reserves a block of values at a time
+-- by advancing next_value, see AccountNumberAllocator.
+CREATE TABLE account_number_sequence (
+    sequence_name VARCHAR(32) NOT NULL PRIMARY KEY,
+    next_value BIGINT NOT NULL
+);
+
+INSERT INTO account_number_sequence (sequence_name, next_value) VALUES ('accounts', 1);
+
+-- Cross-shard transfers whose source account has been debited but whose destination shard has
+-- not yet confirmed the credit. A row is written with the debit and deleted once the transfer
+-- is complete or refunded, see ShardedBankDAO.
+CREATE TABLE transfer_outbox (
+    transfer_id VARCHAR(36) NOT NULL PRIMARY KEY,
+    from_account_id INT NOT NULL,
+    to_account_id INT NOT NULL,
+    amount DECIMAL(15, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- How far the ledger's journal has been written into accounts and transactions, see
+-- JdbcProjection. last_sequence advances in the same commit as the rows it covers, so after a
+-- restart the journal is replayed into the database from the next sequence on.
+CREATE TABLE ledger_projection (
+    projection_name VARCHAR(32) NOT NULL PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
+
+-- How far each account has been reconciled, see ReconciliationJob: the last transactions row
+-- checked and the balance the rows up to it add up to. A run only reads the rows after it.
+CREATE TABLE reconciliation_checkpoints (
+    account_id INT NOT NULL PRIMARY KEY,
+    last_transaction_id INT NOT NULL,
+    balance DECIMAL(15, 2) NOT NULL,
+    balance_after DECIMAL(15, 2) NOT NULL -- Of that row, which the next row's must follow from
+);
+
+-- Completed reconciliation runs. Every account has been reconciled through the highest
+-- through_transaction_id, so the next run scans the transactions above it.
+CREATE TABLE reconciliation_runs (
+    run_id INT AUTO_INCREMENT PRIMARY KEY,
+    through_transaction_id INT NOT NULL,
+    accounts_checked BIGINT NOT NULL,
+    transactions_checked BIGINT NOT NULL,
+    mismatches INT NOT NULL,
+    completed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- One row per account and day with activity, see DailySummaryJob: the balance before and after
+-- the day and the count and total of each kind of movement, so a year's statement reads at
+-- most 365 rows instead of the account's whole log.
+CREATE TABLE daily_summaries (
+    account_id INT NOT NULL,
+    summary_date DATE NOT NULL,
+    opening_balance DECIMAL(15, 2) NOT NULL,
+    closing_balance DECIMAL(15, 2) NOT NULL,
+    deposit_count INT NOT NULL,
+    deposit_total DECIMAL(15, 2) NOT NULL,
+    withdrawal_count INT NOT NULL,
+    withdrawal_total DECIMAL(15, 2) NOT NULL,
+    transfer_in_count INT NOT NULL,
+    transfer_in_total DECIMAL(15, 2) NOT NULL,
+    transfer_out_count INT NOT NULL,
+    transfer_out_total DECIMAL(15, 2) NOT NULL,
+    interest_count INT NOT NULL,
+    interest_total DECIMAL(15, 2) NOT NULL,
+    PRIMARY KEY (account_id, summary_date)
+);
+
+-- How far daily_summaries has caught up. last_transaction_id advances in the same commit as the
+-- summaries it covers. The horizon is the highest transaction_id seen at horizon_at: once that is
+-- a settle time ago, every transaction up to it has committed and can be summarized.
+CREATE TABLE daily_summary_progress (
+    summary_name VARCHAR(32) NOT NULL PRIMARY KEY,
+    last_transaction_id INT NOT NULL,
+    horizon_transaction_id INT NOT NULL,
+    horizon_at TIMESTAMP NULL
+);
@@ -0,0 +1,111 @@
+package com.bank;
+
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Embedded H2 database standing in for the real server in tests. Each instance is a fresh,
+ * isolated in-memory database loaded from {@code schema.sql}. The schema and queries only use
+ * syntax H2 accepts natively; H2's MySQL mode is avoided because its AUTO_INCREMENT handling
+ * hands out duplicate keys under concurrent inserts.
+ */
+public final class TestDatabase {
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private TestDatabase() {
+    }
+
+    public static String newUrl() {
+        return "jdbc:h2:mem:bank" + COUNTER.incrementAndGet()
+                + ";DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+    }
+
+    public static ConnectionPool newPool() throws SQLException {
+        return newPool(new PoolConfig().setMinSize(1).setMaxSize(10));
+    }
+
+    public static ConnectionPool newPool(PoolConfig config) throws SQLException {
+        String url = newUrl();
+        loadSchema(url);
+        return new ConnectionPool(() -> DriverManager.getConnection(url, "sa", ""), config);
+    }
+
+    /**
+     * A pool over a fresh database whose statements each take {@code roundTripMillis} longer, like
+     * a database across a network.
+     */
+    public static ConnectionPool newSlowPool(long roundTripMillis, int maxSize) throws SQLException {
+        String url = newUrl();
+        loadSchema(url);
+        return new ConnectionPool(() -> slow(DriverManager.getConnection(url, "sa", ""), roundTripMillis),
+                new PoolConfig().setMinSize(0).setMaxSize(maxSize));
+    }
+
+    public static void loadSchema(String url) throws SQLException {
+        try (Connection conn = DriverManager.getConnection(url, "sa", "");
+             Statement stmt = conn.createStatement()) {
+            for (String sql : stripComments(readSchema()).split(";")) {
+                String body = sql.trim();
+                // The database/USE preamble only makes sense on a MySQL server.
+                if (body.isEmpty() || body.startsWith("CREATE DATABASE") || body.startsWith("USE ")) {
+                    continue;
+                }
+                stmt.execute(body);
+            }
+        }
+    }
+
+    private static Connection slow(Connection conn, long roundTripMillis) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(conn, method, args);
+                    if (result instanceof PreparedStatement) {
+                        PreparedStatement stmt = (PreparedStatement) result;
+                        return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                                (p, m, a) -> {
+                                    if (m.getName().startsWith("execute")) Thread.sleep(roundTripMillis);
+                                    return invoke(stmt, m, a);
+                                });
+                    }
+                    return result;
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static String readSchema() {
+        try (InputStream in = TestDatabase.class.getResourceAsStream("/schema.sql")) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read schema.sql", e);
+        }
+    }
+
+    private static String stripComments(String sql) {
+        StringBuilder out = new StringBuilder();
+        for (String line : sql.split("\n")) {
+            int comment = line.indexOf("--");
+            out.append(comment >= 0 ? line.substring(0, comment) : line).append('\n');
+        }
+        return out.toString().trim();
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TransactionArchiveTest {
+    private static final YearMonth MONTH = YearMonth.of(2024, 3);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void readsBackOneAccountFromAPublishedMonth() throws Exception {
+        TransactionArchive archive = new TransactionArchive(dir);
+        Timestamp later = Timestamp.valueOf("2024-03-20 10:15:30.123456");
+        Timestamp earlier = Timestamp.valueOf("2024-03-02 08:00:00");
+        try (TransactionArchive.Writer writer = archive.openWriter(MONTH)) {
+            writer.append(7, 12, "Transfer", Money.parse("-5.00"), 9, Money.parse("20.00"), later);
+            writer.append(7, 3, "Deposit", Money.parse("25.00"), 0, Money.parse("25.00"), earlier);
+            writer.append(9, 13, "Transfer", Money.parse("5.00"), 7, Money.parse("5.00"), later);
+            writer.finish();
+        }
+        assertTrue(archive.months().isEmpty(), "unpublished months are not visible");
+        archive.publish(MONTH);
+
+        assertEquals(List.of(MONTH), archive.months());
+        List<Transaction> rows = archive.read(MONTH, 7);
+        assertEquals(2, rows.size());
+        assertEquals(12, rows.get(0).getTransactionId());
+        assertEquals("Transfer", rows.get(0).getTransactionType());
+        assertEquals(Money.parse("-5.00"), rows.get(0).getAmount());
+        assertEquals(Money.parse("20.00"), rows.get(0).getBalanceAfter());
+        assertEquals(later, rows.get(0).getTransactionDate());
+        assertEquals(earlier, rows.get(1).getTransactionDate());
+        assertEquals(1, archive.read(MONTH, 9).size());
+        assertTrue(archive.read(MONTH, 8).isEmpty());
+
+        // A fresh instance finds the month on disk.
+        assertEquals(List.of(MONTH), new TransactionArchive(dir).months());
+    }
+
+    @Test
+    public void compressesRepetitiveHistory() throws Exception {
+        TransactionArchive archive = new TransactionArchive(dir);
+        int rows = 10_000;
+        long start = Timestamp.valueOf("2024-03-01 00:00:00").getTime();
+        try (TransactionArchive.Writer writer = archive.openWriter(MONTH)) {
+            for (int account = 1; account <= 10; account++) {
+                for (int i = rows / 10; i > 0; i--) {
+                    writer.append(account, account * rows + i, "Deposit", Money.parse("1.00"), 0,
+                            Money.ofCents(i * 100L), new Timestamp(start + i * 60_000L));
+                }
+            }
+            writer.finish();
+        }
+        archive.publish(MONTH);
+
+        long size = Files.size(dir.resolve("transactions-2024-03.txa"));
+        assertTrue(size < rows * 8, "archive is " + size + " bytes for " + rows + " rows");
+        assertEquals(rows / 10, archive.read(MONTH, 4).size());
+    }
+
+    @Test
+    public void unfinishedWriterLeavesNothingBehind() throws Exception {
+        TransactionArchive archive = new TransactionArchive(dir);
+        try (TransactionArchive.Writer writer = archive.openWriter(MONTH)) {
+            writer.append(1, 1, "Deposit", Money.parse("1.00"), 0, Money.parse("1.00"), Timestamp.valueOf("2024-03-01 00:00:00"));
+        }
+        assertTrue(archive.pendingMonths().isEmpty());
+        assertNull(Files.list(dir).findAny().orElse(null));
+    }
+}
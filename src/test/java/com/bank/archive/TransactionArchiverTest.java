@@ -0,0 +1,160 @@
+package com.bank.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+import com.bank.model.HistoryCursor;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TransactionArchiverTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void archivedMonthsStayVisibleToHistoryReads() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            TransactionArchive archive = new TransactionArchive(dir);
+            JdbcBankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setArchive(archive));
+            int userId = dao.createUser("archive", "p", "U", "P");
+            dao.createAccount(userId, "Current");
+            dao.createAccount(userId, "Current");
+            int a = dao.getAccountsByUserId(userId).get(0).getAccountId();
+            int b = dao.getAccountsByUserId(userId).get(1).getAccountId();
+
+            // A deposit and a transfer (three rows) a month from January to June 2024.
+            for (int i = 0; i < 6; i++) {
+                dao.deposit(a, new BigDecimal("10.00"));
+                dao.transfer(a, b, new BigDecimal("1.00"));
+            }
+            backdate(pool, YearMonth.of(2024, 1));
+            List<String> before = describe(dao.getTransactionHistory(a));
+            Money midFebruary = dao.getBalanceAsOf(a, Timestamp.valueOf("2024-02-15 00:00:00"));
+            assertEquals(Money.parse("18.00"), midFebruary);
+
+            TransactionArchiver archiver = new TransactionArchiver(pool, archive, 3, false);
+            assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)),
+                    archiver.runMaintenance(YearMonth.of(2024, 6)));
+            assertEquals(9, count(pool, "SELECT COUNT(*) FROM transactions"));
+            assertEquals(List.of(YearMonth.of(2024, 3), YearMonth.of(2024, 2), YearMonth.of(2024, 1)), archive.months());
+
+            assertEquals(before, describe(dao.getTransactionHistory(a)));
+            List<Transaction> streamed = new ArrayList<>();
+            dao.streamTransactionHistory(a, 2, streamed::add);
+            assertEquals(before, describe(streamed));
+
+            // Pages of 5 cross from the table into the archive and through month boundaries.
+            List<Transaction> paged = new ArrayList<>();
+            HistoryCursor cursor = null;
+            do {
+                TransactionPage page = dao.getTransactionHistory(a, cursor, 5);
+                paged.addAll(page.getTransactions());
+                cursor = page.getNextCursor();
+            } while (cursor != null);
+            assertEquals(before, describe(paged));
+
+            assertEquals(midFebruary, dao.getBalanceAsOf(a, Timestamp.valueOf("2024-02-15 00:00:00")));
+            assertTrue(archiver.archiveBefore(YearMonth.of(2024, 4)).isEmpty(), "nothing left to archive");
+        }
+    }
+
+    @Test
+    public void recoversAfterInterruptedRun() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            TransactionArchive archive = new TransactionArchive(dir);
+            JdbcBankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setArchive(archive));
+            int userId = dao.createUser("recover", "p", "U", "P");
+            dao.createAccount(userId, "Savings");
+            int a = dao.getAccountsByUserId(userId).get(0).getAccountId();
+            dao.deposit(a, new BigDecimal("5.00"));
+            backdate(pool, YearMonth.of(2023, 12));
+
+            // A pending file whose rows are still in the table is stale and gets rewritten.
+            try (TransactionArchive.Writer writer = archive.openWriter(YearMonth.of(2023, 12))) {
+                writer.append(a, 999, "Deposit", Money.parse("1.00"), 0, Money.parse("1.00"), Timestamp.valueOf("2023-12-01 00:00:00"));
+                writer.finish();
+            }
+            new TransactionArchiver(pool, archive, 1, false).archiveBefore(YearMonth.of(2024, 1));
+            assertEquals(List.of("Deposit 5.00 5.00"), trimmed(dao.getTransactionHistory(a)));
+            assertTrue(archive.pendingMonths().isEmpty());
+        }
+    }
+
+    @Test
+    public void buildsMonthlyPartitionDdl() {
+        assertEquals("p202402", TransactionPartitions.partitionName(YearMonth.of(2024, 2)));
+        assertEquals("ALTER TABLE transactions PARTITION BY RANGE (UNIX_TIMESTAMP(transaction_date)) ("
+                        + "PARTITION p202411 VALUES LESS THAN (UNIX_TIMESTAMP('2024-12-01 00:00:00')), "
+                        + "PARTITION p202412 VALUES LESS THAN (UNIX_TIMESTAMP('2025-01-01 00:00:00')), "
+                        + "PARTITION pmax VALUES LESS THAN MAXVALUE)",
+                TransactionPartitions.partitionBy(YearMonth.of(2024, 11), YearMonth.of(2024, 12)));
+        assertEquals("ALTER TABLE transactions REORGANIZE PARTITION pmax INTO ("
+                        + "PARTITION p202501 VALUES LESS THAN (UNIX_TIMESTAMP('2025-02-01 00:00:00')), "
+                        + "PARTITION pmax VALUES LESS THAN MAXVALUE)",
+                TransactionPartitions.addMonth(YearMonth.of(2025, 1)));
+        assertEquals("ALTER TABLE transactions DROP PARTITION p202401", TransactionPartitions.dropMonth(YearMonth.of(2024, 1)));
+        assertEquals(YearMonth.of(2024, 1), TransactionPartitions.monthOf("p202401"));
+    }
+
+    /** Spreads the table's rows, in id order, three per month from {@code first}. */
+    private static void backdate(ConnectionPool pool, YearMonth first) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT transaction_id FROM transactions ORDER BY transaction_id");
+             PreparedStatement update = conn.prepareStatement("UPDATE transactions SET transaction_date = ? WHERE transaction_id = ?")) {
+            int i = 0;
+            while (rs.next()) {
+                update.setTimestamp(1, Timestamp.valueOf(first.plusMonths(i / 3).atDay(10 + i % 3).atTime(12, 0)));
+                update.setInt(2, rs.getInt(1));
+                update.executeUpdate();
+                i++;
+            }
+        }
+    }
+
+    private static long count(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static List<String> describe(List<Transaction> transactions) {
+        List<String> out = new ArrayList<>();
+        for (Transaction t : transactions) {
+            out.add(t.getTransactionId() + " " + t.getTransactionType() + " " + t.getAmount() + " "
+                    + t.getBalanceAfter() + " " + t.getTransactionDate());
+        }
+        return out;
+    }
+
+    private static List<String> trimmed(List<Transaction> transactions) {
+        List<String> out = new ArrayList<>();
+        for (Transaction t : transactions) {
+            out.add(t.getTransactionType() + " " + t.getAmount() + " " + t.getBalanceAfter());
+        }
+        return out;
+    }
+}
@@ -0,0 +1,26 @@
+package com.bank.auth;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+public class PasswordHasherTest {
+
+    @Test
+    public void verifiesOnlyTheRightPassword() {
+        String stored = PasswordHasher.hash("s3cret");
+        assertTrue(stored.startsWith("pbkdf2-sha256$"));
+        assertFalse(stored.contains("s3cret"));
+        assertTrue(PasswordHasher.verify("s3cret", stored));
+        assertFalse(PasswordHasher.verify("s3cret!", stored));
+        assertFalse(PasswordHasher.verify("s3cret", null));
+        assertFalse(PasswordHasher.verify("s3cret", "s3cret"));
+    }
+
+    @Test
+    public void saltsEveryHash() {
+        assertNotEquals(PasswordHasher.hash("same"), PasswordHasher.hash("same"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.auth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.bank.model.User;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class SessionStoreTest {
+    private static final long MINUTE = 60_000;
+    private final AtomicLong clock = new AtomicLong(1_000_000 * MINUTE);
+    private final User alice = new User(1, "alice", "Alice", "A");
+
+    @Test
+    public void expiresAfterIdleOrAbsoluteTimeout() {
+        SessionStore store = new SessionStore(30 * MINUTE, 120 * MINUTE, null, clock::get);
+        String token = store.open(alice);
+        assertSame(alice, store.get(token));
+
+        // Used every 20 minutes: never idle for 30, but still ends 120 minutes after login.
+        for (int i = 0; i < 5; i++) {
+            clock.addAndGet(20 * MINUTE);
+            assertSame(alice, store.get(token), "after " + (i + 1) * 20 + " minutes");
+        }
+        clock.addAndGet(20 * MINUTE);
+        assertNull(store.get(token));
+
+        String idle = store.open(alice);
+        clock.addAndGet(30 * MINUTE);
+        assertNull(store.get(idle));
+        assertNull(store.get("no-such-token"));
+        assertNull(store.get(null));
+    }
+
+    @Test
+    public void wheelDropsExpiredSessionsAndKeepsActiveOnes() {
+        SessionStore store = new SessionStore(30 * MINUTE, 600 * MINUTE, null, clock::get);
+        String active = store.open(alice);
+        for (int i = 0; i < 1_000; i++) {
+            store.open(alice);
+        }
+        assertEquals(0, store.expireDue());
+        for (int i = 0; i < 6; i++) {
+            clock.addAndGet(10 * MINUTE);
+            store.get(active);
+            store.expireDue();
+        }
+        assertEquals(1, store.size());
+        assertSame(alice, store.get(active));
+
+        store.close(active);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    public void sharesSessionsBetweenNodes() {
+        InMemorySharedSessionStore shared = new InMemorySharedSessionStore();
+        SessionStore node1 = new SessionStore(30 * MINUTE, 600 * MINUTE, shared, clock::get);
+        SessionStore node2 = new SessionStore(30 * MINUTE, 600 * MINUTE, shared, clock::get);
+
+        String token = node1.open(alice);
+        assertNotNull(node2.get(token));
+        assertEquals(1, node2.size());
+
+        // Only node 2 sees traffic; node 1 must not expire the shared record under it.
+        for (int i = 0; i < 4; i++) {
+            clock.addAndGet(10 * MINUTE);
+            assertNotNull(node2.get(token));
+            node1.expireDue();
+        }
+        assertEquals(1, shared.size());
+        assertNotNull(node1.get(token), "re-adopted from the shared store");
+
+        // Logging out on node 1 reaches node 2 at its next refresh.
+        node1.close(token);
+        clock.addAndGet(8 * MINUTE);
+        assertNull(node2.get(token));
+        assertEquals(0, shared.size());
+    }
+}
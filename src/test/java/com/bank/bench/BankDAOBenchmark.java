@@ -0,0 +1,161 @@
+package com.bank.bench;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+import com.bank.model.User;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hot paths of {@link BankDAO} against an embedded database seeded with {@code users} customers,
+ * two accounts each, and {@code historyDepth} transaction rows on every account that the history
+ * benchmarks read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BankDAOBenchmark {
+
+    /** Accounts whose history is seeded; history benchmarks pick among these. */
+    private static final int HISTORY_ACCOUNTS = 20;
+
+    @Param({"1000"})
+    public int users;
+
+    @Param({"100", "10000"})
+    public int historyDepth;
+
+    private ConnectionPool pool;
+    private BankDAO dao;
+    private int[] userIds;
+    private int[] accountIds;
+    private final BigDecimal amount = new BigDecimal("1.00");
+
+    @Setup(Level.Trial)
+    public void seed() throws Exception {
+        pool = TestDatabase.newPool(new PoolConfig().setMinSize(16).setMaxSize(32));
+        dao = new JdbcBankDAO(pool);
+        userIds = new int[users];
+        accountIds = new int[users * 2];
+        for (int u = 0; u < users; u++) {
+            userIds[u] = dao.createUser("user" + u, "password" + u, "First" + u, "Last" + u);
+            dao.createAccount(userIds[u], "Savings");
+            dao.createAccount(userIds[u], "Current");
+            List<Account> accounts = dao.getAccountsByUserId(userIds[u]);
+            accountIds[u * 2] = accounts.get(0).getAccountId();
+            accountIds[u * 2 + 1] = accounts.get(1).getAccountId();
+        }
+        try (Connection conn = pool.getConnection()) {
+            conn.createStatement().executeUpdate("UPDATE accounts SET balance = 1000000000.00");
+            seedHistory(conn);
+        }
+    }
+
+    private void seedHistory(Connection conn) throws SQLException {
+        long start = System.currentTimeMillis() - historyDepth * 60_000L;
+        String sql = "INSERT INTO transactions (account_id, transaction_type, amount, balance_after, transaction_date) "
+                + "VALUES (?, 'Deposit', ?, ?, ?)";
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int a = 0; a < HISTORY_ACCOUNTS; a++) {
+                for (int i = 0; i < historyDepth; i++) {
+                    pstmt.setInt(1, accountIds[a]);
+                    pstmt.setBigDecimal(2, amount);
+                    pstmt.setBigDecimal(3, amount.multiply(BigDecimal.valueOf(i + 1)));
+                    pstmt.setTimestamp(4, new Timestamp(start + i * 60_000L));
+                    pstmt.addBatch();
+                    if (i % 1_000 == 999) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+            }
+        }
+        conn.commit();
+        conn.setAutoCommit(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pool.close();
+    }
+
+    private int randomAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)];
+    }
+
+    private int randomHistoryAccount() {
+        return accountIds[ThreadLocalRandom.current().nextInt(HISTORY_ACCOUNTS)];
+    }
+
+    @Benchmark
+    public void deposit() throws SQLException, AccountException {
+        dao.deposit(randomAccount(), amount);
+    }
+
+    @Benchmark
+    public void withdraw() throws SQLException, AccountException {
+        dao.withdraw(randomAccount(), amount);
+    }
+
+    @Benchmark
+    public void transfer() throws SQLException, AccountException {
+        int from = randomAccount();
+        int to = randomAccount();
+        if (from != to) {
+            dao.transfer(from, to, amount);
+        }
+    }
+
+    @Benchmark
+    public User login() throws SQLException {
+        int u = ThreadLocalRandom.current().nextInt(users);
+        return dao.login("user" + u, "password" + u);
+    }
+
+    @Benchmark
+    public List<Account> getAccountsByUserId() throws SQLException {
+        return dao.getAccountsByUserId(userIds[ThreadLocalRandom.current().nextInt(users)]);
+    }
+
+    @Benchmark
+    public TransactionPage getTransactionHistoryFirstPage() throws SQLException {
+        return dao.getTransactionHistory(randomHistoryAccount(), null, 20);
+    }
+
+    @Benchmark
+    public List<Transaction> getTransactionHistoryFull() throws SQLException {
+        return dao.getTransactionHistory(randomHistoryAccount());
+    }
+}
@@ -0,0 +1,34 @@
+package com.bank.bench;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point used by the {@code benchmarks} Maven profile. Runs the selected benchmarks once per
+ * thread count, with the GC profiler attached so allocation rate ({@code gc.alloc.rate.norm})
+ * is reported next to throughput and average time.
+ * <p>
+ * Arguments: include regex (default {@code com.bank.bench.*}) and a comma-separated list of thread
+ * counts (default {@code 1,4,16}).
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com.bank.bench.*";
+        String threadCounts = args.length > 1 ? args[1] : "1,4,16";
+        for (String threads : threadCounts.split(",")) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .exclude(BenchmarkRunner.class.getSimpleName())
+                    .threads(Integer.parseInt(threads.trim()))
+                    .addProfiler(GCProfiler.class)
+                    .result("target/jmh-result-" + threads.trim() + "t.json")
+                    .resultFormat(org.openjdk.jmh.results.format.ResultFormatType.JSON)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.bank.bench;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+import com.bank.dao.GroupCommitJournal;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deposits committed one by one versus through a {@link GroupCommitJournal}. Sample-time mode
+ * reports the latency distribution, including p99. The embedded database never fsyncs, so on a
+ * real MySQL server the gap is larger than what this reports.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupCommitBenchmark {
+
+    @Param({"false", "true"})
+    public boolean groupCommit;
+
+    private ConnectionPool pool;
+    private GroupCommitJournal journal;
+    private BankDAO dao;
+    private int[] accountIds;
+    private final BigDecimal amount = new BigDecimal("1.00");
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = TestDatabase.newPool(new PoolConfig().setMinSize(8).setMaxSize(8));
+        journal = groupCommit ? new GroupCommitJournal(pool, 128, 500) : null;
+        dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setJournal(journal));
+        int userId = dao.createUser("bench", "p", "Bench", "Mark");
+        for (int i = 0; i < 64; i++) {
+            dao.createAccount(userId, "Current");
+        }
+        List<Account> accounts = dao.getAccountsByUserId(userId);
+        accountIds = accounts.stream().mapToInt(Account::getAccountId).toArray();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        if (journal != null) journal.close();
+        pool.close();
+    }
+
+    @Benchmark
+    public void deposit() throws SQLException, AccountException {
+        dao.deposit(accountIds[ThreadLocalRandom.current().nextInt(accountIds.length)], amount);
+    }
+}
@@ -0,0 +1,65 @@
+package com.bank.bench;
+
+import com.bank.model.Money;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The amount handling a withdrawal does outside JDBC (validate, check funds, compute the new
+ * balance, format it) with {@link BigDecimal} versus {@link Money}. Run with the GC profiler to
+ * compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+
+    private final BigDecimal decimalBalance = new BigDecimal("1234.56");
+    private final BigDecimal decimalAmount = new BigDecimal("12.34");
+    private final Money moneyBalance = Money.ofCents(123_456);
+    private final Money moneyAmount = Money.ofCents(1_234);
+
+    @Benchmark
+    public boolean checkFundsBigDecimal() {
+        return decimalAmount.compareTo(BigDecimal.ZERO) > 0 && decimalBalance.compareTo(decimalAmount) >= 0;
+    }
+
+    @Benchmark
+    public boolean checkFundsMoney() {
+        return moneyAmount.isPositive() && !moneyBalance.isLessThan(moneyAmount);
+    }
+
+    @Benchmark
+    public BigDecimal subtractBigDecimal() {
+        return decimalBalance.subtract(decimalAmount);
+    }
+
+    @Benchmark
+    public long subtractMoney() {
+        return moneyBalance.minus(moneyAmount).getCents();
+    }
+
+    @Benchmark
+    public String formatBigDecimal() {
+        return String.format("Balance: $%.2f", decimalBalance);
+    }
+
+    @Benchmark
+    public String formatMoney() {
+        return "Balance: $" + moneyBalance;
+    }
+}
@@ -0,0 +1,70 @@
+package com.bank.bench;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+import com.bank.dao.TransactionRetrier;
+import com.bank.dao.WriteStrategy;
+import com.bank.exception.AccountException;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Withdrawal throughput of each {@link WriteStrategy} when every thread hits the same account.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WriteStrategyBenchmark {
+
+    @Param({"PESSIMISTIC", "CONDITIONAL_UPDATE", "OPTIMISTIC"})
+    public WriteStrategy strategy;
+
+    private ConnectionPool pool;
+    private BankDAO dao;
+    private int hotAccount;
+    private final BigDecimal amount = new BigDecimal("1.00");
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        pool = TestDatabase.newPool(new PoolConfig().setMinSize(16).setMaxSize(32));
+        dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig()
+                .setRetrier(new TransactionRetrier(1_000, 1, 10)).setWriteStrategy(strategy));
+        int userId = dao.createUser("bench", "p", "Bench", "Mark");
+        dao.createAccount(userId, "Current");
+        hotAccount = dao.getAccountsByUserId(userId).get(0).getAccountId();
+        dao.deposit(hotAccount, new BigDecimal("1000000000.00"));
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        pool.close();
+    }
+
+    @Benchmark
+    public void withdrawFromHotAccount() throws SQLException, AccountException {
+        dao.withdraw(hotAccount, amount);
+    }
+}
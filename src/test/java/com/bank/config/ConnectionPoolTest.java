@@ -0,0 +1,103 @@
+package com.bank.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class ConnectionPoolTest {
+
+    @Test
+    public void reusesPhysicalConnections() throws SQLException {
+        String url = TestDatabase.newUrl();
+        AtomicInteger opened = new AtomicInteger();
+        try (ConnectionPool pool = new ConnectionPool(() -> {
+            opened.incrementAndGet();
+            return DriverManager.getConnection(url, "sa", "");
+        }, new PoolConfig().setMinSize(0).setMaxSize(2))) {
+            for (int i = 0; i < 20; i++) {
+                try (Connection conn = pool.getConnection()) {
+                    conn.createStatement().execute("SELECT 1");
+                }
+            }
+            assertEquals(1, opened.get());
+            assertEquals(20, pool.getStats().getAcquireCount());
+            assertEquals(0, pool.getStats().getActive());
+            assertEquals(1, pool.getStats().getIdle());
+        }
+    }
+
+    @Test
+    public void timesOutWhenExhausted() throws SQLException {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(1).setAcquireTimeoutMillis(50))) {
+            try (Connection held = pool.getConnection()) {
+                assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+                assertEquals(1, pool.getStats().getActive());
+                assertEquals(1, pool.getStats().getTimeoutCount());
+            }
+            try (Connection again = pool.getConnection()) {
+                assertFalse(again.isClosed());
+            }
+        }
+    }
+
+    @Test
+    public void replacesBrokenConnectionOnBorrow() throws SQLException {
+        String url = TestDatabase.newUrl();
+        AtomicInteger opened = new AtomicInteger();
+        try (ConnectionPool pool = new ConnectionPool(() -> {
+            opened.incrementAndGet();
+            return DriverManager.getConnection(url, "sa", "");
+        }, new PoolConfig().setMinSize(0).setMaxSize(1))) {
+            try (Connection conn = pool.getConnection()) {
+                conn.unwrap(Connection.class).close(); // kill the physical connection underneath the pool
+            }
+            try (Connection conn = pool.getConnection()) {
+                assertTrue(conn.isValid(1));
+            }
+            assertEquals(2, opened.get());
+        }
+    }
+
+    @Test
+    public void rollsBackUncommittedWorkOnReturn() throws SQLException {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(1))) {
+            try (Connection conn = pool.getConnection()) {
+                conn.setAutoCommit(false);
+                conn.createStatement().executeUpdate("INSERT INTO users (username, password_hash) VALUES ('ghost', 'x')");
+            }
+            try (Connection conn = pool.getConnection()) {
+                assertTrue(conn.getAutoCommit());
+                var rs = conn.createStatement().executeQuery("SELECT COUNT(*) FROM users");
+                rs.next();
+                assertEquals(0, rs.getInt(1));
+            }
+        }
+    }
+
+    @Test
+    public void reportsLeakedConnections() throws Exception {
+        PoolConfig config = new PoolConfig().setMinSize(0).setMaxSize(2)
+                .setLeakDetectionThresholdMillis(20).setMaintenanceIntervalMillis(10);
+        try (ConnectionPool pool = TestDatabase.newPool(config)) {
+            Connection leaked = pool.getConnection();
+            long deadline = System.currentTimeMillis() + 2_000;
+            while (pool.getStats().getLeakCount() == 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, pool.getStats().getLeakCount());
+            leaked.close();
+            assertThrows(SQLException.class, leaked::createStatement);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.bank.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.dao.JdbcBankDAOConfig;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class ReplicaSetTest {
+
+    /** The replicas are separate, empty databases: anything read from them shows the write has not "replicated". */
+    @Test
+    public void writersReadTheirOwnWrites() throws Exception {
+        ConnectionPool primary = TestDatabase.newPool();
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try (ReplicaSet set = new ReplicaSet(primary, List.of(TestDatabase.newPool(), TestDatabase.newPool()), 300, 60_000)) {
+            BankDAO dao = new JdbcBankDAO(set, new JdbcBankDAOConfig());
+            int userId = dao.createUser("alice", "secret", "A", "L");
+
+            assertNotNull(dao.login("alice", "secret"), "the writer is pinned to the primary");
+            assertNull(other.submit(() -> dao.login("alice", "secret")).get(), "another session reads a replica");
+
+            // A bound session stays pinned whichever thread serves it.
+            other.submit(() -> {
+                set.bindSession(userId);
+                dao.createAccount(userId, "Savings");
+                set.unbindSession();
+                return null;
+            }).get();
+            set.bindSession(userId + 1);
+            assertFalse(set.isPinned(), "a bound session replaces the thread's own");
+            set.bindSession(userId);
+            assertTrue(set.isPinned());
+            assertEquals(1, dao.getAccountsByUserId(userId).size());
+            set.unbindSession();
+
+            Thread.sleep(350);
+            assertNull(dao.login("alice", "secret"), "the pin has run out");
+            for (int i = 0; i < 10; i++) {
+                dao.getTransactionHistory(1);
+            }
+            assertEquals(set.getReplicaReadCount(0), set.getReplicaReadCount(1), 1);
+            assertEquals(2, set.getPrimaryReadCount());
+        } finally {
+            other.shutdownNow();
+            primary.close();
+        }
+    }
+
+    @Test
+    public void skipsReplicasThatAreDown() throws Exception {
+        String url = TestDatabase.newUrl();
+        TestDatabase.loadSchema(url);
+        AtomicBoolean down = new AtomicBoolean();
+        ConnectionPool flaky = new ConnectionPool(() -> {
+            if (down.get()) {
+                throw new SQLException("Connection refused.", "08001");
+            }
+            return DriverManager.getConnection(url, "sa", "");
+        }, new PoolConfig().setMinSize(0).setMaxSize(2));
+        ConnectionPool primary = TestDatabase.newPool();
+        try (ReplicaSet set = new ReplicaSet(primary, List.of(flaky, TestDatabase.newPool()), 0, 60_000)) {
+            down.set(true);
+            try (Connection conn = DriverManager.getConnection(url, "sa", "");
+                 Statement stmt = conn.createStatement()) {
+                stmt.execute("SHUTDOWN");
+            }
+            for (int i = 0; i < 4; i++) {
+                set.getReadConnection().close();
+            }
+            assertEquals(1, set.getHealthyReplicaCount());
+            assertEquals(0, set.getReplicaReadCount(0));
+            assertEquals(4, set.getReplicaReadCount(1));
+            set.checkHealth();
+            assertEquals(1, set.getHealthyReplicaCount());
+
+            down.set(false);
+            TestDatabase.loadSchema(url);
+            set.checkHealth();
+            assertEquals(2, set.getHealthyReplicaCount());
+            set.getReadConnection().close();
+            set.getReadConnection().close();
+            assertEquals(1, set.getReplicaReadCount(0));
+            assertEquals(0, set.getPrimaryReadCount());
+        } finally {
+            primary.close();
+        }
+    }
+}
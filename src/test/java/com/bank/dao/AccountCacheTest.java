@@ -0,0 +1,143 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class AccountCacheTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = TestDatabase.newPool();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void servesRepeatedLookupsFromCache() throws Exception {
+        AccountCache cache = new AccountCache(100, 60_000, 60_000);
+        BankDAO dao = newDao(cache);
+        int userId = dao.createUser("u", "p", "U", "P");
+        dao.createAccount(userId, "Savings");
+
+        assertEquals(1, dao.getAccountsByUserId(userId).size());
+        assertEquals(1, dao.getAccountsByUserId(userId).size());
+        assertEquals(1, dao.getAccountsByUserId(userId).size());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2, cache.getHitCount());
+
+        dao.createAccount(userId, "Current");
+        assertEquals(2, dao.getAccountsByUserId(userId).size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void moneyMovementsRefreshBalances() throws Exception {
+        AccountCache cache = new AccountCache(100, 60_000, 60_000);
+        BankDAO dao = newDao(cache);
+        int userId = dao.createUser("u", "p", "U", "P");
+        dao.createAccount(userId, "Savings");
+        dao.createAccount(userId, "Current");
+        int a = dao.getAccountsByUserId(userId).get(0).getAccountId();
+        int b = dao.getAccountsByUserId(userId).get(1).getAccountId();
+
+        dao.deposit(a, new BigDecimal("10.00"));
+        assertBalances(dao, userId, "10.00", "0.00");
+        dao.transfer(a, b, new BigDecimal("4.00"));
+        assertBalances(dao, userId, "6.00", "4.00");
+        dao.withdraw(b, new BigDecimal("1.00"));
+        assertBalances(dao, userId, "6.00", "3.00");
+        assertEquals(3, cache.getBalanceRefreshCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void externalWritesVisibleAfterStalenessBound() throws Exception {
+        AccountCache cache = new AccountCache(100, 60_000, 50);
+        BankDAO dao = newDao(cache);
+        int userId = dao.createUser("u", "p", "U", "P");
+        dao.createAccount(userId, "Savings");
+        dao.getAccountsByUserId(userId);
+
+        try (Connection conn = pool.getConnection()) {
+            conn.createStatement().executeUpdate("UPDATE accounts SET balance = 99.00");
+        }
+        assertBalances(dao, userId, "0.00"); // still within the staleness bound
+        Thread.sleep(80);
+        assertBalances(dao, userId, "99.00");
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedUsers() throws Exception {
+        AccountCache cache = new AccountCache(2, 60_000, 60_000);
+        BankDAO dao = newDao(cache);
+        int u1 = dao.createUser("u1", "p", "U", "1");
+        int u2 = dao.createUser("u2", "p", "U", "2");
+        int u3 = dao.createUser("u3", "p", "U", "3");
+
+        dao.getAccountsByUserId(u1);
+        dao.getAccountsByUserId(u2);
+        dao.getAccountsByUserId(u1); // u2 is now least recently used
+        dao.getAccountsByUserId(u3);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+
+        long misses = cache.getMissCount();
+        dao.getAccountsByUserId(u1);
+        assertEquals(misses, cache.getMissCount());
+        dao.getAccountsByUserId(u2);
+        assertEquals(misses + 1, cache.getMissCount());
+    }
+
+    @Test
+    public void onlyWritesToTheSameUserDiscardARacingLoad() throws Exception {
+        AccountCache cache = new AccountCache(100, 60_000, 60_000);
+        BankDAO dao = newDao(cache);
+        int userA = dao.createUser("a", "p", "U", "A");
+        int userB = dao.createUser("b", "p", "U", "B");
+        dao.createAccount(userA, "Savings");
+        int b = dao.createAccount(userB, "Savings").getAccountId();
+        List<com.bank.model.Account> accountsOfA = dao.getAccountsByUserId(userA);
+        cache.clear();
+
+        long generation = cache.beginLoad();
+        dao.deposit(b, new BigDecimal("5.00"));
+        cache.invalidateUser(userB);
+        cache.put(userA, accountsOfA, generation);
+        assertNotNull(cache.getIfFresh(userA), "writes to another user must not stop caching");
+
+        cache.clear();
+        generation = cache.beginLoad();
+        dao.deposit(accountsOfA.get(0).getAccountId(), new BigDecimal("1.00"));
+        cache.put(userA, accountsOfA, generation);
+        assertNull(cache.getIfFresh(userA), "a load that raced a write to the same user is stale");
+        assertBalances(dao, userA, "1.00");
+    }
+
+    private BankDAO newDao(AccountCache cache) {
+        return new JdbcBankDAO(pool, new JdbcBankDAOConfig().setAccountCache(cache));
+    }
+
+    private void assertBalances(BankDAO dao, int userId, String... expected) throws SQLException {
+        List<com.bank.model.Account> accounts = dao.getAccountsByUserId(userId);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(0, new BigDecimal(expected[i]).compareTo(accounts.get(i).getBalance().toBigDecimal()), "account " + i);
+        }
+    }
+}
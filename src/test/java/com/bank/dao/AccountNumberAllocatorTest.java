@@ -0,0 +1,101 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.model.Account;
+import com.bank.model.OpenAccountInstruction;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class AccountNumberAllocatorTest {
+
+    @Test
+    public void checkDigitCatchesTypos() {
+        String number = AccountNumberAllocator.format(4_242_424L);
+        assertEquals(12, number.length());
+        assertTrue(AccountNumberAllocator.isValid(number));
+        assertTrue(AccountNumberAllocator.isValid("000000000018"), "Luhn of 1 is 8");
+
+        char[] typo = number.toCharArray();
+        typo[5] = typo[5] == '9' ? '0' : (char) (typo[5] + 1);
+        assertFalse(AccountNumberAllocator.isValid(new String(typo)));
+        assertEquals("000000012344", AccountNumberAllocator.format(1234));
+        assertFalse(AccountNumberAllocator.isValid("000000021344"), "adjacent digits swapped");
+        assertFalse(AccountNumberAllocator.isValid("00000001234"));
+        assertFalse(AccountNumberAllocator.isValid("00000000001x"));
+    }
+
+    @Test
+    public void allocatorsNeverHandOutTheSameNumber() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            AccountNumberAllocator small = new AccountNumberAllocator(pool::getConnection, 7);
+            AccountNumberAllocator large = new AccountNumberAllocator(pool::getConnection, 100);
+            Set<String> seen = new HashSet<>();
+            for (int i = 0; i < 50; i++) {
+                assertTrue(seen.add(small.next()));
+                assertTrue(seen.add(large.next()));
+            }
+            // A restarted process with a different block size carries on after the last reservation.
+            AccountNumberAllocator restarted = new AccountNumberAllocator(pool::getConnection, 3);
+            for (String number : restarted.next(10)) {
+                assertTrue(AccountNumberAllocator.isValid(number));
+                assertTrue(seen.add(number));
+            }
+            assertEquals(8 * 7 + 100 + 4 * 3 + 1, count(pool, "SELECT next_value FROM account_number_sequence"));
+        }
+    }
+
+    @Test
+    public void bulkOpeningReturnsIdsAndNumbers() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            int alice = dao.createUser("alice", "p", "A", "L");
+            int bob = dao.createUser("bob", "p", "B", "O");
+            Account single = dao.createAccount(alice, "Savings");
+            assertEquals(1, dao.getAccountsByUserId(alice).size());
+
+            List<OpenAccountInstruction> instructions = new ArrayList<>();
+            for (int i = 0; i < 250; i++) {
+                instructions.add(new OpenAccountInstruction(i % 2 == 0 ? alice : bob, i % 3 == 0 ? "Savings" : "Current"));
+            }
+            List<Account> opened = dao.createAccounts(instructions);
+
+            assertEquals(250, opened.size());
+            Set<Integer> ids = new HashSet<>();
+            Set<String> numbers = new HashSet<>();
+            ids.add(single.getAccountId());
+            numbers.add(single.getAccountNumber());
+            for (int i = 0; i < opened.size(); i++) {
+                Account account = opened.get(i);
+                assertTrue(ids.add(account.getAccountId()));
+                assertTrue(numbers.add(account.getAccountNumber()));
+                assertTrue(AccountNumberAllocator.isValid(account.getAccountNumber()));
+                assertEquals(instructions.get(i).getAccountType(), account.getAccountType());
+            }
+            assertEquals(126, dao.getAccountsByUserId(alice).size(), "cached list was invalidated");
+            assertEquals(125, dao.getAccountsByUserId(bob).size());
+            assertEquals(251, count(pool, "SELECT COUNT(DISTINCT account_number) FROM accounts"));
+        }
+    }
+
+    private static long count(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
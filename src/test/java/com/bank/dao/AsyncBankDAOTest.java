@@ -0,0 +1,103 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.Money;
+import com.bank.model.TransactionPage;
+
+import java.sql.SQLTransientException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class AsyncBankDAOTest {
+    private static final long ROUND_TRIP_MILLIS = 20;
+
+    /**
+     * A dashboard needs the user's accounts and a page of history for each. Against a database
+     * with a realistic round trip, issuing the independent reads together takes about one round
+     * trip instead of one per query.
+     */
+    @Test
+    @Tag("benchmark")
+    public void fanOutBeatsSequentialCalls() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newSlowPool(ROUND_TRIP_MILLIS, 8);
+             AsyncBankDAO async = new AsyncBankDAO(new JdbcBankDAO(pool, new JdbcBankDAOConfig().setAccountCache(null)), pool)) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setAccountCache(null));
+            int userId = dao.createUser("dash", "p", "D", "B");
+            for (int i = 0; i < 4; i++) dao.createAccount(userId, "Savings");
+            List<Account> accounts = dao.getAccountsByUserId(userId);
+            for (Account a : accounts) dao.deposit(a.getAccountId(), Money.parse("10.00"));
+
+            long[] sequential = new long[5];
+            long[] fanOut = new long[5];
+            for (int run = 0; run < sequential.length; run++) {
+                long start = System.nanoTime();
+                dao.getAccountsByUserId(userId);
+                for (Account a : accounts) dao.getTransactionHistory(a.getAccountId(), null, 10);
+                sequential[run] = System.nanoTime() - start;
+
+                start = System.nanoTime();
+                List<CompletableFuture<?>> reads = new ArrayList<>();
+                reads.add(async.getAccountsByUserId(userId));
+                for (Account a : accounts) reads.add(async.getTransactionHistory(a.getAccountId(), null, 10));
+                CompletableFuture.allOf(reads.toArray(new CompletableFuture[0])).join();
+                fanOut[run] = System.nanoTime() - start;
+                assertEquals(1, ((TransactionPage) reads.get(1).join()).getTransactions().size());
+            }
+            Arrays.sort(sequential);
+            Arrays.sort(fanOut);
+            assertTrue(fanOut[2] * 2 < sequential[2], "fan-out " + fanOut[2] + "ns vs sequential " + sequential[2] + "ns");
+        }
+    }
+
+    @Test
+    public void failsWithTheBlockingMethodsException() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             AsyncBankDAO async = new AsyncBankDAO(new JdbcBankDAO(pool), pool)) {
+            int userId = async.createUser("async", "p", "A", "S").get();
+            async.createAccount(userId, "Current").get();
+            int account = async.getAccountsByUserId(userId).get().get(0).getAccountId();
+
+            ExecutionException e = assertThrows(ExecutionException.class,
+                    () -> async.withdraw(account, Money.parse("1.00"), null).get());
+            assertInstanceOf(AccountException.class, e.getCause());
+        }
+    }
+
+    @Test
+    public void rejectsCallsBeyondTheQueue() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             AsyncBankDAO async = new AsyncBankDAO(new JdbcBankDAO(pool), 1, 2)) {
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Object> busy = async.submit(d -> {
+                release.await();
+                return null;
+            });
+            while (async.getQueuedCount() > 0) Thread.onSpinWait();
+            CompletableFuture<Object> queued1 = async.submit(d -> "q1");
+            CompletableFuture<Object> queued2 = async.submit(d -> "q2");
+            CompletableFuture<Object> rejected = async.submit(d -> "no");
+
+            ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(SQLTransientException.class, e.getCause());
+            release.countDown();
+            busy.get();
+            assertEquals("q1", queued1.get());
+            assertEquals("q2", queued2.get());
+        }
+    }
+}
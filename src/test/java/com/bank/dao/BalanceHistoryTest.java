@@ -0,0 +1,152 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.model.DepositInstruction;
+import com.bank.model.Money;
+import com.bank.model.Transaction;
+import com.bank.model.TransferInstruction;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class BalanceHistoryTest {
+
+    @Test
+    public void recordsRunningBalanceOnEveryRow() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            for (WriteStrategy strategy : WriteStrategy.values()) {
+                BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setWriteStrategy(strategy));
+                int[] ids = newAccounts(dao, strategy.name());
+                dao.deposit(ids[0], new BigDecimal("100.00"));
+                dao.withdraw(ids[0], new BigDecimal("30.00"));
+                dao.transfer(ids[0], ids[1], new BigDecimal("20.00"));
+                dao.deposit(ids[1], new BigDecimal("5.00"));
+
+                assertEquals(List.of("100.00", "70.00", "50.00"), balancesOldestFirst(dao, ids[0]), strategy.name());
+                assertEquals(List.of("20.00", "25.00"), balancesOldestFirst(dao, ids[1]), strategy.name());
+            }
+        }
+    }
+
+    @Test
+    public void batchesRecordRunningBalancePerItem() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            int[] ids = newAccounts(dao, "batch");
+            dao.depositBatch(List.of(new DepositInstruction(ids[0], new BigDecimal("10.00")),
+                    new DepositInstruction(ids[0], new BigDecimal("15.00"))));
+            dao.transferBatch(List.of(new TransferInstruction(ids[0], ids[1], new BigDecimal("5.00")),
+                    new TransferInstruction(ids[0], ids[1], new BigDecimal("7.00"))));
+
+            assertEquals(List.of("10.00", "25.00", "20.00", "13.00"), balancesOldestFirst(dao, ids[0]));
+            assertEquals(List.of("5.00", "12.00"), balancesOldestFirst(dao, ids[1]));
+        }
+    }
+
+    @Test
+    public void groupCommitStampsEachUnitWithItsOwnBalance() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(4));
+             GroupCommitJournal journal = new GroupCommitJournal(pool, 64, 2_000)) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setJournal(journal));
+            int account = newAccounts(dao, "journal")[0];
+            int deposits = 200;
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < deposits; i++) {
+                futures.add(executor.submit(() -> {
+                    dao.deposit(account, new BigDecimal("1.00"));
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            executor.shutdown();
+
+            // Every deposit saw a different balance: exactly 1.00, 2.00, ..., 200.00.
+            TreeSet<Long> seen = new TreeSet<>();
+            for (Transaction t : dao.getTransactionHistory(account)) {
+                seen.add(t.getBalanceAfter().getCents());
+            }
+            assertEquals(deposits, seen.size());
+            assertEquals(100L, (long) seen.first());
+            assertEquals(deposits * 100L, (long) seen.last());
+        }
+    }
+
+    @Test
+    public void answersPointInTimeBalanceFromRowsOrSnapshots() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int account = newAccounts(dao, "asof")[0];
+            Timestamp day1 = Timestamp.valueOf("2024-01-01 12:00:00");
+            Timestamp day2 = Timestamp.valueOf("2024-01-02 12:00:00");
+            Timestamp day3 = Timestamp.valueOf("2024-01-03 12:00:00");
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "INSERT INTO transactions (account_id, transaction_type, amount, balance_after, transaction_date) "
+                                 + "VALUES (?, 'Deposit', ?, ?, ?)")) {
+                Timestamp[] dates = {day1, day2, day2, day3};
+                for (int i = 0; i < dates.length; i++) {
+                    pstmt.setInt(1, account);
+                    pstmt.setBigDecimal(2, new BigDecimal("10.00"));
+                    pstmt.setBigDecimal(3, BigDecimal.valueOf(10L * (i + 1)));
+                    pstmt.setTimestamp(4, dates[i]);
+                    pstmt.executeUpdate();
+                }
+            }
+
+            assertEquals(Money.ZERO, dao.getBalanceAsOf(account, Timestamp.valueOf("2023-12-31 00:00:00")));
+            assertEquals(Money.parse("10.00"), dao.getBalanceAsOf(account, day1));
+            assertEquals(Money.parse("30.00"), dao.getBalanceAsOf(account, Timestamp.valueOf("2024-01-02 23:59:59")));
+            assertEquals(Money.parse("40.00"), dao.getBalanceAsOf(account, day3));
+
+            // Once the early rows are gone, the snapshot taken before removing them answers instead.
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement insert = conn.prepareStatement(
+                         "INSERT INTO balance_snapshots (account_id, snapshot_date, balance) VALUES (?, ?, 30.00)");
+                 PreparedStatement delete = conn.prepareStatement(
+                         "DELETE FROM transactions WHERE account_id = ? AND transaction_date < ?")) {
+                insert.setInt(1, account);
+                insert.setTimestamp(2, Timestamp.valueOf("2024-01-02 23:59:59"));
+                insert.executeUpdate();
+                delete.setInt(1, account);
+                delete.setTimestamp(2, day3);
+                delete.executeUpdate();
+            }
+            assertEquals(Money.parse("30.00"), dao.getBalanceAsOf(account, Timestamp.valueOf("2024-01-03 00:00:00")));
+            assertEquals(Money.parse("40.00"), dao.getBalanceAsOf(account, day3));
+            assertEquals(2, dao.snapshotBalances(new Timestamp(System.currentTimeMillis())));
+        }
+    }
+
+    private static int[] newAccounts(BankDAO dao, String username) throws Exception {
+        int userId = dao.createUser(username, "p", "U", "P");
+        dao.createAccount(userId, "Current");
+        dao.createAccount(userId, "Current");
+        return new int[]{dao.getAccountsByUserId(userId).get(0).getAccountId(),
+                dao.getAccountsByUserId(userId).get(1).getAccountId()};
+    }
+
+    private static List<String> balancesOldestFirst(BankDAO dao, int accountId) throws Exception {
+        List<String> balances = new ArrayList<>();
+        for (Transaction t : dao.getTransactionHistory(accountId)) {
+            balances.add(t.getBalanceAfter().toString());
+        }
+        Collections.reverse(balances);
+        return balances;
+    }
+}
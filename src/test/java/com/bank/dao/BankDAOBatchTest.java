@@ -0,0 +1,150 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.model.Account;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.TransferInstruction;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class BankDAOBatchTest {
+    private ConnectionPool pool;
+    private JdbcBankDAO dao;
+    private int userId;
+    private int a;
+    private int b;
+    private int c;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = TestDatabase.newPool();
+        dao = new JdbcBankDAO(pool);
+        userId = dao.createUser("payroll", "secret", "Pay", "Roll");
+        for (int i = 0; i < 3; i++) {
+            dao.createAccount(userId, "Current");
+        }
+        List<Account> accounts = dao.getAccountsByUserId(userId);
+        a = accounts.get(0).getAccountId();
+        b = accounts.get(1).getAccountId();
+        c = accounts.get(2).getAccountId();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void appliesOrRejectsEachItemIndependently() throws SQLException {
+        dao.depositBatch(List.of(new DepositInstruction(a, new BigDecimal("100.00"))));
+
+        List<BatchItemResult> results = dao.transferBatch(List.of(
+                new TransferInstruction(a, b, new BigDecimal("60.00")),
+                new TransferInstruction(a, c, new BigDecimal("60.00")),   // only 40 left
+                new TransferInstruction(b, c, new BigDecimal("60.00")),   // spends what item 0 credited
+                new TransferInstruction(a, a, new BigDecimal("1.00")),
+                new TransferInstruction(a, 999_999, new BigDecimal("1.00")),
+                new TransferInstruction(a, b, new BigDecimal("-5.00"))), 2);
+
+        assertTrue(results.get(0).isApplied());
+        assertFalse(results.get(1).isApplied());
+        assertEquals("Insufficient funds for transfer.", results.get(1).getReason());
+        assertTrue(results.get(2).isApplied());
+        assertFalse(results.get(3).isApplied());
+        assertFalse(results.get(4).isApplied());
+        assertEquals("Account not found.", results.get(4).getReason());
+        assertFalse(results.get(5).isApplied());
+
+        assertBalance(a, "40.00");
+        assertBalance(b, "0.00");
+        assertBalance(c, "60.00");
+        assertEquals(2, dao.getTransactionHistory(a).size());
+        assertEquals(2, dao.getTransactionHistory(b).size());
+        assertEquals(1, dao.getTransactionHistory(c).size());
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    public void largeBatchConservesMoney() throws SQLException {
+        List<DepositInstruction> deposits = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            deposits.add(new DepositInstruction(i % 2 == 0 ? a : b, new BigDecimal("1.00")));
+        }
+        assertTrue(dao.depositBatch(deposits, 64).stream().allMatch(BatchItemResult::isApplied));
+
+        List<TransferInstruction> transfers = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            int from = i % 3 == 0 ? a : i % 3 == 1 ? b : c;
+            int to = i % 3 == 0 ? b : i % 3 == 1 ? c : a;
+            transfers.add(new TransferInstruction(from, to, new BigDecimal("0.50")));
+        }
+        dao.transferBatch(transfers, 128);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Account account : dao.getAccountsByUserId(userId)) {
+            assertTrue(account.getBalance().signum() >= 0);
+            total = total.add(account.getBalance().toBigDecimal());
+        }
+        assertEquals(0, new BigDecimal("300.00").compareTo(total));
+    }
+
+    /**
+     * The same transfers, one call each and then as one batch, on a database with a 1ms round trip:
+     * each looped transfer pays several round trips of its own, the batch shares them per chunk.
+     */
+    @Test
+    @Tag("benchmark")
+    public void batchMovesTenTimesMoreTransfersPerSecondThanALoop() throws Exception {
+        ConnectionPool slowPool = TestDatabase.newSlowPool(1, 4);
+        try {
+            JdbcBankDAO slow = new JdbcBankDAO(slowPool);
+            int owner = slow.createUser("treasury", "secret", "Trea", "Sury");
+            int x = slow.createAccount(owner, "Current").getAccountId();
+            int y = slow.createAccount(owner, "Current").getAccountId();
+            slow.deposit(x, new BigDecimal("1000.00"));
+            List<TransferInstruction> transfers = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                transfers.add(i % 2 == 0 ? new TransferInstruction(x, y, new BigDecimal("1.00"))
+                        : new TransferInstruction(y, x, new BigDecimal("1.00")));
+            }
+
+            long start = System.nanoTime();
+            for (TransferInstruction t : transfers) {
+                slow.transfer(t.getFromAccountId(), t.getToAccountId(), t.getAmount());
+            }
+            double looped = transfers.size() / ((System.nanoTime() - start) / 1e9);
+            start = System.nanoTime();
+            assertTrue(slow.transferBatch(transfers).stream().allMatch(BatchItemResult::isApplied));
+            double batched = transfers.size() / ((System.nanoTime() - start) / 1e9);
+
+            assertTrue(batched >= 10 * looped, "batch: " + batched + "/s, loop: " + looped + "/s");
+            assertEquals(2 * transfers.size(), slow.getTransactionHistory(x).size() - 1);
+        } finally {
+            slowPool.close();
+        }
+    }
+
+    private void assertBalance(int accountId, String expected) throws SQLException {
+        for (Account account : dao.getAccountsByUserId(userId)) {
+            if (account.getAccountId() == accountId) {
+                assertEquals(0, new BigDecimal(expected).compareTo(account.getBalance().toBigDecimal()), "balance of " + accountId);
+                return;
+            }
+        }
+        throw new AssertionError("No account " + accountId);
+    }
+}
@@ -0,0 +1,117 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.Transaction;
+import com.bank.model.TransactionPage;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BankDAOTest {
+    private ConnectionPool pool;
+    private JdbcBankDAO dao;
+    private int userId;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = TestDatabase.newPool();
+        dao = new JdbcBankDAO(pool);
+        userId = dao.createUser("alice", "secret", "Alice", "Smith");
+        dao.createAccount(userId, "Savings");
+        dao.createAccount(userId, "Current");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    public void depositWithdrawAndTransfer() throws Exception {
+        List<Account> accounts = dao.getAccountsByUserId(userId);
+        int savings = accounts.get(0).getAccountId();
+        int current = accounts.get(1).getAccountId();
+
+        dao.deposit(savings, new BigDecimal("100.00"));
+        dao.withdraw(savings, new BigDecimal("30.00"));
+        dao.transfer(savings, current, new BigDecimal("20.00"));
+
+        accounts = dao.getAccountsByUserId(userId);
+        assertEquals(0, new BigDecimal("50.00").compareTo(accounts.get(0).getBalance().toBigDecimal()));
+        assertEquals(0, new BigDecimal("20.00").compareTo(accounts.get(1).getBalance().toBigDecimal()));
+        assertEquals(3, dao.getTransactionHistory(savings).size());
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    public void rejectsOverdraftWithoutSideEffects() throws Exception {
+        int savings = dao.getAccountsByUserId(userId).get(0).getAccountId();
+        assertThrows(AccountException.class, () -> dao.withdraw(savings, new BigDecimal("1.00")));
+        assertEquals(0, dao.getTransactionHistory(savings).size());
+        assertEquals(0, pool.getStats().getActive());
+    }
+
+    @Test
+    public void pagesThroughHistoryByKeyset() throws Exception {
+        int savings = dao.getAccountsByUserId(userId).get(0).getAccountId();
+        // Several rows share a timestamp, so the cursor has to break ties on transaction_id.
+        long start = Timestamp.valueOf("2024-01-01 00:00:00").getTime();
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO transactions (account_id, transaction_type, amount, balance_after, transaction_date) "
+                             + "VALUES (?, 'Deposit', ?, ?, ?)")) {
+            for (int i = 0; i < 25; i++) {
+                pstmt.setInt(1, savings);
+                pstmt.setBigDecimal(2, BigDecimal.valueOf(i + 1));
+                pstmt.setBigDecimal(3, BigDecimal.valueOf((i + 1) * (i + 2) / 2));
+                pstmt.setTimestamp(4, new Timestamp(start + (i / 3) * 1000L));
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+
+        List<Transaction> all = dao.getTransactionHistory(savings);
+        List<Transaction> paged = new ArrayList<>();
+        TransactionPage page = dao.getTransactionHistory(savings, null, 10);
+        int pages = 1;
+        paged.addAll(page.getTransactions());
+        while (page.hasMore()) {
+            page = dao.getTransactionHistory(savings, page.getNextCursor(), 10);
+            paged.addAll(page.getTransactions());
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals(25, paged.size());
+        for (int i = 0; i < all.size(); i++) {
+            assertEquals(all.get(i).getTransactionId(), paged.get(i).getTransactionId());
+        }
+
+        List<Transaction> streamed = new ArrayList<>();
+        dao.streamTransactionHistory(savings, 4, streamed::add);
+        assertEquals(25, streamed.size());
+        assertEquals(all.get(24).getTransactionId(), streamed.get(24).getTransactionId());
+    }
+
+    @Test
+    public void login() throws SQLException {
+        assertNotNull(dao.login("alice", "secret"));
+        assertNull(dao.login("alice", "wrong"));
+    }
+}
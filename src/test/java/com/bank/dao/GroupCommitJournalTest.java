@@ -0,0 +1,141 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class GroupCommitJournalTest {
+
+    @Test
+    public void coalescesConcurrentMovementsIntoSharedCommits() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(4));
+             GroupCommitJournal journal = new GroupCommitJournal(pool, 64, 2_000)) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setJournal(journal));
+            int userId = dao.createUser("u", "p", "U", "P");
+            dao.createAccount(userId, "Current");
+            dao.createAccount(userId, "Current");
+            List<Account> accounts = dao.getAccountsByUserId(userId);
+            int a = accounts.get(0).getAccountId();
+            int b = accounts.get(1).getAccountId();
+            dao.deposit(a, new BigDecimal("100.00"));
+
+            int threads = 16;
+            int opsPerThread = 25;
+            AtomicInteger rejected = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < opsPerThread; i++) {
+                        if (thread % 4 == 0) {
+                            try {
+                                dao.withdraw(b, new BigDecimal("1000.00")); // always overdraws
+                            } catch (AccountException expected) {
+                                rejected.incrementAndGet();
+                            }
+                        } else if (thread % 2 == 0) {
+                            dao.transfer(a, b, new BigDecimal("0.01"));
+                        } else {
+                            dao.deposit(a, new BigDecimal("1.00"));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            executor.shutdown();
+
+            int deposits = 8 * opsPerThread;
+            int transfers = 4 * opsPerThread;
+            assertEquals(4 * opsPerThread, rejected.get());
+            accounts = dao.getAccountsByUserId(userId);
+            assertEquals(0, new BigDecimal("100.00").add(BigDecimal.valueOf(deposits))
+                    .subtract(new BigDecimal("0.01").multiply(BigDecimal.valueOf(transfers)))
+                    .compareTo(accounts.get(0).getBalance().toBigDecimal()));
+            assertEquals(0, new BigDecimal("0.01").multiply(BigDecimal.valueOf(transfers)).compareTo(accounts.get(1).getBalance().toBigDecimal()));
+            assertEquals(1 + deposits + transfers, dao.getTransactionHistory(a).size());
+            assertEquals(transfers, dao.getTransactionHistory(b).size());
+            assertTrue(journal.getGroupCount() < journal.getUnitCount(), "no operations were coalesced");
+        }
+    }
+
+    @Test
+    public void failingUnitDoesNotAffectItsGroup() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             GroupCommitJournal journal = new GroupCommitJournal(pool, 16, 1_000)) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig()
+                    .setWriteStrategy(WriteStrategy.CONDITIONAL_UPDATE).setAccountCache(null).setJournal(journal));
+            int userId = dao.createUser("u", "p", "U", "P");
+            dao.createAccount(userId, "Current");
+            int a = dao.getAccountsByUserId(userId).get(0).getAccountId();
+
+            dao.deposit(a, new BigDecimal("5.00"));
+            assertThrows(AccountException.class, () -> dao.withdraw(a, new BigDecimal("6.00")));
+            assertThrows(java.sql.SQLException.class, () -> dao.deposit(999_999, new BigDecimal("1.00")));
+            dao.withdraw(a, new BigDecimal("5.00"));
+
+            assertEquals(0, BigDecimal.ZERO.compareTo(dao.getAccountsByUserId(userId).get(0).getBalance().toBigDecimal()));
+            assertEquals(2, dao.getTransactionHistory(a).size());
+        }
+    }
+
+    /** Every call racing close() either commits or is refused; none is left waiting. */
+    @Test
+    public void executeRacingCloseNeverHangs() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                for (int round = 0; round < 200; round++) {
+                    GroupCommitJournal journal = new GroupCommitJournal(pool, 16, 100);
+                    CountDownLatch start = new CountDownLatch(1);
+                    List<Future<?>> futures = new ArrayList<>();
+                    for (int t = 0; t < 8; t++) {
+                        futures.add(executor.submit(() -> {
+                            start.await();
+                            while (true) {
+                                try {
+                                    journal.execute((conn, log) -> { });
+                                } catch (SQLException closed) {
+                                    return null;
+                                }
+                            }
+                        }));
+                    }
+                    start.countDown();
+                    Thread.sleep(round % 3);
+                    journal.close();
+                    for (Future<?> f : futures) {
+                        f.get(10, TimeUnit.SECONDS);
+                    }
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class IdempotencyTest {
+
+    @Test
+    public void retriedRequestsPostOnce() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             IdempotencyStore store = new IdempotencyStore(pool)) {
+            BankDAO cached = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setIdempotencyStore(store));
+            BankDAO uncached = new JdbcBankDAO(pool);
+            int[] ids = newAccounts(uncached, "retry");
+
+            cached.deposit(ids[0], Money.parse("50.00"), "d-1");
+            cached.deposit(ids[0], Money.parse("50.00"), "d-1");
+            assertEquals(1, store.getHitCount());
+            uncached.deposit(ids[0], Money.parse("50.00"), "d-1"); // no cache: the table still says no
+            cached.transfer(ids[0], ids[1], Money.parse("20.00"), "t-1");
+            uncached.transfer(ids[0], ids[1], Money.parse("20.00"), "t-1");
+            assertEquals(Money.parse("30.00"), balance(pool, ids[0]));
+            assertEquals(Money.parse("20.00"), balance(pool, ids[1]));
+            assertEquals(3, count(pool, "SELECT COUNT(*) FROM transactions"));
+
+            assertThrows(AccountException.class, () -> cached.deposit(ids[0], Money.parse("51.00"), "d-1"));
+            assertThrows(AccountException.class, () -> uncached.withdraw(ids[0], Money.parse("1.00"), "t-1"));
+
+            // A request that failed did not use up its key.
+            assertThrows(AccountException.class, () -> cached.withdraw(ids[1], Money.parse("100.00"), "w-1"));
+            cached.deposit(ids[1], Money.parse("80.00"));
+            cached.withdraw(ids[1], Money.parse("100.00"), "w-1");
+            assertEquals(Money.ZERO, balance(pool, ids[1]));
+        }
+    }
+
+    @Test
+    public void concurrentDuplicatesApplyOnce() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             GroupCommitJournal journal = new GroupCommitJournal(pool, 16, 1_000)) {
+            BankDAO direct = new JdbcBankDAO(pool);
+            BankDAO grouped = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setJournal(journal));
+            int[] ids = newAccounts(direct, "race");
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                BankDAO dao = i % 2 == 0 ? direct : grouped;
+                futures.add(executor.submit(() -> {
+                    dao.deposit(ids[0], Money.parse("10.00"), "same-key");
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            executor.shutdown();
+            assertEquals(Money.parse("10.00"), balance(pool, ids[0]));
+        }
+    }
+
+    @Test
+    public void purgesExpiredKeysInBulk() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool();
+             IdempotencyStore store = new IdempotencyStore(pool, 10, 60_000)) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setIdempotencyStore(store));
+            int account = newAccounts(dao, "purge")[0];
+            for (int i = 0; i < 5; i++) {
+                dao.deposit(account, Money.parse("1.00"), "k-" + i);
+            }
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "UPDATE idempotency_keys SET created_at = ? WHERE idempotency_key IN ('k-0', 'k-1', 'k-2')")) {
+                pstmt.setTimestamp(1, new Timestamp(System.currentTimeMillis() - 120_000));
+                pstmt.executeUpdate();
+            }
+            assertEquals(3, store.purgeExpired());
+            assertEquals(2, count(pool, "SELECT COUNT(*) FROM idempotency_keys"));
+            assertEquals(5, store.size(), "cached entries age by their own clock");
+        }
+    }
+
+    @Test
+    public void keepsAtMostMaxEntriesEvictingTheOldest() throws Exception {
+        try (IdempotencyStore store = new IdempotencyStore(null, 10, 60_000)) {
+            for (int i = 0; i < 25; i++) {
+                store.remember("k-" + i, "deposit:" + i);
+            }
+            assertEquals(10, store.size());
+            assertNull(store.lookup("k-14"));
+            assertEquals("deposit:15", store.lookup("k-15"));
+            assertEquals("deposit:24", store.lookup("k-24"));
+        }
+    }
+
+    private static int[] newAccounts(BankDAO dao, String username) throws Exception {
+        int userId = dao.createUser(username, "p", "U", "P");
+        dao.createAccount(userId, "Current");
+        dao.createAccount(userId, "Current");
+        return new int[]{dao.getAccountsByUserId(userId).get(0).getAccountId(),
+                dao.getAccountsByUserId(userId).get(1).getAccountId()};
+    }
+
+    private static Money balance(ConnectionPool pool, int accountId) throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT balance FROM accounts WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return Money.of(rs.getBigDecimal(1));
+            }
+        }
+    }
+
+    private static long count(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.Money;
+import com.bank.model.TransferInstruction;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+public class ShardedBankDAOTest {
+    private static final long ROUND_TRIP_MILLIS = 10;
+
+    @Test
+    public void routesUsersAndAccountsToTheirShard() throws Exception {
+        List<ConnectionPool> pools = newShards(3);
+        try (ShardedBankDAO dao = new ShardedBankDAO(pools)) {
+            Set<String> numbers = new HashSet<>();
+            Set<Integer> shardsUsed = new HashSet<>();
+            for (int i = 0; i < 12; i++) {
+                String username = "user" + i;
+                int userId = dao.createUser(username, "p", "U", "" + i);
+                int shard = dao.getShardMap().shardOfUsername(username);
+                assertEquals(shard, dao.getShardMap().shardOfUser(userId));
+                assertNotNull(dao.login(username, "p"));
+                Account account = dao.createAccount(userId, "Current");
+                assertEquals(shard, dao.getShardMap().shardOfAccount(account.getAccountId()));
+                assertTrue(numbers.add(account.getAccountNumber()), "account numbers are unique across shards");
+                dao.deposit(account.getAccountId(), Money.parse("10.00"), null);
+                assertEquals(1, dao.getTransactionHistory(account.getAccountId()).size());
+                shardsUsed.add(shard);
+            }
+            assertEquals(3, shardsUsed.size());
+            assertThrows(SQLException.class, () -> dao.deposit(Integer.MAX_VALUE, Money.parse("1.00"), null));
+        } finally {
+            pools.forEach(ConnectionPool::close);
+        }
+    }
+
+    @Test
+    public void batchesRejectItemsNamingUnknownAccounts() throws Exception {
+        List<ConnectionPool> pools = newShards(2);
+        try (ShardedBankDAO dao = new ShardedBankDAO(pools)) {
+            int[] accounts = accountsOnDifferentShards(dao);
+            int from = accounts[0];
+            int to = accounts[1];
+            dao.deposit(from, Money.parse("10.00"), null);
+
+            List<BatchItemResult> transfers = dao.transferBatch(List.of(
+                    new TransferInstruction(from, to, Money.parse("1.00")),
+                    new TransferInstruction(from, Integer.MAX_VALUE, Money.parse("1.00")),
+                    new TransferInstruction(from, to + 1, Money.parse("1.00")),
+                    new TransferInstruction(from, to, Money.parse("2.00"))));
+            assertTrue(transfers.get(0).isApplied());
+            assertEquals("Account not found.", transfers.get(1).getReason());
+            assertEquals("Account not found.", transfers.get(2).getReason());
+            assertTrue(transfers.get(3).isApplied());
+
+            List<BatchItemResult> deposits = dao.depositBatch(List.of(
+                    new DepositInstruction(Integer.MAX_VALUE, Money.parse("1.00")),
+                    new DepositInstruction(to, Money.parse("4.00"))));
+            assertEquals("Account not found.", deposits.get(0).getReason());
+            assertTrue(deposits.get(1).isApplied());
+
+            assertEquals(Money.parse("7.00"), balance(dao, from));
+            assertEquals(Money.parse("7.00"), balance(dao, to));
+        } finally {
+            pools.forEach(ConnectionPool::close);
+        }
+    }
+
+    @Test
+    public void crossShardTransfersMoveMoneyOnce() throws Exception {
+        List<ConnectionPool> pools = newShards(2);
+        try (ShardedBankDAO dao = new ShardedBankDAO(pools)) {
+            int[] accounts = accountsOnDifferentShards(dao);
+            int from = accounts[0];
+            int to = accounts[1];
+            dao.deposit(from, Money.parse("100.00"), null);
+
+            dao.transfer(from, to, Money.parse("30.00"), "t-1");
+            dao.transfer(from, to, Money.parse("30.00"), "t-1");
+            assertEquals(1, dao.getCrossShardTransferCount());
+            assertEquals(Money.parse("70.00"), balance(dao, from));
+            assertEquals(Money.parse("30.00"), balance(dao, to));
+            assertEquals("Transfer", dao.getTransactionHistory(from).get(0).getTransactionType());
+            assertEquals(Money.parse("30.00"), dao.getTransactionHistory(to).get(0).getBalanceAfter());
+
+            assertThrows(AccountException.class, () -> dao.transfer(from, to, Money.parse("500.00")));
+            assertThrows(SQLException.class, () -> dao.transfer(from, to + 1, Money.parse("1.00")));
+            assertEquals(Money.parse("70.00"), balance(dao, from));
+            for (ConnectionPool pool : pools) {
+                assertEquals(0, count(pool, "SELECT COUNT(*) FROM transfer_outbox"));
+            }
+        } finally {
+            pools.forEach(ConnectionPool::close);
+        }
+    }
+
+    /** Stops a transfer after each leg in turn, as a crash would, and lets recovery settle it. */
+    @Test
+    public void recoveryFinishesOrRefundsInterruptedTransfers() throws Exception {
+        List<ConnectionPool> pools = newShards(2);
+        try (ShardedBankDAO dao = new ShardedBankDAO(pools)) {
+            int[] accounts = accountsOnDifferentShards(dao);
+            int from = accounts[0];
+            int to = accounts[1];
+            JdbcBankDAO source = dao.getShard(dao.getShardMap().shardOfAccount(from));
+            JdbcBankDAO destination = dao.getShard(dao.getShardMap().shardOfAccount(to));
+            dao.deposit(from, Money.parse("100.00"), null);
+
+            source.transferOut("debited-only", from, to, Money.parse("10.00"), null);
+            source.transferOut("credited-too", from, to, Money.parse("20.00"), null);
+            destination.transferIn("credited-too", from, to, Money.parse("20.00"));
+            int missing = to + 1; // in the destination's id range, never created
+            source.transferOut("no-such-account", from, missing, Money.parse("40.00"), null);
+            assertEquals(Money.parse("30.00"), balance(dao, from));
+            assertEquals(Money.parse("20.00"), balance(dao, to));
+
+            // A cut-off in the future: created_at has sub-millisecond precision, the clock does not.
+            assertEquals(3, dao.recoverTransfers(-1_000));
+            assertEquals(0, dao.recoverTransfers(0));
+            assertEquals(Money.parse("70.00"), balance(dao, from));
+            assertEquals(Money.parse("30.00"), balance(dao, to));
+            assertEquals(3, dao.getRecoveredTransferCount());
+            assertEquals(1, dao.getRefundedTransferCount());
+            assertEquals(0, count(pools.get(dao.getShardMap().shardOfAccount(from)), "SELECT COUNT(*) FROM transfer_outbox"));
+        } finally {
+            pools.forEach(ConnectionPool::close);
+        }
+    }
+
+    /**
+     * Each shard is a database with a 10ms round trip and two connections, so one shard tops out
+     * at a fixed rate; spreading the same users over four shards should come close to four times it.
+     */
+    @Test
+    @Tag("benchmark")
+    public void shardLocalThroughputScalesWithShards() throws Exception {
+        double one = depositsPerSecond(1);
+        double four = depositsPerSecond(4);
+        assertTrue(four > 2.5 * one, "4 shards: " + four + "/s, 1 shard: " + one + "/s");
+    }
+
+    private static double depositsPerSecond(int shardCount) throws Exception {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (int i = 0; i < shardCount; i++) {
+            pools.add(TestDatabase.newSlowPool(ROUND_TRIP_MILLIS, 2));
+            RangeShardMap.prepare(pools.get(i), i);
+        }
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try (ShardedBankDAO dao = new ShardedBankDAO(pools)) {
+            List<Integer> accounts = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                int userId = dao.createUser("load" + i, "p", "L", "" + i);
+                accounts.add(dao.createAccount(userId, "Current").getAccountId());
+            }
+            int perClient = 12;
+            long start = System.nanoTime();
+            List<Future<?>> done = new ArrayList<>();
+            for (int accountId : accounts) {
+                done.add(clients.submit(() -> {
+                    for (int i = 0; i < perClient; i++) {
+                        dao.deposit(accountId, Money.parse("1.00"), null);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            return accounts.size() * perClient / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            clients.shutdownNow();
+            pools.forEach(ConnectionPool::close);
+        }
+    }
+
+    private static List<ConnectionPool> newShards(int count) throws Exception {
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pools.add(TestDatabase.newPool());
+            RangeShardMap.prepare(pools.get(i), i);
+        }
+        return pools;
+    }
+
+    private static int[] accountsOnDifferentShards(ShardedBankDAO dao) throws Exception {
+        int[] accounts = new int[2];
+        for (int i = 0, found = 0; found < 2; i++) {
+            String username = "holder" + i;
+            if (dao.getShardMap().shardOfUsername(username) != found) continue;
+            int userId = dao.createUser(username, "p", "H", "" + i);
+            accounts[found++] = dao.createAccount(userId, "Current").getAccountId();
+        }
+        assertNotEquals(dao.getShardMap().shardOfAccount(accounts[0]), dao.getShardMap().shardOfAccount(accounts[1]));
+        return accounts;
+    }
+
+    private static Money balance(ShardedBankDAO dao, int accountId) throws Exception {
+        return dao.getBalanceAsOf(accountId, new Timestamp(System.currentTimeMillis() + 60_000));
+    }
+
+    private static long count(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+public class TransactionRetrierTest {
+
+    @Test
+    public void retriesDeadlocksUntilSuccess() throws SQLException {
+        TransactionRetrier retrier = new TransactionRetrier(5, 1, 5);
+        AtomicInteger calls = new AtomicInteger();
+        String result = retrier.execute(() -> {
+            if (calls.incrementAndGet() < 3) {
+                throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            }
+            return "ok";
+        });
+        assertEquals("ok", result);
+        assertEquals(3, calls.get());
+        assertEquals(2, retrier.getRetryCount());
+        assertEquals(1, retrier.getRecoveredCount());
+    }
+
+    @Test
+    public void givesUpAfterMaxAttempts() {
+        TransactionRetrier retrier = new TransactionRetrier(3, 1, 5);
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(SQLException.class, () -> retrier.execute(() -> {
+            calls.incrementAndGet();
+            throw new SQLException("Lock wait timeout exceeded", "HY000", 1205);
+        }));
+        assertEquals(3, calls.get());
+        assertEquals(1, retrier.getExhaustedCount());
+    }
+
+    @Test
+    public void doesNotRetryOtherErrors() {
+        TransactionRetrier retrier = new TransactionRetrier();
+        AtomicInteger calls = new AtomicInteger();
+        assertThrows(SQLException.class, () -> retrier.execute(() -> {
+            calls.incrementAndGet();
+            throw new SQLException("Duplicate entry", "23000", 1062);
+        }));
+        assertEquals(1, calls.get());
+        assertEquals(0, retrier.getRetryCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.model.Account;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Opposing transfers (A->B and B->A) hammered from many threads at once. With canonical lock
+ * ordering none of them should ever deadlock, so the retrier must never have to step in.
+ */
+public class TransferConcurrencyTest {
+
+    @Test
+    public void opposingTransfersNeverDeadlock() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(16))) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int userId = dao.createUser("stress", "secret", "Stress", "Test");
+            dao.createAccount(userId, "Current");
+            dao.createAccount(userId, "Current");
+            List<Account> accounts = dao.getAccountsByUserId(userId);
+            int a = accounts.get(0).getAccountId();
+            int b = accounts.get(1).getAccountId();
+            dao.deposit(a, new BigDecimal("1000.00"));
+            dao.deposit(b, new BigDecimal("1000.00"));
+
+            int threads = 8;
+            int transfersPerThread = 150;
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                boolean forward = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < transfersPerThread; i++) {
+                        dao.transfer(forward ? a : b, forward ? b : a, new BigDecimal("1.00"));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get(); // rethrows any failed transfer
+            }
+            executor.shutdown();
+
+            assertEquals(0, dao.getRetrier().getRetryCount(), "transfers hit deadlocks or lock timeouts");
+            BigDecimal total = BigDecimal.ZERO;
+            for (Account account : dao.getAccountsByUserId(userId)) {
+                assertTrue(account.getBalance().signum() >= 0);
+                total = total.add(account.getBalance().toBigDecimal());
+            }
+            assertEquals(0, new BigDecimal("2000.00").compareTo(total));
+            assertEquals(1 + threads * transfersPerThread, dao.getTransactionHistory(a).size());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.bank.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.exception.AccountException;
+import com.bank.model.Account;
+import com.bank.model.Transaction;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class WriteStrategyTest {
+
+    @ParameterizedTest
+    @EnumSource(WriteStrategy.class)
+    public void producesTheSameLedger(WriteStrategy strategy) throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig().setWriteStrategy(strategy));
+            int userId = dao.createUser("u", "p", "U", "P");
+            dao.createAccount(userId, "Savings");
+            dao.createAccount(userId, "Current");
+            List<Account> accounts = dao.getAccountsByUserId(userId);
+            int a = accounts.get(0).getAccountId();
+            int b = accounts.get(1).getAccountId();
+
+            dao.deposit(a, new BigDecimal("100.00"));
+            dao.withdraw(a, new BigDecimal("25.50"));
+            dao.transfer(a, b, new BigDecimal("50.00"));
+            dao.transfer(b, a, new BigDecimal("10.00"));
+            assertThrows(AccountException.class, () -> dao.withdraw(b, new BigDecimal("40.01")));
+            assertThrows(AccountException.class, () -> dao.transfer(a, b, new BigDecimal("34.51")));
+            assertThrows(java.sql.SQLException.class, () -> dao.withdraw(999_999, new BigDecimal("1.00")));
+
+            accounts = dao.getAccountsByUserId(userId);
+            assertEquals(0, new BigDecimal("34.50").compareTo(accounts.get(0).getBalance().toBigDecimal()));
+            assertEquals(0, new BigDecimal("40.00").compareTo(accounts.get(1).getBalance().toBigDecimal()));
+            List<String> types = new ArrayList<>();
+            for (Transaction t : dao.getTransactionHistory(a)) {
+                types.add(t.getTransactionType() + " " + t.getAmount());
+            }
+            assertEquals(List.of("Transfer 10.00", "Transfer 50.00", "Withdrawal 25.50", "Deposit 100.00"), types);
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(WriteStrategy.class)
+    public void contendedWithdrawalsNeverOverdraw(WriteStrategy strategy) throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(0).setMaxSize(8))) {
+            BankDAO dao = new JdbcBankDAO(pool, new JdbcBankDAOConfig()
+                    .setRetrier(new TransactionRetrier(100, 1, 20)).setWriteStrategy(strategy));
+            int userId = dao.createUser("hot", "p", "Hot", "Account");
+            dao.createAccount(userId, "Current");
+            int hot = dao.getAccountsByUserId(userId).get(0).getAccountId();
+            dao.deposit(hot, new BigDecimal("150.00"));
+
+            int threads = 6;
+            AtomicInteger succeeded = new AtomicInteger();
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 40; i++) {
+                        try {
+                            dao.withdraw(hot, new BigDecimal("1.00"));
+                            succeeded.incrementAndGet();
+                        } catch (AccountException insufficient) {
+                            // expected once the balance is gone
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> f : futures) {
+                f.get();
+            }
+            executor.shutdown();
+
+            assertEquals(150, succeeded.get());
+            assertEquals(0, BigDecimal.ZERO.compareTo(dao.getAccountsByUserId(userId).get(0).getBalance().toBigDecimal()));
+            assertEquals(151, dao.getTransactionHistory(hot).size());
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.bank.interest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.model.Account;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class InterestAccrualJobTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 6, 30);
+
+    @Test
+    public void roundsDailyInterestHalfEven() {
+        assertEquals(Money.parse("10.00"), InterestAccrualJob.dailyInterest(Money.parse("100000.00"), 365));
+        assertEquals(Money.parse("0.00"), InterestAccrualJob.dailyInterest(Money.ofCents(1_825_000), 1));  // 0.5 cent
+        assertEquals(Money.parse("0.02"), InterestAccrualJob.dailyInterest(Money.ofCents(5_475_000), 1));  // 1.5 cents
+        assertEquals(Money.ZERO, InterestAccrualJob.dailyInterest(Money.parse("-50.00"), 500));
+    }
+
+    @Test
+    public void creditsEverySavingsAccountOncePerDate() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> savings = new ArrayList<>();
+            List<Integer> current = new ArrayList<>();
+            seed(dao, 45, savings, current);
+
+            InterestAccrualJob job = new InterestAccrualJob(pool, 36_500, 3, 7, 4); // 1% a day
+            AccrualReport report = job.run(DAY);
+            assertEquals(45, report.getAccountsScanned());
+            assertEquals(45, report.getAccountsCredited());
+            for (int i = 0; i < savings.size(); i++) {
+                assertEquals(Money.ofCents((i + 1) * 101L * 100), balance(pool, savings.get(i)));
+            }
+            assertEquals(Money.parse("25.00"), balance(pool, current.get(0)));
+            assertEquals(report.getTotalInterest(), sumInterestRows(pool));
+
+            AccrualReport again = job.run(DAY);
+            assertEquals(0, again.getAccountsCredited());
+            assertEquals(Money.ofCents(101L * 100), balance(pool, savings.get(0)));
+        }
+    }
+
+    @Test
+    public void resumesAfterLastCheckpoint() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> savings = new ArrayList<>();
+            seed(dao, 10, savings, new ArrayList<>());
+            int mid = savings.get(5);
+            // As if a run had stopped right after crediting the first six accounts.
+            try (Connection conn = pool.getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(
+                         "INSERT INTO interest_accrual_progress (accrual_date, range_start, range_end, last_account_id) VALUES (?, ?, ?, ?)")) {
+                pstmt.setDate(1, Date.valueOf(DAY));
+                pstmt.setInt(2, savings.get(0));
+                pstmt.setInt(3, savings.get(9));
+                pstmt.setInt(4, mid);
+                pstmt.executeUpdate();
+            }
+
+            AccrualReport report = new InterestAccrualJob(pool, 36_500, 2, 100, 3).run(DAY);
+            assertEquals(4, report.getAccountsCredited());
+            assertEquals(Money.ofCents(60_000), balance(pool, savings.get(5)));
+            assertEquals(Money.ofCents(70_700), balance(pool, savings.get(6)));
+        }
+    }
+
+    @Test
+    public void runsAlongsideOnlineDeposits() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> savings = new ArrayList<>();
+            seed(dao, 200, savings, new ArrayList<>());
+            Money before = totalBalance(pool);
+
+            AtomicBoolean running = new AtomicBoolean(true);
+            AtomicLong deposited = new AtomicLong();
+            Thread online = new Thread(() -> {
+                for (int i = 0; running.get(); i++) {
+                    try {
+                        dao.deposit(savings.get(i % savings.size()), Money.parse("1.00"));
+                        deposited.addAndGet(100);
+                    } catch (Exception e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+            online.start();
+            AccrualReport report = new InterestAccrualJob(pool, 36_500, 3, 50, 20).run(DAY);
+            running.set(false);
+            online.join();
+
+            assertEquals(200, report.getAccountsCredited());
+            assertEquals(before.plus(Money.ofCents(deposited.get())).plus(report.getTotalInterest()), totalBalance(pool));
+            assertEquals(report.getTotalInterest(), sumInterestRows(pool));
+        }
+    }
+
+    /** Savings account {@code i} (from 0) holds {@code (i + 1) * 100.00}; one current account per five savings holds 25.00. */
+    private static void seed(BankDAO dao, int count, List<Integer> savings, List<Integer> current) throws Exception {
+        int userId = dao.createUser("saver" + count, "p", "S", "V");
+        for (int i = 0; i < count; i++) {
+            dao.createAccount(userId, "Savings");
+            if (i % 5 == 0) dao.createAccount(userId, "Current");
+        }
+        int n = 0;
+        for (Account a : dao.getAccountsByUserId(userId)) {
+            if (a.getAccountType().equals("Savings")) {
+                savings.add(a.getAccountId());
+                dao.deposit(a.getAccountId(), Money.ofCents(++n * 10_000L));
+            } else {
+                current.add(a.getAccountId());
+                dao.deposit(a.getAccountId(), Money.parse("25.00"));
+            }
+        }
+    }
+
+    private static Money balance(ConnectionPool pool, int accountId) throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT balance FROM accounts WHERE account_id = ?")) {
+            pstmt.setInt(1, accountId);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return Money.of(rs.getBigDecimal(1));
+            }
+        }
+    }
+
+    private static Money totalBalance(ConnectionPool pool) throws Exception {
+        return queryMoney(pool, "SELECT SUM(balance) FROM accounts");
+    }
+
+    private static Money sumInterestRows(ConnectionPool pool) throws Exception {
+        return queryMoney(pool, "SELECT COALESCE(SUM(amount), 0) FROM transactions WHERE transaction_type = 'Interest'");
+    }
+
+    private static Money queryMoney(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return Money.of(rs.getBigDecimal(1));
+        }
+    }
+}
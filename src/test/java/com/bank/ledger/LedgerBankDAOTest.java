@@ -0,0 +1,235 @@
+package com.bank.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.exception.AccountException;
+import com.bank.model.BatchItemResult;
+import com.bank.model.DepositInstruction;
+import com.bank.model.Money;
+import com.bank.model.TransferInstruction;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class LedgerBankDAOTest {
+    private static final long ROUND_TRIP_MILLIS = 1;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void movementsAreAppliedAndProjected() throws Exception {
+        ConnectionPool pool = TestDatabase.newPool();
+        try (LedgerBankDAO dao = new LedgerBankDAO(pool, dir.resolve("ledger.journal"))) {
+            int userId = dao.createUser("alice", "secret", "A", "L");
+            int a = dao.createAccount(userId, "Savings").getAccountId();
+            int b = dao.createAccount(userId, "Current").getAccountId();
+
+            dao.deposit(a, Money.parse("100.00"), "d-1");
+            dao.deposit(a, Money.parse("100.00"), "d-1");
+            dao.withdraw(a, Money.parse("10.00"));
+            dao.transfer(a, b, Money.parse("25.50"));
+            assertThrows(AccountException.class, () -> dao.withdraw(b, Money.parse("30.00")));
+            assertThrows(AccountException.class, () -> dao.deposit(a, Money.parse("5.00"), "d-1"));
+            assertThrows(AccountException.class, () -> dao.transfer(a, a, Money.parse("1.00")));
+            assertThrows(SQLException.class, () -> dao.deposit(b + 100, Money.parse("1.00")));
+            List<BatchItemResult> results = dao.transferBatch(List.of(
+                    new TransferInstruction(a, b, Money.parse("1.00")),
+                    new TransferInstruction(b, a, Money.parse("1000.00")),
+                    new TransferInstruction(a, b + 100, Money.parse("1.00"))));
+            assertTrue(results.get(0).isApplied());
+            assertEquals("Insufficient funds for transfer.", results.get(1).getReason());
+            assertEquals("Account not found.", results.get(2).getReason());
+
+            assertEquals(Money.parse("63.50"), dao.getBalance(a));
+            assertEquals(Money.parse("63.50"), dao.getAccountsByUserId(userId).get(0).getBalance());
+            assertTrue(dao.awaitProjection(5000));
+            assertEquals(Money.parse("63.50"), storedBalance(pool, a));
+            assertEquals(Money.parse("26.50"), storedBalance(pool, b));
+            assertEquals(4, dao.getTransactionHistory(a).size());
+            assertEquals(Money.parse("26.50"), dao.getTransactionHistory(b).get(0).getBalanceAfter());
+            assertEquals(Money.parse("63.50"), dao.getBalanceAsOf(a, new Timestamp(System.currentTimeMillis() + 60_000)));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /** Accounts opened and funded before the ledger took over keep their balances. */
+    @Test
+    public void takesOverExistingAccounts() throws Exception {
+        ConnectionPool pool = TestDatabase.newPool();
+        try {
+            JdbcBankDAO jdbc = new JdbcBankDAO(pool);
+            int userId = jdbc.createUser("bob", "secret", "B", "L");
+            int a = jdbc.createAccount(userId, "Savings").getAccountId();
+            int b = jdbc.createAccount(userId, "Current").getAccountId();
+            jdbc.deposit(a, Money.parse("40.00"));
+            try (LedgerBankDAO dao = new LedgerBankDAO(pool, dir.resolve("ledger.journal"))) {
+                assertEquals(Money.parse("40.00"), dao.getAccountsByUserId(userId).get(0).getBalance());
+                List<BatchItemResult> results = dao.depositBatch(List.of(
+                        new DepositInstruction(b, Money.parse("2.00")), new DepositInstruction(b + 100, Money.parse("2.00"))));
+                assertTrue(results.get(0).isApplied());
+                assertFalse(results.get(1).isApplied());
+                dao.transfer(a, b, Money.parse("15.00"));
+                assertEquals(Money.parse("25.00"), dao.getBalance(a));
+                assertEquals(Money.parse("17.00"), dao.getBalance(b));
+            }
+            assertEquals(Money.parse("25.00"), storedBalance(pool, a));
+            assertEquals(Money.parse("17.00"), storedBalance(pool, b));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Runs commands against an engine whose events are never written to the database, as if the
+     * process died before projecting them, then restarts: the journal alone must restore balances
+     * and idempotency keys and bring the database up to date.
+     */
+    @Test
+    public void restartReplaysTheJournal() throws Exception {
+        ConnectionPool pool = TestDatabase.newPool();
+        Path journalFile = dir.resolve("ledger.journal");
+        try {
+            JdbcBankDAO jdbc = new JdbcBankDAO(pool);
+            int userId = jdbc.createUser("carol", "secret", "C", "L");
+            int a = jdbc.createAccount(userId, "Savings").getAccountId();
+            int b = jdbc.createAccount(userId, "Current").getAccountId();
+            List<LedgerEvent> seen = new ArrayList<>();
+            LedgerEngine.EventSink lost = new LedgerEngine.EventSink() {
+                @Override public long lastSequence() { return 0; }
+                @Override public void accept(List<LedgerEvent> events) { seen.addAll(events); }
+            };
+            try (LedgerEngine engine = new LedgerEngine(new LedgerJournal(journalFile, 4), lost, 8, 3, 100)) {
+                List<LedgerCommand> commands = new ArrayList<>();
+                commands.add(LedgerCommand.open(a, 0));
+                commands.add(LedgerCommand.open(b, 0));
+                for (int i = 0; i < 10; i++) {
+                    commands.add(LedgerCommand.deposit(a, 1000, null));
+                }
+                commands.add(LedgerCommand.transfer(a, b, 2500, "t-1"));
+                commands.add(LedgerCommand.withdraw(b, 5000, null));
+                engine.executeAll(commands);
+                assertEquals(LedgerCommand.Status.INSUFFICIENT_FUNDS, commands.get(commands.size() - 1).getStatus());
+                assertEquals(13, engine.getLastSequence());
+            }
+            assertEquals(13, seen.size());
+            assertEquals(Money.ZERO, storedBalance(pool, a));
+
+            try (LedgerBankDAO dao = new LedgerBankDAO(pool, journalFile)) {
+                assertEquals(Money.parse("75.00"), dao.getBalance(a));
+                assertEquals(Money.parse("25.00"), dao.getBalance(b));
+                dao.transfer(a, b, Money.parse("25.00"), "t-1");
+                assertThrows(AccountException.class, () -> dao.transfer(a, b, Money.parse("1.00"), "t-1"));
+                assertEquals(Money.parse("25.00"), dao.getBalance(b));
+                assertTrue(dao.awaitProjection(5000));
+                assertEquals(Money.parse("75.00"), storedBalance(pool, a));
+                assertEquals(11, dao.getTransactionHistory(a).size());
+            }
+            try (LedgerBankDAO dao = new LedgerBankDAO(pool, journalFile)) {
+                assertEquals(13, dao.getProjection().getProjectedSequence(), "nothing is projected twice");
+                assertEquals(11, dao.getTransactionHistory(a).size());
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void replayStopsAtATornRecord() throws Exception {
+        Path file = dir.resolve("torn.journal");
+        try (LedgerJournal journal = new LedgerJournal(file, 4)) {
+            assertEquals(0, journal.replay((s, t, type, a, o, amount, k) -> { }));
+            for (long seq = 1; seq <= 6; seq++) {
+                journal.append(seq, seq, LedgerEvent.DEPOSIT, 1, 0, 100, 0);
+            }
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4L * LedgerJournal.RECORD_SIZE + 20);
+            raf.write(0x7f);
+        }
+        List<Long> sequences = new ArrayList<>();
+        try (LedgerJournal journal = new LedgerJournal(file, 4)) {
+            assertEquals(4, journal.replay((s, t, type, a, o, amount, k) -> sequences.add(s)));
+            journal.append(5, 5, LedgerEvent.DEPOSIT, 1, 0, 100, 0);
+        }
+        assertEquals(List.of(1L, 2L, 3L, 4L), sequences);
+        try (LedgerJournal journal = new LedgerJournal(file, 4)) {
+            assertEquals(5, journal.replay((s, t, type, a, o, amount, k) -> { }), "the old record 6 was cleared");
+        }
+    }
+
+    /**
+     * Sixteen clients hammer one account on a database with a 1ms round trip. Through JdbcBankDAO
+     * every deposit waits for the row lock held by the one before it, for several round trips; the
+     * ledger applies them in memory and shares each journal sync between every deposit waiting for it.
+     */
+    @Test
+    @Tag("benchmark")
+    public void hotAccountThroughputBeatsRowLocking() throws Exception {
+        ConnectionPool jdbcPool = TestDatabase.newSlowPool(ROUND_TRIP_MILLIS, 16);
+        ConnectionPool ledgerPool = TestDatabase.newSlowPool(ROUND_TRIP_MILLIS, 16);
+        try (LedgerBankDAO ledger = new LedgerBankDAO(ledgerPool, dir.resolve("ledger.journal"))) {
+            double jdbc = depositsPerSecond(new JdbcBankDAO(jdbcPool), 10);
+            double inMemory = depositsPerSecond(ledger, 2000);
+            assertTrue(inMemory > 20 * jdbc, "ledger: " + inMemory + "/s, jdbc: " + jdbc + "/s, "
+                    + ledger.getEngine().getAverageBatchSize() + " per journal sync");
+            assertTrue(ledger.awaitProjection(30_000));
+        } finally {
+            jdbcPool.close();
+            ledgerPool.close();
+        }
+    }
+
+    private static double depositsPerSecond(BankDAO dao, int perClient) throws Exception {
+        int userId = dao.createUser("hot" + perClient, "p", "H", "A");
+        int account = dao.createAccount(userId, "Current").getAccountId();
+        ExecutorService clients = Executors.newFixedThreadPool(16);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> done = new ArrayList<>();
+            for (int c = 0; c < 16; c++) {
+                done.add(clients.submit(() -> {
+                    for (int i = 0; i < perClient; i++) {
+                        dao.deposit(account, Money.parse("1.00"));
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get();
+            return 16.0 * perClient / ((System.nanoTime() - start) / 1e9);
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static Money storedBalance(ConnectionPool pool, int accountId) throws Exception {
+        try (Connection conn = pool.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT balance FROM accounts WHERE account_id = " + accountId)) {
+            rs.next();
+            return Money.of(rs.getBigDecimal(1));
+        }
+    }
+}
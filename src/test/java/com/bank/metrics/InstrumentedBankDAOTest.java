@@ -0,0 +1,121 @@
+package com.bank.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.RangeShardMap;
+import com.bank.dao.ShardedBankDAO;
+import com.bank.exception.AccountException;
+import com.bank.model.Money;
+import com.bank.model.TransferInstruction;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class InstrumentedBankDAOTest {
+    private ConnectionPool pool;
+    private BankMetrics metrics;
+    private InstrumentedBankDAO dao;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        pool = TestDatabase.newPool();
+        metrics = new BankMetrics();
+        dao = new InstrumentedBankDAO(pool, metrics);
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        metrics.unregisterMBeans();
+        pool.close();
+    }
+
+    @Test
+    public void recordsOutcomePerOperation() throws Exception {
+        int userId = dao.createUser("u", "p", "U", "P");
+        dao.createAccount(userId, "Savings");
+        int accountId = dao.getAccountsByUserId(userId).get(0).getAccountId();
+
+        dao.deposit(accountId, new BigDecimal("10.00"));
+        dao.withdraw(accountId, new BigDecimal("4.00"));
+        assertThrows(AccountException.class, () -> dao.withdraw(accountId, new BigDecimal("100.00")));
+        assertThrows(SQLException.class, () -> dao.transfer(accountId, 999_999, new BigDecimal("1.00")));
+
+        assertEquals(1, metrics.get(Operation.DEPOSIT).getSuccessCount());
+        assertEquals(1, metrics.get(Operation.WITHDRAW).getSuccessCount());
+        assertEquals(1, metrics.get(Operation.WITHDRAW).getAccountErrorCount());
+        assertEquals(1, metrics.get(Operation.TRANSFER).getSqlErrorCount());
+        assertEquals(2, metrics.get(Operation.WITHDRAW).getCount());
+        assertTrue(metrics.getConnectionAcquire().getCount() > 0);
+    }
+
+    @Test
+    public void timesBalanceAsOfAndKeepsUnexpectedErrorsApart() throws Exception {
+        int userId = dao.createUser("u", "p", "U", "P");
+        int accountId = dao.createAccount(userId, "Savings").getAccountId();
+        dao.deposit(accountId, new BigDecimal("10.00"));
+
+        assertEquals(Money.parse("10.00"), dao.getBalanceAsOf(accountId, new Timestamp(System.currentTimeMillis() + 60_000)));
+        assertThrows(RuntimeException.class, () -> dao.deposit(accountId, (Money) null, null));
+
+        assertEquals(1, metrics.get(Operation.BALANCE_AS_OF).getSuccessCount());
+        assertEquals(1, metrics.get(Operation.DEPOSIT).getUnexpectedErrorCount());
+        assertEquals(0, metrics.get(Operation.DEPOSIT).getSqlErrorCount());
+    }
+
+    @Test
+    public void exportsPrometheusTextAndMBeans() throws Exception {
+        int userId = dao.createUser("u", "p", "U", "P");
+        dao.login("u", "p");
+        metrics.registerMBeans();
+
+        String text = metrics.toPrometheusText();
+        assertTrue(text.contains("bank_operation_duration_seconds_count{operation=\"login\",outcome=\"success\"} 1"));
+        assertTrue(text.contains("le=\"0.0001\""));
+        assertTrue(text.contains("bank_pool_connections{state=\"active\"} 0"));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("com.bank:type=BankDAO,operation=create_user");
+        assertEquals(1L, server.getAttribute(name, "SuccessCount"));
+        assertTrue(userId > 0);
+    }
+
+    /** Any {@code BankDAO} can be instrumented, not only the JDBC one. */
+    @Test
+    public void instrumentsAnyBankDAO() throws Exception {
+        ConnectionPool second = TestDatabase.newPool();
+        RangeShardMap.prepare(pool, 0);
+        RangeShardMap.prepare(second, 1);
+        try (ShardedBankDAO sharded = new ShardedBankDAO(List.of(pool, second))) {
+            InstrumentedBankDAO instrumented = new InstrumentedBankDAO(sharded, metrics);
+            int userId = instrumented.createUser("s", "p", "S", "P");
+            int a = instrumented.createAccount(userId, "Savings").getAccountId();
+            int b = instrumented.createAccount(userId, "Current").getAccountId();
+
+            instrumented.deposit(a, new BigDecimal("10.00"));
+            instrumented.transferBatch(List.of(new TransferInstruction(a, b, Money.parse("3.00"))));
+            assertThrows(AccountException.class, () -> instrumented.withdraw(b, new BigDecimal("5.00")));
+            assertTrue(instrumented.login("s", "p") != null);
+
+            assertEquals(1, metrics.get(Operation.DEPOSIT).getSuccessCount());
+            assertEquals(1, metrics.get(Operation.TRANSFER_BATCH).getSuccessCount());
+            assertEquals(1, metrics.get(Operation.WITHDRAW).getAccountErrorCount());
+            assertEquals(1, metrics.get(Operation.LOGIN).getSuccessCount());
+            assertEquals(Money.parse("3.00"), sharded.getAccountsByUserId(userId).get(1).getBalance());
+        } finally {
+            second.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void percentilesAreWithinBucketPrecision() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            h.record(v * 1_000);
+        }
+        assertEquals(10_000, h.getCount());
+        assertEquals(10_000_000, h.getMaxNanos());
+        assertWithin(5_000_000, h.getPercentileNanos(50));
+        assertWithin(9_900_000, h.getPercentileNanos(99));
+        assertEquals(10_000_000, h.getPercentileNanos(100));
+        assertEquals(5_000_500.0, h.getMeanNanos(), 0.001);
+    }
+
+    @Test
+    public void bucketBoundsCoverEveryValue() {
+        long[] samples = {0, 1, 31, 32, 33, 63, 64, 1_000, 123_456_789, Long.MAX_VALUE};
+        for (long v : samples) {
+            int index = LatencyHistogram.indexOf(v);
+            assertTrue(LatencyHistogram.upperBoundOf(index) >= v, "upper bound below " + v);
+            assertTrue(index == 0 || LatencyHistogram.upperBoundOf(index - 1) < v, "lower bound above " + v);
+        }
+    }
+
+    @Test
+    public void recordingDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        BankMetrics metrics = new BankMetrics();
+        // Warm up so class loading and JIT do not show up as allocation.
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(Operation.DEPOSIT, Outcome.SUCCESS, i);
+        }
+        long tid = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < 100_000; i++) {
+            metrics.record(Operation.DEPOSIT, Outcome.SUCCESS, i * 37L);
+        }
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+        assertTrue(allocated < 1_024, "recording allocated " + allocated + " bytes");
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected * 0.04, "expected ~" + expected + " but was " + actual);
+    }
+}
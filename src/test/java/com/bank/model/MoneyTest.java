@@ -0,0 +1,47 @@
+package com.bank.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+
+import org.junit.jupiter.api.Test;
+
+public class MoneyTest {
+
+    @Test
+    public void parsesAndFormatsTwoDecimalAmounts() {
+        assertEquals(1234, Money.parse("12.34").getCents());
+        assertEquals(1230, Money.parse("12.3").getCents());
+        assertEquals(1200, Money.parse("12").getCents());
+        assertEquals(50, Money.parse(".5").getCents());
+        assertEquals(-105, Money.parse("-1.05").getCents());
+        assertEquals("-1.05", Money.ofCents(-105).toString());
+        assertEquals("0.07", Money.ofCents(7).toString());
+        assertEquals("12.30", Money.parse("12.3").toString());
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1.005"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("1,00"));
+        assertThrows(IllegalArgumentException.class, () -> Money.parse("-"));
+    }
+
+    @Test
+    public void bridgesToBigDecimalExactly() {
+        assertEquals(Money.ofCents(1050), Money.of(new BigDecimal("10.5")));
+        assertEquals(0, new BigDecimal("10.50").compareTo(Money.ofCents(1050).toBigDecimal()));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("0.001")));
+        assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("1e30")));
+    }
+
+    @Test
+    public void arithmeticIsOverflowChecked() {
+        Money a = Money.ofCents(1000);
+        Money b = Money.ofCents(250);
+        assertEquals(Money.ofCents(1250), a.plus(b));
+        assertEquals(Money.ofCents(750), a.minus(b));
+        assertTrue(b.isLessThan(a));
+        assertTrue(a.minus(a).isZero());
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).negate());
+    }
+}
@@ -0,0 +1,214 @@
+package com.bank.reconcile;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.exception.AccountException;
+import com.bank.interest.InterestAccrualJob;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+public class ReconciliationJobTest {
+
+    @Test
+    public void onlyReadsTransactionsSinceTheLastRun() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> accounts = seed(dao, 20);
+            for (int i = 0; i < accounts.size(); i++) {
+                dao.withdraw(accounts.get(i), Money.parse("1.50"));
+                dao.transfer(accounts.get(i), accounts.get((i + 1) % accounts.size()), Money.parse("7.25"));
+            }
+            new InterestAccrualJob(pool, 36_500).run(LocalDate.of(2024, 6, 30));
+
+            ReconciliationJob job = new ReconciliationJob(pool, 2, 6, 4);
+            ReconciliationReport first = job.run();
+            assertTrue(first.isClean(), first.toString());
+            assertEquals(4, first.getRanges());
+            assertEquals(20, first.getAccountsChecked());
+            assertEquals(20 * 4 + 10, first.getTransactionsChecked()); // 10 savings accounts earned interest
+
+            ReconciliationReport idle = job.run();
+            assertTrue(idle.isClean(), idle.toString());
+            assertEquals(0, idle.getTransactionsChecked());
+            assertEquals(first.getThroughTransactionId(), idle.getThroughTransactionId());
+
+            dao.deposit(accounts.get(3), Money.parse("5.00"));
+            dao.transfer(accounts.get(4), accounts.get(17), Money.parse("2.00"));
+            ReconciliationReport next = job.run();
+            assertTrue(next.isClean(), next.toString());
+            assertEquals(3, next.getTransactionsChecked());
+        }
+    }
+
+    @Test
+    public void reportsBalancesThatDisagreeWithTheirTransactions() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> accounts = seed(dao, 10);
+            ReconciliationJob job = new ReconciliationJob(pool, 2, 4, 3);
+            assertTrue(job.run().isClean());
+
+            int account = accounts.get(6);
+            execute(pool, "UPDATE accounts SET balance = balance + 1 WHERE account_id = " + account);
+            ReconciliationReport report = job.run();
+            assertEquals(1, report.getMismatchCount(), report.toString());
+            Mismatch mismatch = report.getMismatches().get(0);
+            assertEquals(Mismatch.Kind.BALANCE, mismatch.getKind());
+            assertEquals(account, mismatch.getAccountId());
+            assertEquals(Money.parse("70.00"), mismatch.getExpected());
+            assertEquals(Money.parse("71.00"), mismatch.getActual());
+
+            // The next deposit carries the extra dollar into its balance_after; the balance is
+            // reported until it is corrected.
+            dao.deposit(account, Money.parse("1.00"));
+            ReconciliationReport next = job.run();
+            assertEquals(2, next.getMismatchCount(), next.toString());
+            assertEquals(Mismatch.Kind.TRANSACTION, next.getMismatches().get(0).getKind());
+            assertEquals(Money.parse("71.00"), next.getMismatches().get(0).getExpected());
+            assertEquals(Money.parse("71.00"), next.getMismatches().get(1).getExpected());
+            assertEquals(Money.parse("72.00"), next.getMismatches().get(1).getActual());
+            assertEquals(1, job.run().getMismatchCount());
+            execute(pool, "UPDATE accounts SET balance = balance - 1 WHERE account_id = " + account);
+            assertTrue(job.run().isClean());
+        }
+    }
+
+    @Test
+    public void reportsABrokenTransactionOnceAndTheBalanceUntilFixed() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> accounts = seed(dao, 5);
+            int account = accounts.get(2);
+            dao.deposit(account, Money.parse("4.00"));
+            dao.withdraw(account, Money.parse("2.00"));
+            execute(pool, "UPDATE transactions SET amount = amount + 1 WHERE account_id = " + account
+                    + " AND transaction_type = 'Deposit' AND amount = 4.00");
+
+            ReconciliationJob job = new ReconciliationJob(pool);
+            ReconciliationReport report = job.run();
+            assertEquals(2, report.getMismatchCount(), report.toString());
+            Mismatch row = report.getMismatches().get(0);
+            assertEquals(Mismatch.Kind.TRANSACTION, row.getKind());
+            assertEquals(Money.parse("35.00"), row.getExpected());
+            assertEquals(Money.parse("34.00"), row.getActual());
+            Mismatch balance = report.getMismatches().get(1);
+            assertEquals(Mismatch.Kind.BALANCE, balance.getKind());
+            assertEquals(Money.parse("33.00"), balance.getExpected());
+            assertEquals(Money.parse("32.00"), balance.getActual());
+
+            // The withdrawal after it follows from its balance_after, so only the balance is reported again.
+            ReconciliationReport again = job.run();
+            assertEquals(1, again.getMismatchCount(), again.toString());
+            assertEquals(Mismatch.Kind.BALANCE, again.getMismatches().get(0).getKind());
+        }
+    }
+
+    /** A transfer row says which side it is; rows written before it did are signed by their balance_after. */
+    @Test
+    public void signsTransfersByTheirRecordedDirection() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> accounts = seed(dao, 2);
+            int to = accounts.get(1);
+            dao.transfer(accounts.get(0), to, Money.parse("5.00"));
+            execute(pool, "UPDATE transactions SET direction = 'Out' WHERE account_id = " + to + " AND transaction_type = 'Transfer'");
+
+            ReconciliationReport report = new ReconciliationJob(pool).run();
+            assertEquals(2, report.getMismatchCount(), report.toString());
+            assertEquals(Mismatch.Kind.TRANSACTION, report.getMismatches().get(0).getKind());
+            assertEquals(Money.parse("15.00"), report.getMismatches().get(0).getExpected());
+            assertEquals(Money.parse("25.00"), report.getMismatches().get(0).getActual());
+
+            execute(pool, "UPDATE transactions SET direction = NULL");
+            execute(pool, "DELETE FROM reconciliation_checkpoints");
+            execute(pool, "DELETE FROM reconciliation_runs");
+            ReconciliationReport legacy = new ReconciliationJob(pool).run();
+            assertTrue(legacy.isClean(), legacy.toString());
+            assertEquals(4, legacy.getTransactionsChecked());
+        }
+    }
+
+    /** Online traffic keeps running during every reconciliation, which must not mistake it for a mismatch. */
+    @Test
+    public void staysCleanUnderConcurrentTraffic() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            List<Integer> accounts = seed(dao, 30);
+            AtomicBoolean running = new AtomicBoolean(true);
+            List<Thread> clients = new ArrayList<>();
+            for (int c = 0; c < 3; c++) {
+                Thread t = new Thread(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        int from = accounts.get(random.nextInt(accounts.size()));
+                        int to = accounts.get(random.nextInt(accounts.size()));
+                        try {
+                            if (from == to) {
+                                dao.deposit(from, Money.ofCents(1 + random.nextInt(500)));
+                            } else {
+                                dao.transfer(from, to, Money.ofCents(1 + random.nextInt(500)));
+                            }
+                        } catch (AccountException e) {
+                            // insufficient funds
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                });
+                t.start();
+                clients.add(t);
+            }
+            ReconciliationJob job = new ReconciliationJob(pool, 2, 8, 16);
+            try {
+                for (int run = 0; run < 10; run++) {
+                    ReconciliationReport report = job.run();
+                    assertTrue(report.isClean(), report.toString());
+                    Thread.sleep(20);
+                }
+            } finally {
+                running.set(false);
+                for (Thread t : clients) {
+                    t.join();
+                }
+            }
+            ReconciliationReport last = job.run();
+            assertTrue(last.isClean(), last.toString());
+            assertTrue(last.getThroughTransactionId() > 30);
+        }
+    }
+
+    /** Users with two accounts each, a Current one and a Savings one, each opened with a deposit of {@code 10 * (i + 1)}. */
+    private static List<Integer> seed(BankDAO dao, int accounts) throws Exception {
+        List<Integer> ids = new ArrayList<>();
+        int userId = 0;
+        for (int i = 0; i < accounts; i++) {
+            if (i % 2 == 0) {
+                userId = dao.createUser("recon" + i, "password", "Recon", "User" + i);
+            }
+            int accountId = dao.createAccount(userId, i % 2 == 0 ? "Current" : "Savings").getAccountId();
+            dao.deposit(accountId, Money.ofCents(1_000L * (i + 1)));
+            ids.add(accountId);
+        }
+        return ids;
+    }
+
+    private static void execute(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.bank.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.metrics.LatencyHistogram;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives thousands of logged-in sessions against an embedded database through the real HTTP
+ * stack. Scale with {@code -Dbank.load.sessions}, {@code -Dbank.load.opsPerSession} and
+ * {@code -Dbank.load.concurrency}.
+ */
+public class BankServerLoadTest {
+    private static final int SESSIONS = Integer.getInteger("bank.load.sessions", 2_000);
+    private static final int OPS_PER_SESSION = Integer.getInteger("bank.load.opsPerSession", 1);
+    private static final int CONCURRENCY = Integer.getInteger("bank.load.concurrency", 500);
+
+    @Test
+    public void sustainsThousandsOfConcurrentSessions() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            BankDAO dao = new JdbcBankDAO(pool);
+            int[] accountIds = new int[SESSIONS];
+            for (int i = 0; i < SESSIONS; i++) {
+                int userId = dao.createUser("user" + i, "pw" + i, "User", String.valueOf(i));
+                dao.createAccount(userId, "Savings");
+                accountIds[i] = dao.getAccountsByUserId(userId).get(0).getAccountId();
+            }
+
+            try (BankServer server = new BankServer(dao, 0, pool.getConfig().getMaxSize(), 10_000)) {
+                server.start();
+                Client client = new Client(server.getPort());
+                long start = System.nanoTime();
+
+                List<CompletableFuture<String>> logins = new ArrayList<>();
+                for (int i = 0; i < SESSIONS; i++) {
+                    logins.add(client.send("/login", "username=user" + i + "&password=pw" + i, null, "POST")
+                            .thenApply(body -> BankServerTest.field(body, "token")));
+                }
+                String[] tokens = new String[SESSIONS];
+                for (int i = 0; i < SESSIONS; i++) {
+                    tokens[i] = logins.get(i).join();
+                }
+                assertEquals(SESSIONS, server.getSessionCount());
+
+                List<CompletableFuture<String>> work = new ArrayList<>();
+                for (int op = 0; op < OPS_PER_SESSION; op++) {
+                    for (int i = 0; i < SESSIONS; i++) {
+                        work.add(client.send("/deposit", "accountId=" + accountIds[i] + "&amount=1.00", tokens[i], "POST"));
+                        work.add(client.send("/accounts", null, tokens[i], "GET"));
+                    }
+                }
+                CompletableFuture.allOf(work.toArray(new CompletableFuture[0])).join();
+                long elapsed = System.nanoTime() - start;
+
+                assertEquals(0, client.failures.get(), "failed requests: " + client.errors);
+                int requests = SESSIONS + work.size();
+                System.out.printf("Load test: %d sessions, %d requests in %.1fs (%.0f req/s), p50=%.1fms p99=%.1fms max=%.1fms%n",
+                        SESSIONS, requests, elapsed / 1e9, requests / (elapsed / 1e9),
+                        client.latency.getPercentileNanos(50) / 1e6, client.latency.getPercentileNanos(99) / 1e6,
+                        client.latency.getMaxNanos() / 1e6);
+            }
+
+            try (Connection conn = pool.getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SELECT SUM(balance) FROM accounts")) {
+                rs.next();
+                assertEquals(0, new BigDecimal(SESSIONS * OPS_PER_SESSION).compareTo(rs.getBigDecimal(1)));
+            }
+        }
+    }
+
+    /** Async HTTP client that keeps at most {@link #CONCURRENCY} requests outstanding. */
+    private static final class Client {
+        private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        private final Semaphore outstanding = new Semaphore(CONCURRENCY);
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final AtomicInteger failures = new AtomicInteger();
+        private final ConcurrentLinkedQueue<String> errors = new ConcurrentLinkedQueue<>();
+        private final int port;
+
+        Client(int port) {
+            this.port = port;
+        }
+
+        CompletableFuture<String> send(String path, String form, String token, String method) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+            if ("POST".equals(method)) {
+                request.header("Content-Type", "application/x-www-form-urlencoded")
+                        .POST(HttpRequest.BodyPublishers.ofString(form));
+            } else {
+                request.GET();
+            }
+            if (token != null) request.header("Authorization", "Bearer " + token);
+
+            outstanding.acquireUninterruptibly();
+            long start = System.nanoTime();
+            return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((response, error) -> {
+                        outstanding.release();
+                        latency.record(System.nanoTime() - start);
+                        if (error != null || response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                            if (errors.size() < 10) errors.add(error != null ? error.toString() : response.body());
+                        }
+                    })
+                    .thenApply(HttpResponse::body);
+        }
+    }
+}
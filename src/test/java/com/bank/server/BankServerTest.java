@@ -0,0 +1,148 @@
+package com.bank.server;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.SQLException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class BankServerTest {
+    private ConnectionPool pool;
+    private BankDAO dao;
+    private BankServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void setUp() throws SQLException, IOException {
+        pool = TestDatabase.newPool();
+        dao = new JdbcBankDAO(pool);
+        server = new BankServer(dao, 0, pool.getConfig().getMaxSize(), 5_000);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.close();
+        pool.close();
+    }
+
+    @Test
+    public void servesBankingOperations() throws Exception {
+        int userId = dao.createUser("alice", "pw", "Alice", "A");
+        dao.createAccount(userId, "Savings");
+        dao.createAccount(userId, "Current");
+        int a = dao.getAccountsByUserId(userId).get(0).getAccountId();
+        int b = dao.getAccountsByUserId(userId).get(1).getAccountId();
+
+        HttpResponse<String> login = post(null, "/login", "username=alice&password=pw");
+        assertEquals(200, login.statusCode());
+        String token = field(login.body(), "token");
+
+        assertEquals(200, post(token, "/deposit", "accountId=" + a + "&amount=50.00").statusCode());
+        assertEquals(200, post(token, "/transfer", "fromAccountId=" + a + "&toAccountId=" + b + "&amount=20.00").statusCode());
+        assertEquals(422, post(token, "/withdraw", "accountId=" + b + "&amount=100.00").statusCode());
+
+        HttpResponse<String> accounts = get(token, "/accounts");
+        assertEquals(200, accounts.statusCode());
+        assertTrue(accounts.body().contains("\"balance\":\"30.00\""), accounts.body());
+        assertTrue(accounts.body().contains("\"balance\":\"20.00\""), accounts.body());
+
+        HttpResponse<String> history = get(token, "/history?accountId=" + a + "&pageSize=1");
+        assertEquals(200, history.statusCode());
+        assertTrue(history.body().contains("\"nextCursor\":{"), history.body());
+
+        assertEquals(200, post(token, "/logout", "").statusCode());
+        assertEquals(401, get(token, "/accounts").statusCode());
+    }
+
+    @Test
+    public void rejectsUnauthenticatedAndForeignAccounts() throws Exception {
+        int alice = dao.createUser("alice", "pw", "Alice", "A");
+        int bob = dao.createUser("bob", "pw", "Bob", "B");
+        dao.createAccount(alice, "Savings");
+        dao.createAccount(bob, "Savings");
+        int bobAccount = dao.getAccountsByUserId(bob).get(0).getAccountId();
+
+        assertEquals(401, get(null, "/accounts").statusCode());
+        assertEquals(401, post(null, "/login", "username=alice&password=wrong").statusCode());
+
+        String token = field(post(null, "/login", "username=alice&password=pw").body(), "token");
+        assertEquals(404, post(token, "/withdraw", "accountId=" + bobAccount + "&amount=1.00").statusCode());
+        assertEquals(400, post(token, "/deposit", "accountId=x&amount=1.00").statusCode());
+        assertEquals(405, get(token, "/deposit").statusCode());
+    }
+
+    @Test
+    public void rejectsTransfersIntoAnotherUsersAccount() throws Exception {
+        int alice = dao.createUser("alice", "pw", "Alice", "A");
+        int bob = dao.createUser("bob", "pw", "Bob", "B");
+        int aliceAccount = dao.createAccount(alice, "Savings").getAccountId();
+        int bobAccount = dao.createAccount(bob, "Savings").getAccountId();
+        dao.deposit(bobAccount, new BigDecimal("10.00"));
+
+        String token = field(post(null, "/login", "username=bob&password=pw").body(), "token");
+        assertEquals(404, post(token, "/transfer", "fromAccountId=" + bobAccount + "&toAccountId=" + aliceAccount + "&amount=5.00").statusCode());
+        assertEquals(404, post(token, "/transfer", "fromAccountId=" + bobAccount + "&toAccountId=999999&amount=5.00").statusCode());
+
+        assertEquals(0, new BigDecimal("10.00").compareTo(dao.getAccountsByUserId(bob).get(0).getBalance().toBigDecimal()));
+        assertEquals(0, BigDecimal.ZERO.compareTo(dao.getAccountsByUserId(alice).get(0).getBalance().toBigDecimal()));
+    }
+
+    @Test
+    public void acceptsIdempotencyKeysUpToTheDocumentedLength() throws Exception {
+        int alice = dao.createUser("alice", "pw", "Alice", "A");
+        int account = dao.createAccount(alice, "Savings").getAccountId();
+        String token = field(post(null, "/login", "username=alice&password=pw").body(), "token");
+        String longest = "k".repeat(BankServer.MAX_IDEMPOTENCY_KEY_LENGTH);
+
+        assertEquals(200, post(token, "/deposit", "accountId=" + account + "&amount=5.00", longest).statusCode());
+        assertEquals(200, post(token, "/deposit", "accountId=" + account + "&amount=5.00", longest).statusCode());
+        assertEquals(400, post(token, "/deposit", "accountId=" + account + "&amount=5.00", longest + "k").statusCode());
+
+        assertEquals(0, new BigDecimal("5.00").compareTo(dao.getAccountsByUserId(alice).get(0).getBalance().toBigDecimal()));
+    }
+
+    private HttpResponse<String> post(String token, String path, String form) throws Exception {
+        return post(token, path, form, null);
+    }
+
+    private HttpResponse<String> post(String token, String path, String form, String idempotencyKey) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form));
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        if (idempotencyKey != null) request.header("Idempotency-Key", idempotencyKey);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String token, String path) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri(path)).GET();
+        if (token != null) request.header("Authorization", "Bearer " + token);
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + server.getPort() + path);
+    }
+
+    static String field(String json, String name) {
+        Matcher m = Pattern.compile("\"" + name + "\":\"([^\"]*)\"").matcher(json);
+        return m.find() ? m.group(1) : null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.bank.sim;
+
+import com.bank.config.ConnectionPool;
+import com.bank.model.ActivitySummary.Flow;
+import com.bank.model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the ledger invariants over the accounts of the users whose names start with a prefix,
+ * straight from the database, and returns a description of each violation (none if all hold):
+ * <ul>
+ *   <li>the balances add up to the expected total, i.e. transfers neither created nor lost money;</li>
+ *   <li>no balance is negative;</li>
+ *   <li>every account's balance equals the sum of its {@code transactions} rows, and each row's
+ *       {@code balance_after} equals the sum up to and including it;</li>
+ *   <li>the transfer rows balance: as much left the accounts as arrived.</li>
+ * </ul>
+ * Rows are signed as {@link Flow#of} classifies them, reading them in
+ * {@code transaction_id} order, the order a single account's rows are inserted in. Run it once
+ * writes have stopped (and, for a ledger, been projected) and before old transactions are archived.
+ */
+public final class InvariantChecker {
+    private static final int MAX_REPORTED = 20;
+
+    private InvariantChecker() {
+    }
+
+    public static List<String> check(ConnectionPool pool, String usernamePrefix, long expectedTotalCents) throws SQLException {
+        List<String> violations = new ArrayList<>();
+        Map<Integer, Long> balances = new HashMap<>();
+        long total = 0;
+        try (Connection conn = pool.getConnection()) {
+            String balanceSql = "SELECT a.account_id, a.balance FROM accounts a JOIN users u ON u.user_id = a.user_id "
+                    + "WHERE u.username LIKE ? ORDER BY a.account_id";
+            try (PreparedStatement pstmt = conn.prepareStatement(balanceSql)) {
+                pstmt.setString(1, usernamePrefix + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        long cents = Money.of(rs.getBigDecimal("balance")).getCents();
+                        balances.put(rs.getInt("account_id"), cents);
+                        total += cents;
+                        if (cents < 0) {
+                            report(violations, "Account " + rs.getInt("account_id") + " has a negative balance, " + Money.ofCents(cents) + ".");
+                        }
+                    }
+                }
+            }
+            if (total != expectedTotalCents) {
+                report(violations, "Balances add up to " + Money.ofCents(total) + ", expected " + Money.ofCents(expectedTotalCents) + ".");
+            }
+
+            String logSql = "SELECT t.account_id, t.transaction_id, t.transaction_type, t.amount, t.balance_after, t.direction "
+                    + "FROM transactions t JOIN accounts a ON a.account_id = t.account_id JOIN users u ON u.user_id = a.user_id "
+                    + "WHERE u.username LIKE ? ORDER BY t.account_id, t.transaction_id";
+            Map<Integer, Long> logged = new HashMap<>();
+            long transferredOut = 0;
+            long transferredIn = 0;
+            try (PreparedStatement pstmt = conn.prepareStatement(logSql)) {
+                pstmt.setString(1, usernamePrefix + "%");
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        int accountId = rs.getInt("account_id");
+                        long before = logged.getOrDefault(accountId, 0L);
+                        long amount = Money.of(rs.getBigDecimal("amount")).getCents();
+                        long after = Money.of(rs.getBigDecimal("balance_after")).getCents();
+                        String type = rs.getString("transaction_type");
+                        Flow flow = Flow.of(type, rs.getString("direction"), amount, before, after);
+                        long running = before + flow.signed(amount);
+                        if (flow == Flow.TRANSFER_OUT) {
+                            transferredOut += amount;
+                        } else if (flow == Flow.TRANSFER_IN) {
+                            transferredIn += amount;
+                        }
+                        if (running != after) {
+                            report(violations, "Account " + accountId + ", transaction " + rs.getInt("transaction_id") + " (" + type
+                                    + " " + Money.ofCents(amount) + "): balance_after is " + Money.ofCents(after)
+                                    + ", the rows before it add up to " + Money.ofCents(running) + ".");
+                            running = after; // report each broken link once, not every row after it
+                        }
+                        logged.put(accountId, running);
+                    }
+                }
+            }
+            for (Map.Entry<Integer, Long> account : balances.entrySet()) {
+                long sum = logged.getOrDefault(account.getKey(), 0L);
+                if (sum != account.getValue()) {
+                    report(violations, "Account " + account.getKey() + " has a balance of " + Money.ofCents(account.getValue())
+                            + " but its transactions add up to " + Money.ofCents(sum) + ".");
+                }
+            }
+            if (transferredOut != transferredIn) {
+                report(violations, "Transfers took " + Money.ofCents(transferredOut) + " out of accounts but put "
+                        + Money.ofCents(transferredIn) + " in.");
+            }
+        }
+        return violations;
+    }
+
+    private static void report(List<String> violations, String violation) {
+        if (violations.size() < MAX_REPORTED) {
+            violations.add(violation);
+        } else if (violations.size() == MAX_REPORTED) {
+            violations.add("... and more.");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.bank.sim;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.config.PoolConfig;
+import com.bank.dao.BankDAO;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.ledger.LedgerBankDAO;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Entry point used by the {@code soak} Maven profile: runs a {@link WorkloadSimulator} against an
+ * embedded database, prints its report and checks the ledger invariants, exiting with status 1 if
+ * any is violated.
+ * <p>
+ * Arguments: the DAO ({@code jdbc} or {@code ledger}, default {@code jdbc}), the duration in
+ * seconds (default 60), the target rate in operations per second, 0 for a closed model with a
+ * fixed number of clients (default 0), and the number of client threads (default 16).
+ */
+public class SoakRunner {
+
+    public static void main(String[] args) throws Exception {
+        String daoType = args.length > 0 ? args[0] : "jdbc";
+        long seconds = args.length > 1 ? Long.parseLong(args[1]) : 60;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 16;
+        WorkloadConfig config = new WorkloadConfig()
+                .setUsers(1000)
+                .setThreads(threads)
+                .setTargetRate(rate)
+                .setDurationMillis(seconds * 1000)
+                .setReportIntervalMillis(5000);
+
+        ConnectionPool pool = TestDatabase.newPool(new PoolConfig().setMinSize(1).setMaxSize(threads + 4));
+        Path journalDir = Files.createTempDirectory("soak-ledger");
+        BankDAO dao = "ledger".equals(daoType) ? new LedgerBankDAO(pool, journalDir.resolve("ledger.journal")) : new JdbcBankDAO(pool);
+        List<String> violations;
+        try {
+            WorkloadSimulator simulator = new WorkloadSimulator(dao, config);
+            System.out.printf("Setting up %d users with %d accounts each against %s%n",
+                    config.getUsers(), config.getAccountsPerUser(), dao.getClass().getSimpleName());
+            simulator.setUp();
+            System.out.println(config.isOpenModel()
+                    ? String.format("Open model, %.0f ops/s from up to %d threads", rate, threads)
+                    : String.format("Closed model, %d clients", threads));
+            WorkloadReport report = simulator.run();
+            System.out.print(report);
+            if (dao instanceof LedgerBankDAO && !((LedgerBankDAO) dao).awaitProjection(60_000)) {
+                System.out.println("The ledger projection did not catch up within a minute.");
+            }
+            violations = InvariantChecker.check(pool, simulator.getUsernamePrefix(), simulator.getExpectedTotalCents());
+            if (simulator.getUncertainMovementCount() > 0) {
+                System.out.println(simulator.getUncertainMovementCount()
+                        + " deposits or withdrawals failed with an error, so the expected total may be off.");
+            }
+        } finally {
+            if (dao instanceof AutoCloseable) {
+                ((AutoCloseable) dao).close();
+            }
+            pool.close();
+            Files.deleteIfExists(journalDir.resolve("ledger.journal"));
+            Files.deleteIfExists(journalDir);
+        }
+        if (violations.isEmpty()) {
+            System.out.println("All ledger invariants hold.");
+        } else {
+            violations.forEach(v -> System.out.println("VIOLATION: " + v));
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.bank.sim;
+
+import com.bank.model.Money;
+
+/**
+ * Shape of a simulated workload: population, operation mix, skew and pacing.
+ * Setters return {@code this} so a config can be built up in one expression.
+ * <p>
+ * With a {@code targetRate} the run is an open model: operations are scheduled at that rate
+ * regardless of how fast earlier ones complete, and latency is measured from each operation's
+ * scheduled start. Without one ({@code 0}) it is a closed model: {@code threads} clients each run
+ * one operation after another.
+ */
+public class WorkloadConfig {
+    private int users = 100;
+    private int accountsPerUser = 2;
+    private Money openingBalance = Money.parse("1000.00");
+    private long maxAmountCents = 5_000;
+
+    private int depositWeight = 30;
+    private int withdrawWeight = 20;
+    private int transferWeight = 40;
+    private int loginWeight = 5;
+    private int historyWeight = 5;
+    private double zipfExponent = 0.99; // 0 is uniform; around 1 a few accounts get most of the traffic
+
+    private int threads = 16;
+    private double targetRate = 0; // operations per second; 0 runs the closed model
+    private long expectedIntervalMicros = 0; // closed model only, 0 disables the correction
+    private long durationMillis = 30_000;
+    private long reportIntervalMillis = 5_000;
+    private long seed = 42;
+
+    public int getUsers() { return users; }
+    public int getAccountsPerUser() { return accountsPerUser; }
+    public Money getOpeningBalance() { return openingBalance; }
+    public long getMaxAmountCents() { return maxAmountCents; }
+    public int getDepositWeight() { return depositWeight; }
+    public int getWithdrawWeight() { return withdrawWeight; }
+    public int getTransferWeight() { return transferWeight; }
+    public int getLoginWeight() { return loginWeight; }
+    public int getHistoryWeight() { return historyWeight; }
+    public double getZipfExponent() { return zipfExponent; }
+    public int getThreads() { return threads; }
+    public double getTargetRate() { return targetRate; }
+    public long getExpectedIntervalMicros() { return expectedIntervalMicros; }
+    public long getDurationMillis() { return durationMillis; }
+    public long getReportIntervalMillis() { return reportIntervalMillis; }
+    public long getSeed() { return seed; }
+
+    public boolean isOpenModel() { return targetRate > 0; }
+
+    public WorkloadConfig setUsers(int users) {
+        this.users = users;
+        return this;
+    }
+
+    public WorkloadConfig setAccountsPerUser(int accountsPerUser) {
+        this.accountsPerUser = accountsPerUser;
+        return this;
+    }
+
+    public WorkloadConfig setOpeningBalance(Money openingBalance) {
+        this.openingBalance = openingBalance;
+        return this;
+    }
+
+    /** Each deposit, withdrawal and transfer moves a random amount from one cent up to this. */
+    public WorkloadConfig setMaxAmountCents(long maxAmountCents) {
+        this.maxAmountCents = maxAmountCents;
+        return this;
+    }
+
+    /** Relative weights of the operations; a weight of 0 leaves the operation out. */
+    public WorkloadConfig setMix(int deposit, int withdraw, int transfer, int login, int history) {
+        this.depositWeight = deposit;
+        this.withdrawWeight = withdraw;
+        this.transferWeight = transfer;
+        this.loginWeight = login;
+        this.historyWeight = history;
+        return this;
+    }
+
+    public WorkloadConfig setZipfExponent(double zipfExponent) {
+        this.zipfExponent = zipfExponent;
+        return this;
+    }
+
+    public WorkloadConfig setThreads(int threads) {
+        this.threads = threads;
+        return this;
+    }
+
+    public WorkloadConfig setTargetRate(double targetRate) {
+        this.targetRate = targetRate;
+        return this;
+    }
+
+    /**
+     * For the closed model: how often each client would issue an operation if the system kept up.
+     * An operation taking longer also records the ones that client could not issue meanwhile.
+     */
+    public WorkloadConfig setExpectedIntervalMicros(long expectedIntervalMicros) {
+        this.expectedIntervalMicros = expectedIntervalMicros;
+        return this;
+    }
+
+    public WorkloadConfig setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    public WorkloadConfig setReportIntervalMillis(long reportIntervalMillis) {
+        this.reportIntervalMillis = reportIntervalMillis;
+        return this;
+    }
+
+    public WorkloadConfig setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    void validate() {
+        if (users <= 0 || accountsPerUser <= 0) {
+            throw new IllegalArgumentException("users and accountsPerUser must be positive.");
+        }
+        if (users * accountsPerUser < 2 && transferWeight > 0) {
+            throw new IllegalArgumentException("Transfers need at least two accounts.");
+        }
+        if (depositWeight < 0 || withdrawWeight < 0 || transferWeight < 0 || loginWeight < 0 || historyWeight < 0
+                || depositWeight + withdrawWeight + transferWeight + loginWeight + historyWeight == 0) {
+            throw new IllegalArgumentException("The operation weights must be non-negative and not all 0.");
+        }
+        if (threads <= 0 || maxAmountCents <= 0 || durationMillis <= 0 || reportIntervalMillis <= 0) {
+            throw new IllegalArgumentException("threads, maxAmountCents, durationMillis and reportIntervalMillis must be positive.");
+        }
+        if (targetRate < 0 || zipfExponent < 0 || expectedIntervalMicros < 0) {
+            throw new IllegalArgumentException("targetRate, zipfExponent and expectedIntervalMicros must not be negative.");
+        }
+    }
+}
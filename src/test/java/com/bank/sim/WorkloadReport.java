@@ -0,0 +1,108 @@
+package com.bank.sim;
+
+import com.bank.metrics.LatencyHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Outcome counts and latencies of a {@link WorkloadSimulator} run, per operation and overall.
+ * <p>
+ * Service time runs from the moment an operation was actually issued; response time from the
+ * moment it should have been (its slot in an open-model schedule, or with back-filled samples for
+ * a closed model with an expected interval), so time spent waiting behind a stalled system is
+ * counted rather than omitted. Without either correction the two are the same.
+ */
+public class WorkloadReport {
+
+    /** Counters and histograms of one operation type. */
+    public static final class OperationStats {
+        final LongAdder completed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final LatencyHistogram responseTime = new LatencyHistogram();
+
+        /** Operations that succeeded. */
+        public long getCompleted() { return completed.sum(); }
+        /** Operations refused by the bank's rules, e.g. insufficient funds. */
+        public long getRejected() { return rejected.sum(); }
+        /** Operations that ended in an unexpected error. */
+        public long getFailed() { return failed.sum(); }
+        public LatencyHistogram getServiceTime() { return serviceTime; }
+        public LatencyHistogram getResponseTime() { return responseTime; }
+    }
+
+    private final Map<WorkloadSimulator.Op, OperationStats> operations = new EnumMap<>(WorkloadSimulator.Op.class);
+    private final LatencyHistogram serviceTime = new LatencyHistogram();
+    private final LatencyHistogram responseTime = new LatencyHistogram();
+    private volatile long elapsedNanos;
+
+    WorkloadReport() {
+        for (WorkloadSimulator.Op op : WorkloadSimulator.Op.values()) {
+            operations.put(op, new OperationStats());
+        }
+    }
+
+    void record(WorkloadSimulator.Op op, long serviceNanos, long responseNanos) {
+        OperationStats stats = operations.get(op);
+        stats.serviceTime.record(serviceNanos);
+        stats.responseTime.record(responseNanos);
+        serviceTime.record(serviceNanos);
+        responseTime.record(responseNanos);
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public OperationStats get(WorkloadSimulator.Op op) { return operations.get(op); }
+    public LatencyHistogram getServiceTime() { return serviceTime; }
+    public LatencyHistogram getResponseTime() { return responseTime; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Operations issued, whatever their outcome. */
+    public long getOperationCount() {
+        long total = 0;
+        for (OperationStats stats : operations.values()) {
+            total += stats.getCompleted() + stats.getRejected() + stats.getFailed();
+        }
+        return total;
+    }
+
+    public long getFailedCount() {
+        long total = 0;
+        for (OperationStats stats : operations.values()) {
+            total += stats.getFailed();
+        }
+        return total;
+    }
+
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0.0 : getOperationCount() / (elapsedNanos / 1e9);
+    }
+
+    /** A table of counts and response-time percentiles per operation, with service-time percentiles overall. */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%d operations in %.1fs, %.0f ops/s%n", getOperationCount(), elapsedNanos / 1e9, getThroughput()));
+        out.append(String.format("%-9s %9s %9s %7s %9s %9s %9s %9s%n",
+                "op", "ok", "rejected", "failed", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<WorkloadSimulator.Op, OperationStats> e : operations.entrySet()) {
+            OperationStats s = e.getValue();
+            if (s.getCompleted() + s.getRejected() + s.getFailed() == 0) continue;
+            out.append(String.format("%-9s %9d %9d %7d %s%n", e.getKey().name().toLowerCase(), s.getCompleted(),
+                    s.getRejected(), s.getFailed(), percentiles(s.responseTime)));
+        }
+        out.append(String.format("%-37s %s%n", "all, response time", percentiles(responseTime)));
+        out.append(String.format("%-37s %s%n", "all, service time", percentiles(serviceTime)));
+        return out.toString();
+    }
+
+    static String percentiles(LatencyHistogram h) {
+        return String.format("%9.2f %9.2f %9.2f %9.2f", h.getPercentileNanos(50) / 1e6, h.getPercentileNanos(99) / 1e6,
+                h.getPercentileNanos(99.9) / 1e6, h.getMaxNanos() / 1e6);
+    }
+}
@@ -0,0 +1,244 @@
+package com.bank.sim;
+
+import com.bank.dao.BankDAO;
+import com.bank.exception.AccountException;
+import com.bank.metrics.LatencyHistogram;
+import com.bank.model.Money;
+
+import java.io.PrintStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a {@link BankDAO} with a synthetic production-like workload.
+ * <p>
+ * {@link #setUp()} creates the users and accounts through the DAO and funds every account with
+ * its opening balance. {@link #run()} then issues a weighted mix of deposits, withdrawals,
+ * transfers, logins and history reads, choosing accounts (and users) with Zipfian skew so a few
+ * of them are hot, either at a target rate or from a fixed number of clients (see
+ * {@link WorkloadConfig}). Every report interval a line with that interval's throughput and
+ * latency is printed; {@link WorkloadReport} holds the totals. The simulator keeps track of the
+ * money it moved in and out, so {@link InvariantChecker} can tell whether any was created or lost.
+ */
+public class WorkloadSimulator {
+
+    public enum Op { DEPOSIT, WITHDRAW, TRANSFER, LOGIN, HISTORY }
+
+    private static final String PASSWORD = "soak-password";
+    private static final int HISTORY_PAGE_SIZE = 20;
+
+    private final BankDAO dao;
+    private final WorkloadConfig config;
+    private final PrintStream out;
+    private final String usernamePrefix;
+    private final List<String> usernames = new ArrayList<>();
+    private final List<Integer> accounts = new ArrayList<>();
+    private final Op[] mix;
+    private final LongAdder fundedCents = new LongAdder();
+    private final LongAdder depositedCents = new LongAdder();
+    private final LongAdder withdrawnCents = new LongAdder();
+    /** Failed movements that may or may not have been applied. */
+    private final LongAdder uncertainMovements = new LongAdder();
+
+    public WorkloadSimulator(BankDAO dao, WorkloadConfig config) {
+        this(dao, config, System.out);
+    }
+
+    public WorkloadSimulator(BankDAO dao, WorkloadConfig config, PrintStream out) {
+        config.validate();
+        this.dao = dao;
+        this.config = config;
+        this.out = out;
+        this.usernamePrefix = "sim" + Long.toString(System.nanoTime() & 0xffffff, 36) + "-";
+        this.mix = buildMix(config);
+    }
+
+    /** Creates the simulated users and accounts and funds each account. */
+    public void setUp() throws SQLException, AccountException {
+        for (int u = 0; u < config.getUsers(); u++) {
+            String username = usernamePrefix + u;
+            int userId = dao.createUser(username, PASSWORD, "Sim", "User" + u);
+            usernames.add(username);
+            for (int a = 0; a < config.getAccountsPerUser(); a++) {
+                int accountId = dao.createAccount(userId, a % 2 == 0 ? "Current" : "Savings").getAccountId();
+                accounts.add(accountId);
+                if (config.getOpeningBalance().isPositive()) {
+                    dao.deposit(accountId, config.getOpeningBalance());
+                    fundedCents.add(config.getOpeningBalance().getCents());
+                }
+            }
+        }
+    }
+
+    /** Runs the workload for the configured duration and returns its report. */
+    public WorkloadReport run() throws InterruptedException {
+        if (accounts.isEmpty()) {
+            throw new IllegalStateException("Call setUp() first.");
+        }
+        WorkloadReport report = new WorkloadReport();
+        AtomicReference<LatencyHistogram> interval = new AtomicReference<>(new LatencyHistogram());
+        ZipfGenerator accountPicker = new ZipfGenerator(accounts.size(), config.getZipfExponent());
+        ZipfGenerator userPicker = new ZipfGenerator(usernames.size(), config.getZipfExponent());
+        AtomicLong tickets = new AtomicLong();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.MILLISECONDS.toNanos(config.getDurationMillis());
+        double nanosPerOperation = config.isOpenModel() ? 1e9 / config.getTargetRate() : 0;
+        long expectedIntervalNanos = TimeUnit.MICROSECONDS.toNanos(config.getExpectedIntervalMicros());
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "workload-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        long reportMillis = config.getReportIntervalMillis();
+        reporter.scheduleAtFixedRate(() -> {
+            LatencyHistogram last = interval.getAndSet(new LatencyHistogram());
+            out.printf("[%6.1fs] %8.0f ops/s  p50 %7.2fms  p99 %7.2fms  p99.9 %7.2fms  max %7.2fms%n",
+                    (System.nanoTime() - start) / 1e9, last.getCount() * 1000.0 / reportMillis,
+                    last.getPercentileNanos(50) / 1e6, last.getPercentileNanos(99) / 1e6,
+                    last.getPercentileNanos(99.9) / 1e6, last.getMaxNanos() / 1e6);
+        }, reportMillis, reportMillis, TimeUnit.MILLISECONDS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(config.getThreads());
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int c = 0; c < config.getThreads(); c++) {
+                SplittableRandom random = new SplittableRandom(config.getSeed() * 31 + c);
+                done.add(clients.submit(() -> {
+                    while (true) {
+                        long intended;
+                        if (config.isOpenModel()) {
+                            intended = start + (long) (tickets.getAndIncrement() * nanosPerOperation);
+                            if (intended >= end) return null;
+                            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            }
+                        } else {
+                            intended = System.nanoTime();
+                            if (intended >= end) return null;
+                        }
+                        long issued = System.nanoTime();
+                        Op op = mix[random.nextInt(mix.length)];
+                        execute(op, random, accountPicker, userPicker, report);
+                        long finished = System.nanoTime();
+                        long service = finished - issued;
+                        if (config.isOpenModel()) {
+                            record(report, interval.get(), op, service, finished - intended);
+                        } else {
+                            record(report, interval.get(), op, service, service);
+                            // Back-fill the operations this client would have issued while it waited.
+                            if (expectedIntervalNanos > 0) {
+                                for (long missed = service - expectedIntervalNanos; missed >= expectedIntervalNanos;
+                                     missed -= expectedIntervalNanos) {
+                                    report.getResponseTime().record(missed);
+                                    report.get(op).getResponseTime().record(missed);
+                                    interval.get().record(missed);
+                                }
+                            }
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : done) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Workload client failed.", e.getCause());
+                }
+            }
+        } finally {
+            clients.shutdownNow();
+            reporter.shutdownNow();
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+        return report;
+    }
+
+    /** Prefix of every simulated username, which is how {@link InvariantChecker} finds their accounts. */
+    public String getUsernamePrefix() { return usernamePrefix; }
+
+    public List<Integer> getAccountIds() { return List.copyOf(accounts); }
+
+    /** Opening balances plus deposits minus withdrawals that succeeded. */
+    public long getExpectedTotalCents() {
+        return fundedCents.sum() + depositedCents.sum() - withdrawnCents.sum();
+    }
+
+    /** Movements that failed with an error, so the expected total cannot account for them. */
+    public long getUncertainMovementCount() { return uncertainMovements.sum(); }
+
+    // --- Internals ---
+    private void execute(Op op, SplittableRandom random, ZipfGenerator accountPicker, ZipfGenerator userPicker,
+                         WorkloadReport report) {
+        WorkloadReport.OperationStats stats = report.get(op);
+        Money amount = Money.ofCents(1 + random.nextLong(config.getMaxAmountCents()));
+        int account = accounts.get(accountPicker.next(random));
+        try {
+            switch (op) {
+                case DEPOSIT:
+                    dao.deposit(account, amount);
+                    depositedCents.add(amount.getCents());
+                    break;
+                case WITHDRAW:
+                    dao.withdraw(account, amount);
+                    withdrawnCents.add(amount.getCents());
+                    break;
+                case TRANSFER:
+                    int to = account;
+                    while (to == account) {
+                        to = accounts.get(accountPicker.next(random));
+                    }
+                    dao.transfer(account, to, amount);
+                    break;
+                case LOGIN:
+                    if (dao.login(usernames.get(userPicker.next(random)), PASSWORD) == null) {
+                        throw new SQLException("Login was refused.");
+                    }
+                    break;
+                case HISTORY:
+                    dao.getTransactionHistory(account, null, HISTORY_PAGE_SIZE);
+                    break;
+            }
+            stats.completed.increment();
+        } catch (AccountException e) {
+            stats.rejected.increment();
+        } catch (SQLException | RuntimeException e) {
+            stats.failed.increment();
+            if (op == Op.DEPOSIT || op == Op.WITHDRAW) {
+                uncertainMovements.increment();
+            }
+            if (stats.getFailed() <= 5) {
+                out.println("Simulated " + op.name().toLowerCase() + " failed: " + e);
+            }
+        }
+    }
+
+    private static void record(WorkloadReport report, LatencyHistogram interval, Op op, long service, long response) {
+        report.record(op, service, response);
+        interval.record(response);
+    }
+
+    /** One entry per unit of weight, so a uniform draw from the array follows the mix. */
+    private static Op[] buildMix(WorkloadConfig config) {
+        List<Op> mix = new ArrayList<>();
+        int[] weights = {config.getDepositWeight(), config.getWithdrawWeight(), config.getTransferWeight(),
+                config.getLoginWeight(), config.getHistoryWeight()};
+        for (Op op : Op.values()) {
+            for (int i = 0; i < weights[op.ordinal()]; i++) {
+                mix.add(op);
+            }
+        }
+        return mix.toArray(new Op[0]);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bank.sim;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.ledger.LedgerBankDAO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class WorkloadSimulatorTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void closedModelKeepsTheInvariants() throws Exception {
+        ConnectionPool pool = TestDatabase.newPool();
+        try {
+            ByteArrayOutputStream log = new ByteArrayOutputStream();
+            WorkloadSimulator simulator = new WorkloadSimulator(new JdbcBankDAO(pool), smallWorkload()
+                    .setThreads(8).setDurationMillis(1500), new PrintStream(log, true));
+            simulator.setUp();
+            WorkloadReport report = simulator.run();
+
+            assertEquals(0, report.getFailedCount(), log.toString());
+            assertTrue(report.get(WorkloadSimulator.Op.TRANSFER).getCompleted() > 0);
+            assertTrue(report.get(WorkloadSimulator.Op.LOGIN).getCompleted() > 0);
+            assertTrue(log.toString().contains("ops/s"), "interval lines are printed");
+            assertEquals(List.of(), InvariantChecker.check(pool, simulator.getUsernamePrefix(), simulator.getExpectedTotalCents()));
+
+            // Money appearing out of nowhere breaks the total and the account's transaction chain.
+            int account = simulator.getAccountIds().get(0);
+            try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE accounts SET balance = balance + 1 WHERE account_id = " + account);
+            }
+            List<String> violations = InvariantChecker.check(pool, simulator.getUsernamePrefix(), simulator.getExpectedTotalCents());
+            assertEquals(2, violations.size(), violations.toString());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void ledgerKeepsTheInvariantsOnceProjected() throws Exception {
+        ConnectionPool pool = TestDatabase.newPool();
+        try (LedgerBankDAO dao = new LedgerBankDAO(pool, dir.resolve("ledger.journal"))) {
+            WorkloadSimulator simulator = new WorkloadSimulator(dao, smallWorkload().setDurationMillis(1000),
+                    new PrintStream(new ByteArrayOutputStream()));
+            simulator.setUp();
+            WorkloadReport report = simulator.run();
+            assertEquals(0, report.getFailedCount());
+            assertTrue(dao.awaitProjection(10_000));
+            assertEquals(List.of(), InvariantChecker.check(pool, simulator.getUsernamePrefix(), simulator.getExpectedTotalCents()));
+        } finally {
+            pool.close();
+        }
+    }
+
+    /**
+     * Offers twice what a 4-connection database with 5ms round trips can serve. Measured from when
+     * each operation was due, the backlog shows up in the latencies; measured from when it was
+     * finally issued, it does not.
+     */
+    @Test
+    @Tag("benchmark")
+    public void openModelCountsTimeSpentBehindSchedule() throws Exception {
+        ConnectionPool pool = TestDatabase.newSlowPool(5, 4);
+        try {
+            WorkloadSimulator simulator = new WorkloadSimulator(new JdbcBankDAO(pool), smallWorkload()
+                    .setMix(0, 0, 0, 0, 1).setThreads(4).setTargetRate(1600).setDurationMillis(1000),
+                    new PrintStream(new ByteArrayOutputStream()));
+            simulator.setUp();
+            WorkloadReport report = simulator.run();
+            long service = report.getServiceTime().getPercentileNanos(99);
+            long response = report.getResponseTime().getPercentileNanos(99);
+            assertTrue(response > 5 * service, "response p99 " + response + "ns, service p99 " + service + "ns");
+            assertFalse(report.getThroughput() > 1000, "the database cannot keep up with the offered rate");
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static WorkloadConfig smallWorkload() {
+        return new WorkloadConfig().setUsers(20).setReportIntervalMillis(500).setSeed(7);
+    }
+}
@@ -0,0 +1,269 @@
+package com.bank.summary;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.bank.TestDatabase;
+import com.bank.config.ConnectionPool;
+import com.bank.dao.JdbcBankDAO;
+import com.bank.ledger.LedgerBankDAO;
+import com.bank.ledger.LedgerCommand;
+import com.bank.ledger.LedgerEngine;
+import com.bank.ledger.LedgerEvent;
+import com.bank.ledger.LedgerJournal;
+import com.bank.model.ActivitySummary;
+import com.bank.model.ActivitySummary.Flow;
+import com.bank.model.Money;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class DailySummaryJobTest {
+    private static final LocalDate DAY1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY2 = DAY1.plusDays(1);
+    private static final LocalDate DAY3 = DAY1.plusDays(2);
+
+    @Test
+    public void summarizesEachDayOfEachAccount() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("summaries", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            int b = dao.createAccount(user, "Savings").getAccountId();
+            dao.deposit(a, Money.parse("100.00"));
+            dao.deposit(a, Money.parse("50.00"));
+            moveTo(pool, DAY1);
+            dao.withdraw(a, Money.parse("20.00"));
+            dao.transfer(a, b, Money.parse("30.00"));
+            moveTo(pool, DAY2);
+            dao.transfer(b, a, Money.parse("5.00"));
+            moveTo(pool, DAY3);
+
+            assertEquals(7, new DailySummaryJob(pool, 3, 0).run());
+            List<ActivitySummary> days = dao.getDailySummaries(a, DAY1, DAY3);
+            assertEquals(3, days.size());
+            assertDay(days.get(0), DAY1, "0.00", "150.00", Flow.DEPOSIT, 2, "150.00");
+            assertDay(days.get(1), DAY2, "150.00", "100.00", Flow.WITHDRAWAL, 1, "20.00");
+            assertEquals(1, days.get(1).getCount(Flow.TRANSFER_OUT));
+            assertEquals(Money.parse("30.00"), days.get(1).getTotal(Flow.TRANSFER_OUT));
+            assertDay(days.get(2), DAY3, "100.00", "105.00", Flow.TRANSFER_IN, 1, "5.00");
+
+            List<ActivitySummary> savings = dao.getDailySummaries(b, DAY1, DAY3);
+            assertEquals(2, savings.size());
+            assertDay(savings.get(0), DAY2, "0.00", "30.00", Flow.TRANSFER_IN, 1, "30.00");
+            assertDay(savings.get(1), DAY3, "30.00", "25.00", Flow.TRANSFER_OUT, 1, "5.00");
+
+            ActivitySummary period = dao.getActivitySummary(a, DAY2, DAY3.plusDays(10));
+            assertEquals(Money.parse("150.00"), period.getOpeningBalance());
+            assertEquals(Money.parse("105.00"), period.getClosingBalance());
+            assertEquals(3, period.getTransactionCount());
+            assertEquals(DAY3.plusDays(10), period.getLastDate());
+
+            ActivitySummary quiet = dao.getActivitySummary(a, DAY3.plusDays(1), DAY3.plusDays(5));
+            assertEquals(Money.parse("105.00"), quiet.getOpeningBalance());
+            assertEquals(Money.parse("105.00"), quiet.getClosingBalance());
+            assertEquals(0, quiet.getTransactionCount());
+        }
+    }
+
+    @Test
+    public void answersFromTheLogUntilTheJobCatchesUp() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("pending", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            dao.deposit(a, Money.parse("10.00"));
+            moveTo(pool, DAY1);
+            DailySummaryJob job = new DailySummaryJob(pool, 100, 0);
+            job.run();
+
+            // Same day as the summarized deposit, then the next: one summary row is continued, one is new.
+            dao.deposit(a, Money.parse("2.50"));
+            dao.withdraw(a, Money.parse("1.00"));
+            moveTo(pool, DAY1);
+            dao.deposit(a, Money.parse("7.00"));
+            moveTo(pool, DAY2);
+
+            List<ActivitySummary> before = dao.getDailySummaries(a, DAY1, DAY2);
+            assertEquals(1, summaryRows(pool, a));
+            assertEquals(2, before.size());
+            assertDay(before.get(0), DAY1, "0.00", "11.50", Flow.DEPOSIT, 2, "12.50");
+            assertDay(before.get(1), DAY2, "11.50", "18.50", Flow.DEPOSIT, 1, "7.00");
+
+            assertEquals(3, job.run());
+            assertEquals(2, summaryRows(pool, a));
+            List<ActivitySummary> after = dao.getDailySummaries(a, DAY1, DAY2);
+            assertEquals(before.toString(), after.toString());
+            assertEquals(0, job.run());
+        }
+    }
+
+    /** A year of three movements a day becomes 365 summary rows, and the statement reads nothing else. */
+    @Test
+    public void yearlyStatementReadsOneRowPerDay() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("yearly", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            LocalDate first = LocalDate.of(2023, 1, 1);
+            for (int day = 0; day < 365; day++) {
+                dao.deposit(a, Money.parse("3.00"));
+                dao.deposit(a, Money.parse("2.00"));
+                dao.withdraw(a, Money.parse("1.00"));
+                moveTo(pool, first.plusDays(day));
+            }
+            new DailySummaryJob(pool, 250, 0).run();
+            assertEquals(365, summaryRows(pool, a));
+
+            // With the log emptied, the statement can only have come from the summaries.
+            execute(pool, "DELETE FROM transactions WHERE account_id = " + a);
+            ActivitySummary year = dao.getActivitySummary(a, first, LocalDate.of(2023, 12, 31));
+            assertEquals(Money.ZERO, year.getOpeningBalance());
+            assertEquals(Money.parse("1460.00"), year.getClosingBalance());
+            assertEquals(730, year.getCount(Flow.DEPOSIT));
+            assertEquals(Money.parse("1825.00"), year.getTotal(Flow.DEPOSIT));
+            assertEquals(Money.parse("365.00"), year.getTotal(Flow.WITHDRAWAL));
+        }
+    }
+
+    /** Transactions are only summarized once the horizon above them has settled, however they are dated. */
+    @Test
+    public void leavesUnsettledTransactionsForLater() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("settle", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            dao.deposit(a, Money.parse("1.00"));
+            moveTo(pool, DAY1);
+            dao.deposit(a, Money.parse("2.00"));
+
+            DailySummaryJob job = new DailySummaryJob(pool, 100, 300);
+            assertEquals(0, job.run());
+            assertEquals(0, job.run());
+            assertEquals(Money.parse("3.00"), dao.getActivitySummary(a, DAY1, LocalDate.now()).getClosingBalance());
+
+            Thread.sleep(350);
+            assertEquals(2, job.run());
+            assertEquals(2, summaryRows(pool, a));
+            assertEquals(Money.parse("3.00"), dao.getActivitySummary(a, DAY1, LocalDate.now()).getClosingBalance());
+        }
+    }
+
+    /**
+     * The ledger projection dates rows when the movement happened. Replaying a journal after the
+     * job has run inserts rows above its checkpoint that are older than what it summarized last.
+     */
+    @Test
+    public void includesOldDatedRowsProjectedAfterARun(@TempDir Path dir) throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("projected", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            int b = dao.createAccount(user, "Current").getAccountId();
+            Path journalFile = dir.resolve("ledger.journal");
+            LedgerEngine.EventSink lost = new LedgerEngine.EventSink() {
+                @Override public long lastSequence() { return 0; }
+                @Override public void accept(List<LedgerEvent> events) { }
+            };
+            try (LedgerEngine engine = new LedgerEngine(new LedgerJournal(journalFile), lost)) {
+                engine.executeAll(List.of(LedgerCommand.open(a, 0), LedgerCommand.deposit(a, 1_000, null)));
+            }
+            Thread.sleep(20);
+            dao.deposit(b, Money.parse("5.00"));
+            DailySummaryJob job = new DailySummaryJob(pool, 100, 0);
+            assertEquals(1, job.run());
+
+            try (LedgerBankDAO ledger = new LedgerBankDAO(pool, journalFile)) {
+                assertTrue(ledger.awaitProjection(5_000));
+            }
+            LocalDate today = LocalDate.now();
+            List<ActivitySummary> days = dao.getDailySummaries(a, today.minusDays(1), today);
+            assertEquals(1, days.size());
+            assertEquals(Money.parse("10.00"), days.get(0).getClosingBalance());
+            assertEquals(1, days.get(0).getCount(Flow.DEPOSIT));
+
+            assertEquals(1, job.run());
+            assertEquals(days.toString(), dao.getDailySummaries(a, today.minusDays(1), today).toString());
+        }
+    }
+
+    /**
+     * A row inserted after later days were summarized, but dated before them, counts on its own
+     * day, whose closing balance becomes the one that row left, as a point-in-time balance says.
+     */
+    @Test
+    public void countsABackdatedRowOnTheDayItIsDated() throws Exception {
+        try (ConnectionPool pool = TestDatabase.newPool()) {
+            JdbcBankDAO dao = new JdbcBankDAO(pool);
+            int user = dao.createUser("backdated", "password", "Daily", "Summary");
+            int a = dao.createAccount(user, "Current").getAccountId();
+            int b = dao.createAccount(user, "Savings").getAccountId();
+            dao.deposit(a, Money.parse("10.00"));
+            moveTo(pool, DAY1);
+            dao.deposit(a, Money.parse("5.00"));
+            moveTo(pool, DAY2);
+            DailySummaryJob job = new DailySummaryJob(pool, 100, 0);
+            assertEquals(2, job.run());
+
+            dao.transfer(a, b, Money.parse("3.00"));
+            moveTo(pool, DAY1);
+            List<ActivitySummary> before = dao.getDailySummaries(a, DAY1, DAY2);
+            assertEquals(2, before.size());
+            assertDay(before.get(0), DAY1, "0.00", "12.00", Flow.TRANSFER_OUT, 1, "3.00");
+            assertEquals(1, before.get(0).getCount(Flow.DEPOSIT));
+            assertDay(before.get(1), DAY2, "12.00", "15.00", Flow.DEPOSIT, 1, "5.00");
+            assertEquals(0, before.get(1).getCount(Flow.TRANSFER_OUT));
+            assertEquals(Money.parse("12.00"), dao.getBalanceAsOf(a, Timestamp.valueOf(DAY2.atStartOfDay())));
+
+            assertEquals(2, job.run());
+            assertEquals(2, summaryRows(pool, a));
+            assertEquals(before.toString(), dao.getDailySummaries(a, DAY1, DAY2).toString());
+            List<ActivitySummary> savings = dao.getDailySummaries(b, DAY1, DAY2);
+            assertEquals(1, savings.size());
+            assertDay(savings.get(0), DAY1, "0.00", "3.00", Flow.TRANSFER_IN, 1, "3.00");
+        }
+    }
+
+    private static void assertDay(ActivitySummary day, LocalDate date, String opening, String closing,
+                                  Flow flow, int count, String total) {
+        assertEquals(date, day.getFirstDate());
+        assertEquals(Money.parse(opening), day.getOpeningBalance(), day.toString());
+        assertEquals(Money.parse(closing), day.getClosingBalance(), day.toString());
+        assertEquals(count, day.getCount(flow), day.toString());
+        assertEquals(Money.parse(total), day.getTotal(flow), day.toString());
+    }
+
+    /** Dates every transaction that is still dated today at noon on {@code day}. */
+    private static void moveTo(ConnectionPool pool, LocalDate day) throws Exception {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "UPDATE transactions SET transaction_date = ? WHERE transaction_date >= ?")) {
+            pstmt.setTimestamp(1, Timestamp.valueOf(day.atTime(12, 0)));
+            pstmt.setTimestamp(2, Timestamp.valueOf(LocalDate.now().atStartOfDay()));
+            pstmt.executeUpdate();
+        }
+    }
+
+    private static int summaryRows(ConnectionPool pool, int accountId) throws Exception {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM daily_summaries WHERE account_id = " + accountId)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void execute(ConnectionPool pool, String sql) throws Exception {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate(sql);
+        }
+    }
+}